@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.dom.Element;
+import org.junit.Test;
+
+public class NamePoolTest {
+
+	@Test
+	public void shouldReturnSameInstanceForEqualNames() throws Exception {
+		final QualifiedName name = NamePool.intern("http://namespace", "name");
+		assertSame(name, NamePool.intern(new String("http://namespace"), new String("name")));
+		assertSame(name, NamePool.intern(new QualifiedName("http://namespace", "name")));
+		assertEquals(new QualifiedName("http://namespace", "name"), name);
+	}
+
+	@Test
+	public void shouldDistinguishQualifiers() throws Exception {
+		final QualifiedName name = NamePool.intern(null, "name");
+		assertNotSame(name, NamePool.intern("http://namespace", "name"));
+		assertNull(name.getQualifier());
+	}
+
+	@Test
+	public void shouldInternStrings() throws Exception {
+		final QualifiedName name = NamePool.intern(new String("http://namespace"), new String("name"));
+		assertSame("http://namespace", name.getQualifier());
+		assertSame("name", name.getLocalName());
+	}
+
+	@Test
+	public void elementsAndAttributesShouldUsePooledNames() throws Exception {
+		final Element element = new Element(new QualifiedName("http://namespace", "element"));
+		element.setAttribute(new QualifiedName(null, "attribute"), "value");
+
+		assertSame(NamePool.intern("http://namespace", "element"), element.getQualifiedName());
+		assertSame(NamePool.intern(null, "attribute"), element.getAttribute("attribute").getQualifiedName());
+	}
+
+	@Test
+	public void shouldKeepNamesWhenGrowing() throws Exception {
+		final QualifiedName[] names = new QualifiedName[1000];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = NamePool.intern("http://growing", "name" + i);
+		}
+		for (int i = 0; i < names.length; i++) {
+			assertSame(names[i], NamePool.intern("http://growing", "name" + i));
+		}
+	}
+
+	@Test
+	public void concurrentThreadsShouldGetSameInstances() throws Exception {
+		final QualifiedName[][] names = new QualifiedName[4][500];
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final Thread[] threads = new Thread[names.length];
+		for (int i = 0; i < threads.length; i++) {
+			final QualifiedName[] namesOfThread = names[i];
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < namesOfThread.length; j++) {
+							namesOfThread[j] = NamePool.intern("http://concurrent", "name" + j);
+						}
+					} catch (final Throwable t) {
+						failure.compareAndSet(null, t);
+					}
+				}
+			};
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+		for (int i = 1; i < names.length; i++) {
+			for (int j = 0; j < names[i].length; j++) {
+				assertSame(names[0][j], names[i][j]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.dom.Document;
+import org.eclipse.vex.core.provisional.dom.IDocument;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AncestorFilterTest {
+
+	private IDocument document;
+	private IElement root;
+	private IElement child;
+
+	@Before
+	public void setUp() throws Exception {
+		document = new Document(new QualifiedName(null, "root"));
+		root = document.getRootElement();
+		child = document.insertElement(root.getEndOffset(), new QualifiedName(null, "child"));
+		child.setAttribute("class", "foo bar");
+	}
+
+	@Test
+	public void shouldContainNamesAndClassesOfAddedNodes() throws Exception {
+		final AncestorFilter filter = AncestorFilter.EMPTY.with(document).with(root).with(child);
+		assertTrue(filter.mightContain(AncestorFilter.nameKey("root")));
+		assertTrue(filter.mightContain(AncestorFilter.nameKey("child")));
+		assertTrue(filter.mightContain(AncestorFilter.classKey("foo")));
+		assertTrue(filter.mightContainAll(new int[] { AncestorFilter.nameKey("root"), AncestorFilter.classKey("bar") }));
+	}
+
+	@Test
+	public void shouldNotContainKeysOfOtherNodes() throws Exception {
+		final AncestorFilter filter = AncestorFilter.EMPTY.with(root);
+		assertFalse(filter.mightContain(AncestorFilter.nameKey("child")));
+		assertFalse(filter.mightContain(AncestorFilter.classKey("foo")));
+		assertFalse(filter.mightContainAll(new int[] { AncestorFilter.nameKey("root"), AncestorFilter.nameKey("child") }));
+	}
+
+	@Test
+	public void shouldDistinguishNamesFromClasses() throws Exception {
+		final AncestorFilter filter = AncestorFilter.EMPTY.with(child);
+		assertFalse(filter.mightContain(AncestorFilter.classKey("child")));
+		assertFalse(filter.mightContain(AncestorFilter.nameKey("foo")));
+	}
+
+	@Test
+	public void givenNodeWithoutNewKeys_shouldReturnSameFilter() throws Exception {
+		final AncestorFilter filter = AncestorFilter.EMPTY.with(root);
+		assertSame(filter, filter.with(root));
+		assertSame(AncestorFilter.EMPTY, AncestorFilter.EMPTY.with(document));
+	}
+}
@@ -35,7 +35,7 @@ public class BatikBehaviorTest {
 		assertEquals(1, rules.size());
 		final Rule rule = rules.get(0);
 		final Element element = new Element("plan");
-		// The rule should match the parent of the pseudo element. See StyleSheet#getApplicableDeclarations
+		// The rule should match the parent of the pseudo element. See Cascade
 		assertTrue(rule.matches(element));
 		final IElement before = styleSheet.getPseudoElement(element, "before", false);
 		final Styles beforeStyles = styleSheet.getStyles(before);
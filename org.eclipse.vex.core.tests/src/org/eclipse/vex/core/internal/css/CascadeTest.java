@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CascadeTest {
+
+	@Test
+	public void moreSpecificDeclarationShouldWin() throws Exception {
+		final Cascade cascade = createCascade("section para { color: blue; } para { color: red; }");
+		cascade.addRule(0);
+		cascade.addRule(1);
+
+		assertValue("blue", cascade, Cascade.NODE, CSS.COLOR);
+	}
+
+	@Test
+	public void givenSameSpecificity_laterDeclarationShouldWin() throws Exception {
+		final Cascade cascade = createCascade("para { color: red; } para { color: blue; color: green; }");
+		cascade.addRule(1);
+		cascade.addRule(0);
+
+		assertValue("green", cascade, Cascade.NODE, CSS.COLOR);
+	}
+
+	@Test
+	public void importantDeclarationShouldWinOverMoreSpecificDeclaration() throws Exception {
+		final Cascade cascade = createCascade("para { color: red !important; } section para { color: blue; }");
+		cascade.addRule(0);
+		cascade.addRule(1);
+
+		assertValue("red", cascade, Cascade.NODE, CSS.COLOR);
+	}
+
+	@Test
+	public void styleSheetDeclarationShouldWinOverCoreDeclaration() throws Exception {
+		final Cascade cascade = createCascade("section para { color: red; }", "para { color: blue; }");
+		cascade.addCoreRule(0);
+		cascade.addRule(0);
+
+		assertValue("blue", cascade, Cascade.NODE, CSS.COLOR);
+	}
+
+	@Test
+	public void importantCoreDeclarationShouldWinOverStyleSheetDeclaration() throws Exception {
+		final Cascade cascade = createCascade("para { color: red !important; }", "section para { color: blue; }");
+		cascade.addCoreRule(0);
+		cascade.addRule(0);
+
+		assertValue("red", cascade, Cascade.NODE, CSS.COLOR);
+	}
+
+	@Test
+	public void shouldKeepDeclarationsOfPseudoElementsApart() throws Exception {
+		final Cascade cascade = createCascade("para:before { color: red; } para { font-style: italic; }");
+		cascade.addRule(0);
+		cascade.addRule(1);
+
+		assertEquals(2, cascade.getPseudoElementCount());
+		assertNull(cascade.getPseudoElementName(Cascade.NODE));
+		assertEquals("before", cascade.getPseudoElementName(1));
+		assertTrue(cascade.hasDeclarations(1));
+		assertValue("red", cascade, 1, CSS.COLOR);
+		assertNull(cascade.getValue(1, cascade.getPropertyIndex(CSS.FONT_STYLE)));
+		assertValue("italic", cascade, Cascade.NODE, CSS.FONT_STYLE);
+		assertNull(cascade.getValue(Cascade.NODE, cascade.getPropertyIndex(CSS.COLOR)));
+	}
+
+	@Test
+	public void whenCleared_shouldForgetDeclarations() throws Exception {
+		final Cascade cascade = createCascade("para:before { color: red; } para { color: blue; }");
+		cascade.addRule(0);
+		cascade.addRule(1);
+		cascade.clear();
+
+		assertFalse(cascade.hasDeclarations(Cascade.NODE));
+		assertFalse(cascade.hasDeclarations(1));
+		assertNull(cascade.getValue(Cascade.NODE, cascade.getPropertyIndex(CSS.COLOR)));
+		assertNull(cascade.getValue(1, cascade.getPropertyIndex(CSS.COLOR)));
+	}
+
+	@Test
+	public void givenPropertyNames_shouldAssignFirstIndices() throws Exception {
+		final Cascade cascade = createCascade("para { color: red; font-style: italic; }");
+		final Cascade cascadeWithNames = new Cascade(Collections.<Rule> emptyList(), readRules("para { color: red; }"), CSS.FONT_STYLE, CSS.DISPLAY);
+
+		assertEquals(0, cascade.getPropertyIndex(CSS.COLOR));
+		assertEquals(0, cascadeWithNames.getPropertyIndex(CSS.FONT_STYLE));
+		assertEquals(1, cascadeWithNames.getPropertyIndex(CSS.DISPLAY));
+		assertEquals(2, cascadeWithNames.getPropertyIndex(CSS.COLOR));
+		assertEquals(-1, cascadeWithNames.getPropertyIndex(CSS.WIDTH));
+		assertNull(cascadeWithNames.getValue(Cascade.NODE, -1));
+	}
+
+	private static Cascade createCascade(final String css) throws Exception {
+		return new Cascade(Collections.<Rule> emptyList(), readRules(css));
+	}
+
+	private static Cascade createCascade(final String coreCss, final String css) throws Exception {
+		return new Cascade(readRules(coreCss), readRules(css));
+	}
+
+	private static List<Rule> readRules(final String css) throws Exception {
+		return new StyleSheetReader().read(css).getRules();
+	}
+
+	private static void assertValue(final String expected, final Cascade cascade, final int pseudoElement, final String propertyName) {
+		assertEquals(expected, cascade.getValue(pseudoElement, cascade.getPropertyIndex(propertyName)).getStringValue());
+	}
+}
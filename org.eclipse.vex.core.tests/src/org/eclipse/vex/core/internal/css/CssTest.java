@@ -563,6 +563,21 @@ public class CssTest {
 		assertEquals(new Color(0x01, 0x23, 0x45), styles.get("color"));
 	}
 
+	@Test
+	public void testDisplayAndWhiteSpaceValues() throws Exception {
+		final StyleSheet styleSheet = new StyleSheetReader().read("table { display: table; white-space: pre; } cell { display: table-cell; } para { display: inherit; }");
+		final Document document = new Document(new QualifiedName(null, "table"));
+		final IElement cell = document.insertElement(document.getRootElement().getEndOffset(), new QualifiedName(null, "cell"));
+		final IElement para = document.insertElement(cell.getEndOffset(), new QualifiedName(null, "para"));
+
+		assertEquals(DisplayProperty.Value.TABLE, styleSheet.getStyles(document.getRootElement()).getDisplayValue());
+		assertEquals(DisplayProperty.Value.TABLE_CELL, styleSheet.getStyles(cell).getDisplayValue());
+		assertEquals(CSS.TABLE_CELL, styleSheet.getStyles(cell).getDisplay());
+		assertEquals(DisplayProperty.Value.TABLE_CELL, styleSheet.getStyles(para).getDisplayValue());
+		assertEquals(WhiteSpaceProperty.Value.PRE, styleSheet.getStyles(para).getWhiteSpaceValue());
+		assertEquals(CSS.PRE, styleSheet.getStyles(para).getWhiteSpace());
+	}
+
 	private StyleSheet parseStyleSheetResource(final String resource) throws java.io.IOException {
 
 		final URL url = this.getClass().getResource(resource);
@@ -135,6 +135,23 @@ public class PropertyTest {
 		assertEquals(300f, lexicalUnit.getFloatValue(), 0f);
 	}
 
+	@Test
+	public void testPutAndGetValues() throws Exception {
+		final Styles styles = new Styles();
+
+		styles.put(CSS.FONT_SIZE, 12.0f);
+		styles.put(CSS.DISPLAY, CSS.LIST_ITEM);
+		styles.put("x-unknown-property", "value");
+
+		assertEquals(12.0f, styles.getFontSize(), 0.0f);
+		assertEquals(12.0f, styles.get(CSS.FONT_SIZE));
+		assertEquals(CSS.LIST_ITEM, styles.getDisplay());
+		assertEquals(DisplayProperty.Value.LIST_ITEM, styles.getDisplayValue());
+		assertEquals("value", styles.get("x-unknown-property"));
+		assertNull(styles.get(CSS.WHITE_SPACE));
+		assertNull(styles.get("x-other-property"));
+	}
+
 	@Test
 	public void testOutlineContentProperty() throws Exception {
 		final Styles styles = new Styles();
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.core.DisplayDevice;
+import org.eclipse.vex.core.internal.dom.Document;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.eclipse.vex.core.provisional.dom.IParent;
+
+/**
+ * A microbenchmark for the rule matching of a style sheet, comparing the match of all rules against every node with
+ * the match of the rules found by RuleIndex, and measuring the calculation of the styles of all nodes with a fresh
+ * style sheet. The style sheets are the DocBook and DITA style sheets of the Vex bundles, applied to a generated
+ * document of the matching type. This is not part of the test suite, run it as a Java application with the
+ * org.eclipse.vex.core.tests project as working directory, or pass the paths of other style sheets as arguments.
+ */
+public class RuleIndexBenchmark {
+
+	private static final String[] STYLE_SHEETS = { "../org.eclipse.vex.docbook/styles/docbook-plain.css", "../org.eclipse.vex.dita/css/topic.css", "../org.eclipse.vex.dita/css/topic_classed.css" };
+	private static final int ROUNDS = 200;
+
+	public static void main(final String[] args) throws Exception {
+		DisplayDevice.setCurrent(new MockDisplayDevice(90, 90));
+
+		for (final String path : args.length > 0 ? args : STYLE_SHEETS) {
+			final List<Rule> rules = new StyleSheetReader().read(new File(path).toURI().toURL()).getRules();
+			final Document document = path.contains("docbook") ? createDocBookDocument() : createDitaDocument(path.contains("classed"));
+			final RuleIndex ruleIndex = new RuleIndex(rules);
+			final int[] matchingRules = new int[rules.size()];
+
+			long bestAllRules = Long.MAX_VALUE;
+			long bestIndexed = Long.MAX_VALUE;
+			long bestStyles = Long.MAX_VALUE;
+			int nodeCount = 0;
+			for (int round = 0; round < ROUNDS; round++) {
+				long start = System.nanoTime();
+				nodeCount = matchAllRules(document.getRootElement(), AncestorFilter.EMPTY, rules);
+				bestAllRules = Math.min(bestAllRules, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				matchIndexedRules(document.getRootElement(), AncestorFilter.EMPTY, ruleIndex, matchingRules);
+				bestIndexed = Math.min(bestIndexed, System.nanoTime() - start);
+
+				final StyleSheet styleSheet = new StyleSheet(rules);
+				start = System.nanoTime();
+				calculateStyles(document.getRootElement(), styleSheet);
+				bestStyles = Math.min(bestStyles, System.nanoTime() - start);
+			}
+
+			System.out.printf("%s: %d rules, %d nodes; best of %d rounds: all rules %.2f ms, indexed %.2f ms, styles %.2f ms%n", new File(path).getName(), rules.size(), nodeCount, ROUNDS,
+					bestAllRules / 1e6, bestIndexed / 1e6, bestStyles / 1e6);
+		}
+	}
+
+	private static int matchAllRules(final INode node, final AncestorFilter ancestors, final List<Rule> rules) {
+		for (final Rule rule : rules) {
+			rule.matches(node, ancestors);
+		}
+		int nodeCount = 1;
+		if (node instanceof IParent) {
+			final IParent parent = (IParent) node;
+			final AncestorFilter childAncestors = ancestors.with(node);
+			for (int i = 0; i < parent.getChildNodeCount(); i++) {
+				nodeCount += matchAllRules(parent.getChildNode(i), childAncestors, rules);
+			}
+		}
+		return nodeCount;
+	}
+
+	private static void matchIndexedRules(final INode node, final AncestorFilter ancestors, final RuleIndex ruleIndex, final int[] matchingRules) {
+		ruleIndex.findMatchingRules(node, ancestors, matchingRules);
+		if (node instanceof IParent) {
+			final IParent parent = (IParent) node;
+			final AncestorFilter childAncestors = ancestors.with(node);
+			for (int i = 0; i < parent.getChildNodeCount(); i++) {
+				matchIndexedRules(parent.getChildNode(i), childAncestors, ruleIndex, matchingRules);
+			}
+		}
+	}
+
+	private static void calculateStyles(final INode node, final StyleSheet styleSheet) {
+		styleSheet.getStyles(node);
+		if (node instanceof IParent) {
+			for (final INode child : ((IParent) node).children()) {
+				calculateStyles(child, styleSheet);
+			}
+		}
+	}
+
+	private static Document createDocBookDocument() {
+		final Document document = new Document(new QualifiedName(null, "book"));
+		for (int c = 0; c < 20; c++) {
+			final IElement chapter = insertElement(document, document.getRootElement(), "chapter", null);
+			document.insertText(insertElement(document, chapter, "title", null).getEndOffset(), "Chapter");
+			for (int s = 0; s < 3; s++) {
+				final IElement section = insertElement(document, chapter, "section", null);
+				document.insertText(insertElement(document, section, "title", null).getEndOffset(), "Section");
+				for (int p = 0; p < 8; p++) {
+					final IElement para = insertElement(document, section, "para", null);
+					document.insertText(para.getEndOffset(), "Some text ");
+					document.insertText(insertElement(document, para, "emphasis", null).getEndOffset(), "emphasis");
+					document.insertText(insertElement(document, para, "link", null).getEndOffset(), "link");
+				}
+				final IElement list = insertElement(document, section, "itemizedlist", null);
+				for (int i = 0; i < 5; i++) {
+					document.insertText(insertElement(document, insertElement(document, list, "listitem", null), "para", null).getEndOffset(), "item");
+				}
+				document.insertText(insertElement(document, section, "programlisting", null).getEndOffset(), "code");
+			}
+		}
+		return document;
+	}
+
+	private static Document createDitaDocument(final boolean classed) {
+		final Document document = new Document(new QualifiedName(null, "topic"));
+		if (classed) {
+			document.getRootElement().setAttribute("class", "- topic/topic ");
+		}
+		document.insertText(insertElement(document, document.getRootElement(), "title", classed ? "title" : null).getEndOffset(), "Topic");
+		final IElement body = insertElement(document, document.getRootElement(), "body", classed ? "body" : null);
+		for (int s = 0; s < 60; s++) {
+			final IElement section = insertElement(document, body, "section", classed ? "section" : null);
+			document.insertText(insertElement(document, section, "title", classed ? "title" : null).getEndOffset(), "Section");
+			for (int p = 0; p < 8; p++) {
+				final IElement para = insertElement(document, section, "p", classed ? "p" : null);
+				document.insertText(para.getEndOffset(), "Some text ");
+				document.insertText(insertElement(document, para, "b", classed ? "b" : null).getEndOffset(), "bold");
+				document.insertText(insertElement(document, para, "xref", classed ? "xref" : null).getEndOffset(), "xref");
+			}
+			final IElement list = insertElement(document, section, "ul", classed ? "ul" : null);
+			for (int i = 0; i < 5; i++) {
+				document.insertText(insertElement(document, list, "li", classed ? "li" : null).getEndOffset(), "item");
+			}
+			document.insertText(insertElement(document, section, "codeblock", classed ? "codeblock" : null).getEndOffset(), "code");
+		}
+		return document;
+	}
+
+	private static IElement insertElement(final Document document, final IElement parent, final String localName, final String ditaClass) {
+		final IElement element = document.insertElement(parent.getEndOffset(), new QualifiedName(null, localName));
+		if (ditaClass != null) {
+			element.setAttribute("class", "- topic/" + ditaClass + " ");
+		}
+		return element;
+	}
+
+}
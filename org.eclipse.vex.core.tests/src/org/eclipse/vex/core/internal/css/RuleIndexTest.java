@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.dom.Document;
+import org.eclipse.vex.core.provisional.dom.IDocument;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.eclipse.vex.core.provisional.dom.IParent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RuleIndexTest {
+
+	private static final String STYLES = "c {} b c {} a > * {} * {} *[color] {} b[color=blue] {} *[color~=blue] {} .foo {} .foo.bar {} b.foo {} "
+			+ "*[class~=\"topic/p\"] {} c + d {} b:before {} b > d:after {} e[lang] {} b:COMMENT {} vex|comment {} b {} .foo d {} .baz d {} "
+			+ "a .bar > * {} a b:COMMENT {} e + b *[color] {} c + d {} x d {} a * * {} c + d:before {} b + e:after {}";
+
+	private IDocument document;
+	private List<Rule> rules;
+	private RuleIndex ruleIndex;
+
+	@Before
+	public void setUp() throws Exception {
+		document = new Document(new QualifiedName(null, "a"));
+		final IElement a = document.getRootElement();
+		final IElement b = document.insertElement(a.getEndOffset(), new QualifiedName(null, "b"));
+		final IElement c = document.insertElement(b.getEndOffset(), new QualifiedName(null, "c"));
+		final IElement d = document.insertElement(b.getEndOffset(), new QualifiedName(null, "d"));
+		final IElement e = document.insertElement(a.getEndOffset(), new QualifiedName(null, "e"));
+		final IElement f = document.insertElement(a.getEndOffset(), new QualifiedName(null, "b"));
+		document.insertComment(b.getEndOffset());
+		document.insertText(e.getEndOffset(), "text");
+
+		b.setAttribute("class", "foo bar foo");
+		c.setAttribute("color", "red blue");
+		d.setAttribute("class", "topic/p");
+		e.setAttribute("lang", "en");
+		f.setAttribute("color", "blue");
+
+		rules = new StyleSheetReader().read(STYLES).getRules();
+		ruleIndex = new RuleIndex(rules);
+	}
+
+	@Test
+	public void shouldFindSameRulesAsMatchingAllRules() throws Exception {
+		assertMatchingRulesInSubtree(document.getRootElement());
+	}
+
+	@Test
+	public void givenAncestorFilter_shouldFindSameRulesAsMatchingAllRules() throws Exception {
+		assertMatchingRulesInSubtree(document.getRootElement(), AncestorFilter.EMPTY.with(document));
+	}
+
+	@Test
+	public void givenNoNode_shouldFindNoRules() throws Exception {
+		assertEquals(0, ruleIndex.findMatchingRules(null, null).size());
+	}
+
+	private void assertMatchingRulesInSubtree(final INode node) {
+		assertMatchingRulesInSubtree(node, null);
+	}
+
+	private void assertMatchingRulesInSubtree(final INode node, final AncestorFilter ancestors) {
+		assertMatchingRules(node, ancestors);
+		if (node instanceof IParent) {
+			for (final INode child : ((IParent) node).children()) {
+				assertMatchingRulesInSubtree(child, ancestors == null ? null : ancestors.with(node));
+			}
+		}
+	}
+
+	private void assertMatchingRules(final INode node, final AncestorFilter ancestors) {
+		final List<Rule> expectedRules = new ArrayList<Rule>();
+		for (final Rule rule : rules) {
+			if (rule.matches(node)) {
+				expectedRules.add(rule);
+			}
+		}
+		assertEquals(node.toString(), expectedRules, ruleIndex.findMatchingRules(node, ancestors));
+	}
+}
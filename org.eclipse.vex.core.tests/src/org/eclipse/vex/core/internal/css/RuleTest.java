@@ -398,4 +398,21 @@ public class RuleTest {
 		assertTrue(rule.matches(ns));
 
 	}
+
+	@Test
+	public void givenSiblingSelectorWithPseudoElement_shouldMatchSiblingOfPseudoElementsParent() throws Exception {
+		final List<Rule> rules = new StyleSheetReader().read("b + c:before { }").getRules();
+
+		final IDocument doc = new Document(new QualifiedName(null, "a"));
+		final IElement a = doc.getRootElement();
+		final IElement b = doc.insertElement(a.getEndOffset(), new QualifiedName(null, "b"));
+		final IElement c = doc.insertElement(a.getEndOffset(), new QualifiedName(null, "c"));
+		final IElement otherC = doc.insertElement(a.getEndOffset(), new QualifiedName(null, "c"));
+
+		final Rule rule = rules.get(0);
+		assertFalse(rule.matches(a));
+		assertFalse(rule.matches(b));
+		assertTrue(rule.matches(c));
+		assertFalse(rule.matches(otherC));
+	}
 }
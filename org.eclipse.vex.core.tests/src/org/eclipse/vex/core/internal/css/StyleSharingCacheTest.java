@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.core.Color;
+import org.eclipse.vex.core.internal.core.DisplayDevice;
+import org.eclipse.vex.core.internal.dom.Document;
+import org.eclipse.vex.core.provisional.dom.IDocument;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.eclipse.vex.core.provisional.dom.IParent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StyleSharingCacheTest {
+
+	private IDocument document;
+	private IElement root;
+
+	@Before
+	public void setUp() throws Exception {
+		DisplayDevice.setCurrent(new MockDisplayDevice(90, 90));
+		document = new Document(new QualifiedName(null, "root"));
+		root = document.getRootElement();
+	}
+
+	@Test
+	public void givenSiblingsWithSameName_shouldShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+
+		assertSame(styleSheet.getStyles(para1), styleSheet.getStyles(para2));
+	}
+
+	@Test
+	public void givenSiblingsWithDifferentNames_shouldNotShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para { color: red; }");
+		final IElement para = insertElement(root, "para");
+		final IElement title = insertElement(root, "title");
+
+		assertNotSame(styleSheet.getStyles(para), styleSheet.getStyles(title));
+	}
+
+	@Test
+	public void givenSiblingsWithDifferentValuesOfAttributeUsedInSelector_shouldNotShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para[role=note] { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+		para1.setAttribute("role", "note");
+
+		assertEquals(new Color(255, 0, 0), styleSheet.getStyles(para1).getColor());
+		assertEquals(new Color(0, 0, 0), styleSheet.getStyles(para2).getColor());
+	}
+
+	@Test
+	public void givenSiblingsWithDifferentClasses_shouldNotShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet(".note { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+		para2.setAttribute("class", "note");
+
+		assertNotSame(styleSheet.getStyles(para1), styleSheet.getStyles(para2));
+	}
+
+	@Test
+	public void givenSiblingsWithDifferentValuesOfAttributeUsedInAttrFunction_shouldNotShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para { margin-left: attr(indent); }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+		para1.setAttribute("indent", "10");
+		para2.setAttribute("indent", "20");
+
+		assertNotSame(styleSheet.getStyles(para1), styleSheet.getStyles(para2));
+	}
+
+	@Test
+	public void givenSiblingsWithDifferentValuesOfIrrelevantAttribute_shouldShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para[role=note] { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+		para1.setAttribute("id", "para1");
+		para2.setAttribute("id", "para2");
+
+		assertSame(styleSheet.getStyles(para1), styleSheet.getStyles(para2));
+	}
+
+	@Test
+	public void givenCousinsWithSameNameAndSharedParentStyles_shouldShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para { color: red; }");
+		final IElement emphasis1 = insertElement(insertElement(root, "para"), "emphasis");
+		final IElement emphasis2 = insertElement(insertElement(root, "para"), "emphasis");
+
+		assertSame(styleSheet.getStyles(emphasis1), styleSheet.getStyles(emphasis2));
+	}
+
+	@Test
+	public void givenTextInCousins_shouldShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+		document.insertText(para1.getEndOffset(), "text1");
+		document.insertText(para2.getEndOffset(), "text2");
+
+		assertSame(styleSheet.getStyles(para1.children().first()), styleSheet.getStyles(para2.children().first()));
+	}
+
+	@Test
+	public void givenCousinsAndSiblingSelectorForParents_shouldNotShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("title + section emphasis { color: red; }");
+		insertElement(root, "title");
+		final IElement emphasis1 = insertElement(insertElement(root, "section"), "emphasis");
+		final IElement emphasis2 = insertElement(insertElement(root, "section"), "emphasis");
+
+		assertEquals(new Color(255, 0, 0), styleSheet.getStyles(emphasis1).getColor());
+		assertEquals(new Color(0, 0, 0), styleSheet.getStyles(emphasis2).getColor());
+	}
+
+	@Test
+	public void givenCousinsAndSiblingSelectorForOtherNames_shouldShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("title + para { color: red; }");
+		insertElement(root, "title");
+		final IElement emphasis1 = insertElement(insertElement(root, "section"), "emphasis");
+		final IElement emphasis2 = insertElement(insertElement(root, "section"), "emphasis");
+
+		assertSame(styleSheet.getStyles(emphasis1), styleSheet.getStyles(emphasis2));
+	}
+
+	@Test
+	public void givenSubjectOfSiblingSelector_shouldNotShareStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("title + para { color: red; }");
+		insertElement(root, "title");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+
+		assertEquals(new Color(255, 0, 0), styleSheet.getStyles(para1).getColor());
+		assertEquals(new Color(0, 0, 0), styleSheet.getStyles(para2).getColor());
+	}
+
+	@Test
+	public void whenAttributeChanged_shouldNotShareFlushedStyles() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para[role=note] { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+		styleSheet.getStyles(para1);
+
+		para1.setAttribute("role", "note");
+		styleSheet.flushStyles(para1);
+		para2.setAttribute("role", "note");
+
+		assertEquals(new Color(255, 0, 0), styleSheet.getStyles(para2).getColor());
+	}
+
+	@Test
+	public void givenSharedStyles_shouldEvaluateOutlineContentForEachNode() throws Exception {
+		final StyleSheet styleSheet = readStyleSheet("para { color: red; }");
+		final IElement para1 = insertElement(root, "para");
+		final IElement para2 = insertElement(root, "para");
+
+		final Styles styles = styleSheet.getStyles(para1);
+		assertSame(styles, styleSheet.getStyles(para2));
+		assertSame(para1, styles.getOutlineContent(para1));
+		assertSame(para2, styles.getOutlineContent(para2));
+	}
+
+	private static StyleSheet readStyleSheet(final String css) throws Exception {
+		return new StyleSheetReader().read(css);
+	}
+
+	private IElement insertElement(final IParent parent, final String localName) {
+		return document.insertElement(parent.getEndOffset(), new QualifiedName(null, localName));
+	}
+}
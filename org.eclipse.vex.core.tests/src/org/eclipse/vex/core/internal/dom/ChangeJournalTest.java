@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.AssertionFailedException;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.DocumentChange;
+import org.junit.Test;
+
+public class ChangeJournalTest {
+
+	@Test
+	public void shouldStartWithRevisionZero() throws Exception {
+		final ChangeJournal journal = new ChangeJournal(4);
+		assertEquals(0, journal.getRevision());
+		assertTrue(journal.getChangesSince(0).isEmpty());
+	}
+
+	@Test
+	public void shouldProvideChangesSinceRevision() throws Exception {
+		final ChangeJournal journal = new ChangeJournal(4);
+		final DocumentChange[] changes = createChanges(3);
+		for (final DocumentChange change : changes) {
+			journal.record(change);
+		}
+
+		assertEquals(3, journal.getRevision());
+		assertEquals(Arrays.asList(changes), journal.getChangesSince(0));
+		assertEquals(Arrays.asList(changes[1], changes[2]), journal.getChangesSince(1));
+		assertTrue(journal.getChangesSince(3).isEmpty());
+	}
+
+	@Test
+	public void shouldDropOldestChangesWhenFull() throws Exception {
+		final ChangeJournal journal = new ChangeJournal(4);
+		final DocumentChange[] changes = createChanges(6);
+		for (final DocumentChange change : changes) {
+			journal.record(change);
+		}
+
+		assertEquals(6, journal.getRevision());
+		assertNull(journal.getChangesSince(0));
+		assertNull(journal.getChangesSince(1));
+		assertEquals(Arrays.asList(changes[2], changes[3], changes[4], changes[5]), journal.getChangesSince(2));
+	}
+
+	@Test(expected = AssertionFailedException.class)
+	public void shouldRejectFutureRevision() throws Exception {
+		new ChangeJournal(4).getChangesSince(1);
+	}
+
+	@Test
+	public void documentShouldRecordChanges() throws Exception {
+		final Document document = new Document(new QualifiedName(null, "root"));
+		final long revision = document.getRevision();
+
+		final Element element = document.insertElement(2, new QualifiedName(null, "child"));
+		document.insertText(element.getEndOffset(), "Hello");
+		element.setAttribute("attr", "value");
+		document.delete(element.getRange());
+
+		final List<DocumentChange> changes = document.getChangesSince(revision);
+		assertEquals(revision + 4, document.getRevision());
+		assertEquals(4, changes.size());
+		assertChange(DocumentChange.Type.CONTENT_INSERTED, new ContentRange(2, 3), true, null, changes.get(0));
+		assertChange(DocumentChange.Type.CONTENT_INSERTED, new ContentRange(3, 7), false, null, changes.get(1));
+		assertChange(DocumentChange.Type.ATTRIBUTE_CHANGED, new ContentRange(2, 8), false, new QualifiedName(null, "attr"), changes.get(2));
+		assertChange(DocumentChange.Type.CONTENT_DELETED, new ContentRange(2, 8), true, null, changes.get(3));
+	}
+
+	private static DocumentChange[] createChanges(final int count) {
+		final DocumentChange[] result = new DocumentChange[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = new DocumentChange(DocumentChange.Type.CONTENT_INSERTED, new ContentRange(i, i), false, null);
+		}
+		return result;
+	}
+
+	private static void assertChange(final DocumentChange.Type type, final ContentRange range, final boolean structuralChange, final QualifiedName attributeName, final DocumentChange change) {
+		assertEquals(type, change.getType());
+		assertEquals(range, change.getRange());
+		assertEquals(structuralChange, change.isStructuralChange());
+		assertEquals(attributeName, change.getAttributeName());
+	}
+
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ChildListTest {
+
+	@Test
+	public void isInitiallyEmpty() throws Exception {
+		final ChildList list = new ChildList();
+		assertTrue(list.isEmpty());
+		assertEquals(0, list.size());
+		assertFalse(list.iterator().hasNext());
+	}
+
+	@Test
+	public void shouldProvideIndexOfNode() throws Exception {
+		final ChildList list = new ChildList();
+		final Comment first = new Comment();
+		final Comment second = new Comment();
+		list.add(first);
+		list.add(second);
+
+		assertEquals(0, list.indexOf(first));
+		assertEquals(1, list.indexOf(second));
+		assertEquals(-1, list.indexOf(new Comment()));
+	}
+
+	@Test
+	public void shouldIgnoreNodeOfOtherList() throws Exception {
+		final ChildList list = new ChildList();
+		final ChildList otherList = new ChildList();
+		final Comment node = new Comment();
+		otherList.add(node);
+
+		assertFalse(list.remove(node));
+		assertEquals(-1, list.indexOf(node));
+	}
+
+	@Test
+	public void manyRandomModificationsShouldBehaveLikeAList() throws Exception {
+		final Random random = new Random(42);
+		final ChildList list = new ChildList();
+		final ArrayList<Node> expected = new ArrayList<Node>();
+
+		for (int i = 0; i < 5000; i++) {
+			if (expected.isEmpty() || random.nextInt(3) > 0) {
+				final int index = random.nextInt(expected.size() + 1);
+				final Comment node = new Comment();
+				list.add(index, node);
+				expected.add(index, node);
+			} else {
+				final Node node = expected.remove(random.nextInt(expected.size()));
+				assertTrue(list.remove(node));
+			}
+		}
+
+		assertEquals(expected.size(), list.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), list.get(i));
+			assertEquals(i, list.indexOf(expected.get(i)));
+		}
+		final Iterator<Node> actualNodes = list.iterator();
+		for (final Node node : expected) {
+			assertSame(node, actualNodes.next());
+		}
+		assertFalse(actualNodes.hasNext());
+	}
+
+}
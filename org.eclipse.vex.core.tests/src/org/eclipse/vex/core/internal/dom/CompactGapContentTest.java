@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+import org.junit.Test;
+
+public class CompactGapContentTest extends ContentTest {
+
+	@Override
+	protected IContent createContent() {
+		return new CompactGapContent(100);
+	}
+
+	@Test
+	public void givenLatin1Text_shouldStayCompact() throws Exception {
+		final CompactGapContent content = new CompactGapContent(10);
+		content.insertText(0, "Gr\u00FC\u00DFe");
+		content.insertTagMarker(0);
+
+		assertTrue(content.isCompact());
+		assertEquals("\0Gr\u00FC\u00DFe", content.getRawText());
+		assertEquals(content.getCapacity(), content.getBufferSize());
+		assertEquals(2 * content.getCapacity(), content.getUncompactBufferSize());
+	}
+
+	@Test
+	public void givenWideCharacter_shouldInflateTransparently() throws Exception {
+		final CompactGapContent content = new CompactGapContent(10);
+		content.insertText(0, "Hello World");
+		content.insertTagMarker(5);
+		final IPosition position = content.createPosition(7);
+
+		content.insertText(3, "\u20AC");
+
+		assertFalse(content.isCompact());
+		assertEquals("Hel\u20AClo\0 World", content.getRawText());
+		assertTrue(content.isTagMarker(6));
+		assertEquals(8, position.getOffset());
+		assertEquals(2 * content.getCapacity(), content.getBufferSize());
+	}
+
+	@Test
+	public void givenWideContent_whenInsertingContent_shouldInflate() throws Exception {
+		final CompactGapContent content = new CompactGapContent(10);
+		content.insertText(0, "Hello World");
+		final GapContent other = new GapContent(10);
+		other.insertText(0, "\u03B1\u03B2");
+		other.insertTagMarker(1);
+
+		content.insertContent(6, other);
+
+		assertFalse(content.isCompact());
+		assertEquals("Hello \u03B1\0\u03B2World", content.getRawText());
+	}
+
+	@Test
+	public void copyOfInflatedContent_shouldContainWideCharacters() throws Exception {
+		final CompactGapContent content = new CompactGapContent(10);
+		content.insertText(0, "a\u03B1b");
+
+		final IContent copy = content.getContent(new ContentRange(1, 2));
+
+		assertEquals("\u03B1b", copy.getText());
+	}
+
+}
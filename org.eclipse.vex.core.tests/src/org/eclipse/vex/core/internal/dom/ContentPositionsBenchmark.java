@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.eclipse.vex.core.provisional.dom.IPosition;
+
+/**
+ * A microbenchmark for moving content positions, comparing ContentPositions with positions kept in a TreeSet and moved
+ * one by one, as GapContent did before. Every round creates the given number of positions and then moves all
+ * positions behind random offsets, like insertions of text do. This is not part of the test suite, run it as a Java
+ * application.
+ */
+public class ContentPositionsBenchmark {
+
+	private static final int[] POSITION_COUNTS = { 10000, 100000, 500000 };
+	private static final int DISTANCE = 10;
+	private static final int SHIFTS = 2000;
+	private static final int ROUNDS = 3;
+
+	public static void main(final String[] args) {
+		for (final int positionCount : POSITION_COUNTS) {
+			for (int round = 1; round <= ROUNDS; round++) {
+				final long treeSet = shiftTreeSetPositions(positionCount);
+				final long treap = shiftContentPositions(positionCount);
+				System.out.printf("round %d: %d positions, %d shifts, TreeSet %.1f ms, ContentPositions %.1f ms%n", round, positionCount, SHIFTS, treeSet / 1e6, treap / 1e6);
+			}
+		}
+	}
+
+	private static long shiftContentPositions(final int positionCount) {
+		final ContentPositions positions = new ContentPositions();
+		final IPosition[] created = new IPosition[positionCount];
+		for (int i = 0; i < positionCount; i++) {
+			created[i] = positions.createPosition(i * DISTANCE);
+		}
+
+		final Random random = new Random(42);
+		final long start = System.nanoTime();
+		for (int i = 0; i < SHIFTS; i++) {
+			positions.movePositions(random.nextInt(positionCount * DISTANCE), 1);
+		}
+		final long time = System.nanoTime() - start;
+
+		check(created[positionCount - 1].getOffset(), positionCount);
+		return time;
+	}
+
+	private static long shiftTreeSetPositions(final int positionCount) {
+		final TreeSet<TreeSetPosition> positions = new TreeSet<TreeSetPosition>();
+		final TreeSetPosition[] created = new TreeSetPosition[positionCount];
+		for (int i = 0; i < positionCount; i++) {
+			created[i] = new TreeSetPosition(i * DISTANCE);
+			positions.add(created[i]);
+		}
+
+		final Random random = new Random(42);
+		final long start = System.nanoTime();
+		for (int i = 0; i < SHIFTS; i++) {
+			for (final TreeSetPosition position : positions.tailSet(new TreeSetPosition(random.nextInt(positionCount * DISTANCE)))) {
+				position.offset += 1;
+			}
+		}
+		final long time = System.nanoTime() - start;
+
+		check(created[positionCount - 1].getOffset(), positionCount);
+		return time;
+	}
+
+	private static void check(final int lastOffset, final int positionCount) {
+		if (lastOffset != (positionCount - 1) * DISTANCE + SHIFTS) {
+			throw new AssertionError("The last position was not moved by every shift: " + lastOffset);
+		}
+	}
+
+	private static class TreeSetPosition implements IPosition {
+		private int offset;
+
+		public TreeSetPosition(final int offset) {
+			this.offset = offset;
+		}
+
+		public int getOffset() {
+			return offset;
+		}
+
+		public boolean isValid() {
+			return true;
+		}
+
+		public int compareTo(final IPosition other) {
+			return offset - other.getOffset();
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+import org.junit.Test;
+
+public class ContentPositionsTest {
+
+	@Test
+	public void shouldShareEqualPositions() throws Exception {
+		final ContentPositions positions = new ContentPositions();
+		final IPosition position = positions.createPosition(5);
+
+		assertSame(position, positions.createPosition(5));
+		assertEquals(1, positions.size());
+
+		positions.removePosition(position);
+		assertTrue(position.isValid());
+		positions.removePosition(position);
+		assertFalse(position.isValid());
+		assertEquals(0, positions.size());
+	}
+
+	@Test
+	public void removedPositionShouldKeepItsOffset() throws Exception {
+		final ContentPositions positions = new ContentPositions();
+		final IPosition position = positions.createPosition(5);
+		positions.removePosition(position);
+
+		positions.movePositions(0, 10);
+
+		assertEquals(5, position.getOffset());
+	}
+
+	@Test
+	public void removingAnInvalidPositionShouldNotAffectOtherPositions() throws Exception {
+		final ContentPositions positions = new ContentPositions();
+		final IPosition removed = positions.createPosition(5);
+		positions.removeRange(new ContentRange(5, 5));
+		final IPosition other = positions.createPosition(5);
+
+		positions.removePosition(removed);
+
+		assertTrue(other.isValid());
+		assertEquals(1, positions.size());
+	}
+
+	@Test
+	public void manyRandomModificationsShouldBehaveLikeAList() throws Exception {
+		final Random random = new Random(42);
+		final ContentPositions positions = new ContentPositions();
+		final ArrayList<IPosition> created = new ArrayList<IPosition>();
+		final ArrayList<Integer> expectedOffsets = new ArrayList<Integer>();
+
+		for (int i = 0; i < 5000; i++) {
+			final int offset = random.nextInt(10000);
+			final int operation = random.nextInt(10);
+			if (operation < 5) {
+				final IPosition position = positions.createPosition(offset);
+				if (!created.contains(position)) {
+					created.add(position);
+					expectedOffsets.add(offset);
+				}
+			} else if (operation < 8) {
+				final int delta = random.nextInt(20) + 1;
+				positions.movePositions(offset, delta);
+				for (int j = 0; j < expectedOffsets.size(); j++) {
+					if (expectedOffsets.get(j) >= offset) {
+						expectedOffsets.set(j, expectedOffsets.get(j) + delta);
+					}
+				}
+			} else {
+				final ContentRange range = new ContentRange(offset, offset + random.nextInt(20));
+				positions.removeRange(range);
+				for (int j = expectedOffsets.size() - 1; j >= 0; j--) {
+					final int expectedOffset = expectedOffsets.get(j);
+					if (range.contains(expectedOffset)) {
+						assertFalse(created.get(j).isValid());
+						created.remove(j);
+						expectedOffsets.remove(j);
+					} else if (expectedOffset > range.getEndOffset()) {
+						expectedOffsets.set(j, expectedOffset - range.length());
+					}
+				}
+			}
+		}
+
+		assertEquals(created.size(), positions.size());
+		for (int i = 0; i < created.size(); i++) {
+			assertEquals(expectedOffsets.get(i).intValue(), created.get(i).getOffset());
+		}
+	}
+
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertTrue;
 
 import org.eclipse.vex.core.provisional.dom.ContentRange;
 import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
 import org.eclipse.vex.core.provisional.dom.IPosition;
 import org.junit.Before;
 import org.junit.Test;
@@ -236,4 +237,72 @@ public abstract class ContentTest {
 		assertTrue("after", positionAfter.isValid());
 	}
 
+	@Test
+	public void shouldVisitRawCharactersOfRangeInOrder() throws Exception {
+		content.insertText(0, "Hello World");
+		content.insertTagMarker(5);
+		content.insertText(0, "Gr\u00FC\u00DFe ");
+		content.insertTagMarker(3);
+
+		for (int startOffset = 0; startOffset < content.length(); startOffset++) {
+			for (int endOffset = startOffset; endOffset < content.length(); endOffset++) {
+				final ContentRange range = new ContentRange(startOffset, endOffset);
+				final SegmentCollector collector = new SegmentCollector(startOffset, true);
+				content.visitSegments(range, collector);
+				assertEquals(range.toString(), content.getRawText(range), collector.getText());
+				assertEquals(range.toString(), content.getRawText(range).replace("\0", ""), content.getText(range));
+			}
+		}
+	}
+
+	@Test
+	public void whenVisitorStops_shouldNotVisitFurtherSegments() throws Exception {
+		content.insertText(0, "Hello World");
+		content.insertText(5, ",");
+		final SegmentCollector collector = new SegmentCollector(0, false);
+		content.visitSegments(content.getRange(), collector);
+		assertEquals(1, collector.getSegmentCount());
+		assertTrue(content.getRawText().startsWith(collector.getText()));
+	}
+
+	private static class SegmentCollector implements IContentSegmentVisitor {
+		private final StringBuilder text = new StringBuilder();
+		private final boolean continueVisiting;
+		private int nextOffset;
+		private int segmentCount;
+
+		public SegmentCollector(final int startOffset, final boolean continueVisiting) {
+			nextOffset = startOffset;
+			this.continueVisiting = continueVisiting;
+		}
+
+		public boolean visit(final int offset, final char[] chars, final int start, final int length) {
+			assertEquals("offset of segment", nextOffset, offset);
+			assertTrue("segment must not be empty", length > 0);
+			text.append(chars, start, length);
+			nextOffset += length;
+			segmentCount++;
+			return continueVisiting;
+		}
+
+		public boolean visit(final int offset, final byte[] latin1, final int start, final int length) {
+			assertEquals("offset of segment", nextOffset, offset);
+			assertTrue("segment must not be empty", length > 0);
+			for (int i = start; i < start + length; i++) {
+				text.append((char) (latin1[i] & 0xFF));
+			}
+			nextOffset += length;
+			segmentCount++;
+			return continueVisiting;
+		}
+
+		public String getText() {
+			return text.toString();
+		}
+
+		public int getSegmentCount() {
+			return segmentCount;
+		}
+	}
+
 }
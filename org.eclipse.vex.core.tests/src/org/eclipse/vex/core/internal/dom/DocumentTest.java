@@ -13,20 +13,25 @@ package org.eclipse.vex.core.internal.dom;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Iterator;
 
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.XML;
 import org.eclipse.vex.core.provisional.dom.ContentRange;
 import org.eclipse.vex.core.provisional.dom.IDocument;
 import org.eclipse.vex.core.provisional.dom.IDocumentFragment;
 import org.eclipse.vex.core.provisional.dom.IElement;
 import org.eclipse.vex.core.provisional.dom.INode;
 import org.eclipse.vex.core.provisional.dom.IParent;
+import org.eclipse.vex.core.provisional.dom.IText;
 import org.junit.Test;
 
 /**
@@ -105,6 +110,139 @@ public class DocumentTest {
 		assertSame(childElement, commonNode);
 	}
 
+	@Test
+	public void givenSubsequentLookups_shouldProvideSameNodesAsLookupFromRootElement() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement rootElement = document.getRootElement();
+		for (int i = 0; i < 3; i++) {
+			final IElement child = document.insertElement(rootElement.getEndOffset(), new QualifiedName(null, "child"));
+			document.insertText(child.getEndOffset(), "Hello ");
+			final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+			document.insertText(grandChild.getEndOffset(), "World");
+			document.insertComment(child.getEndOffset());
+		}
+
+		final int[] offsets = { 7, 8, 3, 30, 29, 2, 12, 45, 44, 1, 18, 19 };
+		for (final int offset1 : offsets) {
+			for (final int offset2 : offsets) {
+				assertSameNode(rootElement.getChildAt(offset2), document.getChildAt(offset2));
+				assertSame(findCommonNodeFromDocument(document, offset1, offset2), document.findCommonNode(offset1, offset2));
+			}
+		}
+	}
+
+	@Test
+	public void givenLookupInDeletedNode_shouldProvideNodeInDocument() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		document.insertText(grandChild.getEndOffset(), "Hello World");
+		assertSame(grandChild, document.getChildAt(grandChild.getStartOffset()).getParent().getChildAt(grandChild.getStartOffset()));
+		assertSame(grandChild, document.getElementForInsertionAt(grandChild.getStartOffset() + 1));
+
+		document.delete(child.getRange());
+		final IElement newChild = document.insertElement(2, new QualifiedName(null, "child"));
+
+		assertSame(newChild, document.getElementForInsertionAt(3));
+		assertSame(document.getRootElement(), document.getElementForInsertionAt(2));
+	}
+
+	@Test
+	public void givenRemovedAndRetypedText_shouldProvideTextNodeWhichFollowsModifications() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		final int textStart = child.getStartOffset() + 1;
+		document.insertText(child.getEndOffset(), "abc");
+		final INode removedText = document.getChildAt(textStart);
+		document.delete(new ContentRange(textStart, textStart + 2));
+		document.insertText(child.getEndOffset(), "xyz");
+
+		final INode text = document.getChildAt(textStart);
+		document.insertText(textStart, "12");
+
+		assertNotSame(removedText, text);
+		assertEquals(new ContentRange(textStart + 2, textStart + 4), text.getRange());
+		assertEquals("xyz", text.getText());
+		final INode modifiedText = document.getChildAt(textStart);
+		assertEquals(new ContentRange(textStart, textStart + 4), modifiedText.getRange());
+		assertEquals("12xyz", modifiedText.getText());
+	}
+
+	@Test
+	public void givenFingerInDeletedNode_shouldMoveFingerToParentOfDeletedNode() throws Exception {
+		final Document document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		document.insertText(grandChild.getEndOffset(), "Hello World");
+		document.getChildAt(grandChild.getStartOffset() + 1);
+		assertSame(grandChild, document.getFinger());
+
+		document.delete(child.getRange());
+		assertSame(document.getRootElement(), document.getFinger());
+
+		final IElement newChild = document.insertElement(2, new QualifiedName(null, "child"));
+		document.getChildAt(newChild.getEndOffset());
+		assertSame(newChild, document.getFinger());
+		document.extractFragment(newChild.getRange());
+		assertSame(document.getRootElement(), document.getFinger());
+	}
+
+	@Test
+	public void givenNodeInDocument_shouldFollowChangedBaseURIs() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		document.setDocumentURI("file:/document.xml");
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		document.insertText(grandChild.getEndOffset(), "Hello World");
+		final INode text = grandChild.children().first();
+		assertEquals("file:/document.xml", text.getBaseURI());
+
+		child.setAttribute(XML.BASE_ATTRIBUTE, "file:/base/");
+		assertEquals("file:/base/", grandChild.getBaseURI());
+		assertEquals("file:/base/", text.getBaseURI());
+
+		document.setDocumentURI("file:/other.xml");
+		assertEquals("file:/other.xml", document.getRootElement().getBaseURI());
+		assertEquals("file:/base/", grandChild.getBaseURI());
+
+		child.removeAttribute(XML.BASE_ATTRIBUTE);
+		assertEquals("file:/other.xml", grandChild.getBaseURI());
+	}
+
+	@Test
+	public void givenDeletedNode_shouldNotProvideDocument() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		assertSame(document, grandChild.getDocument());
+
+		document.delete(child.getRange());
+
+		assertNull(child.getDocument());
+		assertNull(grandChild.getDocument());
+	}
+
+	@Test
+	public void childNodeNamesInRange_shouldEqualNodeNamesOnChildrenAxis() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement rootElement = document.getRootElement();
+		document.insertText(rootElement.getEndOffset(), "Hello ");
+		final IElement childElement = document.insertElement(rootElement.getEndOffset(), new QualifiedName(null, "child"));
+		document.insertText(childElement.getEndOffset(), "Child");
+		document.insertComment(rootElement.getEndOffset());
+		document.insertText(rootElement.getEndOffset(), " World ");
+		document.insertElement(rootElement.getEndOffset(), new QualifiedName(null, "child"));
+		document.insertProcessingInstruction(rootElement.getEndOffset(), "target");
+		document.insertText(rootElement.getEndOffset(), "!");
+
+		for (int startOffset = rootElement.getStartOffset(); startOffset <= rootElement.getEndOffset(); startOffset++) {
+			for (int endOffset = startOffset; endOffset <= rootElement.getEndOffset(); endOffset++) {
+				final ContentRange range = new ContentRange(startOffset, endOffset);
+				assertEquals(range.toString(), Node.getNodeNames(rootElement.children().in(range)), Node.getChildNodeNames(rootElement, startOffset, endOffset));
+			}
+		}
+	}
+
 	@Test
 	public void insertFragmentWithChildGrandChildAndText() throws Exception {
 		final IDocument document = new Document(new QualifiedName(null, "root"));
@@ -153,6 +291,128 @@ public class DocumentTest {
 		assertEquals("http://ns2", targetParent.getNamespaceURI("ns2"));
 	}
 
+	@Test
+	public void extractFragment_shouldProvideSameFragmentAsCopy() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		document.insertText(child.getEndOffset(), "Hello ");
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		document.insertText(grandChild.getEndOffset(), "Grandchild");
+		document.insertText(child.getEndOffset(), " World");
+		document.insertText(document.getRootElement().getEndOffset(), "Tail");
+		final ContentRange range = new ContentRange(child.getStartOffset(), document.getRootElement().getEndOffset() - 3);
+
+		final IDocumentFragment expectedFragment = document.getFragment(range);
+		final IDocumentFragment actualFragment = document.extractFragment(range);
+
+		assertNodeEquals(expectedFragment, actualFragment, 0);
+		assertEquals("il", document.getRootElement().getText());
+	}
+
+	@Test
+	public void extractFragment_shouldMoveDeletedNodesIntoFragment() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		document.insertText(grandChild.getEndOffset(), "Grandchild");
+
+		final IDocumentFragment fragment = document.extractFragment(child.getRange());
+
+		assertSame(child, fragment.children().first());
+		assertSame(grandChild, child.children().first());
+		assertSame(fragment.getContent(), grandChild.getContent());
+		assertEquals(new ContentRange(1, 12), grandChild.getRange());
+		assertEquals("Grandchild", grandChild.getText());
+		assertFalse(document.getRootElement().hasChildren());
+	}
+
+	@Test
+	public void extractFragment_shouldNotBeAffectedByLaterChangesOfTheDocument() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		document.insertText(child.getEndOffset(), "Hello World");
+
+		final IDocumentFragment fragment = document.extractFragment(child.getRange());
+		document.insertFragment(document.getRootElement().getEndOffset(), fragment);
+		document.insertText(document.getRootElement().getStartOffset() + 1, "Text");
+		document.insertText(document.getRootElement().getChildAt(document.getRootElement().getEndOffset() - 1).getStartOffset() + 1, "New ");
+
+		assertEquals("Hello World", fragment.getText());
+		assertEquals(new ContentRange(0, 12), fragment.children().first().getRange());
+		assertEquals("TextNew Hello World", document.getRootElement().getText());
+	}
+
+	@Test
+	public void extractFragment_shouldNotAllowToModifyTheMovedNodes() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		child.setAttribute("attribute", "value");
+		document.insertText(child.getEndOffset(), "Hello World");
+
+		final IDocumentFragment fragment = document.extractFragment(child.getRange());
+
+		try {
+			child.setAttribute("attribute", "changed");
+			fail("The moved element must not be modifiable.");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			child.declareNamespace("ns", "http://namespace");
+			fail("The moved element must not be modifiable.");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			fragment.getContent().insertText(1, "Changed ");
+			fail("The content of the fragment must not be modifiable.");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals("value", child.getAttributeValue("attribute"));
+		assertEquals("Hello World", fragment.getText());
+	}
+
+	@Test
+	public void getFragment_shouldNotBeAffectedByLaterChangesOfTheDocument() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement child = document.insertElement(2, new QualifiedName(null, "child"));
+		document.insertText(child.getEndOffset(), "Hello World");
+
+		final IDocumentFragment fragment = document.getFragment(child.getRange());
+		document.insertText(document.getRootElement().getStartOffset() + 1, "Text");
+		assertEquals("Hello World", fragment.getText());
+		document.insertText(child.getStartOffset() + 1, "New ");
+		document.delete(new ContentRange(child.getStartOffset() + 5, child.getStartOffset() + 10));
+		document.insertFragment(document.getRootElement().getEndOffset(), fragment);
+
+		assertEquals("Hello World", fragment.getText());
+		assertEquals(new ContentRange(0, 12), fragment.children().first().getRange());
+		assertEquals("TextNew WorldHello World", document.getRootElement().getText());
+	}
+
+	private static INode findCommonNodeFromDocument(final IParent parent, final int offset1, final int offset2) {
+		for (final INode child : parent.children().withoutText()) {
+			if (Document.isInsertionPointIn(child, offset1) && Document.isInsertionPointIn(child, offset2)) {
+				if (child instanceof IParent) {
+					return findCommonNodeFromDocument((IParent) child, offset1, offset2);
+				}
+				return child;
+			}
+		}
+		return parent;
+	}
+
+	private static void assertSameNode(final INode expected, final INode actual) {
+		if (expected instanceof IText) {
+			assertTrue(actual instanceof IText);
+			assertSame(expected.getParent(), actual.getParent());
+			assertEquals(expected.getRange(), actual.getRange());
+		} else {
+			assertSame(expected, actual);
+		}
+	}
+
 	private static void assertNodesEqual(final Iterable<? extends INode> expected, final Iterable<? extends INode> actual, final int rangeOffsetExpected) {
 		final Iterator<? extends INode> expectedIterator = expected.iterator();
 		final Iterator<? extends INode> actualIterator = actual.iterator();
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.AssertionFailedException;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.provisional.dom.ChangeSummaryEvent;
+import org.eclipse.vex.core.provisional.dom.IChangeSummaryListener;
+import org.eclipse.vex.core.provisional.dom.IParent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DocumentTransactionTest {
+
+	private Document document;
+	private Element section;
+	private List<ChangeSummaryEvent> summaries;
+
+	@Before
+	public void setUp() throws Exception {
+		document = new Document(new QualifiedName(null, "root"));
+		section = document.insertElement(2, new QualifiedName(null, "section"));
+		summaries = new ArrayList<ChangeSummaryEvent>();
+		document.addChangeSummaryListener(new IChangeSummaryListener() {
+			public void changesCommitted(final ChangeSummaryEvent event) {
+				summaries.add(event);
+			}
+		});
+	}
+
+	@Test
+	public void shouldSummarizeEachChangeOutsideOfTransaction() throws Exception {
+		document.insertText(section.getEndOffset(), "Hello");
+		section.setAttribute("attr", "value");
+
+		assertEquals(2, summaries.size());
+		assertEquals(1, summaries.get(0).getChanges().size());
+		assertEquals(1, summaries.get(1).getChanges().size());
+	}
+
+	@Test
+	public void shouldSummarizeAllChangesOfTransaction() throws Exception {
+		document.beginTransaction();
+		document.insertText(section.getEndOffset(), "Hello");
+		final Element child = document.insertElement(section.getEndOffset(), new QualifiedName(null, "child"));
+		document.insertText(child.getEndOffset(), "World");
+		section.setAttribute("attr", "value");
+		assertTrue(summaries.isEmpty());
+		document.endTransaction();
+
+		assertEquals(1, summaries.size());
+		final ChangeSummaryEvent summary = summaries.get(0);
+		assertEquals(4, summary.getChanges().size());
+		assertEquals(Arrays.<IParent> asList(section, child), new ArrayList<IParent>(summary.getAffectedParents()));
+		assertTrue(summary.isStructuralChange());
+	}
+
+	@Test
+	public void shouldSummarizeOnlyWhenOutermostTransactionEnds() throws Exception {
+		document.beginTransaction();
+		document.beginTransaction();
+		document.insertText(section.getEndOffset(), "Hello");
+		document.endTransaction();
+		assertTrue(summaries.isEmpty());
+		document.insertText(section.getEndOffset(), "World");
+		document.endTransaction();
+
+		assertEquals(1, summaries.size());
+		assertEquals(2, summaries.get(0).getChanges().size());
+		assertFalse(summaries.get(0).isStructuralChange());
+	}
+
+	@Test
+	public void shouldNotSummarizeEmptyTransaction() throws Exception {
+		document.beginTransaction();
+		document.endTransaction();
+		assertTrue(summaries.isEmpty());
+	}
+
+	@Test
+	public void shouldExcludeDeletedParents() throws Exception {
+		document.beginTransaction();
+		document.insertText(section.getEndOffset(), "Hello");
+		document.delete(section.getRange());
+		document.endTransaction();
+
+		assertEquals(2, summaries.get(0).getChanges().size());
+		assertEquals(Arrays.<IParent> asList(document.getRootElement()), new ArrayList<IParent>(summaries.get(0).getAffectedParents()));
+	}
+
+	@Test(expected = AssertionFailedException.class)
+	public void shouldRejectEndWithoutBegin() throws Exception {
+		document.endTransaction();
+	}
+
+}
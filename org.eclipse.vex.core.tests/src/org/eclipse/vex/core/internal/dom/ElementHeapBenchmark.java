@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import org.eclipse.vex.core.internal.io.DocumentReader;
+import org.eclipse.vex.core.provisional.dom.IDocument;
+import org.eclipse.vex.core.provisional.dom.IElement;
+
+/**
+ * Measures the heap retained by a loaded document, which is dominated by the elements with their attributes and
+ * namespace declarations. The document is a generated DocBook 5 book with 5000 chapters, about 210,000 elements, and
+ * xml:id, role and linkend attributes on some of them. This is not part of the test suite, run it as a Java application
+ * with a fixed heap and a serial collector to get reproducible numbers, e.g. -Xms1g -Xmx1g -XX:+UseSerialGC.
+ */
+public class ElementHeapBenchmark {
+
+	private static final int CHAPTERS = 5000;
+	private static final int SECTIONS = 4;
+
+	public static void main(final String[] args) throws Exception {
+		final String xml = createDocBookXml();
+
+		final long before = usedHeap();
+		final IDocument document = new DocumentReader().read(xml);
+		final long after = usedHeap();
+
+		final int elementCount = countElements(document.getRootElement());
+		System.out.printf("%d elements, retained heap %.1f MB, %.0f bytes per element%n", elementCount, (after - before) / (1024.0 * 1024.0), (double) (after - before) / elementCount);
+	}
+
+	private static int countElements(final IElement element) {
+		int count = 1;
+		for (final IElement child : element.childElements()) {
+			count += countElements(child);
+		}
+		return count;
+	}
+
+	private static String createDocBookXml() {
+		final StringBuilder xml = new StringBuilder("<?xml version='1.0'?><book xmlns='http://docbook.org/ns/docbook' version='5.0'>");
+		for (int i = 0; i < CHAPTERS; i++) {
+			xml.append("<chapter xml:id='ch").append(i).append("'><title>Chapter ").append(i).append("</title>");
+			for (int j = 0; j < SECTIONS; j++) {
+				xml.append("<section><title>Section</title>");
+				xml.append("<para>Text with <emphasis role='bold'>emphasis</emphasis> and <link linkend='ch").append(j).append("'>a link</link>.</para>");
+				xml.append("<itemizedlist><listitem><para>item</para></listitem><listitem><para>item</para></listitem></itemizedlist>");
+				xml.append("</section>");
+			}
+			xml.append("</chapter>");
+		}
+		xml.append("</book>");
+		return xml.toString();
+	}
+
+	private static long usedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
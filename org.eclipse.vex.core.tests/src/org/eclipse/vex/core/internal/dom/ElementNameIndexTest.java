@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.provisional.dom.IDocumentFragment;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.eclipse.vex.core.provisional.dom.IParent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ElementNameIndexTest {
+
+	private static final QualifiedName SECTION = new QualifiedName(null, "section");
+	private static final QualifiedName PARA = new QualifiedName(null, "para");
+
+	private Document document;
+
+	@Before
+	public void setUp() throws Exception {
+		document = new Document(new QualifiedName(null, "root"));
+	}
+
+	@Test
+	public void shouldProvideElementsInDocumentOrder() throws Exception {
+		final Element section1 = document.insertElement(2, SECTION);
+		final Element section2 = document.insertElement(section1.getEndOffset() + 1, SECTION);
+		final Element para2 = document.insertElement(section2.getEndOffset(), PARA);
+		final Element para1 = document.insertElement(section1.getEndOffset(), PARA);
+
+		assertEquals(Arrays.asList(section1, section2), document.descendantsNamed(SECTION).asList());
+		assertEquals(Arrays.asList(para1, para2), document.descendantsNamed(PARA).asList());
+		assertTrue(document.descendantsNamed(new QualifiedName(null, "unknown")).isEmpty());
+	}
+
+	@Test
+	public void shouldRestrictElementsToRange() throws Exception {
+		final Element section1 = document.insertElement(2, SECTION);
+		final Element section2 = document.insertElement(section1.getEndOffset() + 1, SECTION);
+		document.insertElement(section1.getEndOffset(), PARA);
+		final Element para2 = document.insertElement(section2.getEndOffset(), PARA);
+		final Element para3 = document.insertElement(section2.getEndOffset(), PARA);
+
+		assertEquals(Arrays.asList(para2, para3), document.descendantsNamed(PARA).in(section2.getRange()).asList());
+	}
+
+	@Test
+	public void shouldFollowInsertionsAndDeletions() throws Exception {
+		final Random random = new Random(42);
+		document.descendantsNamed(PARA).count(); // build the index before the modifications
+
+		for (int i = 0; i < 300; i++) {
+			final List<? extends IElement> elements = allElements(document);
+			final IElement parent = elements.get(random.nextInt(elements.size()));
+			if (random.nextInt(3) == 0 && parent != document.getRootElement()) {
+				document.delete(parent.getRange());
+			} else {
+				document.insertElement(parent.getEndOffset(), random.nextBoolean() ? SECTION : PARA);
+			}
+		}
+
+		assertEquals(elementsNamed(PARA), document.descendantsNamed(PARA).asList());
+		assertEquals(elementsNamed(SECTION), document.descendantsNamed(SECTION).asList());
+	}
+
+	@Test
+	public void shouldFollowInsertionsAndDeletionsOfSubtrees() throws Exception {
+		final Element section1 = document.insertElement(2, SECTION);
+		final Element section2 = document.insertElement(section1.getEndOffset() + 1, SECTION);
+		for (int i = 0; i < 10; i++) {
+			final Element section = document.insertElement(section1.getEndOffset(), SECTION);
+			document.insertElement(section.getEndOffset(), PARA);
+			document.insertElement(document.insertElement(section.getEndOffset(), SECTION).getEndOffset(), PARA);
+			document.insertElement(section2.getEndOffset(), PARA);
+		}
+		final IDocumentFragment fragment = document.getFragment(section1.getRange());
+		document.descendantsNamed(PARA).count(); // build the index before the modifications
+
+		document.insertFragment(section2.getStartOffset() + 5, fragment);
+		document.insertFragment(section2.getEndOffset(), fragment);
+		document.insertFragment(section1.getEndOffset(), fragment);
+
+		assertEquals(elementsNamed(PARA), document.descendantsNamed(PARA).asList());
+		assertEquals(elementsNamed(SECTION), document.descendantsNamed(SECTION).asList());
+		assertEquals(1 + 4 * 21, document.descendantsNamed(SECTION).count());
+
+		document.delete(section1.getRange());
+
+		assertEquals(elementsNamed(PARA), document.descendantsNamed(PARA).asList());
+		assertEquals(elementsNamed(SECTION), document.descendantsNamed(SECTION).asList());
+		assertEquals(1 + 2 * 21, document.descendantsNamed(SECTION).count());
+	}
+
+	private List<IElement> elementsNamed(final QualifiedName name) {
+		final ArrayList<IElement> result = new ArrayList<IElement>();
+		for (final IElement element : allElements(document)) {
+			if (name.equals(element.getQualifiedName())) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
+	private static List<IElement> allElements(final IParent parent) {
+		final ArrayList<IElement> result = new ArrayList<IElement>();
+		for (final INode child : parent.children().withoutText()) {
+			if (child instanceof IElement) {
+				result.add((IElement) child);
+				result.addAll(allElements((IElement) child));
+			}
+		}
+		return result;
+	}
+
+}
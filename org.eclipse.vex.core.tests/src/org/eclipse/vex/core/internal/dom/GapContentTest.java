@@ -13,6 +13,7 @@ package org.eclipse.vex.core.internal.dom;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.eclipse.core.runtime.AssertionFailedException;
@@ -71,6 +72,47 @@ public class GapContentTest extends ContentTest {
 		assertEquals(2, content.getPositionCount());
 	}
 
+	@Test
+	public void givenGapWithinRange_shouldCopyBothParts() throws Exception {
+		final GapContent content = new GapContent(10);
+		content.insertText(0, "Hello World");
+		content.insertTagMarker(5);
+		content.insertText(3, "x");
+
+		final IContent copy = content.getContent(new ContentRange(1, 8));
+
+		assertEquals("elxlo\0 W", copy.getRawText());
+		assertTrue(copy.isTagMarker(5));
+	}
+
+	@Test
+	public void shouldInsertContentWithASinglePositionShift() throws Exception {
+		final GapContent content = new GapContent(10);
+		content.insertText(0, "Hello World");
+		final IPosition before = content.createPosition(5);
+		final IPosition after = content.createPosition(6);
+		final RopeContent other = new RopeContent();
+		other.insertText(0, "New ");
+		other.insertTagMarker(0);
+
+		content.insertContent(6, other);
+
+		assertEquals("Hello \0New World", content.getRawText());
+		assertTrue(content.isTagMarker(6));
+		assertEquals(5, before.getOffset());
+		assertEquals(11, after.getOffset());
+	}
+
+	@Test
+	public void canInsertItself() throws Exception {
+		final GapContent content = new GapContent(10);
+		content.insertText(0, "Hello");
+
+		content.insertContent(2, content);
+
+		assertEquals("HeHellollo", content.getRawText());
+	}
+
 	@Test
 	public void testGapContent() throws Exception {
 		//
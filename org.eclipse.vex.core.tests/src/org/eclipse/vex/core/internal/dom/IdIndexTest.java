@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.XML;
+import org.eclipse.vex.core.provisional.dom.AttributeDefinition;
+import org.eclipse.vex.core.provisional.dom.IDocumentFragment;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdIndexTest {
+
+	private Document document;
+	private Element section;
+
+	@Before
+	public void setUp() throws Exception {
+		document = new Document(new QualifiedName(null, "root"));
+		section = document.insertElement(2, new QualifiedName(null, "section"));
+	}
+
+	@Test
+	public void shouldIndexExistingIds() throws Exception {
+		section.setAttribute(XML.ID_ATTRIBUTE, "section1");
+		assertSame(section, document.getElementById("section1"));
+		assertNull(document.getElementById("unknown"));
+	}
+
+	@Test
+	public void shouldFollowAttributeChanges() throws Exception {
+		assertNull(document.getElementById("section1"));
+
+		section.setAttribute(XML.ID_ATTRIBUTE, "section1");
+		assertSame(section, document.getElementById("section1"));
+
+		section.setAttribute(XML.ID_ATTRIBUTE, "section2");
+		assertNull(document.getElementById("section1"));
+		assertSame(section, document.getElementById("section2"));
+
+		section.removeAttribute(XML.ID_ATTRIBUTE);
+		assertNull(document.getElementById("section2"));
+	}
+
+	@Test
+	public void shouldIgnoreOtherAttributes() throws Exception {
+		document.getElementById("any");
+		section.setAttribute("id", "section1");
+		assertNull(document.getElementById("section1"));
+	}
+
+	@Test
+	public void shouldRemoveIdsOfDeletedElements() throws Exception {
+		final Element child = document.insertElement(section.getEndOffset(), new QualifiedName(null, "child"));
+		child.setAttribute(XML.ID_ATTRIBUTE, "child1");
+		assertSame(child, document.getElementById("child1"));
+
+		document.delete(section.getRange());
+
+		assertNull(document.getElementById("child1"));
+		assertEquals(0, document.getIds().size());
+	}
+
+	@Test
+	public void shouldAddIdsOfInsertedFragment() throws Exception {
+		final Element child = document.insertElement(section.getEndOffset(), new QualifiedName(null, "child"));
+		child.setAttribute(XML.ID_ATTRIBUTE, "child1");
+		final IDocumentFragment fragment = document.getFragment(child.getRange());
+		document.getElementById("any");
+
+		document.insertFragment(section.getEndOffset() + 1, fragment);
+
+		final IElement copy = document.getRootElement().childElements().get(1);
+		assertEquals(new HashSet<String>(Arrays.asList("child1")), document.getIds());
+		assertSame(child, document.getElementById("child1"));
+		document.delete(child.getRange());
+		assertSame(copy, document.getElementById("child1"));
+	}
+
+	@Test
+	public void shouldIgnoreBlankIdsOfExistingElements() throws Exception {
+		section.setAttribute(XML.ID_ATTRIBUTE, " ");
+
+		assertNull(document.getElementById(" "));
+		assertEquals(0, document.getIds().size());
+	}
+
+	@Test
+	public void shouldIgnoreBlankIdsOfInsertedFragment() throws Exception {
+		final Element child = document.insertElement(section.getEndOffset(), new QualifiedName(null, "child"));
+		child.setAttribute(XML.ID_ATTRIBUTE, "");
+		final IDocumentFragment fragment = document.getFragment(child.getRange());
+		document.getElementById("any");
+
+		document.insertFragment(section.getEndOffset() + 1, fragment);
+		assertEquals(0, document.getIds().size());
+
+		document.delete(section.getRange());
+		assertEquals(0, document.getIds().size());
+	}
+
+	@Test
+	public void shouldIgnoreBlankIdsOnAttributeChanges() throws Exception {
+		section.setAttribute(XML.ID_ATTRIBUTE, "section1");
+		assertSame(section, document.getElementById("section1"));
+
+		section.setAttribute(XML.ID_ATTRIBUTE, "  ");
+		assertNull(document.getElementById("section1"));
+		assertNull(document.getElementById("  "));
+		assertEquals(0, document.getIds().size());
+
+		section.setAttribute(XML.ID_ATTRIBUTE, "section2");
+		assertSame(section, document.getElementById("section2"));
+		assertEquals(new HashSet<String>(Arrays.asList("section2")), document.getIds());
+	}
+
+	@Test
+	public void shouldUseIdAttributesDefinedByValidator() throws Exception {
+		final QualifiedName idAttributeName = new QualifiedName(null, "id");
+		document.setValidator(new DummyValidator() {
+			@Override
+			public List<AttributeDefinition> getAttributeDefinitions(final IElement element) {
+				return Arrays.asList(new AttributeDefinition(idAttributeName, AttributeDefinition.Type.ID, null, new String[0], false, false));
+			}
+		});
+		section.setAttribute(idAttributeName, "section1");
+
+		assertSame(section, document.getElementById("section1"));
+	}
+
+}
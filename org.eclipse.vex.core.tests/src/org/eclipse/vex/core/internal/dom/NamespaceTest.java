@@ -339,6 +339,45 @@ public class NamespaceTest {
 		assertTrue(child.getNamespacePrefixes().contains("ns3"));
 	}
 
+	@Test
+	public void givenElementInDocument_shouldFollowChangedNamespaceDeclarationsOfAncestors() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement root = document.getRootElement();
+		root.declareNamespace("ns1", "http://namespace/uri/1");
+		final IElement child = document.insertElement(root.getEndOffset(), new QualifiedName(null, "child"));
+		final IElement grandChild = document.insertElement(child.getEndOffset(), new QualifiedName(null, "grandchild"));
+		assertEquals("http://namespace/uri/1", grandChild.getNamespaceURI("ns1"));
+		assertEquals("ns1", grandChild.getNamespacePrefix("http://namespace/uri/1"));
+		assertNull(grandChild.getNamespaceURI("ns2"));
+
+		root.declareNamespace("ns2", "http://namespace/uri/2");
+		assertEquals("http://namespace/uri/2", grandChild.getNamespaceURI("ns2"));
+		assertEquals(2, grandChild.getNamespacePrefixes().size());
+
+		child.declareNamespace("ns1", "http://namespace/uri/1a");
+		assertEquals("http://namespace/uri/1a", grandChild.getNamespaceURI("ns1"));
+		assertEquals("ns1", grandChild.getNamespacePrefix("http://namespace/uri/1a"));
+		assertNull("the prefix is redeclared", grandChild.getNamespacePrefix("http://namespace/uri/1"));
+		assertEquals("ns1", root.getNamespacePrefix("http://namespace/uri/1"));
+
+		child.removeNamespace("ns1");
+		assertEquals("http://namespace/uri/1", grandChild.getNamespaceURI("ns1"));
+		assertEquals("ns1", grandChild.getNamespacePrefix("http://namespace/uri/1"));
+	}
+
+	@Test
+	public void givenSeveralPrefixesForTheSameNamespace_shouldProvideFirstDeclaredPrefix() throws Exception {
+		final IDocument document = new Document(new QualifiedName(null, "root"));
+		final IElement root = document.getRootElement();
+		root.declareNamespace("ns2", "http://namespace/uri");
+		root.declareNamespace("ns1", "http://namespace/uri");
+		final IElement child = document.insertElement(root.getEndOffset(), new QualifiedName(null, "child"));
+		child.declareNamespace("ns3", "http://namespace/uri/3");
+
+		assertEquals("ns2", child.getNamespacePrefix("http://namespace/uri"));
+		assertEquals("ns3", child.getNamespacePrefix("http://namespace/uri/3"));
+	}
+
 	@Test
 	public void findUndeclaredNamespaces() throws Exception {
 		final Element parent = new Element(new QualifiedName("http://namespace/default", "parent"));
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitor;
@@ -193,6 +194,127 @@ public class ParentTest {
 		assertNull(child.getParent());
 	}
 
+	@Test
+	public void associatedChildrenShouldNotNeedPositions() throws Exception {
+		addTestChild();
+		addTestChild();
+		content.insertText(parent.getEndOffset(), "Hello World");
+
+		assertEquals(2, content.getPositionCount());
+	}
+
+	@Test
+	public void shouldMoveNestedChildrenOnInsertText() throws Exception {
+		final TestParent child = new TestParent();
+		content.insertTagMarker(1);
+		content.insertTagMarker(1);
+		parent.addChild(child);
+		child.associate(content, new ContentRange(1, 2));
+		content.insertTagMarker(2);
+		content.insertTagMarker(2);
+		final TestChild grandChild = new TestChild();
+		child.addChild(grandChild);
+		grandChild.associate(content, new ContentRange(2, 3));
+
+		content.insertText(1, "Hello");
+		content.insertText(grandChild.getStartOffset(), "World");
+
+		assertEquals(6, child.getStartOffset());
+		assertEquals(14, child.getEndOffset());
+		assertEquals(12, grandChild.getStartOffset());
+		assertEquals(13, grandChild.getEndOffset());
+		assertEquals(15, parent.getEndOffset());
+	}
+
+	@Test
+	public void manyChildrenShouldKeepTheirOffsets() throws Exception {
+		final Random random = new Random(42);
+		final ArrayList<TestChild> children = new ArrayList<TestChild>();
+		for (int i = 0; i < 500; i++) {
+			children.add(addTestChild());
+		}
+
+		for (int i = 0; i < 200; i++) {
+			final TestChild child = children.get(random.nextInt(children.size()));
+			if (random.nextBoolean()) {
+				content.insertText(child.getStartOffset(), "Hello");
+			} else {
+				children.add(children.indexOf(child), insertTestChildAt(child.getStartOffset()));
+			}
+		}
+		for (int i = 0; i < 100; i++) {
+			final TestChild child = children.remove(random.nextInt(children.size()));
+			final ContentRange range = child.getRange();
+			parent.removeChild(child);
+			content.remove(range);
+		}
+
+		assertEquals(children.size(), parent.children().withoutText().count());
+		for (int i = 0; i < children.size(); i++) {
+			final TestChild child = children.get(i);
+			assertSame(child, parent.children().withoutText().get(i));
+			assertTrue(content.isTagMarker(child.getStartOffset()));
+			assertEquals(child.getStartOffset() + 1, child.getEndOffset());
+			if (i > 0) {
+				assertTrue(children.get(i - 1).getEndOffset() < child.getStartOffset());
+			}
+		}
+		assertEquals(content.length() - 1, parent.getEndOffset());
+	}
+
+	@Test
+	public void manyChildrenShouldFollowModificationsWithinChildren() throws Exception {
+		final Random random = new Random(42);
+		final ArrayList<TestChild> children = new ArrayList<TestChild>();
+		final int[] textLengths = new int[500];
+		for (int i = 0; i < textLengths.length; i++) {
+			children.add(addTestChild());
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			final int index = random.nextInt(children.size());
+			final TestChild child = children.get(index);
+			switch (random.nextInt(3)) {
+			case 0:
+				content.insertText(child.getEndOffset(), "Hello");
+				textLengths[index] += 5;
+				break;
+			case 1:
+				if (textLengths[index] > 0) {
+					content.remove(new ContentRange(child.getStartOffset() + 1, child.getStartOffset() + 1));
+					textLengths[index]--;
+				}
+				break;
+			default:
+				content.insertText(child.getStartOffset(), "Hello");
+				break;
+			}
+		}
+
+		for (int i = 0; i < children.size(); i++) {
+			final TestChild child = children.get(i);
+			assertTrue(content.isTagMarker(child.getStartOffset()));
+			assertTrue(content.isTagMarker(child.getEndOffset()));
+			assertEquals(textLengths[i] + 1, child.getEndOffset() - child.getStartOffset());
+			if (i > 0) {
+				assertTrue(children.get(i - 1).getEndOffset() < child.getStartOffset());
+			}
+		}
+		assertEquals(content.length() - 1, parent.getEndOffset());
+	}
+
+	@Test
+	public void removedChildShouldKeepItsRange() throws Exception {
+		addTestChild();
+		final TestChild child = addTestChild();
+		final ContentRange range = child.getRange();
+
+		parent.removeChild(child);
+		content.insertText(1, "Hello");
+
+		assertEquals(range.moveBy(5), child.getRange());
+	}
+
 	@Test(expected = UnsupportedOperationException.class)
 	public void shouldReturnUnmodifiableChildNodesIterator() throws Exception {
 		addTestChild();
@@ -692,6 +814,77 @@ public class ParentTest {
 		assertEquals(4, parent.children().count());
 	}
 
+	@Test
+	public void shouldProvideChildNodesByIndexWithoutText() throws Exception {
+		setUpChildNodes();
+		assertEquals(2, parent.getChildNodeCount());
+		assertChildNodeEquals("Child1", 7, 14, parent.getChildNode(0));
+		assertChildNodeEquals("Child2", 15, 22, parent.getChildNode(1));
+	}
+
+	@Test
+	public void shouldProvideIndexOfFirstChildNodeEndingAtOrAfterOffset() throws Exception {
+		setUpChildNodes();
+		assertEquals(0, parent.indexOfChildNodeAtOrAfter(0));
+		assertEquals(0, parent.indexOfChildNodeAtOrAfter(7));
+		assertEquals(0, parent.indexOfChildNodeAtOrAfter(14));
+		assertEquals(1, parent.indexOfChildNodeAtOrAfter(15));
+		assertEquals(1, parent.indexOfChildNodeAtOrAfter(22));
+		assertEquals(2, parent.indexOfChildNodeAtOrAfter(23));
+	}
+
+	@Test
+	public void givenTextBetweenChildren_shouldProvideSameTextNodesOnEachTraversal() throws Exception {
+		setUpChildNodes();
+		final List<? extends INode> firstTraversal = parent.children().asList();
+		final List<? extends INode> secondTraversal = parent.children().asList();
+
+		assertSame(firstTraversal.get(0), secondTraversal.get(0));
+		assertSame(firstTraversal.get(3), secondTraversal.get(3));
+		assertSame(firstTraversal.get(0), parent.getChildAt(3));
+		assertSame(firstTraversal.get(3), parent.getChildAt(25));
+	}
+
+	@Test
+	public void givenTextPartiallyInRange_shouldProvideTextNodeForRangeOnly() throws Exception {
+		setUpChildNodes();
+		final INode wholeText = parent.children().first();
+
+		final INode partialText = parent.children().in(new ContentRange(3, 10)).first();
+
+		assertTextNodeEquals("llo ", 3, 6, partialText);
+		assertTextNodeEquals("Hello ", 1, 6, wholeText);
+		assertSame(wholeText, parent.children().first());
+	}
+
+	@Test
+	public void whenTextIsModified_shouldProvideTextNodesForModifiedText() throws Exception {
+		setUpChildNodes();
+		parent.children().asList();
+
+		content.insertText(1, ">");
+		content.insertText(parent.getEndOffset(), "!");
+		content.remove(new ContentRange(5, 6));
+
+		final List<? extends INode> actualList = parent.children().asList();
+		assertTextNodeEquals(">Hel ", 1, 5, actualList.get(0));
+		assertTextNodeEquals(" World!", 22, 28, actualList.get(3));
+	}
+
+	@Test
+	public void whenChildIsInserted_shouldProvideTextNodesForNewGaps() throws Exception {
+		setUpChildNodes();
+		parent.children().asList();
+
+		insertTestChildAt(3);
+
+		final List<? extends INode> actualList = parent.children().asList();
+		assertEquals(6, actualList.size());
+		assertTextNodeEquals("He", 1, 2, actualList.get(0));
+		assertTextNodeEquals("llo ", 5, 8, actualList.get(2));
+		assertTextNodeEquals(" World", 25, 30, actualList.get(5));
+	}
+
 	private static void assertTextNodeEquals(final String text, final int startOffset, final int endOffset, final INode actualNode) {
 		assertTrue(actualNode instanceof IText);
 		assertEquals(text, actualNode.getText());
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadOnlyContentTest {
+
+	private IContent source;
+
+	@Before
+	public void setUp() throws Exception {
+		source = new CompactGapContent(10);
+		source.insertText(0, "Hello World");
+		source.insertTagMarker(6);
+	}
+
+	@Test
+	public void sharedRangeShouldProvideCharactersOfTheRange() throws Exception {
+		final IContent view = ReadOnlyContent.share(source, new ContentRange(5, 11));
+
+		assertEquals(7, view.length());
+		assertEquals(new ContentRange(0, 6), view.getRange());
+		assertEquals(" World", view.getText());
+		assertEquals(" \0World", view.getRawText());
+		assertEquals("Wo", view.getText(new ContentRange(2, 3)));
+		assertTrue(view.isTagMarker(1));
+		assertFalse(view.isTagMarker(7));
+		assertEquals('W', view.charAt(2));
+		assertEquals(" World", view.getContent().getText());
+	}
+
+	@Test
+	public void sharedRangeShouldFollowModificationsBeforeTheRange() throws Exception {
+		final IContent view = ReadOnlyContent.share(source, new ContentRange(5, 11));
+
+		source.insertText(0, "Hey! ");
+		source.remove(new ContentRange(5, 6));
+		source.insertText(5, "o");
+
+		assertEquals("Hey! ollo \0World", source.getRawText());
+		assertEquals(" \0World", view.getRawText());
+	}
+
+	@Test
+	public void sharedRangeShouldNotBeAffectedByModificationsAfterTheRange() throws Exception {
+		final IContent view = ReadOnlyContent.share(source, new ContentRange(0, 4));
+
+		source.insertText(5, ", wonderful");
+		source.remove(new ContentRange(6, 16));
+
+		assertEquals("Hello", view.getText());
+	}
+
+	@Test
+	public void sharedRangeShouldKeepItsCharactersWhenTheRangeIsModified() throws Exception {
+		final IContent insertedInto = ReadOnlyContent.share(source, new ContentRange(5, 11));
+		final IContent removedFrom = ReadOnlyContent.share(source, new ContentRange(0, 4));
+
+		source.insertText(9, "-");
+		source.remove(new ContentRange(3, 7));
+
+		assertEquals("Helo-rld", source.getText());
+		assertEquals(" \0World", insertedInto.getRawText());
+		assertEquals("Hello", removedFrom.getText());
+	}
+
+	@Test
+	public void sharedRangeShouldProvideSegmentsAtItsOwnOffsets() throws Exception {
+		final IContent view = ReadOnlyContent.share(source, new ContentRange(7, 11));
+		final StringBuilder text = new StringBuilder();
+
+		view.visitSegments(new ContentRange(1, 3), new IContentSegmentVisitor() {
+			public boolean visit(final int offset, final char[] chars, final int start, final int length) {
+				text.append(offset).append(':').append(chars, start, length);
+				return true;
+			}
+
+			public boolean visit(final int offset, final byte[] latin1, final int start, final int length) {
+				text.append(offset).append(':');
+				for (int i = start; i < start + length; i++) {
+					text.append((char) latin1[i]);
+				}
+				return true;
+			}
+		});
+
+		assertEquals("1:orl", text.toString());
+	}
+
+	@Test
+	public void sharedRangeShouldNotBeModifiable() throws Exception {
+		final IContent view = ReadOnlyContent.share(source, new ContentRange(5, 11));
+
+		try {
+			view.insertText(1, "Changed");
+			fail("The shared range must not be modifiable.");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			view.remove(new ContentRange(1, 2));
+			fail("The shared range must not be modifiable.");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(" \0World", view.getRawText());
+	}
+
+	@Test
+	public void manyModificationsShouldNotAffectSharedRanges() throws Exception {
+		final Random random = new Random(42);
+		final IContent[] sources = { new CompactGapContent(10), new RopeContent() };
+		for (final IContent source : sources) {
+			source.insertText(0, "The quick brown fox jumps over the lazy dog");
+			final IContent[] views = new IContent[50];
+			final String[] expectedTexts = new String[views.length];
+			for (int i = 0; i < views.length; i++) {
+				final int startOffset = random.nextInt(source.length());
+				final ContentRange range = new ContentRange(startOffset, startOffset + random.nextInt(source.length() - startOffset));
+				views[i] = ReadOnlyContent.share(source, range);
+				expectedTexts[i] = source.getRawText(range);
+
+				final int offset = random.nextInt(source.length());
+				if (random.nextBoolean() && source.length() > 20) {
+					source.remove(new ContentRange(offset, Math.min(offset + random.nextInt(5), source.length() - 1)));
+				} else {
+					source.insertText(offset, Integer.toString(i));
+				}
+			}
+
+			for (int i = 0; i < views.length; i++) {
+				assertEquals(expectedTexts[i], views[i].getRawText());
+			}
+		}
+	}
+
+}
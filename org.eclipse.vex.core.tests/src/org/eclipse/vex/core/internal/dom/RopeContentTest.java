@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+import org.junit.Test;
+
+public class RopeContentTest extends ContentTest {
+
+	@Override
+	protected IContent createContent() {
+		return new RopeContent();
+	}
+
+	@Test
+	public void subSequenceIsNotAffectedByModifications() throws Exception {
+		final RopeContent content = new RopeContent();
+		content.insertText(0, "Hello World");
+		final CharSequence world = content.subSequence(6, 10);
+
+		content.remove(new ContentRange(6, 10));
+		content.insertText(6, "Universe");
+
+		assertEquals("World", world.toString());
+		assertEquals(5, world.length());
+		assertEquals('W', world.charAt(0));
+		assertEquals("orl", world.subSequence(1, 4).toString());
+	}
+
+	@Test
+	public void givenLargeContent_shouldSpreadTextOverChunks() throws Exception {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			text.append((char) ('a' + i % 26));
+		}
+		final RopeContent content = new RopeContent();
+		content.insertText(0, text.toString());
+		content.insertTagMarker(50000);
+
+		assertEquals(100001, content.length());
+		assertTrue(content.isTagMarker(50000));
+		assertEquals(text.toString(), content.getText());
+		assertEquals(text.charAt(99999), content.charAt(100000));
+	}
+
+	@Test
+	public void scatteredModificationsShouldBehaveLikeGapContent() throws Exception {
+		final Random random = new Random(42);
+		final RopeContent ropeContent = new RopeContent();
+		final GapContent gapContent = new GapContent(10);
+		ropeContent.insertText(0, "Hello World");
+		gapContent.insertText(0, "Hello World");
+		final IPosition ropePosition = ropeContent.createPosition(6);
+		final IPosition gapPosition = gapContent.createPosition(6);
+
+		for (int i = 0; i < 2000; i++) {
+			final int offset = random.nextInt(ropeContent.length() + 1);
+			if (random.nextInt(3) == 0 && offset < ropeContent.length()) {
+				final int length = Math.min(random.nextInt(5) + 1, ropeContent.length() - offset);
+				final ContentRange range = new ContentRange(offset, offset + length - 1);
+				if (!range.contains(ropePosition.getOffset())) {
+					ropeContent.remove(range);
+					gapContent.remove(range);
+				}
+			} else if (random.nextInt(4) == 0) {
+				ropeContent.insertTagMarker(offset);
+				gapContent.insertTagMarker(offset);
+			} else {
+				final String text = Integer.toString(i);
+				ropeContent.insertText(offset, text);
+				gapContent.insertText(offset, text);
+			}
+		}
+
+		assertEquals(gapContent.getRawText(), ropeContent.getRawText());
+		assertEquals(gapPosition.getOffset(), ropePosition.getOffset());
+		assertEquals(gapContent.getText(new ContentRange(10, 100)), ropeContent.getText(new ContentRange(10, 100)));
+	}
+
+}
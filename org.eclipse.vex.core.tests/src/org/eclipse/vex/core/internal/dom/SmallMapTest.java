@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class SmallMapTest {
+
+	@Test
+	public void isInitiallyEmpty() throws Exception {
+		final SmallMap<String, String> map = new SmallMap<String, String>();
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.size());
+		assertNull(map.get("key"));
+	}
+
+	@Test
+	public void shouldReplaceValueOfEqualKey() throws Exception {
+		final SmallMap<String, String> map = new SmallMap<String, String>();
+		assertNull(map.put("key", "value1"));
+		assertEquals("value1", map.put(new String("key"), "value2"));
+		assertEquals(1, map.size());
+		assertEquals("value2", map.get("key"));
+	}
+
+	@Test
+	public void shouldSupportNullKey() throws Exception {
+		final SmallMap<String, String> map = new SmallMap<String, String>();
+		map.put("key", "value");
+		map.put(null, "default");
+		assertTrue(map.containsKey(null));
+		assertEquals("default", map.get(null));
+		assertEquals("default", map.remove(null));
+		assertFalse(map.containsKey(null));
+	}
+
+	@Test
+	public void shouldKeepInsertionOrder() throws Exception {
+		final SmallMap<String, Integer> map = new SmallMap<String, Integer>();
+		for (int i = 0; i < 10; i++) {
+			map.put("key" + i, i);
+		}
+		map.remove("key3");
+		map.remove("key0");
+
+		assertEquals(Arrays.asList("key1", "key2", "key4", "key5", "key6", "key7", "key8", "key9"), map.keys());
+		assertEquals(Arrays.asList(1, 2, 4, 5, 6, 7, 8, 9), map.values());
+	}
+
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.tests;
+
+import java.util.EventObject;
+
+import org.eclipse.vex.core.internal.core.ListenerList;
+import org.eclipse.vex.core.internal.core.ListenerList.Dispatcher;
+import org.eclipse.vex.core.tests.ListenerListTest.MockEventListener;
+
+/**
+ * A microbenchmark for the cost of firing an event with ListenerList, comparing the reflective dispatch by method name
+ * with the dispatch through a Dispatcher. This is not part of the test suite, run it as a Java application.
+ */
+public class ListenerListBenchmark {
+
+	private static final int LISTENERS = 5;
+	private static final int EVENTS = 2000000;
+	private static final int ROUNDS = 5;
+
+	private static final Dispatcher<MockEventListener, EventObject> HANDLE_EVENT = new Dispatcher<MockEventListener, EventObject>() {
+		public void dispatch(final MockEventListener listener, final EventObject event) {
+			listener.handleEvent(event);
+		}
+	};
+
+	public static void main(final String[] args) {
+		final ListenerList<MockEventListener, EventObject> listenerList = new ListenerList<MockEventListener, EventObject>(MockEventListener.class);
+		for (int i = 0; i < LISTENERS; i++) {
+			listenerList.add(new MockEventListener());
+		}
+		final EventObject event = new EventObject("");
+
+		for (int round = 1; round <= ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < EVENTS; i++) {
+				listenerList.fireEvent("handleEvent", event);
+			}
+			final long reflection = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < EVENTS; i++) {
+				listenerList.fireEvent(HANDLE_EVENT, event);
+			}
+			final long dispatcher = System.nanoTime() - start;
+
+			System.out.printf("round %d: %d listeners, reflection %.1f ns/event, dispatcher %.1f ns/event%n", round, LISTENERS, (double) reflection / EVENTS, (double) dispatcher / EVENTS);
+		}
+	}
+
+}
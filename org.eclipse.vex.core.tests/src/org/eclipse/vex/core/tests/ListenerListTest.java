@@ -15,24 +15,46 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.EventListener;
 import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.eclipse.vex.core.internal.core.ListenerList;
+import org.eclipse.vex.core.internal.core.ListenerList.Dispatcher;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 public class ListenerListTest {
 
+	private static final Dispatcher<MockEventListener, EventObject> HANDLE_EVENT = new Dispatcher<MockEventListener, EventObject>() {
+		public void dispatch(final MockEventListener listener, final EventObject event) {
+			listener.handleEvent(event);
+		}
+	};
+
+	private static final Dispatcher<MockEventListener, EventObject> FAIL_ASSERTION = new Dispatcher<MockEventListener, EventObject>() {
+		public void dispatch(final MockEventListener listener, final EventObject event) {
+			listener.failAssertion(event);
+		}
+	};
+
+	private static final Dispatcher<MockEventListener, EventObject> THROW_EXCEPTION = new Dispatcher<MockEventListener, EventObject>() {
+		public void dispatch(final MockEventListener listener, final EventObject event) {
+			listener.throwException(event);
+		}
+	};
+
 	private ListenerList<MockEventListener, EventObject> listenerList;
-	private Exception handledException;
+	private Throwable handledException;
 
 	@Before
 	public void setUp() throws Exception {
 		listenerList = new ListenerList<MockEventListener, EventObject>(MockEventListener.class) {
 			@Override
-			public void handleException(final Exception e) {
+			public void handleException(final Throwable e) {
 				handledException = e;
 			}
 		};
@@ -57,6 +79,11 @@ public class ListenerListTest {
 			throw new MyException();
 		}
 
+		public void failAssertion(final EventObject event) {
+			throwExceptionMethodInvoced = true;
+			throw new AssertionError();
+		}
+
 	}
 
 	private static class MyException extends RuntimeException {
@@ -66,7 +93,7 @@ public class ListenerListTest {
 	}
 
 	@Test
-	public void testListenerInvocation() throws Exception {
+	public void testListenerInvocation() throws Throwable {
 		final MockEventListener eventListener = new MockEventListener();
 
 		listenerList.add(eventListener);
@@ -88,7 +115,7 @@ public class ListenerListTest {
 	}
 
 	@Test
-	public void testAddRemove() throws Exception {
+	public void testAddRemove() throws Throwable {
 		final MockEventListener listener = new MockEventListener();
 		final MockEventListener anotherListener = new MockEventListener();
 
@@ -127,4 +154,91 @@ public class ListenerListTest {
 		assertTrue(handledException.getCause() instanceof MyException);
 	}
 
+	@Test
+	public void testDispatcherInvocation() throws Throwable {
+		final MockEventListener eventListener = new MockEventListener();
+		final MockEventListener anotherListener = new MockEventListener();
+
+		listenerList.add(eventListener);
+		listenerList.add(anotherListener);
+		listenerList.fireEvent(HANDLE_EVENT, new EventObject(""));
+		assertEquals(1, eventListener.invocations);
+		assertEquals(1, anotherListener.invocations);
+
+		listenerList.remove(eventListener);
+		listenerList.fireEvent(HANDLE_EVENT, new EventObject(""));
+		assertEquals(1, eventListener.invocations);
+		assertEquals(2, anotherListener.invocations);
+
+		if (handledException != null) {
+			throw handledException;
+		}
+	}
+
+	@Test
+	public void testRemoveDuringInvocation() throws Exception {
+		final MockEventListener secondListener = new MockEventListener();
+		final MockEventListener firstListener = new MockEventListener() {
+			@Override
+			public void handleEvent(final EventObject event) {
+				super.handleEvent(event);
+				listenerList.remove(secondListener);
+			}
+		};
+
+		listenerList.add(firstListener);
+		listenerList.add(secondListener);
+		listenerList.fireEvent(HANDLE_EVENT, new EventObject(""));
+		assertEquals("The current notification should not be affected.", 1, secondListener.invocations);
+
+		listenerList.fireEvent(HANDLE_EVENT, new EventObject(""));
+		assertEquals(2, firstListener.invocations);
+		assertEquals(1, secondListener.invocations);
+	}
+
+	@Test
+	public void testExceptionWhileDispatching() throws Exception {
+		final MockEventListener eventListener = new MockEventListener();
+		final MockEventListener anotherListener = new MockEventListener();
+
+		listenerList.add(eventListener);
+		listenerList.add(anotherListener);
+		listenerList.fireEvent(THROW_EXCEPTION, new EventObject(""));
+		assertTrue(eventListener.throwExceptionMethodInvoced);
+		assertTrue("The other listeners should be notified anyway.", anotherListener.throwExceptionMethodInvoced);
+		assertTrue(handledException instanceof MyException);
+	}
+
+	@Test
+	public void testFailedAssertionWhileDispatching() throws Exception {
+		final MockEventListener eventListener = new MockEventListener();
+		final MockEventListener anotherListener = new MockEventListener();
+
+		listenerList.add(eventListener);
+		listenerList.add(anotherListener);
+		listenerList.fireEvent(FAIL_ASSERTION, new EventObject(""));
+		assertTrue(eventListener.throwExceptionMethodInvoced);
+		assertTrue("The other listeners should be notified anyway.", anotherListener.throwExceptionMethodInvoced);
+		assertTrue(handledException instanceof AssertionError);
+	}
+
+	@Test
+	public void testDispatchWithExecutor() throws Exception {
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		final ListenerList<MockEventListener, EventObject> asyncListenerList = new ListenerList<MockEventListener, EventObject>(MockEventListener.class, new Executor() {
+			public void execute(final Runnable task) {
+				tasks.add(task);
+			}
+		});
+		final MockEventListener eventListener = new MockEventListener();
+
+		asyncListenerList.add(eventListener);
+		asyncListenerList.fireEvent(HANDLE_EVENT, new EventObject(""));
+		assertEquals(0, eventListener.invocations);
+		assertEquals(1, tasks.size());
+
+		tasks.get(0).run();
+		assertEquals(1, eventListener.invocations);
+	}
+
 }
@@ -17,23 +17,35 @@ package org.eclipse.vex.core.tests;
 import org.eclipse.vex.core.internal.core.AfterNIteratorTest;
 import org.eclipse.vex.core.internal.core.FilterIteratorTest;
 import org.eclipse.vex.core.internal.core.FirstNIteratorTest;
+import org.eclipse.vex.core.internal.core.NamePoolTest;
 import org.eclipse.vex.core.internal.core.XmlTest;
+import org.eclipse.vex.core.internal.css.AncestorFilterTest;
 import org.eclipse.vex.core.internal.css.BatikBehaviorTest;
+import org.eclipse.vex.core.internal.css.CascadeTest;
 import org.eclipse.vex.core.internal.css.CssTest;
 import org.eclipse.vex.core.internal.css.CssWhitespacePolicyTest;
 import org.eclipse.vex.core.internal.css.PropertyTest;
+import org.eclipse.vex.core.internal.css.RuleIndexTest;
 import org.eclipse.vex.core.internal.css.RuleTest;
+import org.eclipse.vex.core.internal.css.StyleSharingCacheTest;
 import org.eclipse.vex.core.internal.dom.AttributeTest;
 import org.eclipse.vex.core.internal.dom.AxisTest;
 import org.eclipse.vex.core.internal.dom.BasicNodeTest;
 import org.eclipse.vex.core.internal.dom.BlockElementBoxTest;
+import org.eclipse.vex.core.internal.dom.ChangeJournalTest;
+import org.eclipse.vex.core.internal.dom.ChildListTest;
+import org.eclipse.vex.core.internal.dom.CompactGapContentTest;
+import org.eclipse.vex.core.internal.dom.ContentPositionsTest;
 import org.eclipse.vex.core.internal.dom.ContentRangeTest;
 import org.eclipse.vex.core.internal.dom.CopyVisitorTest;
 import org.eclipse.vex.core.internal.dom.DeepCopyTest;
 import org.eclipse.vex.core.internal.dom.DocumentEventTest;
 import org.eclipse.vex.core.internal.dom.DocumentFragmentTest;
 import org.eclipse.vex.core.internal.dom.DocumentTest;
+import org.eclipse.vex.core.internal.dom.DocumentTransactionTest;
+import org.eclipse.vex.core.internal.dom.ElementNameIndexTest;
 import org.eclipse.vex.core.internal.dom.GapContentTest;
+import org.eclipse.vex.core.internal.dom.IdIndexTest;
 import org.eclipse.vex.core.internal.dom.L1CommentHandlingTest;
 import org.eclipse.vex.core.internal.dom.L1DeletionTests;
 import org.eclipse.vex.core.internal.dom.L1ElementHandlingTest;
@@ -42,6 +54,9 @@ import org.eclipse.vex.core.internal.dom.L1ProcessingInstructionHandlingTest;
 import org.eclipse.vex.core.internal.dom.L1TextHandlingTest;
 import org.eclipse.vex.core.internal.dom.NamespaceTest;
 import org.eclipse.vex.core.internal.dom.ParentTest;
+import org.eclipse.vex.core.internal.dom.ReadOnlyContentTest;
+import org.eclipse.vex.core.internal.dom.RopeContentTest;
+import org.eclipse.vex.core.internal.dom.SmallMapTest;
 import org.eclipse.vex.core.internal.io.DocumentContentModelTest;
 import org.eclipse.vex.core.internal.io.DocumentReaderTest;
 import org.eclipse.vex.core.internal.io.DocumentWriterTest;
@@ -77,7 +92,7 @@ import org.junit.runners.Suite;
 		ImageBoxTest.class, DocumentWriterTest.class, DTDValidatorTest.class, GapContentTest.class, SpaceNormalizerTest.class, TextWrapperTest.class, TestBlockElementBox.class,
 		TestBlocksInInlines.class, TestDocumentTextBox.class, TestStaticTextBox.class, TableLayoutTest.class, LayoutTestSuite.class, ListenerListTest.class, DocumentFragmentTransferTest.class,
 		XMLFragmentTest.class, VexWidgetTest.class, L2SimpleEditingTest.class, L2SelectionTest.class, L2CommentEditingTest.class, L2ProcessingInstructionEditingTest.class, L2XmlInsertionTest.class,
-		DocumentEventTest.class, L2StyleSheetTest.class, XmlTest.class
+		DocumentEventTest.class, L2StyleSheetTest.class, XmlTest.class, RopeContentTest.class, ContentPositionsTest.class, CompactGapContentTest.class, ChildListTest.class, SmallMapTest.class, NamePoolTest.class, IdIndexTest.class, ElementNameIndexTest.class, ChangeJournalTest.class, DocumentTransactionTest.class, RuleIndexTest.class, AncestorFilterTest.class, StyleSharingCacheTest.class, CascadeTest.class, ReadOnlyContentTest.class
 
 })
 public class VEXCoreTestSuite {
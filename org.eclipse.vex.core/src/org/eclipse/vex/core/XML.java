@@ -35,6 +35,13 @@ public class XML {
 	 */
 	public static final QualifiedName BASE_ATTRIBUTE = new QualifiedName(Namespace.XML_NAMESPACE_URI, "base");
 
+	/**
+	 * The xml:id attribute defines an ID for an element, independent of the document's schema or DTD.
+	 * 
+	 * @see http://www.w3.org/TR/xml-id/
+	 */
+	public static final QualifiedName ID_ATTRIBUTE = new QualifiedName(Namespace.XML_NAMESPACE_URI, "id");
+
 	/**
 	 * @param c
 	 * @return <code>true</code> if c is a whitespace according to the W3C recommendation<br />
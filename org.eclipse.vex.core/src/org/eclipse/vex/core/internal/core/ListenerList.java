@@ -14,15 +14,17 @@ package org.eclipse.vex.core.internal.core;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.EventObject;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * A collection of listener objects. The main point of this class is the fireEvent method, which takes care of the
  * tedium of iterating over the collection and catching exceptions generated by listeners.
+ * <p>
+ * The listeners are kept in an array which is copied when a listener is added or removed. Firing an event does not
+ * copy anything, listeners may be added or removed during invocation without affecting the current notification.
  * 
  * @param <L>
  *            the type of listeners maintained by this list
@@ -31,8 +33,24 @@ import java.util.Map;
  */
 public class ListenerList<L, E extends EventObject> {
 
+	/**
+	 * Delivers an event to a single listener by calling the appropriate method of the listener interface. Dispatchers
+	 * are typically defined once as constants per listener method.
+	 * 
+	 * @param <L>
+	 *            the type of listeners
+	 * @param <E>
+	 *            the type of events
+	 */
+	public static interface Dispatcher<L, E> {
+		void dispatch(L listener, E event);
+	}
+
+	private static final Object[] NO_LISTENERS = new Object[0];
+
 	private final Class<L> listenerClass;
-	private final List<L> listeners = new ArrayList<L>();
+	private final Executor executor;
+	private volatile Object[] listeners = NO_LISTENERS;
 
 	/** Mapping: method name => method object */
 	private final Map<String, Method> methods = new HashMap<String, Method>();
@@ -44,7 +62,22 @@ public class ListenerList<L, E extends EventObject> {
 	 *            Class of the listener interface.
 	 */
 	public ListenerList(final Class<L> listenerClass) {
+		this(listenerClass, null);
+	}
+
+	/**
+	 * Create a list which notifies its listeners asynchronously with the given executor. The listeners are notified in
+	 * the order of the fired events if the executor runs the tasks in the order of submission, e.g. a single thread
+	 * executor.
+	 * 
+	 * @param listenerClass
+	 *            Class of the listener interface.
+	 * @param executor
+	 *            the executor to notify the listeners, or null to notify them within the calling thread
+	 */
+	public ListenerList(final Class<L> listenerClass, final Executor executor) {
 		this.listenerClass = listenerClass;
+		this.executor = executor;
 	}
 
 	/**
@@ -54,8 +87,11 @@ public class ListenerList<L, E extends EventObject> {
 	 * @param listener
 	 *            Listener to be added.
 	 */
-	public void add(final L listener) {
-		this.listeners.add(listener);
+	public synchronized void add(final L listener) {
+		final Object[] newListeners = new Object[listeners.length + 1];
+		System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+		newListeners[listeners.length] = listener;
+		listeners = newListeners;
 	}
 
 	/**
@@ -64,8 +100,27 @@ public class ListenerList<L, E extends EventObject> {
 	 * @param listener
 	 *            Listener to remove.
 	 */
-	public void remove(final L listener) {
-		this.listeners.remove(listener);
+	public synchronized void remove(final L listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i].equals(listener)) {
+				if (listeners.length == 1) {
+					listeners = NO_LISTENERS;
+					return;
+				}
+				final Object[] newListeners = new Object[listeners.length - 1];
+				System.arraycopy(listeners, 0, newListeners, 0, i);
+				System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+				listeners = newListeners;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return true if there are no listeners in this list
+	 */
+	public boolean isEmpty() {
+		return listeners.length == 0;
 	}
 
 	/**
@@ -74,15 +129,54 @@ public class ListenerList<L, E extends EventObject> {
 	 * method to provide a more suitable implementation.
 	 * 
 	 * @param e
-	 *            Exception thrown by the listener method.
+	 *            Exception or error thrown by the listener method.
 	 */
-	public void handleException(final Exception e) {
+	public void handleException(final Throwable e) {
 		e.printStackTrace();
 	}
 
+	/**
+	 * Delivers the given event to each registered listener with the given dispatcher. Anything thrown by a listener,
+	 * including errors like a failed assertion, is passed to handleException, so the remaining listeners are notified
+	 * anyway.
+	 * 
+	 * @param dispatcher
+	 *            the dispatcher which calls the listener method
+	 * @param event
+	 *            Event to be passed to each listener.
+	 */
+	public <T extends E> void fireEvent(final Dispatcher<? super L, ? super T> dispatcher, final T event) {
+		final Object[] currentListeners = listeners;
+		if (currentListeners.length == 0) {
+			return;
+		}
+		if (executor == null) {
+			dispatch(currentListeners, dispatcher, event);
+		} else {
+			executor.execute(new Runnable() {
+				public void run() {
+					dispatch(currentListeners, dispatcher, event);
+				}
+			});
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> void dispatch(final Object[] listeners, final Dispatcher<? super L, ? super T> dispatcher, final T event) {
+		for (final Object listener : listeners) {
+			try {
+				dispatcher.dispatch((L) listener, event);
+			} catch (final Throwable e) {
+				handleException(e);
+			}
+		}
+	}
+
 	/**
 	 * Calls the given method on each registered listener. Any exception thrown from one of the called methods is passed
 	 * to handleException, as is any introspection error, e.g. if the given method doesn't exist.
+	 * <p>
+	 * The method is called by reflection. Prefer {@link #fireEvent(Dispatcher, EventObject)} for frequent events.
 	 * 
 	 * @param methodName
 	 *            Listener method to call.
@@ -95,24 +189,22 @@ public class ListenerList<L, E extends EventObject> {
 			return; // Exception handling already done by getMethod
 		}
 
-		// Listeners may call #remove or #add during method invocation, thus the List is copied here
-		// to prevent a ConcurrentModificationException.
-		@SuppressWarnings("unchecked")
-		final L[] l = (L[]) listeners.toArray();
-		for (final L listener : l) {
-			try {
-				method.invoke(listener, event);
-			} catch (final IllegalArgumentException e) {
-				handleException(e);
-			} catch (final IllegalAccessException e) {
-				handleException(e);
-			} catch (final InvocationTargetException e) {
-				handleException(e);
+		fireEvent(new Dispatcher<L, E>() {
+			public void dispatch(final L listener, final E event) {
+				try {
+					method.invoke(listener, event);
+				} catch (final IllegalArgumentException e) {
+					handleException(e);
+				} catch (final IllegalAccessException e) {
+					handleException(e);
+				} catch (final InvocationTargetException e) {
+					handleException(e);
+				}
 			}
-		}
+		}, event);
 	}
 
-	private Method getMethod(final String methodName, final Class<?> eventClass) {
+	private synchronized Method getMethod(final String methodName, final Class<?> eventClass) {
 		if (this.methods.containsKey(methodName)) {
 			return this.methods.get(methodName);
 		}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import org.eclipse.core.runtime.QualifiedName;
+
+/**
+ * A shared pool of element and attribute names. For equal names the pool always returns the same QualifiedName
+ * instance, as long as this instance is referenced anywhere else. The qualifier and the local name of a pooled name are
+ * interned Strings.
+ * <p>
+ * Looking up a name which is already in the pool does not allocate any objects and does not lock, hence the pool can
+ * be used for every name that is read while parsing a document, by several threads at the same time. Only adding a
+ * new name takes a lock. Names which are not used anymore are collected by the garbage collector and removed from
+ * the pool the next time a name is added.
+ */
+public final class NamePool {
+
+	private static final int INITIAL_CAPACITY = 256;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private static final ReferenceQueue<QualifiedName> collectedNames = new ReferenceQueue<QualifiedName>();
+
+	/*
+	 * The table is read without a lock. Readers may miss an entry which is added or moved concurrently, but every name
+	 * they find is correct. A name which is not found is looked up again under the lock before it is added. The table
+	 * is only modified under the lock. A resize creates new entries and leaves the old table intact for its readers.
+	 */
+	private static volatile PoolEntry[] table = new PoolEntry[INITIAL_CAPACITY];
+	private static int size;
+
+	private NamePool() {
+	}
+
+	/**
+	 * @return the pooled instance of the name with the given qualifier and local name
+	 */
+	public static QualifiedName intern(final String qualifier, final String localName) {
+		final int hash = hash(qualifier, localName);
+		final QualifiedName pooledName = find(table, qualifier, localName, hash);
+		if (pooledName != null) {
+			return pooledName;
+		}
+		return add(qualifier, localName, hash);
+	}
+
+	/**
+	 * @return the pooled instance of the given name
+	 */
+	public static QualifiedName intern(final QualifiedName name) {
+		if (name == null) {
+			return null;
+		}
+		return intern(name.getQualifier(), name.getLocalName());
+	}
+
+	/**
+	 * @return the number of names in the pool, including names which are already collected but not yet removed
+	 */
+	public static synchronized int size() {
+		return size;
+	}
+
+	private static int hash(final String qualifier, final String localName) {
+		final int hash = (qualifier == null ? 0 : qualifier.hashCode()) * 31 + localName.hashCode();
+		return hash ^ hash >>> 16;
+	}
+
+	private static int indexFor(final int hash, final int length) {
+		return hash & length - 1;
+	}
+
+	private static boolean equal(final String s1, final String s2) {
+		return s1 == null ? s2 == null : s1.equals(s2);
+	}
+
+	private static QualifiedName find(final PoolEntry[] table, final String qualifier, final String localName, final int hash) {
+		for (PoolEntry entry = table[indexFor(hash, table.length)]; entry != null; entry = entry.next) {
+			final QualifiedName name = entry.get();
+			if (entry.hash == hash && name != null && equal(qualifier, name.getQualifier()) && localName.equals(name.getLocalName())) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	private static synchronized QualifiedName add(final String qualifier, final String localName, final int hash) {
+		removeCollectedNames();
+
+		final QualifiedName pooledName = find(table, qualifier, localName, hash);
+		if (pooledName != null) {
+			return pooledName; // added by another thread in the meantime
+		}
+
+		final QualifiedName name = new QualifiedName(qualifier == null ? null : qualifier.intern(), localName.intern());
+		final PoolEntry[] currentTable = table;
+		final int index = indexFor(hash, currentTable.length);
+		currentTable[index] = new PoolEntry(name, hash, currentTable[index]);
+		size++;
+		if (size > currentTable.length * LOAD_FACTOR) {
+			resize();
+		} else {
+			table = currentTable; // publish the new entry to the readers
+		}
+		return name;
+	}
+
+	private static void resize() {
+		final PoolEntry[] oldTable = table;
+		final PoolEntry[] newTable = new PoolEntry[oldTable.length * 2];
+		int newSize = 0;
+		for (int i = 0; i < oldTable.length; i++) {
+			for (PoolEntry entry = oldTable[i]; entry != null; entry = entry.next) {
+				final QualifiedName name = entry.get();
+				if (name != null) {
+					final int index = indexFor(entry.hash, newTable.length);
+					newTable[index] = new PoolEntry(name, entry.hash, newTable[index]);
+					newSize++;
+				}
+			}
+		}
+		size = newSize; // the old entries of collected names are not in the new table anymore
+		table = newTable;
+	}
+
+	private static void removeCollectedNames() {
+		final PoolEntry[] currentTable = table;
+		PoolEntry collected = (PoolEntry) collectedNames.poll();
+		while (collected != null) {
+			final int index = indexFor(collected.hash, currentTable.length);
+			PoolEntry previous = null;
+			for (PoolEntry entry = currentTable[index]; entry != null; entry = entry.next) {
+				if (entry == collected) {
+					if (previous == null) {
+						currentTable[index] = entry.next;
+					} else {
+						previous.next = entry.next;
+					}
+					size--;
+					break;
+				}
+				previous = entry;
+			}
+			collected = (PoolEntry) collectedNames.poll();
+		}
+	}
+
+	private static class PoolEntry extends WeakReference<QualifiedName> {
+		private final int hash;
+
+		/*
+		 * Volatile, because readers follow the chain without a lock while a collected entry is unlinked.
+		 */
+		private volatile PoolEntry next;
+
+		public PoolEntry(final QualifiedName name, final int hash, final PoolEntry next) {
+			super(name, collectedNames);
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+}
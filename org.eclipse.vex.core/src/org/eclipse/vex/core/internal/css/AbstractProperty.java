@@ -26,6 +26,7 @@ public abstract class AbstractProperty implements IProperty {
 	 */
 	public AbstractProperty(final String name) {
 		this.name = name;
+		slot = Styles.getSlot(name);
 	}
 
 	/**
@@ -39,6 +40,13 @@ public abstract class AbstractProperty implements IProperty {
 		return name;
 	}
 
+	/**
+	 * Returns the slot of the property's value in Styles, or -1 if the property has no slot.
+	 */
+	int getSlot() {
+		return slot;
+	}
+
 	public static boolean isPercentage(final LexicalUnit lu) {
 		return lu != null && lu.getLexicalUnitType() == LexicalUnit.SAC_PERCENTAGE;
 	}
@@ -116,6 +124,7 @@ public abstract class AbstractProperty implements IProperty {
 	}
 
 	private final String name;
+	private final int slot;
 
 	private static final float EX_FACTOR = 0.6f;
 
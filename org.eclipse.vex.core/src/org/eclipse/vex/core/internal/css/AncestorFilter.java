@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import java.util.StringTokenizer;
+
+import org.eclipse.vex.core.provisional.dom.INode;
+
+/**
+ * A Bloom filter over the local names and the class tokens of the ancestors of a node. If the filter does not contain
+ * the name or a class of a compound selector, no ancestor can match the compound selector, hence a descendant or child
+ * selector can be rejected without walking up the tree. The filter may give false positives, but never false
+ * negatives.
+ * <p>
+ * A filter is immutable. The filter for the children of a node is derived from the filter of the node's ancestors
+ * while the styles of the node are calculated, and kept with these styles. Nodes which do not add new bits share the
+ * filter of their parent.
+ */
+class AncestorFilter {
+
+	public static final AncestorFilter EMPTY = new AncestorFilter(new long[4]);
+
+	private static final int NAME_SALT = 0x5BD1E995;
+	private static final int CLASS_SALT = 0x1B873593;
+
+	private final long[] bits;
+
+	private AncestorFilter(final long[] bits) {
+		this.bits = bits;
+	}
+
+	/**
+	 * @return the key of the given local name
+	 */
+	public static int nameKey(final String localName) {
+		return mix(localName.hashCode() ^ NAME_SALT);
+	}
+
+	/**
+	 * @return the key of the given token of the class attribute
+	 */
+	public static int classKey(final String classToken) {
+		return mix(classToken.hashCode() ^ CLASS_SALT);
+	}
+
+	private static int mix(final int hash) {
+		final int h = hash * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * @return a filter which contains the keys of this filter and the keys of the given node
+	 */
+	public AncestorFilter with(final INode node) {
+		long[] newBits = null;
+
+		final String localName = Rule.getLocalNameOfElement(node);
+		if (localName != null && localName.length() > 0) {
+			newBits = add(newBits, nameKey(localName));
+		}
+
+		final String classes = Rule.getAttributeValue(node, "class");
+		if (classes != null) {
+			final StringTokenizer tokens = new StringTokenizer(classes);
+			while (tokens.hasMoreTokens()) {
+				newBits = add(newBits, classKey(tokens.nextToken()));
+			}
+		}
+
+		if (newBits == null) {
+			return this;
+		}
+		return new AncestorFilter(newBits);
+	}
+
+	/**
+	 * @return the given bits with the bits of the given key, or null if this filter already contains the key and the
+	 *         bits are null
+	 */
+	private long[] add(final long[] newBits, final int key) {
+		if (newBits == null && mightContain(key)) {
+			return null;
+		}
+		final long[] result = newBits == null ? bits.clone() : newBits;
+		result[(key & 0xFF) >>> 6] |= 1L << (key & 0x3F);
+		result[(key >>> 8 & 0xFF) >>> 6] |= 1L << (key >>> 8 & 0x3F);
+		return result;
+	}
+
+	/**
+	 * @return false if none of the ancestors has the given key, true if some ancestor might have it
+	 */
+	public boolean mightContain(final int key) {
+		return (bits[(key & 0xFF) >>> 6] & 1L << (key & 0x3F)) != 0 && (bits[(key >>> 8 & 0xFF) >>> 6] & 1L << (key >>> 8 & 0x3F)) != 0;
+	}
+
+	/**
+	 * @return false if any of the given keys is missing, true if the ancestors might have all of them
+	 */
+	public boolean mightContainAll(final int[] keys) {
+		for (final int key : keys) {
+			if (!mightContain(key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -50,7 +50,7 @@ public class BorderStyleProperty extends AbstractProperty {
 		if (isBorderStyle(lu)) {
 			return lu.getStringValue();
 		} else if (isInherit(lu) && parentStyles != null) {
-			return parentStyles.get(getName());
+			return parentStyles.get(getSlot());
 		} else {
 			return CSS.NONE;
 		}
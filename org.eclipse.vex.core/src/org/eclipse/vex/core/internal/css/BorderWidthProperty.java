@@ -22,7 +22,7 @@ import org.w3c.css.sac.LexicalUnit;
 public class BorderWidthProperty extends AbstractProperty {
 
 	// Name of the corresponding border style property
-	private final String borderStyleName;
+	private final int borderStyleSlot;
 
 	// Axis along which the border width is measured.
 	private final Axis axis;
@@ -64,7 +64,7 @@ public class BorderWidthProperty extends AbstractProperty {
 	 */
 	public BorderWidthProperty(final String name, final String borderStyleName, final Axis axis) {
 		super(name);
-		this.borderStyleName = borderStyleName;
+		borderStyleSlot = Styles.getSlot(borderStyleName);
 		this.axis = axis;
 	}
 
@@ -96,14 +96,14 @@ public class BorderWidthProperty extends AbstractProperty {
 		final DisplayDevice device = DisplayDevice.getCurrent();
 		final int ppi = axis == Axis.HORIZONTAL ? device.getHorizontalPPI() : device.getVerticalPPI();
 
-		final String borderStyle = (String) styles.get(borderStyleName);
+		final String borderStyle = (String) styles.get(borderStyleSlot);
 
 		if (borderStyle.equals(CSS.NONE) || borderStyle.equals(CSS.HIDDEN)) {
 			return 0;
 		} else if (isBorderWidth(lu)) {
 			return getBorderWidth(lu, styles.getFontSize(), ppi);
 		} else if (isInherit(lu) && parentStyles != null) {
-			return ((Integer) parentStyles.get(getName())).intValue();
+			return ((Integer) parentStyles.get(getSlot())).intValue();
 		} else {
 			// not specified, "none", or other unknown value
 			return BORDER_WIDTH_MEDIUM;
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.LexicalUnit;
+import org.w3c.css.sac.Selector;
+
+/**
+ * The declarations of the core rules and the rules of a style sheet, ranked in cascade order when the style sheet is
+ * created: important declarations rank above normal ones, declarations of the style sheet above core declarations,
+ * more specific declarations above less specific ones, and later declarations above earlier ones.
+ * <p>
+ * The declarations of the rules which match a node are added to the cascade one rule after the other. For each
+ * property of the node and of its pseudo elements, the cascade keeps the value of the declaration with the highest
+ * rank. The cascade is cleared and reused for the next node, so it does not allocate anything while the styles are
+ * calculated.
+ */
+class Cascade {
+
+	/**
+	 * The index of the node itself, as opposed to its pseudo elements.
+	 */
+	public static final int NODE = 0;
+
+	private static final Comparator<RankedDeclaration> CASCADE_ORDERING = new Comparator<RankedDeclaration>() {
+		public int compare(final RankedDeclaration declaration1, final RankedDeclaration declaration2) {
+			if (declaration1.important != declaration2.important) {
+				return declaration1.important ? 1 : -1;
+			}
+			if (declaration1.fromStyleSheet != declaration2.fromStyleSheet) {
+				return declaration1.fromStyleSheet ? 1 : -1;
+			}
+			if (declaration1.specificity != declaration2.specificity) {
+				return declaration1.specificity < declaration2.specificity ? -1 : 1;
+			}
+			if (declaration1.ruleIndex != declaration2.ruleIndex) {
+				return declaration1.ruleIndex < declaration2.ruleIndex ? -1 : 1;
+			}
+			return declaration1.index - declaration2.index;
+		}
+	};
+
+	private final Map<String, Integer> propertyIndices = new HashMap<String, Integer>();
+	private final List<String> pseudoElementNames = new ArrayList<String>();
+
+	private final RankedDeclarations[] coreRules;
+	private final RankedDeclarations[] rules;
+
+	private final int propertyCount;
+	private final int[] ranks;
+	private final LexicalUnit[] values;
+	private final int[] declarationCounts;
+	private final int[] usedEntries;
+	private int usedEntryCount;
+
+	/**
+	 * @param coreRules
+	 *            the core rules, in the order of the core style sheet
+	 * @param rules
+	 *            the rules of the style sheet, in the order of the style sheet
+	 * @param propertyNames
+	 *            the names of the properties which get the first indices, in the given order
+	 */
+	public Cascade(final List<Rule> coreRules, final List<Rule> rules, final String... propertyNames) {
+		pseudoElementNames.add(null);
+		for (final String propertyName : propertyNames) {
+			getOrAddPropertyIndex(propertyName);
+		}
+
+		final List<RankedDeclaration> declarations = new ArrayList<RankedDeclaration>();
+		this.coreRules = collectDeclarations(coreRules, false, declarations);
+		this.rules = collectDeclarations(rules, true, declarations);
+
+		Collections.sort(declarations, CASCADE_ORDERING);
+		for (int i = 0; i < declarations.size(); i++) {
+			final RankedDeclaration declaration = declarations.get(i);
+			declaration.rule.ranks[declaration.index] = i + 1;
+		}
+
+		propertyCount = propertyIndices.size();
+		ranks = new int[pseudoElementNames.size() * propertyCount];
+		values = new LexicalUnit[ranks.length];
+		declarationCounts = new int[pseudoElementNames.size()];
+		usedEntries = new int[ranks.length];
+	}
+
+	private RankedDeclarations[] collectDeclarations(final List<Rule> rules, final boolean fromStyleSheet, final List<RankedDeclaration> declarations) {
+		final RankedDeclarations[] result = new RankedDeclarations[rules.size()];
+		for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+			final Rule rule = rules.get(ruleIndex);
+			final PropertyDecl[] propertyDecls = rule.getPropertyDecls();
+			final int specificity = rule.getSpecificity();
+
+			final RankedDeclarations rankedRule = new RankedDeclarations(getOrAddPseudoElementIndex(getPseudoElementName(rule)), propertyDecls.length);
+			for (int i = 0; i < propertyDecls.length; i++) {
+				rankedRule.properties[i] = getOrAddPropertyIndex(propertyDecls[i].getProperty());
+				rankedRule.values[i] = propertyDecls[i].getValue();
+				declarations.add(new RankedDeclaration(rankedRule, i, propertyDecls[i].isImportant(), fromStyleSheet, specificity, ruleIndex));
+			}
+			result[ruleIndex] = rankedRule;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the lower case name of the pseudo element which the given rule applies to, or null if the rule applies to
+	 *         the node itself
+	 */
+	private static String getPseudoElementName(final Rule rule) {
+		final Selector selector = rule.getSelector();
+		if (selector instanceof DescendantSelector && ((DescendantSelector) selector).getSimpleSelector().getSelectorType() == Selector.SAC_PSEUDO_ELEMENT_SELECTOR) {
+			return ((ElementSelector) ((DescendantSelector) selector).getSimpleSelector()).getLocalName().toLowerCase();
+		}
+		return null;
+	}
+
+	private int getOrAddPropertyIndex(final String propertyName) {
+		final Integer index = propertyIndices.get(propertyName);
+		if (index != null) {
+			return index.intValue();
+		}
+		final int newIndex = propertyIndices.size();
+		propertyIndices.put(propertyName, newIndex);
+		return newIndex;
+	}
+
+	private int getOrAddPseudoElementIndex(final String pseudoElementName) {
+		final int index = pseudoElementNames.indexOf(pseudoElementName);
+		if (index >= 0) {
+			return index;
+		}
+		pseudoElementNames.add(pseudoElementName);
+		return pseudoElementNames.size() - 1;
+	}
+
+	/**
+	 * @return the index of the given property, or -1 if no rule declares the property and it was not given to the
+	 *         constructor
+	 */
+	public int getPropertyIndex(final String propertyName) {
+		final Integer index = propertyIndices.get(propertyName);
+		if (index == null) {
+			return -1;
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * @return the number of pseudo elements plus one for the node itself
+	 */
+	public int getPseudoElementCount() {
+		return pseudoElementNames.size();
+	}
+
+	/**
+	 * @return the name of the pseudo element with the given index, or null for the node itself
+	 */
+	public String getPseudoElementName(final int pseudoElement) {
+		return pseudoElementNames.get(pseudoElement);
+	}
+
+	/**
+	 * Forget the declarations of the previous node.
+	 */
+	public void clear() {
+		for (int i = 0; i < usedEntryCount; i++) {
+			ranks[usedEntries[i]] = 0;
+			values[usedEntries[i]] = null;
+		}
+		usedEntryCount = 0;
+		Arrays.fill(declarationCounts, 0);
+	}
+
+	/**
+	 * Add the declarations of the core rule with the given index.
+	 */
+	public void addCoreRule(final int ruleIndex) {
+		add(coreRules[ruleIndex]);
+	}
+
+	/**
+	 * Add the declarations of the style sheet's rule with the given index.
+	 */
+	public void addRule(final int ruleIndex) {
+		add(rules[ruleIndex]);
+	}
+
+	private void add(final RankedDeclarations rule) {
+		final int offset = rule.pseudoElement * propertyCount;
+		for (int i = 0; i < rule.ranks.length; i++) {
+			final int entry = offset + rule.properties[i];
+			if (ranks[entry] == 0) {
+				usedEntries[usedEntryCount++] = entry;
+			}
+			if (rule.ranks[i] > ranks[entry]) {
+				ranks[entry] = rule.ranks[i];
+				values[entry] = rule.values[i];
+			}
+		}
+		declarationCounts[rule.pseudoElement] += rule.ranks.length;
+	}
+
+	/**
+	 * @return true if any of the added rules declares a property of the given pseudo element
+	 */
+	public boolean hasDeclarations(final int pseudoElement) {
+		return declarationCounts[pseudoElement] > 0;
+	}
+
+	/**
+	 * @return the value of the given property of the given pseudo element which ranks highest in the cascade, or null
+	 *         if none of the added rules declares the property
+	 */
+	public LexicalUnit getValue(final int pseudoElement, final int property) {
+		if (property < 0) {
+			return null;
+		}
+		return values[pseudoElement * propertyCount + property];
+	}
+
+	private static class RankedDeclarations {
+		public final int pseudoElement;
+		public final int[] properties;
+		public final LexicalUnit[] values;
+		public final int[] ranks;
+
+		public RankedDeclarations(final int pseudoElement, final int size) {
+			this.pseudoElement = pseudoElement;
+			properties = new int[size];
+			values = new LexicalUnit[size];
+			ranks = new int[size];
+		}
+	}
+
+	private static class RankedDeclaration {
+		public final RankedDeclarations rule;
+		public final int index;
+		public final boolean important;
+		public final boolean fromStyleSheet;
+		public final int specificity;
+		public final int ruleIndex;
+
+		public RankedDeclaration(final RankedDeclarations rule, final int index, final boolean important, final boolean fromStyleSheet, final int specificity, final int ruleIndex) {
+			this.rule = rule;
+			this.index = index;
+			this.important = important;
+			this.fromStyleSheet = fromStyleSheet;
+			this.specificity = specificity;
+			this.ruleIndex = ruleIndex;
+		}
+	}
+}
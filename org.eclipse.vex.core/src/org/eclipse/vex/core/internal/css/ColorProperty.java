@@ -71,7 +71,7 @@ public class ColorProperty extends AbstractProperty {
 		if (isColor(lu)) {
 			return getColor(lu);
 		} else if (inherit && parentStyles != null) {
-			return parentStyles.get(getName());
+			return parentStyles.get(getSlot());
 		} else {
 			if (getName().equals(CSS.COLOR)) {
 				return Color.BLACK;
@@ -48,64 +48,41 @@ public class CssWhitespacePolicy implements IWhitespacePolicy {
 		return node.accept(new BaseNodeVisitorWithResult<Boolean>(true) {
 			@Override
 			public Boolean visit(final IElement element) {
-				if (isDisplay(node, CSS.BLOCK)) {
+				switch (getDisplay(element)) {
+				case BLOCK:
+				case LIST_ITEM:
+				case TABLE:
 					return true;
+				case TABLE_CAPTION:
+				case TABLE_COLUMN_GROUP:
+					return getDisplay(element.getParent()) == DisplayProperty.Value.TABLE;
+				case TABLE_CELL:
+					return getDisplay(element.getParent()) == DisplayProperty.Value.TABLE_ROW;
+				case TABLE_COLUMN:
+					return getDisplay(element.getParent()) == DisplayProperty.Value.TABLE_COLUMN_GROUP;
+				case TABLE_FOOTER_GROUP:
+				case TABLE_HEADER_GROUP:
+				case TABLE_ROW_GROUP:
+					return isTableOrRowGroup(getDisplay(element.getParent()));
+				case TABLE_ROW:
+					final DisplayProperty.Value parentDisplay = getDisplay(element.getParent());
+					return isTableOrRowGroup(parentDisplay) || parentDisplay == DisplayProperty.Value.TABLE_HEADER_GROUP || parentDisplay == DisplayProperty.Value.TABLE_FOOTER_GROUP;
+				default:
+					return false;
 				}
-
-				if (isDisplay(node, CSS.LIST_ITEM)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_CAPTION, CSS.TABLE)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_CELL, CSS.TABLE_ROW)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_COLUMN, CSS.TABLE_COLUMN_GROUP)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_COLUMN_GROUP, CSS.TABLE)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_FOOTER_GROUP, CSS.TABLE, CSS.TABLE_ROW_GROUP)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_HEADER_GROUP, CSS.TABLE, CSS.TABLE_ROW_GROUP)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_ROW_GROUP, CSS.TABLE, CSS.TABLE_ROW_GROUP)) {
-					return true;
-				}
-
-				if (isDisplay(node, CSS.TABLE_ROW, CSS.TABLE, CSS.TABLE_ROW_GROUP, CSS.TABLE_HEADER_GROUP, CSS.TABLE_FOOTER_GROUP)) {
-					return true;
-				}
-
-				return false;
 			}
 
 			@Override
 			public Boolean visit(final IComment comment) {
 				final boolean parentIsInline = !isBlock(comment.getParent());
-				final boolean isInline = CSS.INLINE.equals(getDisplay(comment));
+				final boolean isInline = getDisplay(comment) == DisplayProperty.Value.INLINE;
 				return !(parentIsInline && isInline);
 			}
 
 			@Override
 			public Boolean visit(final IProcessingInstruction pi) {
 				final boolean parentIsInline = !isBlock(pi.getParent());
-				final boolean isInline = CSS.INLINE.equals(getDisplay(pi));
+				final boolean isInline = getDisplay(pi) == DisplayProperty.Value.INLINE;
 				return !(parentIsInline && isInline);
 			}
 
@@ -116,41 +93,25 @@ public class CssWhitespacePolicy implements IWhitespacePolicy {
 		});
 	}
 
-	private boolean isDisplay(final INode node, final String display, final String... allowedParents) {
-		final String nodeDisplay = getDisplay(node);
-		final String parentDisplay = getDisplay(node.getParent());
-
-		if (!display.equals(nodeDisplay)) {
-			return false;
-		}
-
-		if (allowedParents.length == 0) {
-			return true;
-		}
-
-		for (final String parent : allowedParents) {
-			if (parent.equals(parentDisplay)) {
-				return true;
-			}
-		}
-		return false;
+	private static boolean isTableOrRowGroup(final DisplayProperty.Value display) {
+		return display == DisplayProperty.Value.TABLE || display == DisplayProperty.Value.TABLE_ROW_GROUP;
 	}
 
-	private String getDisplay(final INode node) {
+	private DisplayProperty.Value getDisplay(final INode node) {
 		if (node == null) {
-			return DisplayProperty.DEFAULT;
+			return DisplayProperty.DEFAULT_VALUE;
 		}
 
 		final Styles styles = styleSheet.getStyles(node);
 		if (styles == null) {
-			return DisplayProperty.DEFAULT;
+			return DisplayProperty.DEFAULT_VALUE;
 		}
 
-		return styles.getDisplay();
+		return styles.getDisplayValue();
 	}
 
 	public boolean isPre(final INode node) {
-		return CSS.PRE.equals(styleSheet.getStyles(node).getWhiteSpace());
+		return styleSheet.getStyles(node).getWhiteSpaceValue() == WhiteSpaceProperty.Value.PRE;
 	}
 
 }
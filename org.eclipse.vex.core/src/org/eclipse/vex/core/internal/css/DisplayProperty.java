@@ -11,6 +11,9 @@
  *******************************************************************************/
 package org.eclipse.vex.core.internal.css;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.vex.core.provisional.dom.INode;
 import org.w3c.css.sac.LexicalUnit;
 
@@ -19,7 +22,45 @@ import org.w3c.css.sac.LexicalUnit;
  */
 public class DisplayProperty extends AbstractProperty {
 
+	/**
+	 * The values of the 'display' property.
+	 */
+	public static enum Value {
+		BLOCK(CSS.BLOCK), INLINE(CSS.INLINE), INLINE_BLOCK(CSS.INLINE_BLOCK), INLINE_TABLE(CSS.INLINE_TABLE), LIST_ITEM(CSS.LIST_ITEM), RUN_IN(CSS.RUN_IN),
+		TABLE(CSS.TABLE), TABLE_CAPTION(CSS.TABLE_CAPTION), TABLE_CELL(CSS.TABLE_CELL), TABLE_COLUMN(CSS.TABLE_COLUMN), TABLE_COLUMN_GROUP(CSS.TABLE_COLUMN_GROUP),
+		TABLE_FOOTER_GROUP(CSS.TABLE_FOOTER_GROUP), TABLE_HEADER_GROUP(CSS.TABLE_HEADER_GROUP), TABLE_ROW(CSS.TABLE_ROW), TABLE_ROW_GROUP(CSS.TABLE_ROW_GROUP),
+		NONE(CSS.NONE);
+
+		private static final Map<String, Value> VALUES_BY_CSS_NAME = new HashMap<String, Value>();
+		static {
+			for (final Value value : values()) {
+				VALUES_BY_CSS_NAME.put(value.cssName, value);
+			}
+		}
+
+		private final String cssName;
+
+		private Value(final String cssName) {
+			this.cssName = cssName;
+		}
+
+		/**
+		 * @return the name of this value in CSS, e.g. "table-cell"
+		 */
+		public String getCssName() {
+			return cssName;
+		}
+
+		/**
+		 * @return the value with the given name in CSS, or null if there is no such value
+		 */
+		public static Value forCssName(final String cssName) {
+			return VALUES_BY_CSS_NAME.get(cssName);
+		}
+	}
+
 	public static final String DEFAULT = CSS.BLOCK;
+	public static final Value DEFAULT_VALUE = Value.BLOCK;
 
 	public DisplayProperty() {
 		super(CSS.DISPLAY);
@@ -49,10 +90,8 @@ public class DisplayProperty extends AbstractProperty {
 		if (lu == null) {
 			return false;
 		} else if (lu.getLexicalUnitType() == LexicalUnit.SAC_IDENT) {
-			final String s = lu.getStringValue();
-			return s.equals(CSS.BLOCK) || s.equals(CSS.INLINE) || s.equals(CSS.INLINE_BLOCK) || s.equals(CSS.INLINE_TABLE) || s.equals(CSS.LIST_ITEM) || s.equals(CSS.RUN_IN) || s.equals(CSS.TABLE)
-					|| s.equals(CSS.TABLE_CAPTION) || s.equals(CSS.TABLE_CELL) || s.equals(CSS.TABLE_COLUMN) || s.equals(CSS.TABLE_COLUMN_GROUP) || s.equals(CSS.TABLE_FOOTER_GROUP)
-					|| s.equals(CSS.TABLE_HEADER_GROUP) || s.equals(CSS.TABLE_ROW) || s.equals(CSS.TABLE_ROW_GROUP);
+			final Value value = Value.forCssName(lu.getStringValue());
+			return value != null && value != Value.NONE;
 		} else {
 			return false;
 		}
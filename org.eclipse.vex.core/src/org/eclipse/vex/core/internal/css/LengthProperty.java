@@ -53,7 +53,7 @@ public class LengthProperty extends AbstractProperty {
 		} else if (isPercentage(lu)) {
 			return RelativeLength.createRelative(lu.getFloatValue() / 100);
 		} else if (isInherit(lu) && parentStyles != null) {
-			return parentStyles.get(getName());
+			return parentStyles.get(getSlot());
 		} else {
 			// not specified, "auto", or other unknown value
 			return RelativeLength.createAbsolute(0);
@@ -55,7 +55,7 @@ public class LineHeightProperty extends AbstractProperty {
 			if (parentStyles == null) {
 				return RelativeLength.createRelative(LINE_HEIGHT_NORMAL);
 			} else {
-				return parentStyles.get(CSS.LINE_HEIGHT);
+				return parentStyles.get(getSlot());
 			}
 		}
 	}
@@ -50,7 +50,13 @@ public class OutlineContentProperty extends AbstractProperty {
 	 * the styles every time the text changes.
 	 */
 	public Object calculate(final LexicalUnit lu, final Styles parentStyles, final Styles styles, final INode node) {
+		return calculate(lu, node);
+	}
 
+	/**
+	 * @see #calculate(LexicalUnit, Styles, Styles, INode)
+	 */
+	public static Object calculate(final LexicalUnit lu, final INode node) {
 		if (node == null || !node.isAssociated()) {
 			return null;
 		}
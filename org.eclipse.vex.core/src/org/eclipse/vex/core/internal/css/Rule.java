@@ -16,17 +16,13 @@
 package org.eclipse.vex.core.internal.css;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import org.eclipse.vex.core.internal.dom.Namespace;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitorWithResult;
 import org.eclipse.vex.core.provisional.dom.IComment;
-import org.eclipse.vex.core.provisional.dom.IDocument;
 import org.eclipse.vex.core.provisional.dom.IElement;
 import org.eclipse.vex.core.provisional.dom.INode;
-import org.eclipse.vex.core.provisional.dom.IParent;
 import org.eclipse.vex.core.provisional.dom.IProcessingInstruction;
 import org.w3c.css.sac.AttributeCondition;
 import org.w3c.css.sac.CombinatorCondition;
@@ -53,6 +49,7 @@ public class Rule {
 	public static final String COMMENT_RULE_NAME = "COMMENT";
 
 	private final Selector selector;
+	private final SelectorMatcher matcher;
 	private final List<PropertyDecl> propertyDecls = new ArrayList<PropertyDecl>();
 
 	/**
@@ -63,6 +60,7 @@ public class Rule {
 	 */
 	public Rule(final Selector selector) {
 		this.selector = selector;
+		matcher = SelectorMatcher.compile(selector);
 	}
 
 	/**
@@ -82,6 +80,13 @@ public class Rule {
 		return selector;
 	}
 
+	/**
+	 * Returns the compiled selector of the rule.
+	 */
+	SelectorMatcher getMatcher() {
+		return matcher;
+	}
+
 	/**
 	 * Returns an array of the property declarations in this rule.
 	 */
@@ -105,238 +110,70 @@ public class Rule {
 	 *            Node to check.
 	 */
 	public boolean matches(final INode node) {
-		return matches(selector, node);
+		return matcher.matches(node, null);
 	}
 
-	// ==================================================== PRIVATE
-
 	/**
-	 * Returns true if the given element matches the given selector.
+	 * Returns true if the given node matches this rule's selector. Selectors which require ancestors with names or
+	 * classes that are missing in the given filter are rejected without walking up the tree.
+	 * 
+	 * @param node
+	 *            Node to check.
+	 * @param ancestors
+	 *            the filter of the node's ancestors
 	 */
-	private static boolean matches(final Selector selector, final INode node) {
-
-		if (node == null) {
-			// This can happen when, e.g., with the rule "foo > *".
-			// Since the root element matches the "*", we check if
-			// its parent matches "foo", but of course its parent
-			// is null
-			return false;
-		}
-
-		final int selectorType = selector.getSelectorType();
-
-		switch (selectorType) {
-		case Selector.SAC_CONDITIONAL_SELECTOR:
-			// We end here for PseudoClass selectors in difference to PseudoElementSelectors.
-			// See StyleSheetReader#createParser for defined PseudoElements.
-			// according to http://www.w3.org/TR/CSS2/selector.html#pseudo-class names are case insensitive
-			final ConditionalSelector cs = (ConditionalSelector) selector;
-			if (cs.getCondition().getConditionType() == Condition.SAC_PSEUDO_CLASS_CONDITION) {
-				final AttributeCondition ac = (AttributeCondition) cs.getCondition();
-				if (node instanceof IComment) {
-					return COMMENT_RULE_NAME.equalsIgnoreCase(ac.getValue()) && matches(cs.getSimpleSelector(), node.getParent());
-				} else {
-					return false;
-				}
-			} else {
-				return matches(cs.getSimpleSelector(), node) && matchesCondition(cs.getCondition(), node);
-			}
-
-		case Selector.SAC_ANY_NODE_SELECTOR:
-			// You'd think we land here if we have a * rule, but instead
-			// it appears we get a SAC_ELEMENT_NODE_SELECTOR with
-			// localName==null
-			return true;
-
-		case Selector.SAC_ROOT_NODE_SELECTOR:
-			return node.getParent() instanceof IDocument;
-
-		case Selector.SAC_NEGATIVE_SELECTOR:
-			break; // not yet supported
-
-		case Selector.SAC_ELEMENT_NODE_SELECTOR:
-			final String elementName = getLocalNameOfElement(node);
-			final String selectorName = ((ElementSelector) selector).getLocalName();
-
-			// If the Selector has a namespace URI, it has to match the namespace URI of the node
-			final String selectorNamespaceURI = ((ElementSelector) selector).getNamespaceURI();
-			if (selectorNamespaceURI != null && !selectorNamespaceURI.equals(getNamespaceURIOfElement(node))) {
-				return false;
-			}
-
-			if (selectorName == null) {
-				// We land here if we have a wildcard selector (*) or
-				// a pseudocondition w/o an element name (:before)
-				// Probably other situations too (conditional w/o element
-				// name? e.g. [attr=value])
-				return true;
-			}
-			if (selectorName.equals(elementName)) {
-				return true;
-			}
-			return false;
-
-		case Selector.SAC_TEXT_NODE_SELECTOR:
-			return false; // not yet supported
-
-		case Selector.SAC_CDATA_SECTION_NODE_SELECTOR:
-			return false; // not yet supported
-
-		case Selector.SAC_PROCESSING_INSTRUCTION_NODE_SELECTOR:
-			return false; // not yet supported
-
-		case Selector.SAC_COMMENT_NODE_SELECTOR:
-			return false; // not yet supported 
-
-		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
-			// Always return true here. The Selector is evaluated with SAC_CHILD_SELECTOR.
-			// The pseudo element rules are stored with the parent's rules (see StyleSheet#getApplicableDeclarations)
-			return true;
-
-		case Selector.SAC_DESCENDANT_SELECTOR:
-			final DescendantSelector ds = (DescendantSelector) selector;
-			return matches(ds.getSimpleSelector(), node) && matchesAncestor(ds.getAncestorSelector(), node);
-
-		case Selector.SAC_CHILD_SELECTOR:
-			final DescendantSelector ds2 = (DescendantSelector) selector;
-			if (ds2.getSimpleSelector().getSelectorType() == Selector.SAC_PSEUDO_ELEMENT_SELECTOR) {
-				return matches(ds2.getAncestorSelector(), node);
-			}
-			final IParent parent = node.getParent();
-			return matches(ds2.getSimpleSelector(), node) && matches(ds2.getAncestorSelector(), parent);
-
-		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
-
-			final SiblingSelector ss = (SiblingSelector) selector;
-
-			if (node != null && node.getParent() != null && matches(ss.getSiblingSelector(), node)) {
-
-				// find next sibling
-				final Iterator<INode> i = node.getParent().children().iterator();
-				INode e = null;
-				INode f = null;
-				while (i.hasNext() && e != node) {
-					f = e;
-					e = i.next();
-				}
-
-				if (e == node) {
-					return matches(ss.getSelector(), f);
-				}
-			}
-			return false;
-
-		default:
-			// System.out.println("DEBUG: selector type not supported");
-			// TODO: warning: selector not supported
-		}
-		return false;
+	boolean matches(final INode node, final AncestorFilter ancestors) {
+		return matcher.matches(node, ancestors);
 	}
 
-	private static String getLocalNameOfElement(final INode node) {
-		return node.accept(new BaseNodeVisitorWithResult<String>("") {
-			@Override
-			public String visit(final IElement element) {
-				return element.getLocalName();
-			}
-
-			@Override
-			public String visit(final IComment comment) {
-				return CSS.XML_COMMENT;
-			}
-
-			@Override
-			public String visit(final IProcessingInstruction pi) {
-				return CSS.XML_PROCESSING_INSTRUCTION;
-			}
-		});
-	}
-
-	private static String getNamespaceURIOfElement(final INode node) {
-		return node.accept(new BaseNodeVisitorWithResult<String>("") {
-			@Override
-			public String visit(final IElement element) {
-				return element.getQualifiedName().getQualifier();
-			}
-
-			@Override
-			public String visit(final IComment comment) {
-				return Namespace.VEX_NAMESPACE_URI;
-			}
-
-			@Override
-			public String visit(final IProcessingInstruction pi) {
-				return Namespace.VEX_NAMESPACE_URI;
-			}
-		});
-	}
+	// ==================================================== PRIVATE
 
-	/**
-	 * Returns true if some ancestor of the given element matches the given selector.
+	/*
+	 * The visitors are stateless, hence they are shared to avoid allocations while matching.
 	 */
-	private static boolean matchesAncestor(final Selector selector, final INode node) {
-		for (final INode ancestor : node.ancestors()) {
-			if (matches(selector, ancestor)) {
-				return true;
-			}
+	private static final BaseNodeVisitorWithResult<String> LOCAL_NAME_VISITOR = new BaseNodeVisitorWithResult<String>("") {
+		@Override
+		public String visit(final IElement element) {
+			return element.getLocalName();
 		}
-		return false;
-	}
-
-	private static boolean matchesCondition(final Condition condition, final INode node) {
 
-		AttributeCondition attributeCondition;
-		String attributeName;
-		String value;
-
-		switch (condition.getConditionType()) {
-		case Condition.SAC_PSEUDO_CLASS_CONDITION:
-			return false;
-
-		case Condition.SAC_ATTRIBUTE_CONDITION:
-			attributeCondition = (AttributeCondition) condition;
-			value = getAttributeValue(node, attributeCondition.getLocalName());
-			if (attributeCondition.getValue() != null) {
-				return attributeCondition.getValue().equals(value);
-			} else {
-				return value != null;
-			}
+		@Override
+		public String visit(final IComment comment) {
+			return CSS.XML_COMMENT;
+		}
 
-		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
-		case Condition.SAC_CLASS_CONDITION:
+		@Override
+		public String visit(final IProcessingInstruction pi) {
+			return CSS.XML_PROCESSING_INSTRUCTION;
+		}
+	};
 
-			attributeCondition = (AttributeCondition) condition;
+	private static final BaseNodeVisitorWithResult<String> NAMESPACE_URI_VISITOR = new BaseNodeVisitorWithResult<String>("") {
+		@Override
+		public String visit(final IElement element) {
+			return element.getQualifiedName().getQualifier();
+		}
 
-			if (condition.getConditionType() == Condition.SAC_CLASS_CONDITION) {
-				attributeName = "class";
-			} else {
-				attributeName = attributeCondition.getLocalName();
-			}
+		@Override
+		public String visit(final IComment comment) {
+			return Namespace.VEX_NAMESPACE_URI;
+		}
 
-			value = getAttributeValue(node, attributeName);
-			if (value == null) {
-				return false;
-			}
-			final StringTokenizer st = new StringTokenizer(value);
-			while (st.hasMoreTokens()) {
-				if (st.nextToken().equals(attributeCondition.getValue())) {
-					return true;
-				}
-			}
-			return false;
+		@Override
+		public String visit(final IProcessingInstruction pi) {
+			return Namespace.VEX_NAMESPACE_URI;
+		}
+	};
 
-		case Condition.SAC_AND_CONDITION:
-			final CombinatorCondition ccon = (CombinatorCondition) condition;
-			return matchesCondition(ccon.getFirstCondition(), node) && matchesCondition(ccon.getSecondCondition(), node);
+	static String getLocalNameOfElement(final INode node) {
+		return node.accept(LOCAL_NAME_VISITOR);
+	}
 
-		default:
-			// TODO: warning: condition not supported
-			System.out.println("Unsupported condition type: " + condition.getConditionType());
-		}
-		return false;
+	static String getNamespaceURIOfElement(final INode node) {
+		return node.accept(NAMESPACE_URI_VISITOR);
 	}
 
-	private static String getAttributeValue(final INode node, final String localName) {
+	static String getAttributeValue(final INode node, final String localName) {
 		return node.accept(new BaseNodeVisitorWithResult<String>() {
 			@Override
 			public String visit(final IElement element) {
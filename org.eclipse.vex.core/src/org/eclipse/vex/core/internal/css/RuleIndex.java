@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SiblingSelector;
+
+/**
+ * The rules of a style sheet, put into buckets by the rightmost simple selector of their selector: by element name, by
+ * a token of an attribute value (class selectors and <code>[attr~=value]</code>), by attribute name, or into the
+ * universal bucket if the selector provides none of these. A node can only match the rules in the buckets of its name,
+ * of the tokens in its attribute values, of its attributes and in the universal bucket, so only these rules have to be
+ * matched against the node.
+ */
+class RuleIndex {
+
+	private static final int[] NO_RULES = new int[0];
+
+	private final Rule[] rules;
+	private final Map<String, int[]> rulesByElementName = new HashMap<String, int[]>();
+	private final Map<String, Map<String, int[]>> rulesByAttributeToken = new HashMap<String, Map<String, int[]>>();
+	private final Map<String, int[]> rulesByAttributeName = new HashMap<String, int[]>();
+	private int[] universalRules = NO_RULES;
+
+	public RuleIndex(final List<Rule> rules) {
+		this.rules = rules.toArray(new Rule[rules.size()]);
+		for (int i = 0; i < this.rules.length; i++) {
+			add(this.rules[i].getSelector(), i);
+		}
+	}
+
+	/**
+	 * @param ancestors
+	 *            the filter of the node's ancestors, or null to match without a filter
+	 * @return the rules which match the given node, in the order of the style sheet
+	 */
+	public List<Rule> findMatchingRules(final INode node, final AncestorFilter ancestors) {
+		final int[] indices = new int[rules.length];
+		final int count = findMatchingRules(node, ancestors, indices);
+		final List<Rule> result = new ArrayList<Rule>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(rules[indices[i]]);
+		}
+		return result;
+	}
+
+	/**
+	 * @param ancestors
+	 *            the filter of the node's ancestors, or null to match without a filter
+	 * @param result
+	 *            receives the indices of the rules which match the given node, in the order of the style sheet; must
+	 *            be large enough to hold the indices of all rules
+	 * @return the number of matching rules
+	 */
+	public int findMatchingRules(final INode node, final AncestorFilter ancestors, final int[] result) {
+		if (node == null) {
+			return 0;
+		}
+
+		int count = 0;
+		for (final int index : findCandidates(node)) {
+			if (rules[index].matches(node, ancestors)) {
+				result[count++] = index;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the indices of the rules in all buckets which fit the given node, sorted and without duplicates
+	 */
+	private int[] findCandidates(final INode node) {
+		final List<int[]> buckets = new ArrayList<int[]>();
+		buckets.add(universalRules);
+		addBucket(buckets, rulesByElementName.get(Rule.getLocalNameOfElement(node)));
+		for (final Map.Entry<String, int[]> entry : rulesByAttributeName.entrySet()) {
+			if (Rule.getAttributeValue(node, entry.getKey()) != null) {
+				buckets.add(entry.getValue());
+			}
+		}
+		for (final Map.Entry<String, Map<String, int[]>> entry : rulesByAttributeToken.entrySet()) {
+			final String value = Rule.getAttributeValue(node, entry.getKey());
+			if (value != null) {
+				final StringTokenizer tokens = new StringTokenizer(value);
+				while (tokens.hasMoreTokens()) {
+					addBucket(buckets, entry.getValue().get(tokens.nextToken()));
+				}
+			}
+		}
+
+		if (buckets.size() == 1) {
+			return universalRules;
+		}
+
+		int candidateCount = 0;
+		for (final int[] bucket : buckets) {
+			candidateCount += bucket.length;
+		}
+		final int[] candidates = new int[candidateCount];
+		int i = 0;
+		for (final int[] bucket : buckets) {
+			System.arraycopy(bucket, 0, candidates, i, bucket.length);
+			i += bucket.length;
+		}
+		Arrays.sort(candidates);
+		return removeDuplicates(candidates);
+	}
+
+	private static void addBucket(final List<int[]> buckets, final int[] bucket) {
+		if (bucket != null) {
+			buckets.add(bucket);
+		}
+	}
+
+	private static int[] removeDuplicates(final int[] sortedIndices) {
+		if (sortedIndices.length == 0) {
+			return sortedIndices;
+		}
+		int length = 1;
+		for (int i = 1; i < sortedIndices.length; i++) {
+			if (sortedIndices[i] != sortedIndices[length - 1]) {
+				sortedIndices[length++] = sortedIndices[i];
+			}
+		}
+		return length == sortedIndices.length ? sortedIndices : Arrays.copyOf(sortedIndices, length);
+	}
+
+	/*
+	 * Building the buckets
+	 */
+
+	private void add(final Selector selector, final int index) {
+		final Selector subject = getSubject(selector);
+		switch (subject.getSelectorType()) {
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+			if (addToElementNameBucket((ElementSelector) subject, index)) {
+				return;
+			}
+			break;
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			final ConditionalSelector conditionalSelector = (ConditionalSelector) subject;
+			if (conditionalSelector.getCondition().getConditionType() == Condition.SAC_PSEUDO_CLASS_CONDITION) {
+				break; // pseudo classes are matched against the parent of the node, see Rule
+			}
+			if (conditionalSelector.getSimpleSelector() instanceof ElementSelector && addToElementNameBucket((ElementSelector) conditionalSelector.getSimpleSelector(), index)) {
+				return;
+			}
+			if (addToConditionBucket(conditionalSelector.getCondition(), index)) {
+				return;
+			}
+			break;
+		}
+		universalRules = append(universalRules, index);
+	}
+
+	/**
+	 * @return the simple selector which the node itself has to match, the same way Rule#matches selects it
+	 */
+	private static Selector getSubject(final Selector selector) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_DESCENDANT_SELECTOR:
+			return getSubject(((DescendantSelector) selector).getSimpleSelector());
+		case Selector.SAC_CHILD_SELECTOR:
+			final DescendantSelector childSelector = (DescendantSelector) selector;
+			if (childSelector.getSimpleSelector().getSelectorType() == Selector.SAC_PSEUDO_ELEMENT_SELECTOR) {
+				// the rules of pseudo elements are matched against their parent node
+				return getSubject(childSelector.getAncestorSelector());
+			}
+			return getSubject(childSelector.getSimpleSelector());
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			return getSubject(((SiblingSelector) selector).getSiblingSelector());
+		default:
+			return selector;
+		}
+	}
+
+	private boolean addToElementNameBucket(final ElementSelector selector, final int index) {
+		final String localName = selector.getLocalName();
+		if (localName == null) {
+			return false;
+		}
+		rulesByElementName.put(localName, append(rulesByElementName.get(localName), index));
+		return true;
+	}
+
+	private boolean addToConditionBucket(final Condition condition, final int index) {
+		switch (condition.getConditionType()) {
+		case Condition.SAC_CLASS_CONDITION:
+			return addToAttributeTokenBucket("class", ((AttributeCondition) condition).getValue(), index);
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+			final AttributeCondition oneOfCondition = (AttributeCondition) condition;
+			return addToAttributeTokenBucket(oneOfCondition.getLocalName(), oneOfCondition.getValue(), index);
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+			return addToAttributeNameBucket(((AttributeCondition) condition).getLocalName(), index);
+		case Condition.SAC_AND_CONDITION:
+			final CombinatorCondition andCondition = (CombinatorCondition) condition;
+			return addToConditionBucket(andCondition.getFirstCondition(), index) || addToConditionBucket(andCondition.getSecondCondition(), index);
+		default:
+			return false;
+		}
+	}
+
+	private boolean addToAttributeTokenBucket(final String attributeName, final String token, final int index) {
+		if (attributeName == null || token == null) {
+			return false;
+		}
+		Map<String, int[]> rulesByToken = rulesByAttributeToken.get(attributeName);
+		if (rulesByToken == null) {
+			rulesByToken = new HashMap<String, int[]>();
+			rulesByAttributeToken.put(attributeName, rulesByToken);
+		}
+		rulesByToken.put(token, append(rulesByToken.get(token), index));
+		return true;
+	}
+
+	private boolean addToAttributeNameBucket(final String attributeName, final int index) {
+		if (attributeName == null) {
+			return false;
+		}
+		rulesByAttributeName.put(attributeName, append(rulesByAttributeName.get(attributeName), index));
+		return true;
+	}
+
+	private static int[] append(final int[] bucket, final int index) {
+		if (bucket == null) {
+			return new int[] { index };
+		}
+		final int[] result = Arrays.copyOf(bucket, bucket.length + 1);
+		result[bucket.length] = index;
+		return result;
+	}
+}
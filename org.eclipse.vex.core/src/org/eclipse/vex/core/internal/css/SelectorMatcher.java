@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.vex.core.internal.VEXCorePlugin;
+import org.eclipse.vex.core.provisional.dom.IComment;
+import org.eclipse.vex.core.provisional.dom.IDocument;
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SiblingSelector;
+
+/**
+ * A selector compiled into a flat sequence of compound selectors, which is evaluated from right to left: the first
+ * compound has to match the node itself, every following compound has to match a node which is related to the node
+ * matched by its predecessor, as given by the combinator between them (ancestor, parent or preceding sibling).
+ * <p>
+ * The names and classes which the ancestors of a matching node must have are collected at compile time. Given an
+ * AncestorFilter of the node, descendant and child selectors are rejected without walking up the tree if these names
+ * or classes are missing.
+ */
+class SelectorMatcher {
+
+	private static final int DESCENDANT = 0;
+	private static final int CHILD = 1;
+	private static final int DIRECT_ADJACENT = 2;
+
+	private final Compound[] compounds;
+	private final int[] combinators;
+	private final int[] ancestorKeys;
+
+	private SelectorMatcher(final Compound[] compounds, final int[] combinators, final int[] ancestorKeys) {
+		this.compounds = compounds;
+		this.combinators = combinators;
+		this.ancestorKeys = ancestorKeys;
+	}
+
+	public static SelectorMatcher compile(final Selector selector) {
+		final List<Compound> compounds = new ArrayList<Compound>();
+		final List<Integer> combinators = new ArrayList<Integer>();
+		compile(selector, compounds, combinators);
+
+		/*
+		 * A compound behind a descendant or child combinator matches an ancestor of the subject, a compound behind a
+		 * sibling combinator matches a sibling of the subject or of an ancestor. The parent of a node matched by any
+		 * compound is an ancestor of the subject.
+		 */
+		final List<Integer> ancestorKeys = new ArrayList<Integer>();
+		for (int i = 0; i < compounds.size(); i++) {
+			if (i > 0 && combinators.get(i - 1) != DIRECT_ADJACENT) {
+				compounds.get(i).collectKeys(ancestorKeys);
+			} else {
+				compounds.get(i).collectParentKeys(ancestorKeys);
+			}
+		}
+
+		return new SelectorMatcher(compounds.toArray(new Compound[compounds.size()]), toArray(combinators), toArray(ancestorKeys));
+	}
+
+	private static void compile(final Selector selector, final List<Compound> compounds, final List<Integer> combinators) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_DESCENDANT_SELECTOR:
+			final DescendantSelector descendantSelector = (DescendantSelector) selector;
+			compile(descendantSelector.getSimpleSelector(), compounds, combinators);
+			combinators.add(DESCENDANT);
+			compile(descendantSelector.getAncestorSelector(), compounds, combinators);
+			break;
+		case Selector.SAC_CHILD_SELECTOR:
+			final DescendantSelector childSelector = (DescendantSelector) selector;
+			if (childSelector.getSimpleSelector().getSelectorType() == Selector.SAC_PSEUDO_ELEMENT_SELECTOR) {
+				// The rules of pseudo elements are stored with the parent's rules (see Cascade)
+				compile(childSelector.getAncestorSelector(), compounds, combinators);
+			} else {
+				compile(childSelector.getSimpleSelector(), compounds, combinators);
+				combinators.add(CHILD);
+				compile(childSelector.getAncestorSelector(), compounds, combinators);
+			}
+			break;
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			// the sibling selector may carry a pseudo element, which makes it a child selector
+			final SiblingSelector siblingSelector = (SiblingSelector) selector;
+			compile(siblingSelector.getSiblingSelector(), compounds, combinators);
+			combinators.add(DIRECT_ADJACENT);
+			compile(siblingSelector.getSelector(), compounds, combinators);
+			break;
+		default:
+			compounds.add(compileCompound(selector));
+		}
+	}
+
+	private static Compound compileCompound(final Selector selector) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			final ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			if (conditionalSelector.getCondition().getConditionType() == Condition.SAC_PSEUDO_CLASS_CONDITION) {
+				// We end here for PseudoClass selectors in difference to PseudoElementSelectors.
+				// See StyleSheetReader#createParser for defined PseudoElements.
+				final AttributeCondition pseudoClass = (AttributeCondition) conditionalSelector.getCondition();
+				return Compound.comment(pseudoClass.getValue(), compileCompound(conditionalSelector.getSimpleSelector()));
+			}
+			final Compound compound = compileCompound(conditionalSelector.getSimpleSelector());
+			compound.addConditions(conditionalSelector.getCondition());
+			return compound;
+		case Selector.SAC_ANY_NODE_SELECTOR:
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+			return new Compound(Compound.ANY);
+		case Selector.SAC_ROOT_NODE_SELECTOR:
+			return new Compound(Compound.ROOT);
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+			final ElementSelector elementSelector = (ElementSelector) selector;
+			return Compound.element(elementSelector.getNamespaceURI(), elementSelector.getLocalName());
+		default:
+			// negative, text, CDATA section, processing instruction and comment node selectors are not yet supported
+			return new Compound(Compound.NONE);
+		}
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Collect the local names of the nodes whose preceding sibling is examined by the selector.
+	 * 
+	 * @return false if such a node may have any name
+	 */
+	public boolean collectNamesAffectedBySiblings(final Set<String> localNames) {
+		for (int i = 0; i < combinators.length; i++) {
+			if (combinators[i] == DIRECT_ADJACENT) {
+				if (compounds[i].type != Compound.ELEMENT || compounds[i].localName == null) {
+					return false;
+				}
+				localNames.add(compounds[i].localName);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Collect the names of all attributes which are used in the conditions of the selector.
+	 */
+	public void collectAttributeNames(final Set<String> attributeNames) {
+		for (final Compound compound : compounds) {
+			compound.collectAttributeNames(attributeNames);
+		}
+	}
+
+	/**
+	 * @param node
+	 *            the node to match
+	 * @param ancestors
+	 *            the filter of the node's ancestors, or null if there is none
+	 * @return true if the given node matches the selector
+	 */
+	public boolean matches(final INode node, final AncestorFilter ancestors) {
+		if (node == null || !compounds[0].matches(node)) {
+			return false;
+		}
+		if (ancestors != null && !ancestors.mightContainAll(ancestorKeys)) {
+			return false;
+		}
+		return matchesRelatives(0, node);
+	}
+
+	private boolean matches(final int index, final INode node) {
+		if (node == null || !compounds[index].matches(node)) {
+			return false;
+		}
+		return matchesRelatives(index, node);
+	}
+
+	/**
+	 * @return true if the nodes related to the given node match the compounds following the given index
+	 */
+	private boolean matchesRelatives(final int index, final INode node) {
+		if (index == compounds.length - 1) {
+			return true;
+		}
+
+		switch (combinators[index]) {
+		case CHILD:
+			return matches(index + 1, node.getParent());
+		case DIRECT_ADJACENT:
+			return matches(index + 1, getPrecedingSibling(node));
+		default:
+			for (INode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+				if (matches(index + 1, ancestor)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static INode getPrecedingSibling(final INode node) {
+		if (node.getParent() == null) {
+			return null;
+		}
+
+		final Iterator<INode> i = node.getParent().children().iterator();
+		INode e = null;
+		INode f = null;
+		while (i.hasNext() && e != node) {
+			f = e;
+			e = i.next();
+		}
+
+		if (e == node) {
+			return f;
+		}
+		return null;
+	}
+
+	/**
+	 * A sequence of simple selectors which all have to match the same node: an element or universal selector and its
+	 * conditions.
+	 */
+	private static class Compound {
+
+		public static final int NONE = 0;
+		public static final int ANY = 1;
+		public static final int ROOT = 2;
+		public static final int ELEMENT = 3;
+		public static final int COMMENT = 4;
+
+		/**
+		 * The unsupported condition types which have already been reported, so every type is logged only once.
+		 */
+		private static final Set<Short> REPORTED_CONDITION_TYPES = Collections.synchronizedSet(new HashSet<Short>());
+
+		private final int type;
+		private String namespaceURI;
+		private String localName;
+		private Compound parent;
+		private AttributeCondition[] conditions = new AttributeCondition[0];
+
+		public Compound(final int type) {
+			this.type = type;
+		}
+
+		public static Compound element(final String namespaceURI, final String localName) {
+			final Compound compound = new Compound(ELEMENT);
+			compound.namespaceURI = namespaceURI;
+			compound.localName = localName;
+			return compound;
+		}
+
+		/**
+		 * Matches a comment for a pseudo class like <code>:comment</code>, whose parent matches the given compound.
+		 */
+		public static Compound comment(final String pseudoClassName, final Compound parent) {
+			if (!Rule.COMMENT_RULE_NAME.equalsIgnoreCase(pseudoClassName)) {
+				return new Compound(NONE);
+			}
+			final Compound compound = new Compound(COMMENT);
+			compound.parent = parent;
+			return compound;
+		}
+
+		public void addConditions(final Condition condition) {
+			switch (condition.getConditionType()) {
+			case Condition.SAC_AND_CONDITION:
+				final CombinatorCondition andCondition = (CombinatorCondition) condition;
+				addConditions(andCondition.getFirstCondition());
+				addConditions(andCondition.getSecondCondition());
+				break;
+			case Condition.SAC_ATTRIBUTE_CONDITION:
+			case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+			case Condition.SAC_CLASS_CONDITION:
+				addCondition((AttributeCondition) condition);
+				break;
+			case Condition.SAC_PSEUDO_CLASS_CONDITION:
+				addCondition(null); // never matches
+				break;
+			default:
+				reportUnsupportedCondition(condition);
+				addCondition(null); // never matches
+			}
+		}
+
+		private static void reportUnsupportedCondition(final Condition condition) {
+			if (REPORTED_CONDITION_TYPES.add(condition.getConditionType())) {
+				VEXCorePlugin.getInstance().getLog()
+						.log(new Status(IStatus.WARNING, VEXCorePlugin.ID, MessageFormat.format("Unsupported condition type in selector: {0} (type: {1})", condition, condition.getConditionType())));
+			}
+		}
+
+		private void addCondition(final AttributeCondition condition) {
+			conditions = Arrays.copyOf(conditions, conditions.length + 1);
+			conditions[conditions.length - 1] = condition;
+		}
+
+		/**
+		 * Collect the keys which the ancestors of a node must have, if this compound matches the node.
+		 */
+		public void collectParentKeys(final List<Integer> keys) {
+			if (parent != null) {
+				parent.collectKeys(keys);
+			}
+		}
+
+		/**
+		 * Collect the keys which a node must have to match this compound.
+		 */
+		public void collectKeys(final List<Integer> keys) {
+			if (type == ELEMENT && localName != null) {
+				keys.add(AncestorFilter.nameKey(localName));
+			}
+			for (final AttributeCondition condition : conditions) {
+				if (condition != null && condition.getValue() != null && isClassCondition(condition)) {
+					keys.add(AncestorFilter.classKey(condition.getValue()));
+				}
+			}
+			collectParentKeys(keys);
+		}
+
+		public void collectAttributeNames(final Set<String> attributeNames) {
+			for (final AttributeCondition condition : conditions) {
+				if (condition == null) {
+					continue;
+				}
+				if (condition.getConditionType() == Condition.SAC_CLASS_CONDITION) {
+					attributeNames.add("class");
+				} else if (condition.getLocalName() != null) {
+					attributeNames.add(condition.getLocalName());
+				}
+			}
+			if (parent != null) {
+				parent.collectAttributeNames(attributeNames);
+			}
+		}
+
+		private static boolean isClassCondition(final AttributeCondition condition) {
+			if (condition.getConditionType() == Condition.SAC_CLASS_CONDITION) {
+				return true;
+			}
+			return condition.getConditionType() == Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION && "class".equals(condition.getLocalName());
+		}
+
+		public boolean matches(final INode node) {
+			switch (type) {
+			case ANY:
+				break;
+			case ROOT:
+				if (!(node.getParent() instanceof IDocument)) {
+					return false;
+				}
+				break;
+			case ELEMENT:
+				// If the Selector has a namespace URI, it has to match the namespace URI of the node
+				if (namespaceURI != null && !namespaceURI.equals(Rule.getNamespaceURIOfElement(node))) {
+					return false;
+				}
+				// localName is null for a wildcard selector (*) or a pseudocondition w/o an element name (:before)
+				if (localName != null && !localName.equals(Rule.getLocalNameOfElement(node))) {
+					return false;
+				}
+				break;
+			case COMMENT:
+				if (!(node instanceof IComment) || node.getParent() == null || !parent.matches(node.getParent())) {
+					return false;
+				}
+				break;
+			default:
+				return false;
+			}
+
+			for (final AttributeCondition condition : conditions) {
+				if (!matches(condition, node)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean matches(final AttributeCondition condition, final INode node) {
+			if (condition == null || !(node instanceof IElement)) {
+				return false;
+			}
+
+			switch (condition.getConditionType()) {
+			case Condition.SAC_ATTRIBUTE_CONDITION:
+				final String value = ((IElement) node).getAttributeValue(condition.getLocalName());
+				if (condition.getValue() != null) {
+					return condition.getValue().equals(value);
+				}
+				return value != null;
+			default:
+				final String attributeName = condition.getConditionType() == Condition.SAC_CLASS_CONDITION ? "class" : condition.getLocalName();
+				return containsToken(((IElement) node).getAttributeValue(attributeName), condition.getValue());
+			}
+		}
+
+		/**
+		 * @return true if the given whitespace separated list of tokens contains the given token
+		 */
+		private static boolean containsToken(final String tokens, final String token) {
+			if (tokens == null || token == null || token.length() == 0) {
+				return false;
+			}
+			for (int i = tokens.indexOf(token); i >= 0; i = tokens.indexOf(token, i + 1)) {
+				final int end = i + token.length();
+				if ((i == 0 || isWhitespace(tokens.charAt(i - 1))) && (end == tokens.length() || isWhitespace(tokens.charAt(end)))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * The delimiters of StringTokenizer.
+		 */
+		private static boolean isWhitespace(final char c) {
+			return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.css;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.vex.core.provisional.dom.IElement;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.w3c.css.sac.LexicalUnit;
+
+/**
+ * The styles of the nodes which were calculated most recently, to be shared with their siblings and cousins. Two nodes
+ * get the same styles if they are of the same kind, have the same name, the same values for all attributes which are
+ * used in selectors or in <code>attr(...)</code> values, and the same parent styles: they match the same rules, and they
+ * inherit the same values.
+ * <p>
+ * Parent styles are only the same if the parents themselves were equivalent in this sense, which holds up to the root.
+ * Only sibling selectors can tell equivalent nodes apart. Hence the styles of a node are not shared at all if a
+ * selector examines the preceding sibling of nodes with its name.
+ */
+class StyleSharingCache {
+
+	private static final int SIZE = 8;
+
+	private final String[] relevantAttributeNames;
+	private final Set<String> namesAffectedBySiblings = new HashSet<String>();
+	private boolean allNamesAffectedBySiblings;
+
+	private final INode[] nodes = new INode[SIZE];
+	private final Styles[] parentStyles = new Styles[SIZE];
+	private final Styles[] styles = new Styles[SIZE];
+	private int next;
+
+	public StyleSharingCache(final Collection<Rule> rules) {
+		final Set<String> attributeNames = new HashSet<String>();
+		for (final Rule rule : rules) {
+			final SelectorMatcher matcher = rule.getMatcher();
+			matcher.collectAttributeNames(attributeNames);
+			if (!matcher.collectNamesAffectedBySiblings(namesAffectedBySiblings)) {
+				allNamesAffectedBySiblings = true;
+			}
+			for (final PropertyDecl decl : rule.getPropertyDecls()) {
+				// content and outline content are evaluated for the node on every access
+				if (!CSS.CONTENT.equals(decl.getProperty()) && !CSS.OUTLINE_CONTENT.equals(decl.getProperty())) {
+					collectAttributeNames(decl.getValue(), attributeNames);
+				}
+			}
+		}
+		relevantAttributeNames = attributeNames.toArray(new String[attributeNames.size()]);
+	}
+
+	private static void collectAttributeNames(final LexicalUnit value, final Set<String> attributeNames) {
+		for (LexicalUnit lexicalUnit = value; lexicalUnit != null; lexicalUnit = lexicalUnit.getNextLexicalUnit()) {
+			if (lexicalUnit.getLexicalUnitType() == LexicalUnit.SAC_ATTR) {
+				attributeNames.add(lexicalUnit.getStringValue());
+			} else if (lexicalUnit.getLexicalUnitType() == LexicalUnit.SAC_FUNCTION) {
+				collectAttributeNames(lexicalUnit.getParameters(), attributeNames);
+			}
+		}
+	}
+
+	/**
+	 * @return the styles of a recently calculated sibling or cousin which can be shared with the given node, or null if
+	 *         there is none
+	 */
+	public Styles find(final INode node, final Styles parentStyles) {
+		if (!isShareable(node, parentStyles)) {
+			return null;
+		}
+
+		for (int i = 0; i < SIZE; i++) {
+			if (this.parentStyles[i] == parentStyles && isEquivalent(nodes[i], node)) {
+				return styles[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remember the given styles of the given node to share them with its siblings and cousins.
+	 */
+	public void add(final INode node, final Styles parentStyles, final Styles styles) {
+		if (!isShareable(node, parentStyles)) {
+			return;
+		}
+
+		nodes[next] = node;
+		this.parentStyles[next] = parentStyles;
+		this.styles[next] = styles;
+		next = (next + 1) % SIZE;
+	}
+
+	/**
+	 * Forget all styles, e.g. because the attributes of the nodes may have changed.
+	 */
+	public void clear() {
+		Arrays.fill(nodes, null);
+		Arrays.fill(parentStyles, null);
+		Arrays.fill(styles, null);
+	}
+
+	private boolean isShareable(final INode node, final Styles parentStyles) {
+		if (parentStyles == null || node == null || allNamesAffectedBySiblings) {
+			return false;
+		}
+		return !namesAffectedBySiblings.contains(Rule.getLocalNameOfElement(node));
+	}
+
+	private boolean isEquivalent(final INode candidate, final INode node) {
+		if (candidate == node || candidate.getClass() != node.getClass()) {
+			return false;
+		}
+		if (!(node instanceof IElement)) {
+			// text, comments and processing instructions have neither names nor attributes
+			return true;
+		}
+
+		final IElement candidateElement = (IElement) candidate;
+		final IElement element = (IElement) node;
+		if (!candidateElement.getQualifiedName().equals(element.getQualifiedName())) {
+			return false;
+		}
+		for (final String attributeName : relevantAttributeNames) {
+			if (!equals(candidateElement.getAttributeValue(attributeName), element.getAttributeValue(attributeName))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean equals(final String value1, final String value2) {
+		if (value1 == null) {
+			return value2 == null;
+		}
+		return value1.equals(value2);
+	}
+}
@@ -26,39 +26,38 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.WeakHashMap;
 
 import org.eclipse.vex.core.internal.core.FontSpec;
 import org.eclipse.vex.core.provisional.dom.IDocument;
 import org.eclipse.vex.core.provisional.dom.IElement;
 import org.eclipse.vex.core.provisional.dom.INode;
-import org.w3c.css.sac.DescendantSelector;
-import org.w3c.css.sac.ElementSelector;
 import org.w3c.css.sac.LexicalUnit;
-import org.w3c.css.sac.Selector;
 
 /**
  * Represents a CSS style sheet.
  */
 public class StyleSheet {
 
-	public static final StyleSheet NULL = new StyleSheet(Collections.<Rule> emptyList());
-
-	private static final Comparator<PropertyDecl> PROPERTY_CASCADE_ORDERING = new Comparator<PropertyDecl>() {
-		public int compare(final PropertyDecl propertyDecl1, final PropertyDecl propertyDecl2) {
-			if (propertyDecl1.isImportant() != propertyDecl2.isImportant()) {
-				return (propertyDecl1.isImportant() ? 1 : 0) - (propertyDecl2.isImportant() ? 1 : 0);
-			}
-
-			return propertyDecl1.getRule().getSpecificity() - propertyDecl2.getRule().getSpecificity();
+	/**
+	 * The VEX core styles, which have to be read before any StyleSheet is created.
+	 */
+	private final static List<Rule> coreRuleList;
+	private final static RuleIndex coreRules;
+	static {
+		List<Rule> rules;
+		try {
+			rules = new StyleSheetReader().readRules(StyleSheet.class.getResource("vex-core-styles.css"));
+		} catch (final IOException e) {
+			rules = Collections.<Rule> emptyList();
+			e.printStackTrace();
 		}
-	};
+		coreRuleList = rules;
+		coreRules = new RuleIndex(rules);
+	}
 
 	/**
 	 * Standard CSS properties.
@@ -82,28 +81,42 @@ public class StyleSheet {
 			new BorderWidthProperty(CSS.BORDER_LEFT_WIDTH, CSS.BORDER_LEFT_STYLE, IProperty.Axis.HORIZONTAL),
 			new BorderWidthProperty(CSS.BORDER_RIGHT_WIDTH, CSS.BORDER_RIGHT_STYLE, IProperty.Axis.HORIZONTAL),
 			new BorderWidthProperty(CSS.BORDER_TOP_WIDTH, CSS.BORDER_TOP_STYLE, IProperty.Axis.VERTICAL), new BorderSpacingProperty(), new LengthProperty(CSS.HEIGHT, IProperty.Axis.VERTICAL),
-			new LengthProperty(CSS.WIDTH, IProperty.Axis.HORIZONTAL), new BackgroundImageProperty(), new OutlineContentProperty(), new InlineMarkerProperty() };
+			new LengthProperty(CSS.WIDTH, IProperty.Axis.HORIZONTAL), new BackgroundImageProperty(), new InlineMarkerProperty() };
 
 	/**
-	 * The rules that comprise the stylesheet.
+	 * The slots of the standard CSS properties in Styles.
 	 */
-	private final List<Rule> rules;
+	private static final int[] CSS_PROPERTY_SLOTS = new int[CSS_PROPERTIES.length];
 
 	/**
-	 * The VEX core styles
+	 * The names of the properties which are looked up in the cascade. The index of a property in the cascade is its
+	 * index in this array.
 	 */
-	private final static List<Rule> coreRules;
+	private static final String[] CASCADED_PROPERTY_NAMES = new String[CSS_PROPERTIES.length + 2];
+	private static final int CONTENT_PROPERTY = CSS_PROPERTIES.length;
+	private static final int OUTLINE_CONTENT_PROPERTY = CSS_PROPERTIES.length + 1;
+
 	static {
-		List<Rule> rules;
-		try {
-			rules = new StyleSheetReader().readRules(StyleSheet.class.getResource("vex-core-styles.css"));
-		} catch (final IOException e) {
-			rules = Collections.<Rule> emptyList();
-			e.printStackTrace();
+		for (int i = 0; i < CSS_PROPERTIES.length; i++) {
+			CSS_PROPERTY_SLOTS[i] = Styles.getSlot(CSS_PROPERTIES[i].getName());
+			CASCADED_PROPERTY_NAMES[i] = CSS_PROPERTIES[i].getName();
 		}
-		coreRules = rules;
+		CASCADED_PROPERTY_NAMES[CONTENT_PROPERTY] = CSS.CONTENT;
+		CASCADED_PROPERTY_NAMES[OUTLINE_CONTENT_PROPERTY] = CSS.OUTLINE_CONTENT;
 	}
 
+	public static final StyleSheet NULL = new StyleSheet(Collections.<Rule> emptyList());
+
+	/**
+	 * The rules that comprise the stylesheet.
+	 */
+	private final List<Rule> rules;
+
+	/**
+	 * The rules of the stylesheet, bucketed by their selectors.
+	 */
+	private final RuleIndex ruleIndex;
+
 	/**
 	 * Computing styles can be expensive, e.g. we have to calculate the styles of all parents of an element. We
 	 * therefore cache styles in a map of element => styles. We use a WeakHashMap here that does not prevent the INode's
@@ -113,6 +126,18 @@ public class StyleSheet {
 	 */
 	private final Map<INode, Styles> styleMap = new WeakHashMap<INode, Styles>(50);
 
+	/**
+	 * Siblings and cousins with the same name and attributes share their styles.
+	 */
+	private final StyleSharingCache sharingCache;
+
+	/**
+	 * The declarations of the core rules and of this stylesheet's rules, ranked in cascade order. The cascade and the
+	 * indices of the matching rules are reused for each node.
+	 */
+	private final Cascade cascade;
+	private final int[] matchingRules;
+
 	/**
 	 * Class constructor.
 	 * 
@@ -121,6 +146,14 @@ public class StyleSheet {
 	 */
 	public StyleSheet(final Collection<Rule> rules) {
 		this.rules = new ArrayList<Rule>(rules);
+		ruleIndex = new RuleIndex(this.rules);
+
+		final List<Rule> allRules = new ArrayList<Rule>(coreRuleList);
+		allRules.addAll(this.rules);
+		sharingCache = new StyleSharingCache(allRules);
+
+		cascade = new Cascade(coreRuleList, this.rules, CASCADED_PROPERTY_NAMES);
+		matchingRules = new int[Math.max(coreRuleList.size(), this.rules.size())];
 	}
 
 	/**
@@ -131,6 +164,7 @@ public class StyleSheet {
 	 */
 	public void flushStyles(final INode node) {
 		styleMap.remove(node);
+		sharingCache.clear();
 	}
 
 	/**
@@ -152,6 +186,7 @@ public class StyleSheet {
 				iter.remove();
 			}
 		}
+		sharingCache.clear();
 	}
 
 	/**
@@ -209,36 +244,48 @@ public class StyleSheet {
 	}
 
 	private Styles calculateStyles(final INode node) {
-
-		// getApplicableDeclarations returns the elements styles and also pseudo element styles 
-		final Map<String, Map<String, LexicalUnit>> decls = getApplicableDeclarations(node);
-
-		// The null key contains the element's direct styles
 		Styles parentStyles = null;
 		if (node != null && node.getParent() != null) {
 			parentStyles = getStyles(node.getParent());
 		}
-		final Styles styles = calculateNodeStyles(node, decls.get(null), parentStyles);
+
+		final Styles sharedStyles = sharingCache.find(node, parentStyles);
+		if (sharedStyles != null) {
+			return sharedStyles;
+		}
+
+		// The styles of the parent keep the filter of its ancestors, which already includes the parent itself
+		final AncestorFilter ancestors = parentStyles != null ? parentStyles.getAncestorFilter() : AncestorFilter.EMPTY;
+
+		// The cascade contains the element's direct styles and also the pseudo element styles
+		cascadeApplicableDeclarations(node, ancestors);
+
+		final Styles styles = calculateNodeStyles(node, Cascade.NODE, parentStyles);
 		if (styles == null) {
 			return null;
 		}
+		if (node != null) {
+			styles.setAncestorFilter(ancestors.with(node));
+		}
 
 		// Now calculate the pseudo element styles and store the in the parent's Styles
-		decls.remove(null);
-		for (final Entry<String, Map<String, LexicalUnit>> entry : decls.entrySet()) {
-			final String pseudoElement = entry.getKey();
-			final Styles pseudoElementStyles = calculateNodeStyles(node, entry.getValue(), styles);
-			styles.putPseudoElementStyles(pseudoElement, pseudoElementStyles);
+		for (int pseudoElement = Cascade.NODE + 1; pseudoElement < cascade.getPseudoElementCount(); pseudoElement++) {
+			if (cascade.hasDeclarations(pseudoElement)) {
+				final Styles pseudoElementStyles = calculateNodeStyles(node, pseudoElement, styles);
+				styles.putPseudoElementStyles(cascade.getPseudoElementName(pseudoElement), pseudoElementStyles);
+			}
 		}
 
+		sharingCache.add(node, parentStyles, styles);
+
 		return styles;
 	}
 
-	private Styles calculateNodeStyles(final INode node, final Map<String, LexicalUnit> decls, final Styles parentStyles) {
+	private Styles calculateNodeStyles(final INode node, final int pseudoElement, final Styles parentStyles) {
 		final Styles styles = new Styles();
 
 		LexicalUnit lexicalUnit;
-		lexicalUnit = decls.get(CSS.CONTENT);
+		lexicalUnit = cascade.getValue(pseudoElement, CONTENT_PROPERTY);
 		// Content needs special handling, since the value of attr(xxx) may change while editing
 		// We pass all valid LexicalUnits to Styles and evaluate there on every access
 		final List<LexicalUnit> content = new ArrayList<LexicalUnit>();
@@ -257,10 +304,13 @@ public class StyleSheet {
 		}
 		styles.setContent(content);
 
-		for (final IProperty property : CSS_PROPERTIES) {
-			lexicalUnit = decls.get(property.getName());
-			final Object value = property.calculate(lexicalUnit, parentStyles, styles, node);
-			styles.put(property.getName(), value);
+		// The outline content depends on the node, hence it is evaluated on every access, like the content
+		styles.setOutlineContent(cascade.getValue(pseudoElement, OUTLINE_CONTENT_PROPERTY));
+
+		for (int i = 0; i < CSS_PROPERTIES.length; i++) {
+			lexicalUnit = cascade.getValue(pseudoElement, i);
+			final Object value = CSS_PROPERTIES[i].calculate(lexicalUnit, parentStyles, styles, node);
+			styles.put(CSS_PROPERTY_SLOTS[i], value);
 		}
 
 		// Now, map font-family, font-style, font-weight, and font-size onto
@@ -297,84 +347,22 @@ public class StyleSheet {
 	}
 
 	/**
-	 * Returns all the declarations that apply to the given element and defined pseudo elements.
-	 * 
-	 * @return The key 'null' in the returned Map contains the node's declarations. Names keys contain the declarations
-	 *         for pseudo elements.
+	 * Adds the declarations of all core rules and rules of this stylesheet that apply to the given node and its pseudo
+	 * elements to the cascade.
 	 */
-	private Map<String, Map<String, LexicalUnit>> getApplicableDeclarations(final INode node) {
-		final List<PropertyDecl> coreDeclarationsForElement = findCoreDeclarationsFor(node);
-		Collections.sort(coreDeclarationsForElement, PROPERTY_CASCADE_ORDERING);
-
-		final List<PropertyDecl> stylesheetDeclarationsForElement = findAllDeclarationsFor(node);
-		Collections.sort(stylesheetDeclarationsForElement, PROPERTY_CASCADE_ORDERING);
-
-		// Both lists are sorted in cascade order. We can then just stuff them into a map and get the right values
-		// since higher-priority values come later and overwrite lower-priority ones.
-		// Core styles are at the list's begin, so they are ruled out by stylesheet definitions.
-		final List<PropertyDecl> rawDeclarationsForElement = coreDeclarationsForElement;
-		rawDeclarationsForElement.addAll(stylesheetDeclarationsForElement);
-
-		final Map<String, Map<String, PropertyDecl>> distilledDeclarations = new HashMap<String, Map<String, PropertyDecl>>();
-		final Map<String, Map<String, LexicalUnit>> values = new HashMap<String, Map<String, LexicalUnit>>();
-		// Key null for nodes direct styles
-		distilledDeclarations.put(null, new HashMap<String, PropertyDecl>());
-		values.put(null, new HashMap<String, LexicalUnit>());
-		for (final PropertyDecl declaration : rawDeclarationsForElement) {
-			String pseudoElement = null;
-			final Selector sel = declaration.getRule().getSelector();
-			if (sel instanceof DescendantSelector && ((DescendantSelector) sel).getSimpleSelector().getSelectorType() == Selector.SAC_PSEUDO_ELEMENT_SELECTOR) {
-				// Get the pseudo elements name, if this declaration comes from an SAC_PSEUDO_ELEMENT_SELECTOR
-				final ElementSelector elementSel = (ElementSelector) ((DescendantSelector) sel).getSimpleSelector();
-				pseudoElement = elementSel.getLocalName().toLowerCase();
-			}
-
-			PropertyDecl previousDeclaration = null;
-			if (distilledDeclarations.containsKey(pseudoElement)) {
-				previousDeclaration = distilledDeclarations.get(pseudoElement).get(declaration.getProperty());
-			} else {
-				distilledDeclarations.put(pseudoElement, new HashMap<String, PropertyDecl>());
-			}
-			if (previousDeclaration == null || !previousDeclaration.isImportant() || declaration.isImportant()) {
-				distilledDeclarations.get(pseudoElement).put(declaration.getProperty(), declaration);
-				if (values.containsKey(pseudoElement)) {
-					values.get(pseudoElement).put(declaration.getProperty(), declaration.getValue());
-				} else {
-					values.put(pseudoElement, new HashMap<String, LexicalUnit>());
-					values.get(pseudoElement).put(declaration.getProperty(), declaration.getValue());
-				}
-			}
-		}
-
-		return values;
-	}
-
-	private List<PropertyDecl> findAllDeclarationsFor(final INode node) {
-		final List<PropertyDecl> rawDeclarations = new ArrayList<PropertyDecl>();
+	private void cascadeApplicableDeclarations(final INode node, final AncestorFilter ancestors) {
+		cascade.clear();
 
-		for (final Rule rule : rules) {
-			if (rule.matches(node)) {
-				final PropertyDecl[] ruleDecls = rule.getPropertyDecls();
-				for (final PropertyDecl ruleDecl : ruleDecls) {
-					rawDeclarations.add(ruleDecl);
-				}
-			}
+		// The order of the rules does not matter, the cascade already knows the rank of each declaration
+		final int coreRuleCount = coreRules.findMatchingRules(node, ancestors, matchingRules);
+		for (int i = 0; i < coreRuleCount; i++) {
+			cascade.addCoreRule(matchingRules[i]);
 		}
-		return rawDeclarations;
-	}
 
-	private List<PropertyDecl> findCoreDeclarationsFor(final INode node) {
-		final List<PropertyDecl> rawDeclarations = new ArrayList<PropertyDecl>();
-
-		for (final Rule rule : coreRules) {
-			if (rule.matches(node)) {
-				final PropertyDecl[] ruleDecls = rule.getPropertyDecls();
-				for (final PropertyDecl ruleDecl : ruleDecls) {
-					rawDeclarations.add(ruleDecl);
-				}
-			}
+		final int ruleCount = ruleIndex.findMatchingRules(node, ancestors, matchingRules);
+		for (int i = 0; i < ruleCount; i++) {
+			cascade.addRule(matchingRules[i]);
 		}
-		return rawDeclarations;
 	}
 
 	/**
@@ -28,11 +28,84 @@ import org.w3c.css.sac.LexicalUnit;
 
 /**
  * Represents the computed style properties for a particular element.
+ * <p>
+ * The styles calculated by a StyleSheet may be shared between several nodes (see StyleSharingCache), hence they must
+ * not be modified after the calculation. Values which depend on the node itself, like the <code>content</code> or the
+ * outline content, are evaluated on access for the given node.
  */
 public class Styles {
 
-	/** Maps property name (String) => value (Object) */
-	private final Map<String, Object> values = new HashMap<String, Object>();
+	/*
+	 * Each property which is calculated by the StyleSheet has a fixed slot in the values array, hence the getters do
+	 * not have to look up the property's name.
+	 */
+	private static final Map<String, Integer> SLOTS = new HashMap<String, Integer>();
+
+	private static final int DISPLAY = slot(CSS.DISPLAY);
+	private static final int LINE_HEIGHT = slot(CSS.LINE_HEIGHT);
+	private static final int LIST_STYLE_TYPE = slot(CSS.LIST_STYLE_TYPE);
+	private static final int TEXT_ALIGN = slot(CSS.TEXT_ALIGN);
+	private static final int WHITE_SPACE = slot(CSS.WHITE_SPACE);
+	private static final int FONT_FAMILY = slot(CSS.FONT_FAMILY);
+	private static final int FONT_SIZE = slot(CSS.FONT_SIZE);
+	private static final int FONT_STYLE = slot(CSS.FONT_STYLE);
+	private static final int FONT_WEIGHT = slot(CSS.FONT_WEIGHT);
+	private static final int TEXT_DECORATION = slot(CSS.TEXT_DECORATION);
+	private static final int COLOR = slot(CSS.COLOR);
+	private static final int BACKGROUND_COLOR = slot(CSS.BACKGROUND_COLOR);
+	private static final int MARGIN_BOTTOM = slot(CSS.MARGIN_BOTTOM);
+	private static final int MARGIN_LEFT = slot(CSS.MARGIN_LEFT);
+	private static final int MARGIN_RIGHT = slot(CSS.MARGIN_RIGHT);
+	private static final int MARGIN_TOP = slot(CSS.MARGIN_TOP);
+	private static final int PADDING_BOTTOM = slot(CSS.PADDING_BOTTOM);
+	private static final int PADDING_LEFT = slot(CSS.PADDING_LEFT);
+	private static final int PADDING_RIGHT = slot(CSS.PADDING_RIGHT);
+	private static final int PADDING_TOP = slot(CSS.PADDING_TOP);
+	private static final int BORDER_BOTTOM_COLOR = slot(CSS.BORDER_BOTTOM_COLOR);
+	private static final int BORDER_LEFT_COLOR = slot(CSS.BORDER_LEFT_COLOR);
+	private static final int BORDER_RIGHT_COLOR = slot(CSS.BORDER_RIGHT_COLOR);
+	private static final int BORDER_TOP_COLOR = slot(CSS.BORDER_TOP_COLOR);
+	private static final int BORDER_BOTTOM_STYLE = slot(CSS.BORDER_BOTTOM_STYLE);
+	private static final int BORDER_LEFT_STYLE = slot(CSS.BORDER_LEFT_STYLE);
+	private static final int BORDER_RIGHT_STYLE = slot(CSS.BORDER_RIGHT_STYLE);
+	private static final int BORDER_TOP_STYLE = slot(CSS.BORDER_TOP_STYLE);
+	private static final int BORDER_BOTTOM_WIDTH = slot(CSS.BORDER_BOTTOM_WIDTH);
+	private static final int BORDER_LEFT_WIDTH = slot(CSS.BORDER_LEFT_WIDTH);
+	private static final int BORDER_RIGHT_WIDTH = slot(CSS.BORDER_RIGHT_WIDTH);
+	private static final int BORDER_TOP_WIDTH = slot(CSS.BORDER_TOP_WIDTH);
+	private static final int BORDER_SPACING = slot(CSS.BORDER_SPACING);
+	private static final int HEIGHT = slot(CSS.HEIGHT);
+	private static final int WIDTH = slot(CSS.WIDTH);
+	private static final int BACKGROUND_IMAGE = slot(CSS.BACKGROUND_IMAGE);
+	private static final int INLINE_MARKER = slot(CSS.INLINE_MARKER);
+
+	private static final int SLOT_COUNT = SLOTS.size();
+
+	private static int slot(final String propertyName) {
+		final int slot = SLOTS.size();
+		SLOTS.put(propertyName, slot);
+		return slot;
+	}
+
+	/**
+	 * @return the slot of the given property, or -1 if the property has no slot
+	 */
+	static int getSlot(final String propertyName) {
+		final Integer slot = SLOTS.get(propertyName);
+		if (slot == null) {
+			return -1;
+		}
+		return slot.intValue();
+	}
+
+	/** The values of the properties, indexed by their slots */
+	private final Object[] values = new Object[SLOT_COUNT];
+
+	/** Maps property name (String) => value (Object) for properties without a slot */
+	private Map<String, Object> otherValues;
+
+	private DisplayProperty.Value display;
+	private WhiteSpaceProperty.Value whiteSpace;
 
 	/**
 	 * This Map contains the Styles for all pseudo elements of the element that this Style belongs to. Key is the pseudo
@@ -41,7 +114,9 @@ public class Styles {
 	private final Map<String, Styles> pseudoElementStyles = new HashMap<String, Styles>();
 
 	private List<LexicalUnit> contentLexicalUnits;
+	private LexicalUnit outlineContentLexicalUnit;
 	private FontSpec font;
+	private AncestorFilter ancestorFilter = AncestorFilter.EMPTY;
 
 	/**
 	 * Returns the value of the given property, or null if the property does not have a value.
@@ -50,84 +125,98 @@ public class Styles {
 	 * @return
 	 */
 	public Object get(final String propertyName) {
-		return values.get(propertyName);
+		final int slot = getSlot(propertyName);
+		if (slot >= 0) {
+			return values[slot];
+		}
+		if (otherValues == null) {
+			return null;
+		}
+		return otherValues.get(propertyName);
+	}
+
+	/**
+	 * Returns the value of the property with the given slot.
+	 */
+	Object get(final int slot) {
+		return values[slot];
 	}
 
 	/**
 	 * Returns the value of the <code>backgroundColor</code> property.
 	 */
 	public Color getBackgroundColor() {
-		return (Color) values.get(CSS.BACKGROUND_COLOR);
+		return (Color) values[BACKGROUND_COLOR];
 	}
 
 	/**
 	 * Returns the value of the <code>borderBottomColor</code> property.
 	 */
 	public Color getBorderBottomColor() {
-		return (Color) values.get(CSS.BORDER_BOTTOM_COLOR);
+		return (Color) values[BORDER_BOTTOM_COLOR];
 	}
 
 	/**
 	 * Returns the value of the <code>borderBottomStyle</code> property.
 	 */
 	public String getBorderBottomStyle() {
-		return (String) values.get(CSS.BORDER_BOTTOM_STYLE);
+		return (String) values[BORDER_BOTTOM_STYLE];
 	}
 
 	/**
 	 * Returns the value of the <code>borderLeftColor</code> property.
 	 */
 	public Color getBorderLeftColor() {
-		return (Color) values.get(CSS.BORDER_LEFT_COLOR);
+		return (Color) values[BORDER_LEFT_COLOR];
 	}
 
 	/**
 	 * Returns the value of the <code>borderLeftStyle</code> property.
 	 */
 	public String getBorderLeftStyle() {
-		return (String) values.get(CSS.BORDER_LEFT_STYLE);
+		return (String) values[BORDER_LEFT_STYLE];
 	}
 
 	/**
 	 * Returns the value of the <code>borderRightColor</code> property.
 	 */
 	public Color getBorderRightColor() {
-		return (Color) values.get(CSS.BORDER_RIGHT_COLOR);
+		return (Color) values[BORDER_RIGHT_COLOR];
 	}
 
 	/**
 	 * Returns the value of the <code>borderRightStyle</code> property.
 	 */
 	public String getBorderRightStyle() {
-		return (String) values.get(CSS.BORDER_RIGHT_STYLE);
+		return (String) values[BORDER_RIGHT_STYLE];
 	}
 
 	/**
 	 * Returns the value of the <code>borderSpacing</code> property.
 	 */
 	public BorderSpacingProperty.Value getBorderSpacing() {
-		return (BorderSpacingProperty.Value) values.get(CSS.BORDER_SPACING);
+		return (BorderSpacingProperty.Value) values[BORDER_SPACING];
 	}
 
 	/**
 	 * Returns the value of the <code>borderTopColor</code> property.
 	 */
 	public Color getBorderTopColor() {
-		return (Color) values.get(CSS.BORDER_TOP_COLOR);
+		return (Color) values[BORDER_TOP_COLOR];
 	}
 
 	/**
 	 * Returns the value of the <code>borderTopStyle</code> property.
 	 */
 	public String getBorderTopStyle() {
-		return (String) values.get(CSS.BORDER_TOP_STYLE);
+		return (String) values[BORDER_TOP_STYLE];
 	}
 
 	/**
 	 * Returns the value of the <code>color</code> property.
 	 */
 	public Color getColor() {
-		return (Color) values.get(CSS.COLOR);
+		return (Color) values[COLOR];
 	}
 
 	/**
@@ -183,14 +272,21 @@ public class Styles {
 	 * Returns the value of the <code>display</code> property.
 	 */
 	public String getDisplay() {
-		return (String) values.get(CSS.DISPLAY);
+		return (String) values[DISPLAY];
+	}
+
+	/**
+	 * Returns the value of the <code>display</code> property.
+	 */
+	public DisplayProperty.Value getDisplayValue() {
+		return display;
 	}
 
 	/**
 	 * @return true if the <code>display</code> property is not 'none'.
 	 */
 	public boolean isDisplayed() {
-		return !CSS.NONE.equals(getDisplay());
+		return getDisplayValue() != DisplayProperty.Value.NONE;
 	}
 
 	/**
@@ -204,70 +300,77 @@ public class Styles {
 	 * Returns the value of the <code>fontFamily</code> property.
 	 */
 	public String[] getFontFamilies() {
-		return (String[]) values.get(CSS.FONT_FAMILY);
+		return (String[]) values[FONT_FAMILY];
 	}
 
 	/**
 	 * Returns the value of the <code>fontSize</code> property.
 	 */
 	public float getFontSize() {
-		return ((Float) values.get(CSS.FONT_SIZE)).floatValue();
+		return ((Float) values[FONT_SIZE]).floatValue();
 	}
 
 	/**
 	 * Returns the value of the <code>fontStyle</code> property.
 	 */
 	public String getFontStyle() {
-		return (String) values.get(CSS.FONT_STYLE);
+		return (String) values[FONT_STYLE];
 	}
 
 	/**
 	 * Returns the value of the <code>fontWeight</code> property.
 	 */
 	public int getFontWeight() {
-		return ((Integer) values.get(CSS.FONT_WEIGHT)).intValue();
+		return ((Integer) values[FONT_WEIGHT]).intValue();
 	}
 
 	/**
 	 * Returns the value of the <code>_vex-inline-marker</code> property.
 	 */
 	public String getInlineMarker() {
-		return (String) values.get(CSS.INLINE_MARKER);
+		return (String) values[INLINE_MARKER];
 	}
 
 	/**
 	 * Returns the value of the <code>lineHeight</code> property.
 	 */
 	public int getLineHeight() {
-		return ((RelativeLength) values.get(CSS.LINE_HEIGHT)).get(Math.round(getFontSize()));
+		return ((RelativeLength) values[LINE_HEIGHT]).get(Math.round(getFontSize()));
 	}
 
 	/**
 	 * Returns the value of the <code>listStyleType</code> property.
 	 */
 	public String getListStyleType() {
-		return (String) values.get(CSS.LIST_STYLE_TYPE);
+		return (String) values[LIST_STYLE_TYPE];
 	}
 
 	/**
 	 * Returns the value of the <code>textAlign</code> property.
 	 */
 	public String getTextAlign() {
-		return (String) values.get(CSS.TEXT_ALIGN);
+		return (String) values[TEXT_ALIGN];
 	}
 
 	/**
 	 * Returns the value of the <code>textDecoration</code> property.
 	 */
 	public String getTextDecoration() {
-		return (String) values.get(CSS.TEXT_DECORATION);
+		return (String) values[TEXT_DECORATION];
 	}
 
 	/**
 	 * Returns the value of the <code>whiteSpace</code> property.
 	 */
 	public String getWhiteSpace() {
-		return (String) values.get(CSS.WHITE_SPACE);
+		return (String) values[WHITE_SPACE];
+	}
+
+	/**
+	 * Returns the value of the <code>whiteSpace</code> property.
+	 */
+	public WhiteSpaceProperty.Value getWhiteSpaceValue() {
+		return whiteSpace;
 	}
 
 	/**
@@ -279,7 +382,27 @@ public class Styles {
 	 *            Value of the property.
 	 */
 	public void put(final String propertyName, final Object value) {
-		values.put(propertyName, value);
+		final int slot = getSlot(propertyName);
+		if (slot >= 0) {
+			put(slot, value);
+			return;
+		}
+		if (otherValues == null) {
+			otherValues = new HashMap<String, Object>();
+		}
+		otherValues.put(propertyName, value);
+	}
+
+	/**
+	 * Sets the value of the property with the given slot.
+	 */
+	void put(final int slot, final Object value) {
+		values[slot] = value;
+		if (slot == DISPLAY) {
+			display = DisplayProperty.Value.forCssName((String) value);
+		} else if (slot == WHITE_SPACE) {
+			whiteSpace = WhiteSpaceProperty.Value.forCssName((String) value);
+		}
 	}
 
 	public void putPseudoElementStyles(final String pseudoElementName, final Styles pseudoElStyles) {
@@ -295,6 +418,17 @@ public class Styles {
 		}
 	}
 
+	/**
+	 * @return the filter of the ancestors of this node's children, i.e. of this node and its own ancestors
+	 */
+	AncestorFilter getAncestorFilter() {
+		return ancestorFilter;
+	}
+
+	void setAncestorFilter(final AncestorFilter ancestorFilter) {
+		this.ancestorFilter = ancestorFilter;
+	}
+
 	/**
 	 * Check if the given pseudo element is defined for this node.
 	 * 
@@ -326,19 +460,19 @@ public class Styles {
 	}
 
 	public RelativeLength getElementWidth() {
-		return (RelativeLength) values.get(CSS.WIDTH);
+		return (RelativeLength) values[WIDTH];
 	}
 
 	public RelativeLength getElementHeight() {
-		return (RelativeLength) values.get(CSS.HEIGHT);
+		return (RelativeLength) values[HEIGHT];
 	}
 
 	public boolean hasBackgroundImage() {
-		return values.get(CSS.BACKGROUND_IMAGE) != null;
+		return values[BACKGROUND_IMAGE] != null;
 	}
 
 	public String getBackgroundImage() {
-		final Object value = values.get(CSS.BACKGROUND_IMAGE);
+		final Object value = values[BACKGROUND_IMAGE];
 		if (value == null) {
 			return BackgroundImageProperty.DEFAULT;
 		}
@@ -349,92 +483,105 @@ public class Styles {
 	 * @return the value of border-bottom-width
 	 */
 	public int getBorderBottomWidth() {
-		return ((Integer) values.get(CSS.BORDER_BOTTOM_WIDTH)).intValue();
+		return ((Integer) values[BORDER_BOTTOM_WIDTH]).intValue();
 	}
 
 	/**
 	 * @return the value of border-left-width
 	 */
 	public int getBorderLeftWidth() {
-		return ((Integer) values.get(CSS.BORDER_LEFT_WIDTH)).intValue();
+		return ((Integer) values[BORDER_LEFT_WIDTH]).intValue();
 	}
 
 	/**
 	 * @return the value of border-right-width
 	 */
 	public int getBorderRightWidth() {
-		return ((Integer) values.get(CSS.BORDER_RIGHT_WIDTH)).intValue();
+		return ((Integer) values[BORDER_RIGHT_WIDTH]).intValue();
 	}
 
 	/**
 	 * @return the value of border-top-width
 	 */
 	public int getBorderTopWidth() {
-		return ((Integer) values.get(CSS.BORDER_TOP_WIDTH)).intValue();
+		return ((Integer) values[BORDER_TOP_WIDTH]).intValue();
 	}
 
 	/**
 	 * @return the value of margin-bottom
 	 */
 	public RelativeLength getMarginBottom() {
-		return (RelativeLength) values.get(CSS.MARGIN_BOTTOM);
-		// return marginBottom;
+		return (RelativeLength) values[MARGIN_BOTTOM];
 	}
 
 	/**
 	 * @return the value of margin-left
 	 */
 	public RelativeLength getMarginLeft() {
-		return (RelativeLength) values.get(CSS.MARGIN_LEFT);
+		return (RelativeLength) values[MARGIN_LEFT];
 	}
 
 	/**
 	 * @return the value of margin-right
 	 */
 	public RelativeLength getMarginRight() {
-		return (RelativeLength) values.get(CSS.MARGIN_RIGHT);
+		return (RelativeLength) values[MARGIN_RIGHT];
 	}
 
 	/**
 	 * @return the value of margin-top
 	 */
 	public RelativeLength getMarginTop() {
-		return (RelativeLength) values.get(CSS.MARGIN_TOP);
+		return (RelativeLength) values[MARGIN_TOP];
 	}
 
 	/**
 	 * @return the value of padding-bottom
 	 */
 	public RelativeLength getPaddingBottom() {
-		return (RelativeLength) values.get(CSS.PADDING_BOTTOM);
+		return (RelativeLength) values[PADDING_BOTTOM];
 	}
 
 	/**
 	 * @return the value of padding-left
 	 */
 	public RelativeLength getPaddingLeft() {
-		return (RelativeLength) values.get(CSS.PADDING_LEFT);
+		return (RelativeLength) values[PADDING_LEFT];
 	}
 
 	/**
 	 * @return the value of padding-right
 	 */
 	public RelativeLength getPaddingRight() {
-		return (RelativeLength) values.get(CSS.PADDING_RIGHT);
+		return (RelativeLength) values[PADDING_RIGHT];
 	}
 
 	/**
 	 * @return the value of padding-top
 	 */
 	public RelativeLength getPaddingTop() {
-		return (RelativeLength) values.get(CSS.PADDING_TOP);
+		return (RelativeLength) values[PADDING_TOP];
+	}
+
+	/**
+	 * Sets the LexicalUnit of the <code>-vex-outline-content</code> property.
+	 * 
+	 * @param outlineContent
+	 *            the first <code>LexicalUnit</code> of the property, or null if the property is not defined
+	 */
+	public void setOutlineContent(final LexicalUnit outlineContent) {
+		outlineContentLexicalUnit = outlineContent;
 	}
 
 	/**
-	 * @return the IElement whose text content should be used in the outline view.
+	 * The outline content is evaluated on every access, because it depends on the given node and its children.
+	 * 
+	 * @param node
+	 *            the node whose outline content should be returned
+	 * @return the IElement whose text content or the IAttribute whose value should be used in the outline view.
 	 */
-	public Object getOutlineContent() {
-		return values.get(CSS.OUTLINE_CONTENT);
+	public Object getOutlineContent(final INode node) {
+		return OutlineContentProperty.calculate(outlineContentLexicalUnit, node);
 	}
 
 }
@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.vex.core.internal.css;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.vex.core.provisional.dom.INode;
 import org.w3c.css.sac.LexicalUnit;
 
@@ -18,6 +21,40 @@ import org.w3c.css.sac.LexicalUnit;
  */
 public class WhiteSpaceProperty extends AbstractProperty {
 
+	/**
+	 * The values of the white-space property.
+	 */
+	public static enum Value {
+		NORMAL(CSS.NORMAL), PRE(CSS.PRE), NOWRAP(CSS.NOWRAP);
+
+		private static final Map<String, Value> VALUES_BY_CSS_NAME = new HashMap<String, Value>();
+		static {
+			for (final Value value : values()) {
+				VALUES_BY_CSS_NAME.put(value.cssName, value);
+			}
+		}
+
+		private final String cssName;
+
+		private Value(final String cssName) {
+			this.cssName = cssName;
+		}
+
+		/**
+		 * @return the name of this value in CSS, e.g. "nowrap"
+		 */
+		public String getCssName() {
+			return cssName;
+		}
+
+		/**
+		 * @return the value with the given name in CSS, or null if there is no such value
+		 */
+		public static Value forCssName(final String cssName) {
+			return VALUES_BY_CSS_NAME.get(cssName);
+		}
+	}
+
 	/**
 	 * Class constructor.
 	 */
@@ -53,8 +90,7 @@ public class WhiteSpaceProperty extends AbstractProperty {
 		if (lu == null) {
 			return false;
 		} else if (lu.getLexicalUnitType() == LexicalUnit.SAC_IDENT) {
-			final String s = lu.getStringValue();
-			return s.equals(CSS.NORMAL) || s.equals(CSS.PRE) || s.equals(CSS.NOWRAP);
+			return Value.forCssName(lu.getStringValue()) != null;
 		} else {
 			return false;
 		}
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2004, 2013 John Krasnay and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     John Krasnay - initial API and implementation
+ *     Igor Jacy Lino Campista - Java 5 warnings fixed (bug 311325)
+ *     Florian Thienel - refactoring to full fledged DOM
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+
+/**
+ * The base of the gap buffer contents. It keeps the free space of the buffer (the "gap") at the location of the last
+ * change and maintains the positions. Insertions at the start of the gap require no other characters to be moved so
+ * long as the insertion is smaller than the gap. Deletions that end at the gap are also very efficient. Furthermore,
+ * changes near the gap require relatively few characters to be moved.
+ * <p>
+ * Subclasses provide the storage of the characters: a char or byte array, which is accessed through
+ * System.arraycopy and the buffer index of an offset.
+ */
+abstract class AbstractGapContent implements ObservableContent {
+
+	private static final int GROWTH_SLOWDOWN_SIZE = 100000;
+	private static final int GROWTH_RATE_FAST = 2;
+	private static final float GROWTH_RATE_SLOW = 1.1f;
+
+	protected static final char TAG_MARKER = '\0';
+
+	protected int gapStart;
+	protected int gapEnd;
+	private final ContentPositions positions = new ContentPositions();
+
+	/**
+	 * Create an empty content with the given initial capacity. The subclass has to create a buffer of this capacity.
+	 *
+	 * @param initialCapacity
+	 *            initial capacity of the content.
+	 */
+	protected AbstractGapContent(final int initialCapacity) {
+		assertPositive(initialCapacity);
+
+		gapStart = 0;
+		gapEnd = initialCapacity;
+	}
+
+	/*
+	 * Storage
+	 */
+
+	/**
+	 * @return the buffer array, a char[] or a byte[]
+	 */
+	protected abstract Object getBuffer();
+
+	/**
+	 * Replace the buffer array by a new one, which already contains the characters.
+	 */
+	protected abstract void setBuffer(Object buffer);
+
+	/**
+	 * @return a new buffer array of the same type as the current one with the given capacity
+	 */
+	protected abstract Object createBuffer(int capacity);
+
+	/**
+	 * @return the number of characters which fit into the buffer without growing it
+	 */
+	public abstract int getCapacity();
+
+	/**
+	 * Append the characters in the buffer indices [startIndex, endIndex) to the given StringBuilder, without the tag
+	 * markers.
+	 */
+	protected abstract void appendPlainText(StringBuilder stringBuilder, int startIndex, int endIndex);
+
+	/**
+	 * Pass the characters in the buffer indices [index, index + length) to the given visitor.
+	 *
+	 * @return false if the visitor wants to stop
+	 */
+	protected abstract boolean visitSegment(IContentSegmentVisitor visitor, int offset, int index, int length);
+
+	/*
+	 * Positions
+	 */
+
+	public IPosition createPosition(final int offset) {
+		assertOffset(offset, 0, length());
+		return positions.createPosition(offset);
+	}
+
+	public void removePosition(final IPosition position) {
+		positions.removePosition(position);
+	}
+
+	public int getPositionCount() {
+		return positions.size();
+	}
+
+	public void addContentListener(final ContentListener listener) {
+		positions.addListener(listener);
+	}
+
+	public void removeContentListener(final ContentListener listener) {
+		positions.removeListener(listener);
+	}
+
+	/*
+	 * Modification
+	 */
+
+	public void insertTagMarker(final int offset) {
+		assertOffset(offset, 0, length());
+
+		insertText(offset, Character.toString(TAG_MARKER));
+	}
+
+	/**
+	 * Make room for the given number of characters at the given offset. The characters have to be written to the
+	 * buffer starting at index <code>offset</code> before calling finishInsertion.
+	 */
+	protected void prepareInsertion(final int offset, final int length) {
+		//
+		// Optimization: no need to update positions if we're inserting
+		// after existing content (offset == this.getLength()) and if
+		// we don't have to move the gap to do it (offset == gapStart).
+		//
+		// This significantly improves document load speed.
+		//
+		if (offset != length() || offset != gapStart) {
+			positions.movePositions(offset, length);
+		}
+
+		if (length > gapEnd - gapStart) {
+			expandContent(length() + length);
+		}
+
+		moveGap(offset);
+	}
+
+	protected void finishInsertion(final int length) {
+		gapStart += length;
+	}
+
+	/**
+	 * @return the raw characters of the given content, including tag markers
+	 */
+	protected static char[] getRawChars(final IContent content) {
+		final char[] result = new char[content.length()];
+		for (int i = 0; i < result.length; i++) {
+			if (content.isTagMarker(i)) {
+				result[i] = TAG_MARKER;
+			} else {
+				result[i] = content.charAt(i);
+			}
+		}
+		return result;
+	}
+
+	public void remove(final ContentRange range) {
+		assertOffset(range.getStartOffset(), 0, length() - range.length());
+		assertPositive(range.length());
+
+		positions.removeRange(range);
+
+		moveGap(range.getEndOffset() + 1);
+		gapStart -= range.length();
+	}
+
+	/*
+	 * Access
+	 */
+
+	public boolean isTagMarker(final int offset) {
+		if (offset < 0 || offset >= length()) {
+			return false;
+		}
+
+		return charAt(offset) == TAG_MARKER;
+	}
+
+	public String getText() {
+		return getText(getRange());
+	}
+
+	public String getText(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+
+		final int startOffset = range.getStartOffset();
+		final int endOffset = range.getEndOffset() + 1;
+		final int delta = gapEnd - gapStart;
+		final StringBuilder result = new StringBuilder(range.length());
+		appendPlainText(result, startOffset, Math.min(endOffset, gapStart));
+		appendPlainText(result, Math.max(startOffset, gapStart) + delta, endOffset + delta);
+		return result.toString();
+	}
+
+	public String getRawText() {
+		return getRawText(getRange());
+	}
+
+	public void visitSegments(final ContentRange range, final IContentSegmentVisitor visitor) {
+		Assert.isTrue(getRange().contains(range));
+
+		final int startOffset = range.getStartOffset();
+		final int endOffset = range.getEndOffset() + 1;
+		if (startOffset < gapStart) {
+			if (!visitSegment(visitor, startOffset, startOffset, Math.min(endOffset, gapStart) - startOffset)) {
+				return;
+			}
+		}
+		if (endOffset > gapStart) {
+			final int offset = Math.max(startOffset, gapStart);
+			visitSegment(visitor, offset, offset + gapEnd - gapStart, endOffset - offset);
+		}
+	}
+
+	public IContent getContent() {
+		return getContent(getRange());
+	}
+
+	/**
+	 * @see CharSequence#length()
+	 * @return the length of the raw textual content, including tag markers.
+	 */
+	public int length() {
+		return getCapacity() - (gapEnd - gapStart);
+	}
+
+	public ContentRange getRange() {
+		return new ContentRange(0, length() - 1);
+	}
+
+	/**
+	 * @return the index of the given offset in the buffer
+	 */
+	protected int getIndex(final int offset) {
+		if (offset < gapStart) {
+			return offset;
+		}
+		return offset + gapEnd - gapStart;
+	}
+
+	/**
+	 * Get the raw text of a region of this content. The plain text does also contain the tag markers in this content.
+	 *
+	 * @see CharSequence#subSequence(int, int)
+	 * @param startOffset
+	 *            Offset at which the substring begins.
+	 * @param endOffset
+	 *            Offset at which the substring ends.
+	 * @return the text of the given region including tag markers
+	 */
+	public CharSequence subSequence(final int startOffset, final int endOffset) {
+		return getRawText(new ContentRange(startOffset, endOffset));
+	}
+
+	/*
+	 * Buffer Management
+	 */
+
+	/**
+	 * Copy the characters in the given range into the given array, which must be of the same type as the buffer, using
+	 * at most two block copies.
+	 */
+	protected void copyRange(final ContentRange range, final Object destination, final int destinationIndex) {
+		final Object buffer = getBuffer();
+		final int startOffset = range.getStartOffset();
+		final int length = range.length();
+		if (startOffset + length <= gapStart) {
+			System.arraycopy(buffer, startOffset, destination, destinationIndex, length);
+		} else if (startOffset >= gapStart) {
+			System.arraycopy(buffer, startOffset + gapEnd - gapStart, destination, destinationIndex, length);
+		} else {
+			final int lengthBeforeGap = gapStart - startOffset;
+			System.arraycopy(buffer, startOffset, destination, destinationIndex, lengthBeforeGap);
+			System.arraycopy(buffer, gapEnd, destination, destinationIndex + lengthBeforeGap, length - lengthBeforeGap);
+		}
+	}
+
+	/**
+	 * Assert that the given offset is within the given range, throwing IllegalArgumentException if not.
+	 */
+	protected static void assertOffset(final int offset, final int min, final int max) {
+		if (offset < min || offset > max) {
+			throw new IllegalArgumentException("Bad offset " + offset + " must be between " + min + " and " + max);
+		}
+	}
+
+	/**
+	 * Assert that the given value is zero or positive. throwing IllegalArgumentException if not.
+	 */
+	protected static void assertPositive(final int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Value should be zero or positive, but it was " + value);
+		}
+	}
+
+	/**
+	 * Expand the buffer to fit at least the given length.
+	 */
+	private void expandContent(final int newLength) {
+
+		// grow quickly when small, slower when large
+
+		final int newCapacity;
+		if (newLength < GROWTH_SLOWDOWN_SIZE) {
+			newCapacity = Math.max(newLength * GROWTH_RATE_FAST, 32);
+		} else {
+			newCapacity = (int) (newLength * GROWTH_RATE_SLOW);
+		}
+
+		final Object buffer = getBuffer();
+		final Object newBuffer = createBuffer(newCapacity);
+		final int tailLength = getCapacity() - gapEnd;
+		System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+		System.arraycopy(buffer, gapEnd, newBuffer, newCapacity - tailLength, tailLength);
+
+		setBuffer(newBuffer);
+		gapEnd = newCapacity - tailLength;
+	}
+
+	/**
+	 * Move the gap to the given offset.
+	 */
+	private void moveGap(final int offset) {
+
+		assertOffset(offset, 0, length());
+
+		final Object buffer = getBuffer();
+		if (offset <= gapStart) {
+			final int length = gapStart - offset;
+			System.arraycopy(buffer, offset, buffer, gapEnd - length, length);
+			gapStart -= length;
+			gapEnd -= length;
+		} else {
+			final int length = offset - gapStart;
+			System.arraycopy(buffer, gapEnd, buffer, gapStart, length);
+			gapStart += length;
+			gapEnd += length;
+		}
+	}
+
+}
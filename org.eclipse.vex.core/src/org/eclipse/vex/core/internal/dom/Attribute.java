@@ -11,6 +11,7 @@
 package org.eclipse.vex.core.internal.dom;
 
 import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.core.NamePool;
 import org.eclipse.vex.core.provisional.dom.IAttribute;
 import org.eclipse.vex.core.provisional.dom.IElement;
 
@@ -29,12 +30,12 @@ public class Attribute implements IAttribute {
 	private final String value;
 
 	public Attribute(final IElement parent, final String localName, final String value) {
-		this(parent, new QualifiedName(null, localName), value);
+		this(parent, NamePool.intern(null, localName), value);
 	}
 
 	public Attribute(final IElement parent, final QualifiedName name, final String value) {
 		this.parent = parent;
-		this.name = name;
+		this.name = NamePool.intern(name);
 		this.value = value;
 	}
 
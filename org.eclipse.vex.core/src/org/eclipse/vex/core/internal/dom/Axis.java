@@ -74,6 +74,28 @@ public abstract class Axis<T extends INode> implements IAxis<T> {
 
 	protected abstract Iterator<? extends T> createRootIterator(final ContentRange contentRange, final boolean includeText);
 
+	/**
+	 * Subclasses which can access the nodes of the root iterator without text directly by index can override this
+	 * method together with getRootNodeWithoutText and getRootNodeCountWithoutText.
+	 * 
+	 * @return true if this axis supports indexed access to its root nodes without text
+	 */
+	protected boolean hasIndexedRootNodesWithoutText() {
+		return false;
+	}
+
+	protected T getRootNodeWithoutText(final int index) {
+		throw new UnsupportedOperationException();
+	}
+
+	protected int getRootNodeCountWithoutText() {
+		throw new UnsupportedOperationException();
+	}
+
+	private boolean canUseIndexedAccess() {
+		return !includeText && ContentRange.ALL.equals(contentRange) && chain.isEmpty() && startIndex == UNDEFINED && endIndex == UNDEFINED && hasIndexedRootNodesWithoutText();
+	}
+
 	public Axis<? extends T> in(final ContentRange range) {
 		Assert.isTrue(ContentRange.ALL.equals(contentRange), "Can only use one of 'before', 'after' or 'in' in the same expression.");
 		contentRange = range;
@@ -147,6 +169,13 @@ public abstract class Axis<T extends INode> implements IAxis<T> {
 	}
 
 	public T get(final int index) {
+		if (canUseIndexedAccess()) {
+			if (index < 0 || index >= getRootNodeCountWithoutText()) {
+				throw new NoSuchElementException();
+			}
+			return getRootNodeWithoutText(index);
+		}
+
 		final Iterator<T> iterator = iterator();
 		int i = 0;
 		while (i++ < index) {
@@ -162,6 +191,10 @@ public abstract class Axis<T extends INode> implements IAxis<T> {
 	}
 
 	public int count() {
+		if (canUseIndexedAccess()) {
+			return getRootNodeCountWithoutText();
+		}
+
 		int result = 0;
 		final Iterator<T> iterator = iterator();
 		while (iterator.hasNext()) {
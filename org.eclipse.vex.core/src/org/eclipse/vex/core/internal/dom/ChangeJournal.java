@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.vex.core.provisional.dom.DocumentChange;
+
+/**
+ * The journal of the recent changes of a document. Each recorded change increments the revision of the document by
+ * one. The journal keeps only the last changes in a ring buffer of a fixed capacity, older changes are overwritten.
+ * The recorded changes do not refer to any nodes, so the journal does not keep deleted nodes alive.
+ * <p>
+ * The journal is thread-safe, so background jobs can pull the changes while the document is modified.
+ */
+class ChangeJournal {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final DocumentChange[] changes;
+	private long revision;
+
+	public ChangeJournal() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public ChangeJournal(final int capacity) {
+		Assert.isTrue(capacity > 0, "The capacity must be positive.");
+		changes = new DocumentChange[capacity];
+	}
+
+	public synchronized long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Record a change and increment the revision.
+	 */
+	public synchronized void record(final DocumentChange change) {
+		changes[indexOf(revision)] = change;
+		revision++;
+	}
+
+	/**
+	 * @param sinceRevision
+	 *            the revision which is already known to the caller
+	 * @return the changes after the given revision in the order of their occurrence, or null if the journal has
+	 *         already dropped some of these changes
+	 */
+	public synchronized List<DocumentChange> getChangesSince(final long sinceRevision) {
+		if (sinceRevision < 0 || sinceRevision > revision) {
+			Assert.isTrue(false, MessageFormat.format("The revision {0} is not between 0 and {1}.", sinceRevision, revision));
+		}
+		if (sinceRevision == revision) {
+			return Collections.emptyList();
+		}
+		if (revision - sinceRevision > changes.length) {
+			return null;
+		}
+
+		final ArrayList<DocumentChange> result = new ArrayList<DocumentChange>((int) (revision - sinceRevision));
+		for (long i = sinceRevision; i < revision; i++) {
+			result.add(changes[indexOf(i)]);
+		}
+		return result;
+	}
+
+	private int indexOf(final long revision) {
+		return (int) (revision % changes.length);
+	}
+
+}
@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.vex.core.provisional.dom.INode;
+
+/**
+ * The list of children of a Parent. The children are kept in a sequence of chunks with a bounded size, hence inserting
+ * or removing a child only shifts the nodes within one chunk and the chunk references, instead of all children.
+ * <p>
+ * Each chunk has a start offset relative to the start offset of the parent. The relative offsets of the nodes in a
+ * chunk are stored relative to the start offset of their chunk. The start offsets of the chunks are kept in a Fenwick
+ * tree (binary indexed tree) over the differences between the start offsets of consecutive chunks. Moving all children
+ * behind a modification of the content only needs to touch the nodes of the chunk which contains the modification and
+ * a single entry of the tree, the following chunks are moved as a whole. Reading the start offset of a chunk sums up
+ * O(log(chunks)) entries of the tree.
+ * <p>
+ * Each chunk knows the index of its first node, so the access by index is a binary search over the chunks.
+ */
+class ChildList implements Iterable<Node> {
+
+	private static final int INITIAL_CHUNK_CAPACITY = 4;
+	private static final int MAX_CHUNK_SIZE = 64;
+	private static final int MIN_CHUNK_SIZE = MAX_CHUNK_SIZE / 4;
+
+	/**
+	 * A consecutive part of the children.
+	 */
+	static class Chunk {
+		private final ChildList list;
+		private Node[] nodes;
+		private int size;
+		private int firstIndex;
+		private int chunkIndex;
+
+		private Chunk(final ChildList list, final int capacity) {
+			this.list = list;
+			nodes = new Node[capacity];
+		}
+
+		/**
+		 * @return the start offset of this chunk relative to the start offset of the parent
+		 */
+		public int getStartOffset() {
+			return list.getChunkStartOffset(chunkIndex);
+		}
+
+		private int indexOf(final Node node) {
+			for (int i = 0; i < size; i++) {
+				if (nodes[i] == node) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private void insert(final int index, final Node node) {
+			if (size == nodes.length) {
+				final Node[] newNodes = new Node[Math.min(nodes.length * 2, MAX_CHUNK_SIZE)];
+				System.arraycopy(nodes, 0, newNodes, 0, size);
+				nodes = newNodes;
+			}
+			System.arraycopy(nodes, index, nodes, index + 1, size - index);
+			nodes[index] = node;
+			node.setChunk(this);
+			size++;
+		}
+
+		private void remove(final int index) {
+			nodes[index].setChunk(null);
+			System.arraycopy(nodes, index + 1, nodes, index, size - index - 1);
+			nodes[--size] = null;
+		}
+	}
+
+	private Chunk[] chunks = new Chunk[0];
+	private int chunkCount;
+	private int size;
+
+	/*
+	 * The Fenwick tree of the chunk start offsets, 1-based: entry i holds the sum of the differences between the start
+	 * offsets of the chunks in (i - lowestOneBit(i), i], the difference of the first chunk is its start offset.
+	 */
+	private int[] startOffsetTree = new int[1];
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public Node get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new NoSuchElementException("No child at index " + index);
+		}
+		final Chunk chunk = chunks[findChunkIndex(index)];
+		return chunk.nodes[index - chunk.firstIndex];
+	}
+
+	public int indexOf(final INode node) {
+		if (!(node instanceof Node)) {
+			return -1;
+		}
+		final Chunk chunk = ((Node) node).getChunk();
+		if (chunk == null || chunk.list != this) {
+			return -1;
+		}
+		return chunk.firstIndex + chunk.indexOf((Node) node);
+	}
+
+	public void add(final Node node) {
+		add(size, node);
+	}
+
+	public void add(final int index, final Node node) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index " + index + " must be between 0 and " + size);
+		}
+
+		if (chunkCount == 0) {
+			insertChunk(0, new Chunk(this, INITIAL_CHUNK_CAPACITY), 0);
+		}
+
+		int chunkIndex = index == size ? chunkCount - 1 : findChunkIndex(index);
+		Chunk chunk = chunks[chunkIndex];
+		if (chunk.size == MAX_CHUNK_SIZE) {
+			splitChunk(chunkIndex);
+			if (index - chunk.firstIndex > chunk.size) {
+				chunkIndex++;
+				chunk = chunks[chunkIndex];
+			}
+		}
+
+		chunk.insert(index - chunk.firstIndex, node);
+		size++;
+		updateFirstIndices(chunkIndex + 1);
+	}
+
+	public boolean remove(final Node node) {
+		final Chunk chunk = node.getChunk();
+		if (chunk == null || chunk.list != this) {
+			return false;
+		}
+
+		chunk.remove(chunk.indexOf(node));
+		size--;
+
+		int chunkIndex = indexOfChunk(chunk);
+		if (chunk.size == 0) {
+			removeChunk(chunkIndex);
+		} else if (chunk.size < MIN_CHUNK_SIZE && chunkIndex > 0 && chunks[chunkIndex - 1].size + chunk.size <= MAX_CHUNK_SIZE) {
+			mergeIntoPreviousChunk(chunkIndex);
+			chunkIndex--;
+		}
+		updateFirstIndices(chunkIndex);
+		return true;
+	}
+
+	public Iterator<Node> iterator() {
+		return new Iterator<Node>() {
+			private int chunkIndex = 0;
+			private int nodeIndex = 0;
+
+			public boolean hasNext() {
+				return chunkIndex < chunkCount && nodeIndex < chunks[chunkIndex].size;
+			}
+
+			public Node next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				final Chunk chunk = chunks[chunkIndex];
+				final Node result = chunk.nodes[nodeIndex++];
+				if (nodeIndex >= chunk.size) {
+					chunkIndex++;
+					nodeIndex = 0;
+				}
+				return result;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException("Cannot remove children through the iterator.");
+			}
+		};
+	}
+
+	/*
+	 * Offsets
+	 */
+
+	/**
+	 * Move the relative offsets of the children according to a modification of the content. All offsets after
+	 * lastUnmovedOffset are moved by delta.
+	 *
+	 * @param oldStartOffset
+	 *            the start offset of the parent before the modification
+	 * @param newStartOffset
+	 *            the start offset of the parent after the modification
+	 */
+	public void moveOffsets(final int oldStartOffset, final int newStartOffset, final int lastUnmovedOffset, final int delta) {
+		int firstMovedChunkIndex = findFirstChunkNotBefore(oldStartOffset, lastUnmovedOffset);
+		final int chunkIndex = findChunkWithMaintainedNodes(firstMovedChunkIndex, chunkCount);
+		if (chunkIndex < chunkCount) {
+			final Chunk chunk = chunks[chunkIndex];
+			final int oldChunkStartOffset = oldStartOffset + getChunkStartOffset(chunkIndex);
+			if (oldChunkStartOffset + firstMaintainedNode(chunk).getRelativeStartOffset() <= lastUnmovedOffset) {
+				moveNodeOffsets(chunk, oldChunkStartOffset, lastUnmovedOffset, delta);
+				firstMovedChunkIndex = chunkIndex + 1;
+			}
+		}
+
+		/*
+		 * All chunks keep their absolute start offset when the start offset of the parent moves, except the chunks
+		 * behind the modification, which are moved by delta.
+		 */
+		moveChunkStartOffsets(0, oldStartOffset - newStartOffset);
+		moveChunkStartOffsets(firstMovedChunkIndex, delta);
+	}
+
+	/**
+	 * Find the first chunk whose maintained nodes do not all end before or at lastUnmovedOffset. Chunks without
+	 * maintained nodes have no meaningful offsets, they are skipped.
+	 */
+	private int findFirstChunkNotBefore(final int oldStartOffset, final int lastUnmovedOffset) {
+		int low = 0;
+		int high = chunkCount;
+		while (low < high) {
+			final int middle = findChunkWithMaintainedNodes((low + high) >>> 1, high);
+			if (middle == high) {
+				high = (low + high) >>> 1;
+				continue;
+			}
+			final Node last = lastMaintainedNode(chunks[middle]);
+			final int oldLastEndOffset = oldStartOffset + getChunkStartOffset(middle) + last.getRelativeStartOffset() + last.getRelativeEndOffset();
+			if (oldLastEndOffset <= lastUnmovedOffset) {
+				low = middle + 1;
+			} else {
+				high = (low + high) >>> 1;
+			}
+		}
+		return low;
+	}
+
+	private int findChunkWithMaintainedNodes(final int startChunkIndex, final int endChunkIndex) {
+		for (int i = startChunkIndex; i < endChunkIndex; i++) {
+			if (firstMaintainedNode(chunks[i]) != null) {
+				return i;
+			}
+		}
+		return endChunkIndex;
+	}
+
+	private static void moveNodeOffsets(final Chunk chunk, final int chunkStartOffset, final int lastUnmovedOffset, final int delta) {
+		for (int i = 0; i < chunk.size; i++) {
+			final Node node = chunk.nodes[i];
+			if (!node.isMaintainedByParent()) {
+				continue;
+			}
+
+			final int oldStartOffset = chunkStartOffset + node.getRelativeStartOffset();
+			final int oldEndOffset = oldStartOffset + node.getRelativeEndOffset();
+			final int newStartOffset = move(oldStartOffset, lastUnmovedOffset, delta);
+			final int newEndOffset = move(oldEndOffset, lastUnmovedOffset, delta);
+			if (node instanceof Parent && oldStartOffset <= lastUnmovedOffset && lastUnmovedOffset < oldEndOffset) {
+				((Parent) node).moveChildren(oldStartOffset, lastUnmovedOffset, delta);
+			}
+			node.setRelativeOffsets(newStartOffset - chunkStartOffset, newEndOffset - newStartOffset);
+		}
+	}
+
+	public static int move(final int offset, final int lastUnmovedOffset, final int delta) {
+		if (offset > lastUnmovedOffset) {
+			return offset + delta;
+		}
+		return offset;
+	}
+
+	private static Node firstMaintainedNode(final Chunk chunk) {
+		for (int i = 0; i < chunk.size; i++) {
+			if (chunk.nodes[i].isMaintainedByParent()) {
+				return chunk.nodes[i];
+			}
+		}
+		return null;
+	}
+
+	private static Node lastMaintainedNode(final Chunk chunk) {
+		for (int i = chunk.size - 1; i >= 0; i--) {
+			if (chunk.nodes[i].isMaintainedByParent()) {
+				return chunk.nodes[i];
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Chunk Start Offsets
+	 */
+
+	private int getChunkStartOffset(final int chunkIndex) {
+		int result = 0;
+		for (int i = chunkIndex + 1; i > 0; i -= i & -i) {
+			result += startOffsetTree[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Move the start offsets of all chunks from the given index on by delta.
+	 */
+	private void moveChunkStartOffsets(final int startChunkIndex, final int delta) {
+		if (delta == 0) {
+			return;
+		}
+		for (int i = startChunkIndex + 1; i <= chunkCount; i += i & -i) {
+			startOffsetTree[i] += delta;
+		}
+	}
+
+	/**
+	 * @return the start offsets of all chunks, computed in O(chunks) by reverting the construction of the tree
+	 */
+	private int[] getChunkStartOffsets() {
+		final int[] result = new int[chunkCount];
+		System.arraycopy(startOffsetTree, 1, result, 0, chunkCount);
+		for (int i = chunkCount; i >= 1; i--) {
+			final int parent = i + (i & -i);
+			if (parent <= chunkCount) {
+				result[parent - 1] -= result[i - 1];
+			}
+		}
+		for (int i = 1; i < chunkCount; i++) {
+			result[i] += result[i - 1];
+		}
+		return result;
+	}
+
+	/**
+	 * Rebuild the tree from the given start offsets of all chunks, in O(chunks).
+	 */
+	private void setChunkStartOffsets(final int[] startOffsets) {
+		if (startOffsetTree.length < chunks.length + 1) {
+			startOffsetTree = new int[chunks.length + 1];
+		}
+		for (int i = 1; i <= chunkCount; i++) {
+			startOffsetTree[i] = startOffsets[i - 1] - (i > 1 ? startOffsets[i - 2] : 0);
+		}
+		for (int i = 1; i <= chunkCount; i++) {
+			final int parent = i + (i & -i);
+			if (parent <= chunkCount) {
+				startOffsetTree[parent] += startOffsetTree[i];
+			}
+		}
+	}
+
+	/*
+	 * Chunk Management
+	 */
+
+	private int findChunkIndex(final int index) {
+		int low = 0;
+		int high = chunkCount - 1;
+		while (low < high) {
+			final int middle = (low + high + 1) / 2;
+			if (chunks[middle].firstIndex <= index) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	private int indexOfChunk(final Chunk chunk) {
+		if (chunk.size == 0) {
+			for (int i = 0; i < chunkCount; i++) {
+				if (chunks[i] == chunk) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		return findChunkIndex(chunk.firstIndex);
+	}
+
+	private void updateFirstIndices(final int startChunkIndex) {
+		int firstIndex = startChunkIndex == 0 ? 0 : chunks[startChunkIndex - 1].firstIndex + chunks[startChunkIndex - 1].size;
+		for (int i = startChunkIndex; i < chunkCount; i++) {
+			chunks[i].firstIndex = firstIndex;
+			firstIndex += chunks[i].size;
+		}
+	}
+
+	private void insertChunk(final int chunkIndex, final Chunk chunk, final int startOffset) {
+		final int[] oldStartOffsets = getChunkStartOffsets();
+		if (chunkCount == chunks.length) {
+			final Chunk[] newChunks = new Chunk[Math.max(chunks.length * 2, 1)];
+			System.arraycopy(chunks, 0, newChunks, 0, chunkCount);
+			chunks = newChunks;
+		}
+		System.arraycopy(chunks, chunkIndex, chunks, chunkIndex + 1, chunkCount - chunkIndex);
+		chunks[chunkIndex] = chunk;
+		chunkCount++;
+		updateChunkIndices(chunkIndex);
+
+		final int[] startOffsets = new int[chunkCount];
+		System.arraycopy(oldStartOffsets, 0, startOffsets, 0, chunkIndex);
+		startOffsets[chunkIndex] = startOffset;
+		System.arraycopy(oldStartOffsets, chunkIndex, startOffsets, chunkIndex + 1, chunkCount - chunkIndex - 1);
+		setChunkStartOffsets(startOffsets);
+	}
+
+	private void removeChunk(final int chunkIndex) {
+		final int[] oldStartOffsets = getChunkStartOffsets();
+		System.arraycopy(chunks, chunkIndex + 1, chunks, chunkIndex, chunkCount - chunkIndex - 1);
+		chunks[--chunkCount] = null;
+		updateChunkIndices(chunkIndex);
+
+		final int[] startOffsets = new int[chunkCount];
+		System.arraycopy(oldStartOffsets, 0, startOffsets, 0, chunkIndex);
+		System.arraycopy(oldStartOffsets, chunkIndex + 1, startOffsets, chunkIndex, chunkCount - chunkIndex);
+		setChunkStartOffsets(startOffsets);
+	}
+
+	private void updateChunkIndices(final int startChunkIndex) {
+		for (int i = startChunkIndex; i < chunkCount; i++) {
+			chunks[i].chunkIndex = i;
+		}
+	}
+
+	/**
+	 * Move the second half of the given chunk into a new chunk. The new chunk has the same start offset, so the
+	 * relative offsets of the moved nodes stay the same.
+	 */
+	private void splitChunk(final int chunkIndex) {
+		final Chunk chunk = chunks[chunkIndex];
+		final int half = chunk.size / 2;
+		final Chunk newChunk = new Chunk(this, MAX_CHUNK_SIZE);
+		for (int i = half; i < chunk.size; i++) {
+			newChunk.nodes[i - half] = chunk.nodes[i];
+			chunk.nodes[i].setChunk(newChunk);
+			chunk.nodes[i] = null;
+		}
+		newChunk.size = chunk.size - half;
+		newChunk.firstIndex = chunk.firstIndex + half;
+		chunk.size = half;
+		insertChunk(chunkIndex + 1, newChunk, getChunkStartOffset(chunkIndex));
+	}
+
+	private void mergeIntoPreviousChunk(final int chunkIndex) {
+		final Chunk chunk = chunks[chunkIndex];
+		final Chunk previousChunk = chunks[chunkIndex - 1];
+		final int offsetDelta = getChunkStartOffset(chunkIndex) - getChunkStartOffset(chunkIndex - 1);
+		while (chunk.size > 0) {
+			final Node node = chunk.nodes[0];
+			chunk.remove(0);
+			previousChunk.insert(previousChunk.size, node);
+			node.setRelativeOffsets(node.getRelativeStartOffset() + offsetDelta, node.getRelativeEndOffset());
+		}
+		removeChunk(chunkIndex);
+	}
+
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.nio.charset.Charset;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
+
+/**
+ * A gap buffer like GapContent, which stores its characters in a byte array as long as all characters fit into
+ * Latin-1. This halves the memory needed for the vast majority of documents, which are pure ASCII. The first time a
+ * character outside of Latin-1 is inserted, the buffer is inflated to a char array, transparently for the client.
+ */
+public class CompactGapContent extends AbstractGapContent {
+
+	private static final char MAX_LATIN1 = '\u00FF';
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+	private byte[] bytes;
+	private char[] chars;
+
+	/**
+	 * Create a CompactGapContent with the given initial capacity.
+	 *
+	 * @param initialCapacity
+	 *            initial capacity of the content.
+	 */
+	public CompactGapContent(final int initialCapacity) {
+		super(initialCapacity);
+		bytes = new byte[initialCapacity];
+	}
+
+	/*
+	 * Storage
+	 */
+
+	@Override
+	protected Object getBuffer() {
+		if (bytes != null) {
+			return bytes;
+		}
+		return chars;
+	}
+
+	@Override
+	protected void setBuffer(final Object buffer) {
+		if (bytes != null) {
+			bytes = (byte[]) buffer;
+		} else {
+			chars = (char[]) buffer;
+		}
+	}
+
+	@Override
+	protected Object createBuffer(final int capacity) {
+		if (bytes != null) {
+			return new byte[capacity];
+		}
+		return new char[capacity];
+	}
+
+	/**
+	 * Switch from byte to char storage. The gap stays where it is.
+	 */
+	private void inflate() {
+		chars = new char[bytes.length];
+		for (int i = 0; i < gapStart; i++) {
+			chars[i] = (char) (bytes[i] & 0xFF);
+		}
+		for (int i = gapEnd; i < bytes.length; i++) {
+			chars[i] = (char) (bytes[i] & 0xFF);
+		}
+		bytes = null;
+	}
+
+	/*
+	 * Memory Statistics
+	 */
+
+	/**
+	 * @return true if the characters are still stored in one byte each
+	 */
+	public boolean isCompact() {
+		return bytes != null;
+	}
+
+	@Override
+	public int getCapacity() {
+		if (bytes != null) {
+			return bytes.length;
+		}
+		return chars.length;
+	}
+
+	/**
+	 * @return the size of the character buffer in bytes
+	 */
+	public long getBufferSize() {
+		if (bytes != null) {
+			return bytes.length;
+		}
+		return 2L * chars.length;
+	}
+
+	/**
+	 * @return the size in bytes, which a char array based buffer of the same capacity would need
+	 */
+	public long getUncompactBufferSize() {
+		return 2L * getCapacity();
+	}
+
+	/*
+	 * Modification
+	 */
+
+	public void insertText(final int offset, final String text) {
+		assertOffset(offset, 0, length());
+
+		final int length = text.length();
+		if (bytes != null && !isLatin1(text)) {
+			inflate();
+		}
+
+		prepareInsertion(offset, length);
+		if (bytes != null) {
+			for (int i = 0; i < length; i++) {
+				bytes[offset + i] = (byte) text.charAt(i);
+			}
+		} else {
+			text.getChars(0, length, chars, offset);
+		}
+		finishInsertion(length);
+	}
+
+	private static boolean isLatin1(final String text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) > MAX_LATIN1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void insertContent(final int offset, final IContent content) {
+		assertOffset(offset, 0, length());
+
+		final int length = content.length();
+		if (bytes != null && content instanceof CompactGapContent && ((CompactGapContent) content).isCompact() && content != this) {
+			final CompactGapContent source = (CompactGapContent) content;
+			prepareInsertion(offset, length);
+			source.copyRange(source.getRange(), bytes, offset);
+			finishInsertion(length);
+			return;
+		}
+
+		final char[] sourceChars = getRawChars(content);
+		if (bytes != null && !isLatin1(sourceChars)) {
+			inflate();
+		}
+
+		prepareInsertion(offset, length);
+		if (bytes != null) {
+			for (int i = 0; i < length; i++) {
+				bytes[offset + i] = (byte) sourceChars[i];
+			}
+		} else {
+			System.arraycopy(sourceChars, 0, chars, offset, length);
+		}
+		finishInsertion(length);
+	}
+
+	private static boolean isLatin1(final char[] chars) {
+		for (final char c : chars) {
+			if (c > MAX_LATIN1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Access
+	 */
+
+	@Override
+	protected void appendPlainText(final StringBuilder stringBuilder, final int startIndex, final int endIndex) {
+		if (bytes != null) {
+			for (int i = startIndex; i < endIndex; i++) {
+				final byte b = bytes[i];
+				if (b != TAG_MARKER) {
+					stringBuilder.append((char) (b & 0xFF));
+				}
+			}
+		} else {
+			for (int i = startIndex; i < endIndex; i++) {
+				final char c = chars[i];
+				if (c != TAG_MARKER) {
+					stringBuilder.append(c);
+				}
+			}
+		}
+	}
+
+	public String getRawText(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+
+		final int length = range.length();
+		if (bytes != null) {
+			final byte[] result = new byte[length];
+			copyRange(range, result, 0);
+			return new String(result, LATIN1);
+		}
+
+		final char[] result = new char[length];
+		copyRange(range, result, 0);
+		return new String(result);
+	}
+
+	@Override
+	protected boolean visitSegment(final IContentSegmentVisitor visitor, final int offset, final int index, final int length) {
+		if (bytes != null) {
+			return visitor.visit(offset, bytes, index, length);
+		}
+		return visitor.visit(offset, chars, index, length);
+	}
+
+	public IContent getContent(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+
+		final CompactGapContent result = new CompactGapContent(range.length());
+		if (bytes == null) {
+			result.bytes = null;
+			result.chars = new char[range.length()];
+		}
+		copyRange(range, result.getBuffer(), 0);
+		result.gapStart = range.length();
+		return result;
+	}
+
+	/**
+	 * @see CharSequence#charAt(int)
+	 * @param offset
+	 *            the offset of the character within the raw textual content
+	 * @return the character at the given offset (tag markers included)
+	 */
+	public char charAt(final int offset) {
+		final int index = getIndex(offset);
+		if (bytes != null) {
+			return (char) (bytes[index] & 0xFF);
+		}
+		return chars[index];
+	}
+
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+
+/**
+ * Receives the modifications of an ObservableContent. The listener is notified before the characters and the
+ * positions of the content are modified, so all offsets known to the listener still refer to the state before the
+ * modification and the content still contains the old characters. A listener may remove itself from the content while
+ * it is notified.
+ */
+interface ContentListener {
+
+	/**
+	 * All offsets at or after the given offset are moved by the given length.
+	 */
+	void beforeInsertion(int offset, int length);
+
+	/**
+	 * All offsets after the given range are moved back by the length of the range. Offsets within the range become
+	 * invalid.
+	 */
+	void beforeRemoval(ContentRange range);
+
+}
@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+
+/**
+ * The positions created by an IContent implementation. Positions are shared: creating a position at an offset which
+ * already has a position returns the existing instance and increases its use count.
+ * <p>
+ * The positions are the nodes of a treap (a randomized balanced binary search tree). Each node stores its offset
+ * relative to its parent node, only the root node stores an absolute offset. Hence moving all positions behind an
+ * offset only touches the nodes on one path from the root, which takes O(log n) instead of O(n). In return, computing
+ * the offset of a position takes O(log n). The computed offset is cached until the next modification, so repeated
+ * queries between two modifications are cheap.
+ * <p>
+ * ContentPositions also holds the ContentListeners of the content. The content calls movePositions and removeRange
+ * before it modifies its characters, so the listeners are notified before anything is modified.
+ */
+class ContentPositions {
+
+	private ContentPosition root;
+	private int size;
+	private int modificationCount;
+	private int seed = 0x2545F491;
+
+	private final Set<ContentListener> listeners = new HashSet<ContentListener>();
+	private ContentListener[] notifiedListeners;
+
+	public IPosition createPosition(final int offset) {
+		final ContentPosition storedPosition = find(offset);
+		if (storedPosition != null) {
+			storedPosition.increaseUse();
+			return storedPosition;
+		}
+
+		final ContentPosition newPosition = new ContentPosition(this, nextPriority());
+		insert(newPosition, offset);
+		size++;
+		return newPosition;
+	}
+
+	public void removePosition(final IPosition position) {
+		if (!(position instanceof ContentPosition)) {
+			return;
+		}
+
+		final ContentPosition storedPosition = (ContentPosition) position;
+		if (storedPosition.owner != this) {
+			return;
+		}
+
+		storedPosition.decreaseUse();
+		if (!storedPosition.isValid()) {
+			detach(storedPosition);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void addListener(final ContentListener listener) {
+		listeners.add(listener);
+		notifiedListeners = null;
+	}
+
+	public void removeListener(final ContentListener listener) {
+		listeners.remove(listener);
+		notifiedListeners = null;
+	}
+
+	/**
+	 * @return the listeners to notify, in an array which is not affected if a listener is added or removed during the
+	 *         notification
+	 */
+	private ContentListener[] getNotifiedListeners() {
+		if (notifiedListeners == null) {
+			notifiedListeners = listeners.toArray(new ContentListener[listeners.size()]);
+		}
+		return notifiedListeners;
+	}
+
+	/**
+	 * Move all positions at or after the given offset by the given delta.
+	 */
+	public void movePositions(final int startOffset, final int delta) {
+		if (delta == 0) {
+			return;
+		}
+
+		for (final ContentListener listener : getNotifiedListeners()) {
+			listener.beforeInsertion(startOffset, delta);
+		}
+		shiftPositions(startOffset, delta);
+	}
+
+	private void shiftPositions(final int startOffset, final int delta) {
+		modificationCount++;
+
+		ContentPosition node = root;
+		int parentOffset = 0;
+		while (node != null) {
+			final int offset = parentOffset + node.relativeOffset;
+			if (offset >= startOffset) {
+				// this moves the whole subtree, so the left subtree has to be moved back
+				node.relativeOffset += delta;
+				if (node.left != null) {
+					node.left.relativeOffset -= delta;
+				}
+				parentOffset = offset + delta;
+				node = node.left;
+			} else {
+				parentOffset = offset;
+				node = node.right;
+			}
+		}
+	}
+
+	/**
+	 * Invalidate all positions within the given range and move all positions after the range to compensate for the
+	 * removed characters.
+	 */
+	public void removeRange(final ContentRange range) {
+		for (final ContentListener listener : getNotifiedListeners()) {
+			listener.beforeRemoval(range);
+		}
+
+		ContentPosition position = ceiling(range.getStartOffset());
+		while (position != null && position.getOffset() <= range.getEndOffset()) {
+			position.invalidate();
+			detach(position);
+			position = ceiling(range.getStartOffset());
+		}
+
+		shiftPositions(range.getEndOffset() + 1, -range.length());
+	}
+
+	/*
+	 * Treap
+	 */
+
+	private int nextPriority() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return seed;
+	}
+
+	private ContentPosition find(final int offset) {
+		ContentPosition node = root;
+		int parentOffset = 0;
+		while (node != null) {
+			final int nodeOffset = parentOffset + node.relativeOffset;
+			if (offset == nodeOffset) {
+				return node;
+			}
+			parentOffset = nodeOffset;
+			node = offset < nodeOffset ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * @return the position with the smallest offset greater than or equal to the given offset
+	 */
+	private ContentPosition ceiling(final int offset) {
+		ContentPosition result = null;
+		ContentPosition node = root;
+		int parentOffset = 0;
+		while (node != null) {
+			final int nodeOffset = parentOffset + node.relativeOffset;
+			if (nodeOffset == offset) {
+				return node;
+			}
+			parentOffset = nodeOffset;
+			if (offset < nodeOffset) {
+				result = node;
+				node = node.left;
+			} else {
+				node = node.right;
+			}
+		}
+		return result;
+	}
+
+	private void insert(final ContentPosition newPosition, final int offset) {
+		if (root == null) {
+			root = newPosition;
+			newPosition.relativeOffset = offset;
+			return;
+		}
+
+		ContentPosition parent = root;
+		int parentOffset = root.relativeOffset;
+		while (true) {
+			final ContentPosition next = offset < parentOffset ? parent.left : parent.right;
+			if (next == null) {
+				break;
+			}
+			parent = next;
+			parentOffset += next.relativeOffset;
+		}
+
+		if (offset < parentOffset) {
+			parent.left = newPosition;
+		} else {
+			parent.right = newPosition;
+		}
+		newPosition.parent = parent;
+		newPosition.relativeOffset = offset - parentOffset;
+
+		while (newPosition.parent != null && newPosition.parent.priority < newPosition.priority) {
+			rotateUp(newPosition);
+		}
+	}
+
+	private void detach(final ContentPosition position) {
+		position.freeze();
+
+		while (position.left != null || position.right != null) {
+			final ContentPosition child;
+			if (position.left == null) {
+				child = position.right;
+			} else if (position.right == null) {
+				child = position.left;
+			} else {
+				child = position.left.priority > position.right.priority ? position.left : position.right;
+			}
+			rotateUp(child);
+		}
+
+		final ContentPosition parent = position.parent;
+		if (parent == null) {
+			root = null;
+		} else if (parent.left == position) {
+			parent.left = null;
+		} else {
+			parent.right = null;
+		}
+		position.parent = null;
+		size--;
+	}
+
+	/**
+	 * Rotate the given node above its parent. The absolute offsets of all nodes stay the same.
+	 */
+	private void rotateUp(final ContentPosition node) {
+		final ContentPosition parent = node.parent;
+		final ContentPosition grandParent = parent.parent;
+		final int nodeOffset = node.relativeOffset;
+
+		final ContentPosition movedChild;
+		if (parent.left == node) {
+			movedChild = node.right;
+			parent.left = movedChild;
+			node.right = parent;
+		} else {
+			movedChild = node.left;
+			parent.right = movedChild;
+			node.left = parent;
+		}
+		if (movedChild != null) {
+			movedChild.parent = parent;
+			movedChild.relativeOffset += nodeOffset;
+		}
+
+		node.relativeOffset = parent.relativeOffset + nodeOffset;
+		parent.relativeOffset = -nodeOffset;
+		parent.parent = node;
+		node.parent = grandParent;
+
+		if (grandParent == null) {
+			root = node;
+		} else if (grandParent.left == parent) {
+			grandParent.left = node;
+		} else {
+			grandParent.right = node;
+		}
+	}
+
+	/*
+	 * Implementation of the Position interface.
+	 */
+	private static class ContentPosition implements IPosition {
+
+		private ContentPositions owner;
+		private final int priority;
+
+		private ContentPosition parent;
+		private ContentPosition left;
+		private ContentPosition right;
+		private int relativeOffset;
+
+		private int cachedOffset;
+		private int cachedModificationCount = -1;
+
+		private int useCount = 1;
+
+		public ContentPosition(final ContentPositions owner, final int priority) {
+			this.owner = owner;
+			this.priority = priority;
+		}
+
+		public int getOffset() {
+			if (owner == null) {
+				return cachedOffset;
+			}
+			if (cachedModificationCount == owner.modificationCount) {
+				return cachedOffset;
+			}
+
+			int offset = 0;
+			for (ContentPosition node = this; node != null; node = node.parent) {
+				offset += node.relativeOffset;
+			}
+			cachedOffset = offset;
+			cachedModificationCount = owner.modificationCount;
+			return offset;
+		}
+
+		/**
+		 * Detach this position from its owner, it keeps its last offset.
+		 */
+		public void freeze() {
+			cachedOffset = getOffset();
+			owner = null;
+		}
+
+		public void increaseUse() {
+			useCount++;
+		}
+
+		public void decreaseUse() {
+			useCount--;
+		}
+
+		public boolean isValid() {
+			return useCount > 0;
+		}
+
+		public void invalidate() {
+			useCount = 0;
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(getOffset());
+		}
+
+		public int compareTo(final IPosition other) {
+			return getOffset() - other.getOffset();
+		}
+	}
+
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import org.eclipse.vex.core.provisional.dom.IContent;
+
+/**
+ * Factory for the IContent implementations.
+ */
+public final class Contents {
+
+	/**
+	 * Indicates that the size of the source of the content to be created is not known in advance.
+	 */
+	public static final long UNKNOWN_LENGTH = -1;
+
+	/**
+	 * The expected size of the source (in bytes) from which on a RopeContent is used instead of a CompactGapContent. The
+	 * size of a file in bytes is an upper bound of the number of characters read from it, so the threshold is reached
+	 * at most earlier than with the actual length of the content.
+	 */
+	public static final long LARGE_CONTENT_THRESHOLD = 2 * 1024 * 1024;
+
+	private static final int DEFAULT_CAPACITY = 100;
+
+	private Contents() {
+	}
+
+	/**
+	 * Create an empty content which is suitable to hold the characters of a source of about the given size. Small
+	 * contents are held in a CompactGapContent, which is very efficient for local changes and needs only one byte per
+	 * character as long as the text fits into Latin-1. Large contents are held in a RopeContent, which keeps the cost
+	 * of each change logarithmic, no matter where in the content the change happens.
+	 *
+	 * @param expectedLength
+	 *            the expected size of the source in bytes (e.g. the length of a file), or UNKNOWN_LENGTH
+	 * @return a new empty content
+	 */
+	public static IContent createContent(final long expectedLength) {
+		if (expectedLength >= LARGE_CONTENT_THRESHOLD) {
+			return new RopeContent();
+		}
+		return new CompactGapContent(DEFAULT_CAPACITY);
+	}
+}
@@ -23,7 +23,8 @@ import org.eclipse.vex.core.provisional.dom.IParent;
  * This class creates a deep copy of a single Node or the child nodes of a Parent within a given Range. The copy is made
  * instantly when the constructor of DeepCopy is called.
  * <p>
- * DeepCopy means a full copy of all nodes, their children down to the leaf level and the associated content.
+ * DeepCopy means a full copy of all nodes, their children down to the leaf level and the associated content. The
+ * copied nodes may also be associated with a given content, e.g. a view which shares the characters with the source.
  * 
  * @author Florian Thienel
  */
@@ -39,18 +40,23 @@ public class DeepCopy {
 	 *            the node to copy
 	 */
 	public DeepCopy(final INode node) {
-		final int delta;
-		if (node.isAssociated()) {
-			final ContentRange range = node.getRange();
-			delta = -range.getStartOffset();
-			content = node.getContent().getContent(range);
-		} else {
-			delta = 0;
-			content = null;
-		}
+		this(node, node.isAssociated() ? node.getContent().getContent(node.getRange()) : null);
+	}
+
+	/**
+	 * Creates a deep copy of the given node, which is associated with the given content instead of a copy of the
+	 * node's content.
+	 * 
+	 * @param node
+	 *            the node to copy
+	 * @param content
+	 *            the content for the copy, which contains the characters of the node's range starting at offset 0
+	 */
+	public DeepCopy(final INode node, final IContent content) {
+		this.content = content;
 		nodes = new ArrayList<Node>();
 
-		copyNodes(Collections.singletonList(node), delta);
+		copyNodes(Collections.singletonList(node), node.isAssociated() ? -node.getStartOffset() : 0);
 	}
 
 	/**
@@ -62,17 +68,25 @@ public class DeepCopy {
 	 *            the range to copy
 	 */
 	public DeepCopy(final IParent parent, final ContentRange range) {
-		final int delta;
-		if (parent.isAssociated()) {
-			delta = -range.getStartOffset();
-			content = parent.getContent().getContent(range);
-		} else {
-			delta = 0;
-			content = null;
-		}
+		this(parent, range, parent.isAssociated() ? parent.getContent().getContent(range) : null);
+	}
+
+	/**
+	 * Creates a deep copy of the child nodes of the given parent within the given range, which are associated with the
+	 * given content instead of a copy of the parent's content.
+	 * 
+	 * @param parent
+	 *            the parent
+	 * @param range
+	 *            the range to copy
+	 * @param content
+	 *            the content for the copy, which contains the characters of the given range starting at offset 0
+	 */
+	public DeepCopy(final IParent parent, final ContentRange range, final IContent content) {
+		this.content = content;
 		nodes = new ArrayList<Node>();
 
-		copyNodes(parent.children().in(range), delta);
+		copyNodes(parent.children().in(range), parent.isAssociated() ? -range.getStartOffset() : 0);
 	}
 
 	private void copyNodes(final Iterable<? extends INode> sourceNodes, final int delta) {
@@ -111,7 +111,7 @@ public class DeepCopyVisitor implements INodeVisitor {
 
 	private void copyChildren(final IParent source, final Parent copy) {
 		final Parent lastParent = currentParent;
-		for (final INode child : source.children()) {
+		for (final INode child : source.children().withoutText()) {
 			currentParent = copy;
 			child.accept(this);
 		}
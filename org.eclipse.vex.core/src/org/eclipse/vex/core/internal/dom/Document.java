@@ -16,8 +16,10 @@
 package org.eclipse.vex.core.internal.dom;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -28,11 +30,17 @@ import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.vex.core.IValidationResult;
 import org.eclipse.vex.core.XML;
 import org.eclipse.vex.core.internal.core.ListenerList;
+import org.eclipse.vex.core.internal.core.ListenerList.Dispatcher;
+import org.eclipse.vex.core.provisional.dom.AttributeChangeEvent;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitorWithResult;
+import org.eclipse.vex.core.provisional.dom.ChangeSummaryEvent;
 import org.eclipse.vex.core.provisional.dom.ContentChangeEvent;
 import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.DocumentChange;
 import org.eclipse.vex.core.provisional.dom.DocumentEvent;
 import org.eclipse.vex.core.provisional.dom.DocumentValidationException;
+import org.eclipse.vex.core.provisional.dom.IAxis;
+import org.eclipse.vex.core.provisional.dom.IChangeSummaryListener;
 import org.eclipse.vex.core.provisional.dom.IComment;
 import org.eclipse.vex.core.provisional.dom.IContent;
 import org.eclipse.vex.core.provisional.dom.IDocument;
@@ -47,6 +55,7 @@ import org.eclipse.vex.core.provisional.dom.IPosition;
 import org.eclipse.vex.core.provisional.dom.IProcessingInstruction;
 import org.eclipse.vex.core.provisional.dom.IText;
 import org.eclipse.vex.core.provisional.dom.IValidator;
+import org.eclipse.vex.core.provisional.dom.NamespaceDeclarationChangeEvent;
 
 /**
  * A representation of an XML document in the DOM.
@@ -55,8 +64,54 @@ public class Document extends Parent implements IDocument {
 
 	private static final String DEFAULT_NAMESPACE_PREFIX = "ns";
 
+	private static final Dispatcher<IDocumentListener, AttributeChangeEvent> ATTRIBUTE_CHANGED = new Dispatcher<IDocumentListener, AttributeChangeEvent>() {
+		public void dispatch(final IDocumentListener listener, final AttributeChangeEvent event) {
+			listener.attributeChanged(event);
+		}
+	};
+
+	private static final Dispatcher<IDocumentListener, NamespaceDeclarationChangeEvent> NAMESPACE_CHANGED = new Dispatcher<IDocumentListener, NamespaceDeclarationChangeEvent>() {
+		public void dispatch(final IDocumentListener listener, final NamespaceDeclarationChangeEvent event) {
+			listener.namespaceChanged(event);
+		}
+	};
+
+	private static final Dispatcher<IDocumentListener, ContentChangeEvent> BEFORE_CONTENT_DELETED = new Dispatcher<IDocumentListener, ContentChangeEvent>() {
+		public void dispatch(final IDocumentListener listener, final ContentChangeEvent event) {
+			listener.beforeContentDeleted(event);
+		}
+	};
+
+	private static final Dispatcher<IDocumentListener, ContentChangeEvent> BEFORE_CONTENT_INSERTED = new Dispatcher<IDocumentListener, ContentChangeEvent>() {
+		public void dispatch(final IDocumentListener listener, final ContentChangeEvent event) {
+			listener.beforeContentInserted(event);
+		}
+	};
+
+	private static final Dispatcher<IDocumentListener, ContentChangeEvent> CONTENT_DELETED = new Dispatcher<IDocumentListener, ContentChangeEvent>() {
+		public void dispatch(final IDocumentListener listener, final ContentChangeEvent event) {
+			listener.contentDeleted(event);
+		}
+	};
+
+	private static final Dispatcher<IDocumentListener, ContentChangeEvent> CONTENT_INSERTED = new Dispatcher<IDocumentListener, ContentChangeEvent>() {
+		public void dispatch(final IDocumentListener listener, final ContentChangeEvent event) {
+			listener.contentInserted(event);
+		}
+	};
+
+	private static final Dispatcher<IChangeSummaryListener, ChangeSummaryEvent> CHANGES_COMMITTED = new Dispatcher<IChangeSummaryListener, ChangeSummaryEvent>() {
+		public void dispatch(final IChangeSummaryListener listener, final ChangeSummaryEvent event) {
+			listener.changesCommitted(event);
+		}
+	};
+
 	private final Element rootElement;
 	private final ListenerList<IDocumentListener, DocumentEvent> listeners = new ListenerList<IDocumentListener, DocumentEvent>(IDocumentListener.class);
+	private final ListenerList<IChangeSummaryListener, ChangeSummaryEvent> summaryListeners = new ListenerList<IChangeSummaryListener, ChangeSummaryEvent>(IChangeSummaryListener.class);
+	private final ChangeJournal journal = new ChangeJournal();
+	private int transactionDepth;
+	private final List<DocumentEvent> transactionChanges = new ArrayList<DocumentEvent>();
 
 	private String publicID;
 	protected String systemID;
@@ -65,6 +120,19 @@ public class Document extends Parent implements IDocument {
 	private String encoding;
 	private IValidator validator;
 
+	private IdIndex idIndex;
+	private ElementNameIndex elementNameIndex;
+
+	/*
+	 * The deepest parent found by the last lookup by offset. Subsequent lookups mostly happen close to the previous one,
+	 * e.g. while typing or moving the caret, hence they start at this finger instead of the document. When nodes are
+	 * deleted, the finger moves to their parent, so it is always part of this document and never keeps deleted nodes
+	 * alive.
+	 */
+	private Parent finger;
+
+	private int scopeModificationCount;
+
 	/**
 	 * Create a new document with the given root element. This constructor creates a Content object and associates both
 	 * the root element and the document with it.
@@ -73,7 +141,7 @@ public class Document extends Parent implements IDocument {
 	 *            the name of the root element of the document
 	 */
 	public Document(final QualifiedName rootElementName) {
-		final GapContent content = new GapContent(100);
+		final IContent content = Contents.createContent(Contents.UNKNOWN_LENGTH);
 		content.insertTagMarker(0);
 		content.insertTagMarker(0);
 		associate(content, content.getRange());
@@ -142,6 +210,7 @@ public class Document extends Parent implements IDocument {
 
 	public void setDocumentURI(final String documentURI) {
 		this.documentURI = documentURI;
+		scopeModificationCount++; // the document URI is the base URI of the root element
 	}
 
 	public String getDocumentURI() {
@@ -178,6 +247,7 @@ public class Document extends Parent implements IDocument {
 
 	public void setValidator(final IValidator validator) {
 		this.validator = validator;
+		dropIdIndex(); // the validator defines the ID attributes
 	}
 
 	public Element getRootElement() {
@@ -215,9 +285,9 @@ public class Document extends Parent implements IDocument {
 					return true;
 				}
 
-				final List<QualifiedName> prefix = getNodeNames(element.children().before(offset));
+				final List<QualifiedName> prefix = getChildNodeNames(element, element.getStartOffset(), offset);
 				final List<QualifiedName> insertionCandidates = nodeNames;
-				final List<QualifiedName> suffix = getNodeNames(element.children().after(offset));
+				final List<QualifiedName> suffix = getChildNodeNames(element, offset, element.getEndOffset());
 
 				return validator.isValidSequence(element.getQualifiedName(), prefix, insertionCandidates, suffix, true);
 			}
@@ -254,7 +324,9 @@ public class Document extends Parent implements IDocument {
 	}
 
 	public void insertText(final int offset, final String text) throws DocumentValidationException {
-		Assert.isTrue(offset > getStartOffset() && offset <= getEndOffset(), MessageFormat.format("Offset must be in [{0}, {1}]", getStartOffset() + 1, getEndOffset()));
+		if (offset <= getStartOffset() || offset > getEndOffset()) {
+			Assert.isTrue(false, MessageFormat.format("Offset must be in [{0}, {1}]", getStartOffset() + 1, getEndOffset()));
+		}
 
 		final String adjustedText = convertControlCharactersToSpaces(text);
 		final INode insertionNode = getNodeForInsertionAt(offset);
@@ -453,11 +525,12 @@ public class Document extends Parent implements IDocument {
 		final boolean textOnly = fragment.children().withoutText().isEmpty();
 		fireBeforeContentInserted(new ContentChangeEvent(this, parent, new ContentRange(offset, offset + 1), !textOnly));
 
-		getContent().insertContent(offset, fragment.getContent());
+		getContent().insertContent(offset, ReadOnlyContent.unwrap(fragment.getContent()));
 
 		final Set<String> undeclaredNamespaces = new HashSet<String>();
 
-		final DeepCopy deepCopy = new DeepCopy(fragment);
+		// the copied nodes are associated with the document below, so they can share the fragment's content meanwhile
+		final DeepCopy deepCopy = new DeepCopy(fragment, fragment.getContent());
 		final List<Node> newNodes = deepCopy.getNodes();
 		int nextOffset = offset;
 		for (final Node newNode : newNodes) {
@@ -520,8 +593,8 @@ public class Document extends Parent implements IDocument {
 				if (validator == null) {
 					return true;
 				}
-				final List<QualifiedName> prefix = getNodeNames(element.children().before(range.getStartOffset()));
-				final List<QualifiedName> suffix = getNodeNames(element.children().after(range.getEndOffset()));
+				final List<QualifiedName> prefix = getChildNodeNames(element, element.getStartOffset(), range.getStartOffset());
+				final List<QualifiedName> suffix = getChildNodeNames(element, range.getEndOffset(), element.getEndOffset());
 				return validator.isValidSequence(element.getQualifiedName(), prefix, suffix, null, true);
 			}
 		});
@@ -530,6 +603,14 @@ public class Document extends Parent implements IDocument {
 	}
 
 	public void delete(final ContentRange range) throws DocumentValidationException {
+		delete(range, false);
+	}
+
+	public DocumentFragment extractFragment(final ContentRange range) throws DocumentValidationException {
+		return delete(range, true);
+	}
+
+	private DocumentFragment delete(final ContentRange range, final boolean extract) throws DocumentValidationException {
 		IParent surroundingParent = getParentAt(range.getStartOffset());
 		if (range.getStartOffset() == surroundingParent.getStartOffset()) {
 			if (surroundingParent.getEndOffset() > range.getEndOffset()) {
@@ -559,8 +640,8 @@ public class Document extends Parent implements IDocument {
 				if (validator == null) {
 					return true;
 				}
-				final List<QualifiedName> prefix = getNodeNames(element.children().before(range.getStartOffset()));
-				final List<QualifiedName> suffix = getNodeNames(element.children().after(range.getEndOffset()));
+				final List<QualifiedName> prefix = getChildNodeNames(element, element.getStartOffset(), range.getStartOffset());
+				final List<QualifiedName> suffix = getChildNodeNames(element, range.getEndOffset(), element.getEndOffset());
 				return validator.isValidSequence(element.getQualifiedName(), prefix, suffix, null, true);
 			}
 		});
@@ -572,14 +653,32 @@ public class Document extends Parent implements IDocument {
 		final List<? extends INode> childrenToDelete = parentForDeletion.children().withoutText().in(range).asList();
 		fireBeforeContentDeleted(new ContentChangeEvent(this, parentForDeletion, range, !childrenToDelete.isEmpty()));
 
+		final IContent fragmentContent = extract ? new ReadOnlyContent(getContent().getContent(range)) : null;
+		final List<Node> fragmentNodes = new ArrayList<Node>(extract ? childrenToDelete.size() : 0);
 		for (final INode child : childrenToDelete) {
 			parentForDeletion.removeChild((Node) child);
-			((Node) child).dissociate();
+			if (extract) {
+				// the deleted nodes are not needed here anymore, so they are moved into the fragment instead of being copied
+				// the read-only content of the fragment keeps anybody who still refers to them from modifying them
+				((Node) child).moveToContent(fragmentContent, -range.getStartOffset());
+				fragmentNodes.add((Node) child);
+			} else {
+				((Node) child).dissociate();
+			}
+		}
+		if (!childrenToDelete.isEmpty()) {
+			// the finger may be within the deleted nodes
+			moveFingerTo(parentForDeletion);
 		}
 
 		getContent().remove(range);
 
 		fireContentDeleted(new ContentChangeEvent(this, parentForDeletion, range, !childrenToDelete.isEmpty()));
+
+		if (!extract) {
+			return null;
+		}
+		return new DocumentFragment(fragmentContent, fragmentNodes);
 	}
 
 	/*
@@ -587,8 +686,9 @@ public class Document extends Parent implements IDocument {
 	 */
 
 	public char getCharacterAt(final int offset) {
-		final String text = getContent().getText(new ContentRange(offset, offset));
-		if (text.length() == 0) {
+		final IContent content = getContent();
+		Assert.isTrue(offset >= 0 && offset < content.length(), "Offset is outside of the content");
+		if (content.isTagMarker(offset)) {
 			/*
 			 * XXX This is used in VexWidgetImpl.deleteNextChar/deletePreviousChar to find out if there is an element
 			 * marker at the given offset. VexWidgetImpl has no access to Content, so there should be a method in
@@ -596,16 +696,60 @@ public class Document extends Parent implements IDocument {
 			 */
 			return '\0';
 		}
-		return text.charAt(0);
+		return content.charAt(offset);
 	}
 
 	public INode findCommonNode(final int offset1, final int offset2) {
 		Assert.isTrue(containsOffset(offset1) && containsOffset(offset2));
-		return findCommonNodeIn(this, offset1, offset2);
+
+		Parent start = getFinger();
+		while (start != this && !isCommonNodeFor(start, offset1, offset2)) {
+			start = start.getParent();
+		}
+		final INode commonNode = findCommonNodeIn(start, offset1, offset2);
+		moveFingerTo(commonNode);
+		return commonNode;
+	}
+
+	@Override
+	public INode getChildAt(final int offset) {
+		Parent start = getFinger();
+		while (start != this && !start.containsOffset(offset)) {
+			start = start.getParent();
+		}
+		final INode node;
+		if (start == this) {
+			node = super.getChildAt(offset);
+		} else {
+			node = start.getChildAt(offset);
+		}
+		moveFingerTo(node);
+		return node;
+	}
+
+	/**
+	 * @return the finger, or this document if there was no lookup yet
+	 */
+	Parent getFinger() {
+		if (finger == null) {
+			return this;
+		}
+		return finger;
+	}
+
+	private void moveFingerTo(final INode node) {
+		if (node instanceof Parent) {
+			finger = (Parent) node;
+		} else {
+			finger = (Parent) node.getParent();
+		}
 	}
 
 	private static INode findCommonNodeIn(final IParent parent, final int offset1, final int offset2) {
-		for (final INode child : parent.children().withoutText()) {
+		// the children do not overlap, so only the first child which does not end before offset1 can be the common node
+		final int index = parent.indexOfChildNodeAtOrAfter(offset1);
+		if (index < parent.getChildNodeCount()) {
+			final INode child = parent.getChildNode(index);
 			if (isCommonNodeFor(child, offset1, offset2)) {
 				if (child instanceof IParent) {
 					return findCommonNodeIn((IParent) child, offset1, offset2);
@@ -621,7 +765,7 @@ public class Document extends Parent implements IDocument {
 	}
 
 	public static boolean isInsertionPointIn(final INode node, final int offset) {
-		return node.getRange().resizeBy(1, 0).contains(offset);
+		return node.getStartOffset() < offset && offset <= node.getEndOffset();
 	}
 
 	public INode getNodeForInsertionAt(final int offset) {
@@ -682,7 +826,7 @@ public class Document extends Parent implements IDocument {
 
 	public DocumentFragment getFragment(final ContentRange range) {
 		final IParent parent = getParentOfRange(range);
-		final DeepCopy deepCopy = new DeepCopy(parent, range);
+		final DeepCopy deepCopy = new DeepCopy(parent, range, ReadOnlyContent.share(getContent(), range));
 		return new DocumentFragment(deepCopy.getContent(), deepCopy.getNodes());
 	}
 
@@ -692,8 +836,12 @@ public class Document extends Parent implements IDocument {
 		final INode startNode = getChildAt(range.getStartOffset());
 		final INode endNode = getChildAt(range.getEndOffset());
 		final IParent parent = startNode.getParent();
-		Assert.isTrue(parent == endNode.getParent(), MessageFormat.format("The fragment in {0} is unbalanced.", range));
-		Assert.isNotNull(parent, MessageFormat.format("No balanced parent found for {0}", range));
+		if (parent != endNode.getParent()) {
+			Assert.isTrue(false, MessageFormat.format("The fragment in {0} is unbalanced.", range));
+		}
+		if (parent == null) {
+			Assert.isNotNull(parent, MessageFormat.format("No balanced parent found for {0}", range));
+		}
 
 		return parent;
 	}
@@ -702,6 +850,62 @@ public class Document extends Parent implements IDocument {
 		return getParentOfRange(range).children().in(range).asList();
 	}
 
+	/*
+	 * Indexes
+	 */
+
+	public IAxis<IElement> descendantsNamed(final QualifiedName name) {
+		return new Axis<IElement>(this) {
+			@Override
+			protected Iterator<? extends IElement> createRootIterator(final ContentRange contentRange, final boolean includeText) {
+				return getElementNameIndex().getElements(name, contentRange).iterator();
+			}
+		};
+	}
+
+	private ElementNameIndex getElementNameIndex() {
+		if (elementNameIndex == null) {
+			elementNameIndex = new ElementNameIndex(this);
+			addDocumentListener(elementNameIndex);
+		}
+		return elementNameIndex;
+	}
+
+	public Element getElementById(final String id) {
+		return getIdIndex().getElementById(id);
+	}
+
+	public Set<String> getIds() {
+		return getIdIndex().getIds();
+	}
+
+	private IdIndex getIdIndex() {
+		if (idIndex == null) {
+			idIndex = new IdIndex(this);
+			addDocumentListener(idIndex);
+		}
+		return idIndex;
+	}
+
+	private void dropIdIndex() {
+		if (idIndex != null) {
+			removeDocumentListener(idIndex);
+			idIndex = null;
+		}
+	}
+
+	/*
+	 * Revisions
+	 */
+
+	public long getRevision() {
+		return journal.getRevision();
+	}
+
+	public List<DocumentChange> getChangesSince(final long revision) {
+		return journal.getChangesSince(revision);
+	}
+
 	/*
 	 * Events
 	 */
@@ -714,28 +918,95 @@ public class Document extends Parent implements IDocument {
 		listeners.remove(listener);
 	}
 
-	public void fireAttributeChanged(final DocumentEvent e) {
-		listeners.fireEvent("attributeChanged", e);
+	public void addChangeSummaryListener(final IChangeSummaryListener listener) {
+		summaryListeners.add(listener);
+	}
+
+	public void removeChangeSummaryListener(final IChangeSummaryListener listener) {
+		summaryListeners.remove(listener);
 	}
 
-	public void fireNamespaceChanged(final DocumentEvent e) {
-		listeners.fireEvent("namespaceChanged", e);
+	public void beginTransaction() {
+		transactionDepth++;
+	}
+
+	public void endTransaction() {
+		Assert.isTrue(transactionDepth > 0, "There is no transaction to end.");
+		transactionDepth--;
+		if (transactionDepth > 0 || transactionChanges.isEmpty()) {
+			return;
+		}
+
+		final List<DocumentEvent> changes = new ArrayList<DocumentEvent>(transactionChanges);
+		transactionChanges.clear();
+		fireChangeSummary(changes);
+	}
+
+	public void fireAttributeChanged(final AttributeChangeEvent e) {
+		fireChange(ATTRIBUTE_CHANGED, e, new DocumentChange(DocumentChange.Type.ATTRIBUTE_CHANGED, e.getParent().getRange(), false, e.getAttributeName()));
+	}
+
+	public void fireNamespaceChanged(final NamespaceDeclarationChangeEvent e) {
+		fireChange(NAMESPACE_CHANGED, e, new DocumentChange(DocumentChange.Type.NAMESPACE_CHANGED, e.getParent().getRange(), false, null));
+	}
+
+	/**
+	 * Record a completed change in the journal, notify the document listeners and collect the change for the summary of
+	 * the current transaction. The journal only keeps the given record of the change, which does not refer to any nodes.
+	 */
+	private <T extends DocumentEvent> void fireChange(final Dispatcher<IDocumentListener, T> dispatcher, final T e, final DocumentChange change) {
+		if (isScopeChange(e)) {
+			scopeModificationCount++;
+		}
+		journal.record(change);
+		listeners.fireEvent(dispatcher, e);
+		if (transactionDepth > 0) {
+			transactionChanges.add(e);
+		} else {
+			fireChangeSummary(Collections.<DocumentEvent> singletonList(e));
+		}
+	}
+
+	private static boolean isScopeChange(final DocumentEvent e) {
+		if (e instanceof ContentChangeEvent) {
+			return ((ContentChangeEvent) e).isStructuralChange();
+		}
+		if (e instanceof AttributeChangeEvent) {
+			return XML.BASE_ATTRIBUTE.equals(((AttributeChangeEvent) e).getAttributeName());
+		}
+		return e instanceof NamespaceDeclarationChangeEvent;
+	}
+
+	/**
+	 * The cached document of each node and the cached namespaces and base URI of each element are only valid as long
+	 * as this count does not change. It is incremented with every change of the structure of this document, every
+	 * change of a namespace declaration and every change of a base URI.
+	 */
+	int getScopeModificationCount() {
+		return scopeModificationCount;
+	}
+
+	private void fireChangeSummary(final List<DocumentEvent> changes) {
+		if (summaryListeners.isEmpty()) {
+			return;
+		}
+		summaryListeners.fireEvent(CHANGES_COMMITTED, new ChangeSummaryEvent(this, changes));
 	}
 
-	private void fireBeforeContentDeleted(final DocumentEvent e) {
-		listeners.fireEvent("beforeContentDeleted", e);
+	private void fireBeforeContentDeleted(final ContentChangeEvent e) {
+		listeners.fireEvent(BEFORE_CONTENT_DELETED, e);
 	}
 
-	private void fireBeforeContentInserted(final DocumentEvent e) {
-		listeners.fireEvent("beforeContentInserted", e);
+	private void fireBeforeContentInserted(final ContentChangeEvent e) {
+		listeners.fireEvent(BEFORE_CONTENT_INSERTED, e);
 	}
 
-	private void fireContentDeleted(final DocumentEvent e) {
-		listeners.fireEvent("contentDeleted", e);
+	private void fireContentDeleted(final ContentChangeEvent e) {
+		fireChange(CONTENT_DELETED, e, new DocumentChange(DocumentChange.Type.CONTENT_DELETED, e.getRange(), e.isStructuralChange(), null));
 	}
 
-	private void fireContentInserted(final DocumentEvent e) {
-		listeners.fireEvent("contentInserted", e);
+	private void fireContentInserted(final ContentChangeEvent e) {
+		fireChange(CONTENT_INSERTED, e, new DocumentChange(DocumentChange.Type.CONTENT_INSERTED, e.getRange(), e.isStructuralChange(), null));
 	}
 
 	/*
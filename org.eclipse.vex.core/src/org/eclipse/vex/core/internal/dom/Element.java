@@ -15,13 +15,11 @@ package org.eclipse.vex.core.internal.dom;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.vex.core.XML;
+import org.eclipse.vex.core.internal.core.NamePool;
 import org.eclipse.vex.core.internal.core.QualifiedNameComparator;
 import org.eclipse.vex.core.provisional.dom.AttributeChangeEvent;
 import org.eclipse.vex.core.provisional.dom.DocumentValidationException;
@@ -38,15 +36,26 @@ public class Element extends Parent implements IElement {
 
 	private final QualifiedName name;
 
-	private final Map<QualifiedName, Attribute> attributes = new HashMap<QualifiedName, Attribute>();
-	private final Map<String, String> namespaceDeclarations = new HashMap<String, String>();
+	/*
+	 * Most elements have no or only very few attributes and no namespace declarations at all. Both maps are only
+	 * allocated when the first entry is added.
+	 */
+	private SmallMap<QualifiedName, Attribute> attributes;
+	private SmallMap<String, String> namespaceDeclarations;
+
+	/*
+	 * The namespaces and the base URI in scope of this element are cached while it is part of a document. The cache is
+	 * valid as long as the document reports no change of the structure, of a namespace declaration or of a base URI.
+	 */
+	private ElementScope scope;
+	private int scopeModificationCount;
 
 	public Element(final String localName) {
-		this(new QualifiedName(null, localName));
+		this(NamePool.intern(null, localName));
 	}
 
 	public Element(final QualifiedName qualifiedName) {
-		name = qualifiedName;
+		name = NamePool.intern(qualifiedName);
 	}
 
 	/*
@@ -55,11 +64,30 @@ public class Element extends Parent implements IElement {
 
 	@Override
 	public String getBaseURI() {
+		final ElementScope scope = getScope();
+		if (scope != null) {
+			return scope.getBaseURI();
+		}
+
+		final String baseURI = getDeclaredBaseURI();
+		if (baseURI != null) {
+			return baseURI;
+		}
+		return super.getBaseURI();
+	}
+
+	private String getDeclaredBaseURI() {
 		final IAttribute baseAttribute = getAttribute(XML.BASE_ATTRIBUTE);
 		if (baseAttribute != null) {
 			return baseAttribute.getValue();
 		}
-		return super.getBaseURI();
+		return null;
+	}
+
+	@Override
+	public void setParent(final Parent parent) {
+		super.setParent(parent);
+		scope = null;
 	}
 
 	public void setBaseURI(final String baseURI) {
@@ -67,6 +95,9 @@ public class Element extends Parent implements IElement {
 	}
 
 	public boolean isKindOf(final INode other) {
+		if (other instanceof Element) {
+			return name == ((Element) other).name; // the names are pooled
+		}
 		if (!(other instanceof IElement)) {
 			return false;
 		}
@@ -106,7 +137,7 @@ public class Element extends Parent implements IElement {
 	}
 
 	public QualifiedName qualify(final String localName) {
-		return new QualifiedName(name.getQualifier(), localName);
+		return NamePool.intern(name.getQualifier(), localName);
 	}
 
 	/*
@@ -114,15 +145,18 @@ public class Element extends Parent implements IElement {
 	 */
 
 	public IAttribute getAttribute(final String localName) {
-		return getAttribute(new QualifiedName(null, localName));
+		return getAttribute(NamePool.intern(null, localName));
 	}
 
 	public IAttribute getAttribute(final QualifiedName name) {
+		if (attributes == null) {
+			return null;
+		}
 		return attributes.get(name);
 	}
 
 	public String getAttributeValue(final String localName) {
-		return getAttributeValue(new QualifiedName(null, localName));
+		return getAttributeValue(NamePool.intern(null, localName));
 	}
 
 	public String getAttributeValue(final QualifiedName name) {
@@ -142,10 +176,11 @@ public class Element extends Parent implements IElement {
 	}
 
 	public void removeAttribute(final String localName) throws DocumentValidationException {
-		removeAttribute(new QualifiedName(null, localName));
+		removeAttribute(NamePool.intern(null, localName));
 	}
 
 	public void removeAttribute(final QualifiedName name) throws DocumentValidationException {
+		checkModifiable();
 		final IAttribute attribute = this.getAttribute(name);
 		if (attribute == null) {
 			return;
@@ -154,6 +189,9 @@ public class Element extends Parent implements IElement {
 		final String newValue = null;
 		if (oldValue != null) {
 			attributes.remove(name);
+			if (attributes.isEmpty()) {
+				attributes = null;
+			}
 		}
 
 		final Document document = getDocument();
@@ -173,11 +211,12 @@ public class Element extends Parent implements IElement {
 	}
 
 	public void setAttribute(final String localName, final String value) throws DocumentValidationException {
-		setAttribute(new QualifiedName(null, localName), value);
+		setAttribute(NamePool.intern(null, localName), value);
 	}
 
 	public void setAttribute(final QualifiedName name, final String value) throws DocumentValidationException {
-		final IAttribute oldAttribute = attributes.get(name);
+		checkModifiable();
+		final IAttribute oldAttribute = getAttribute(name);
 		final String oldValue = oldAttribute != null ? oldAttribute.getValue() : null;
 
 		if (value == null && oldValue == null) {
@@ -191,7 +230,10 @@ public class Element extends Parent implements IElement {
 				return;
 			} else {
 				final Attribute newAttribute = new Attribute(this, name, value);
-				attributes.put(name, newAttribute);
+				if (attributes == null) {
+					attributes = new SmallMap<QualifiedName, Attribute>();
+				}
+				attributes.put(newAttribute.getQualifiedName(), newAttribute);
 
 				final Document document = getDocument();
 				if (document == null) {
@@ -204,16 +246,19 @@ public class Element extends Parent implements IElement {
 	}
 
 	public Collection<IAttribute> getAttributes() {
+		if (attributes == null) {
+			return Collections.emptyList();
+		}
 		final ArrayList<IAttribute> result = new ArrayList<IAttribute>(attributes.values());
 		Collections.sort(result);
 		return Collections.unmodifiableCollection(result);
 	}
 
 	public Collection<QualifiedName> getAttributeNames() {
-		final ArrayList<QualifiedName> result = new ArrayList<QualifiedName>();
-		for (final IAttribute attribute : attributes.values()) {
-			result.add(attribute.getQualifiedName());
+		if (attributes == null) {
+			return new ArrayList<QualifiedName>();
 		}
+		final ArrayList<QualifiedName> result = new ArrayList<QualifiedName>(attributes.keys());
 		Collections.sort(result, new QualifiedNameComparator());
 		return result;
 	}
@@ -240,8 +285,35 @@ public class Element extends Parent implements IElement {
 	 * Namespaces
 	 */
 
+	/**
+	 * @return the cached scope of this element, or null if this element is not part of a document
+	 */
+	private ElementScope getScope() {
+		final Document document = getDocument();
+		if (document == null) {
+			return null;
+		}
+		if (scope == null || scopeModificationCount != document.getScopeModificationCount()) {
+			final Parent parent = getParent();
+			final ElementScope parentScope;
+			if (parent instanceof Element) {
+				parentScope = ((Element) parent).getScope();
+			} else {
+				parentScope = ElementScope.root(document.getBaseURI());
+			}
+			scope = parentScope.enter(namespaceDeclarations, getDeclaredBaseURI());
+			scopeModificationCount = document.getScopeModificationCount();
+		}
+		return scope;
+	}
+
 	public String getNamespaceURI(final String namespacePrefix) {
-		if (namespaceDeclarations.containsKey(namespacePrefix)) {
+		final ElementScope scope = getScope();
+		if (scope != null) {
+			return scope.getNamespaceURI(namespacePrefix);
+		}
+
+		if (namespaceDeclarations != null && namespaceDeclarations.containsKey(namespacePrefix)) {
 			return namespaceDeclarations.get(namespacePrefix);
 		}
 		final IElement parent = getParentElement();
@@ -256,6 +328,9 @@ public class Element extends Parent implements IElement {
 	}
 
 	public String getDeclaredDefaultNamespaceURI() {
+		if (namespaceDeclarations == null) {
+			return null;
+		}
 		return namespaceDeclarations.get(null);
 	}
 
@@ -269,15 +344,23 @@ public class Element extends Parent implements IElement {
 		if (Namespace.XMLNS_NAMESPACE_URI.equals(namespaceURI)) {
 			return Namespace.XMLNS_NAMESPACE_PREFIX;
 		}
-		for (final Entry<String, String> entry : namespaceDeclarations.entrySet()) {
-			if (entry.getValue().equals(namespaceURI)) {
-				return entry.getKey();
+
+		final ElementScope scope = getScope();
+		if (scope != null) {
+			return scope.getNamespacePrefix(namespaceURI);
+		}
+
+		if (namespaceDeclarations != null) {
+			for (int i = 0; i < namespaceDeclarations.size(); i++) {
+				if (namespaceDeclarations.valueAt(i).equals(namespaceURI)) {
+					return namespaceDeclarations.keyAt(i);
+				}
 			}
 		}
 		final IElement parent = getParentElement();
 		if (parent != null) {
 			final String parentPrefix = parent.getNamespacePrefix(namespaceURI);
-			if (!namespaceDeclarations.containsKey(parentPrefix)) {
+			if (namespaceDeclarations == null || !namespaceDeclarations.containsKey(parentPrefix)) {
 				return parentPrefix;
 			}
 		}
@@ -286,7 +369,10 @@ public class Element extends Parent implements IElement {
 
 	public Collection<String> getDeclaredNamespacePrefixes() {
 		final ArrayList<String> result = new ArrayList<String>();
-		for (final String prefix : namespaceDeclarations.keySet()) {
+		if (namespaceDeclarations == null) {
+			return result;
+		}
+		for (final String prefix : namespaceDeclarations.keys()) {
 			if (prefix != null) {
 				result.add(prefix);
 			}
@@ -296,6 +382,11 @@ public class Element extends Parent implements IElement {
 	}
 
 	public Collection<String> getNamespacePrefixes() {
+		final ElementScope scope = getScope();
+		if (scope != null) {
+			return scope.getNamespacePrefixes();
+		}
+
 		final HashSet<String> result = new HashSet<String>();
 		result.addAll(getDeclaredNamespacePrefixes());
 		final IElement parent = getParentElement();
@@ -306,9 +397,13 @@ public class Element extends Parent implements IElement {
 	}
 
 	public void declareNamespace(final String namespacePrefix, final String namespaceURI) {
+		checkModifiable();
 		if (namespaceURI == null || "".equals(namespaceURI.trim())) {
 			return;
 		}
+		if (namespaceDeclarations == null) {
+			namespaceDeclarations = new SmallMap<String, String>();
+		}
 		final String oldNamespaceURI = namespaceDeclarations.put(namespacePrefix, namespaceURI);
 		final Document document = getDocument();
 		if (document == null) {
@@ -323,7 +418,14 @@ public class Element extends Parent implements IElement {
 	}
 
 	public void removeNamespace(final String namespacePrefix) {
+		checkModifiable();
+		if (namespaceDeclarations == null) {
+			return;
+		}
 		final String oldNamespaceURI = namespaceDeclarations.remove(namespacePrefix);
+		if (namespaceDeclarations.isEmpty()) {
+			namespaceDeclarations = null;
+		}
 		final Document document = getDocument();
 		if (document == null) {
 			return;
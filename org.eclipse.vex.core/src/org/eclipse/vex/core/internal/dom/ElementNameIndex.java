@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.provisional.dom.AttributeChangeEvent;
+import org.eclipse.vex.core.provisional.dom.ContentChangeEvent;
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IDocumentListener;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.eclipse.vex.core.provisional.dom.IParent;
+import org.eclipse.vex.core.provisional.dom.NamespaceDeclarationChangeEvent;
+
+/**
+ * An index of the elements of a document by their qualified name. The elements with the same name are kept in document
+ * order. The order of two elements never changes while they are in the document, hence the lists stay sorted when the
+ * content is modified and the elements can be found by a binary search over their start offsets.
+ * <p>
+ * The index is built once by traversing the whole document. Afterwards it is kept up to date with the changes of the
+ * document: inserted or deleted subtrees are traversed, the names of elements never change. The elements of a subtree
+ * with the same name are adjacent in the list of their name, hence they are inserted or removed at once, which costs a
+ * single shift of the following elements per name instead of one per element.
+ */
+class ElementNameIndex implements IDocumentListener {
+
+	private final Map<QualifiedName, List<Element>> elementsByName = new HashMap<QualifiedName, List<Element>>();
+
+	public ElementNameIndex(final Document document) {
+		collectDeeply(document.getRootElement(), elementsByName);
+	}
+
+	/**
+	 * @return the elements with the given name that are completely within the given range, in document order
+	 */
+	public List<Element> getElements(final QualifiedName name, final ContentRange range) {
+		final List<Element> elements = elementsByName.get(name);
+		final ArrayList<Element> result = new ArrayList<Element>();
+		if (elements == null) {
+			return result;
+		}
+
+		for (int i = indexOfFirstElementAtOrAfter(elements, range.getStartOffset()); i < elements.size(); i++) {
+			final Element element = elements.get(i);
+			if (element.getStartOffset() > range.getEndOffset()) {
+				break;
+			}
+			if (element.getEndOffset() <= range.getEndOffset()) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the elements of the given subtree by name, in document order.
+	 */
+	private static void collectDeeply(final INode node, final Map<QualifiedName, List<Element>> result) {
+		if (node instanceof Element) {
+			final Element element = (Element) node;
+			List<Element> elements = result.get(element.getQualifiedName());
+			if (elements == null) {
+				elements = new ArrayList<Element>();
+				result.put(element.getQualifiedName(), elements);
+			}
+			elements.add(element);
+		}
+		if (node instanceof IParent) {
+			for (final INode child : ((IParent) node).children().withoutText()) {
+				collectDeeply(child, result);
+			}
+		}
+	}
+
+	private static Map<QualifiedName, List<Element>> collectDeeply(final ContentChangeEvent event) {
+		final Map<QualifiedName, List<Element>> result = new HashMap<QualifiedName, List<Element>>();
+		for (final INode node : event.getParent().children().withoutText().in(event.getRange())) {
+			collectDeeply(node, result);
+		}
+		return result;
+	}
+
+	private void addAll(final Map<QualifiedName, List<Element>> added) {
+		for (final Map.Entry<QualifiedName, List<Element>> entry : added.entrySet()) {
+			final List<Element> elements = elementsByName.get(entry.getKey());
+			if (elements == null) {
+				elementsByName.put(entry.getKey(), entry.getValue());
+			} else {
+				elements.addAll(indexOfFirstElementAtOrAfter(elements, entry.getValue().get(0).getStartOffset()), entry.getValue());
+			}
+		}
+	}
+
+	private void removeAll(final Map<QualifiedName, List<Element>> removed) {
+		for (final Map.Entry<QualifiedName, List<Element>> entry : removed.entrySet()) {
+			final List<Element> elements = elementsByName.get(entry.getKey());
+			Assert.isNotNull(elements, "The removed elements are not in the index: " + entry.getKey());
+			final int index = indexOfFirstElementAtOrAfter(elements, entry.getValue().get(0).getStartOffset());
+			final int count = entry.getValue().size();
+			Assert.isTrue(index + count <= elements.size() && elements.get(index) == entry.getValue().get(0), "The removed elements are not in the index: " + entry.getKey());
+			elements.subList(index, index + count).clear();
+			if (elements.isEmpty()) {
+				elementsByName.remove(entry.getKey());
+			}
+		}
+	}
+
+	private static int indexOfFirstElementAtOrAfter(final List<Element> elements, final int offset) {
+		int low = 0;
+		int high = elements.size();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (elements.get(middle).getStartOffset() < offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/*
+	 * IDocumentListener
+	 */
+
+	public void attributeChanged(final AttributeChangeEvent event) {
+		// attributes do not change the name of an element
+	}
+
+	public void namespaceChanged(final NamespaceDeclarationChangeEvent event) {
+		// the qualified names do not depend on the namespace prefixes
+	}
+
+	public void beforeContentDeleted(final ContentChangeEvent event) {
+		if (!event.isStructuralChange()) {
+			return;
+		}
+		removeAll(collectDeeply(event));
+	}
+
+	public void beforeContentInserted(final ContentChangeEvent event) {
+		// nothing to do before the new nodes are in place
+	}
+
+	public void contentDeleted(final ContentChangeEvent event) {
+		// the deleted nodes are already removed from the index
+	}
+
+	public void contentInserted(final ContentChangeEvent event) {
+		if (!event.isStructuralChange()) {
+			return;
+		}
+		addAll(collectDeeply(event));
+	}
+
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * The namespace declarations and the base URI which are in scope of an element. A scope is immutable. Elements which
+ * neither declare a namespace nor define a base URI share the scope of their parent element, hence the scopes of a
+ * document only need memory for the few elements which actually declare something.
+ */
+class ElementScope {
+
+	private final Map<String, String> namespaceURIs;
+	private final Map<String, String> namespacePrefixes;
+	private final String baseURI;
+
+	private ElementScope(final Map<String, String> namespaceURIs, final Map<String, String> namespacePrefixes, final String baseURI) {
+		this.namespaceURIs = namespaceURIs;
+		this.namespacePrefixes = namespacePrefixes;
+		this.baseURI = baseURI;
+	}
+
+	/**
+	 * @return the scope of the root element of a document with the given base URI, without any namespace declarations
+	 */
+	public static ElementScope root(final String baseURI) {
+		return new ElementScope(Collections.<String, String> emptyMap(), Collections.<String, String> emptyMap(), baseURI);
+	}
+
+	/**
+	 * Create the scope of an element within this scope.
+	 *
+	 * @param namespaceDeclarations
+	 *            the namespace declarations of the element, may be null
+	 * @param elementBaseURI
+	 *            the base URI defined by the element, or null if it does not define one
+	 * @return the scope of the element
+	 */
+	public ElementScope enter(final SmallMap<String, String> namespaceDeclarations, final String elementBaseURI) {
+		if ((namespaceDeclarations == null || namespaceDeclarations.isEmpty()) && elementBaseURI == null) {
+			return this;
+		}
+		if (namespaceDeclarations == null || namespaceDeclarations.isEmpty()) {
+			return new ElementScope(namespaceURIs, namespacePrefixes, elementBaseURI);
+		}
+
+		final HashMap<String, String> newNamespaceURIs = new HashMap<String, String>(namespaceURIs);
+		final HashMap<String, String> newNamespacePrefixes = new HashMap<String, String>();
+		for (final Map.Entry<String, String> entry : namespacePrefixes.entrySet()) {
+			if (!namespaceDeclarations.containsKey(entry.getValue())) {
+				newNamespacePrefixes.put(entry.getKey(), entry.getValue()); // the prefix is not redeclared
+			}
+		}
+		// backwards, because the first declaration of a namespace URI determines its prefix
+		for (int i = namespaceDeclarations.size() - 1; i >= 0; i--) {
+			newNamespaceURIs.put(namespaceDeclarations.keyAt(i), namespaceDeclarations.valueAt(i));
+			newNamespacePrefixes.put(namespaceDeclarations.valueAt(i), namespaceDeclarations.keyAt(i));
+		}
+		return new ElementScope(newNamespaceURIs, newNamespacePrefixes, elementBaseURI == null ? baseURI : elementBaseURI);
+	}
+
+	public String getNamespaceURI(final String namespacePrefix) {
+		return namespaceURIs.get(namespacePrefix);
+	}
+
+	public String getNamespacePrefix(final String namespaceURI) {
+		return namespacePrefixes.get(namespaceURI);
+	}
+
+	/**
+	 * @return the declared namespace prefixes, without the default namespace
+	 */
+	public Collection<String> getNamespacePrefixes() {
+		final HashSet<String> result = new HashSet<String>(namespaceURIs.keySet());
+		result.remove(null);
+		return result;
+	}
+
+	public String getBaseURI() {
+		return baseURI;
+	}
+}
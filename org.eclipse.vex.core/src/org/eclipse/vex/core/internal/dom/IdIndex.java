@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.XML;
+import org.eclipse.vex.core.provisional.dom.AttributeChangeEvent;
+import org.eclipse.vex.core.provisional.dom.AttributeDefinition;
+import org.eclipse.vex.core.provisional.dom.ContentChangeEvent;
+import org.eclipse.vex.core.provisional.dom.IAttribute;
+import org.eclipse.vex.core.provisional.dom.IDocumentListener;
+import org.eclipse.vex.core.provisional.dom.INode;
+import org.eclipse.vex.core.provisional.dom.IParent;
+import org.eclipse.vex.core.provisional.dom.IValidator;
+import org.eclipse.vex.core.provisional.dom.NamespaceDeclarationChangeEvent;
+
+/**
+ * An index of the elements of a document by the values of their ID attributes. An attribute is an ID attribute if it
+ * is xml:id or if the validator defines it with the type ID.
+ * <p>
+ * The index is built once by traversing the whole document. Afterwards it is kept up to date with the changes of the
+ * document: attribute changes are applied directly, inserted or deleted subtrees are traversed.
+ */
+class IdIndex implements IDocumentListener {
+
+	private final Document document;
+	private final Map<String, List<Element>> elementsById = new HashMap<String, List<Element>>();
+	private final Map<QualifiedName, Set<QualifiedName>> idAttributeNames = new HashMap<QualifiedName, Set<QualifiedName>>();
+
+	public IdIndex(final Document document) {
+		this.document = document;
+		addDeeply(document.getRootElement());
+	}
+
+	/**
+	 * @return the element with the given ID, or null if there is no such element. If there are several elements with
+	 *         the same ID, the one that got its ID first is returned.
+	 */
+	public Element getElementById(final String id) {
+		final List<Element> elements = elementsById.get(id);
+		if (elements == null) {
+			return null;
+		}
+		return elements.get(0);
+	}
+
+	/**
+	 * @return all IDs which are currently in the index
+	 */
+	public Set<String> getIds() {
+		return new HashSet<String>(elementsById.keySet());
+	}
+
+	private void addDeeply(final INode node) {
+		if (node instanceof Element) {
+			final Element element = (Element) node;
+			for (final QualifiedName attributeName : getIdAttributeNames(element)) {
+				add(element.getAttributeValue(attributeName), element);
+			}
+		}
+		if (node instanceof IParent) {
+			for (final INode child : ((IParent) node).children().withoutText()) {
+				addDeeply(child);
+			}
+		}
+	}
+
+	private void removeDeeply(final INode node) {
+		if (node instanceof Element) {
+			final Element element = (Element) node;
+			for (final QualifiedName attributeName : getIdAttributeNames(element)) {
+				remove(element.getAttributeValue(attributeName), element);
+			}
+		}
+		if (node instanceof IParent) {
+			for (final INode child : ((IParent) node).children().withoutText()) {
+				removeDeeply(child);
+			}
+		}
+	}
+
+	private void add(final String attributeValue, final Element element) {
+		final String id = normalize(attributeValue);
+		if (id == null) {
+			return;
+		}
+		List<Element> elements = elementsById.get(id);
+		if (elements == null) {
+			elements = new ArrayList<Element>(1);
+			elementsById.put(id, elements);
+		}
+		elements.add(element);
+	}
+
+	private void remove(final String attributeValue, final Element element) {
+		final String id = normalize(attributeValue);
+		if (id == null) {
+			return;
+		}
+		final List<Element> elements = elementsById.get(id);
+		if (elements == null) {
+			return;
+		}
+		elements.remove(element);
+		if (elements.isEmpty()) {
+			elementsById.remove(id);
+		}
+	}
+
+	/**
+	 * @return the given attribute value as ID, or null if it is empty or blank and hence no ID
+	 */
+	private static String normalize(final String attributeValue) {
+		if (attributeValue == null || "".equals(attributeValue.trim())) {
+			return null;
+		}
+		return attributeValue;
+	}
+
+	private Collection<QualifiedName> getIdAttributeNames(final Element element) {
+		final QualifiedName elementName = element.getQualifiedName();
+		Set<QualifiedName> result = idAttributeNames.get(elementName);
+		if (result == null) {
+			result = new HashSet<QualifiedName>();
+			result.add(XML.ID_ATTRIBUTE);
+			final IValidator validator = document.getValidator();
+			if (validator != null) {
+				for (final AttributeDefinition attributeDefinition : validator.getAttributeDefinitions(element)) {
+					if (attributeDefinition.getType() == AttributeDefinition.Type.ID) {
+						result.add(attributeDefinition.getQualifiedName());
+					}
+				}
+			}
+			idAttributeNames.put(elementName, result);
+		}
+		return result;
+	}
+
+	private boolean isIdAttribute(final Element element, final QualifiedName attributeName) {
+		return getIdAttributeNames(element).contains(attributeName);
+	}
+
+	/*
+	 * IDocumentListener
+	 */
+
+	public void attributeChanged(final AttributeChangeEvent event) {
+		if (!(event.getParent() instanceof Element)) {
+			return;
+		}
+		final Element element = (Element) event.getParent();
+		if (!isIdAttribute(element, event.getAttributeName())) {
+			return;
+		}
+		remove(event.getOldAttributeValue(), element);
+		add(event.getNewAttributeValue(), element);
+	}
+
+	public void namespaceChanged(final NamespaceDeclarationChangeEvent event) {
+		// namespace declarations do not change the names of the ID attributes
+	}
+
+	public void beforeContentDeleted(final ContentChangeEvent event) {
+		if (!event.isStructuralChange()) {
+			return;
+		}
+		for (final INode node : event.getParent().children().withoutText().in(event.getRange())) {
+			removeDeeply(node);
+		}
+	}
+
+	public void beforeContentInserted(final ContentChangeEvent event) {
+		// nothing to do before the new nodes are in place
+	}
+
+	public void contentDeleted(final ContentChangeEvent event) {
+		// the deleted nodes are already removed from the index
+	}
+
+	public void contentInserted(final ContentChangeEvent event) {
+		if (!event.isStructuralChange()) {
+			return;
+		}
+		for (final INode node : event.getParent().children().withoutText().in(event.getRange())) {
+			addDeeply(node);
+		}
+	}
+
+}
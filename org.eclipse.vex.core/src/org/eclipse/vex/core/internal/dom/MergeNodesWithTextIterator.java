@@ -30,7 +30,9 @@ public class MergeNodesWithTextIterator implements Iterator<INode> {
 
 	private int textCursor;
 	private INode currentChild;
+	private int currentChildIndex = -1;
 	private ContentRange nextTextGap;
+	private int nextTextGapIndex;
 
 	public MergeNodesWithTextIterator(final Parent parent, final Iterable<? extends INode> nodes, final IContent content, final ContentRange contentRange) {
 		this.parent = parent;
@@ -55,15 +57,19 @@ public class MergeNodesWithTextIterator implements Iterator<INode> {
 	private void nextStep() {
 		while (nodes.hasNext()) {
 			currentChild = nodes.next();
+			currentChildIndex++;
 			if (!currentChild.isAssociated()) {
 				nextTextGap = contentRange;
+				nextTextGapIndex = -1;
 				return;
 			} else if (currentChild.isInRange(contentRange)) {
 				nextTextGap = currentChild.getRange();
+				nextTextGapIndex = currentChildIndex;
 				textCursor = findNextTextStart(textCursor, nextTextGap.getStartOffset());
 				return;
 			} else if (contentRange.contains(currentChild.getStartOffset())) {
 				nextTextGap = contentRange.intersection(currentChild.getRange());
+				nextTextGapIndex = currentChildIndex;
 				textCursor = findNextTextStart(textCursor, nextTextGap.getStartOffset());
 				currentChild = null; // we can bail out here because we are behind the trimmed range now
 				return;
@@ -74,6 +80,7 @@ public class MergeNodesWithTextIterator implements Iterator<INode> {
 
 		currentChild = null;
 		nextTextGap = new ContentRange(contentRange.getEndOffset(), contentRange.getEndOffset());
+		nextTextGapIndex = currentChildIndex + 1;
 		textCursor = findNextTextStart(textCursor, contentRange.getEndOffset());
 	}
 
@@ -135,7 +142,7 @@ public class MergeNodesWithTextIterator implements Iterator<INode> {
 	}
 
 	private Text nextText(final int textStart, final int textEnd) {
-		return new Text(parent, content, new ContentRange(textStart, textEnd));
+		return parent.getTextNode(nextTextGapIndex, textStart, textEnd);
 	}
 
 	public void remove() {
@@ -36,16 +36,65 @@ import org.eclipse.vex.core.provisional.dom.IValidator;
 public abstract class Node implements INode {
 
 	private Parent parent;
+	private boolean attachedToParent;
+	private ChildList.Chunk chunk;
 	private IContent content;
+
+	/*
+	 * A node which is attached to an associated parent does not need positions in the content. Its offsets are
+	 * maintained by the parent relative to the start offset of the chunk in the parent's list of children. Only nodes
+	 * without such a parent track their offsets with positions.
+	 */
 	private IPosition startPosition = IPosition.NULL;
 	private IPosition endPosition = IPosition.NULL;
+	private boolean maintainedByParent;
+	private int relativeStartOffset;
+	private int relativeEndOffset;
+
+	/*
+	 * The document is cached until the document reports a change of its structure.
+	 */
+	private Document document;
+	private int documentModificationCount;
 
 	public Parent getParent() {
 		return parent;
 	}
 
 	public void setParent(final Parent parent) {
+		if (maintainedByParent) {
+			useOwnPositions();
+		}
+		attachedToParent = false;
 		this.parent = parent;
+		document = null;
+	}
+
+	/**
+	 * Set the given parent, which contains this node in its list of children. If this node and the parent are
+	 * associated with the same content, the parent takes care of the offsets of this node.
+	 */
+	void attachTo(final Parent parent) {
+		setParent(parent);
+		attachedToParent = true;
+		if (canBeMaintainedByParent()) {
+			useRelativeOffsets();
+		}
+	}
+
+	/**
+	 * Reset the parent before this node is removed from the parent's list of children.
+	 */
+	void detachFromParent() {
+		setParent(null);
+	}
+
+	ChildList.Chunk getChunk() {
+		return chunk;
+	}
+
+	void setChunk(final ChildList.Chunk chunk) {
+		this.chunk = chunk;
 	}
 
 	public IAxis<IParent> ancestors() {
@@ -67,35 +116,178 @@ public abstract class Node implements INode {
 		}
 
 		this.content = content;
-		startPosition = content.createPosition(range.getStartOffset());
-		endPosition = content.createPosition(range.getEndOffset());
+		if (canBeMaintainedByParent()) {
+			maintainedByParent = true;
+			relativeStartOffset = range.getStartOffset() - getOffsetBase();
+			relativeEndOffset = range.getEndOffset() - range.getStartOffset();
+		} else {
+			startPosition = content.createPosition(range.getStartOffset());
+			endPosition = content.createPosition(range.getEndOffset());
+		}
+		associated();
 	}
 
 	public void dissociate() {
 		Assert.isTrue(isAssociated(), "This node must be associated to a ContentRange before it can be dissociated.");
 
+		dissociating();
+		if (maintainedByParent) {
+			maintainedByParent = false;
+		} else {
+			content.removePosition(startPosition);
+			content.removePosition(endPosition);
+			startPosition = IPosition.NULL;
+			endPosition = IPosition.NULL;
+		}
+		content = null;
+	}
+
+	/**
+	 * Move this node and its descendants to another content, which contains the same characters at offsets moved by
+	 * the given delta. This node must not be attached to a parent. The offsets of the descendants which are maintained
+	 * by their parent do not change, hence moving a subtree does not create any objects per node.
+	 */
+	void moveToContent(final IContent newContent, final int delta) {
+		Assert.isTrue(isAssociated(), "Only associated nodes can be moved to another content.");
+
+		if (!maintainedByParent) {
+			final int startOffset = startPosition.getOffset();
+			final int endOffset = endPosition.getOffset();
+			content.removePosition(startPosition);
+			content.removePosition(endPosition);
+			startPosition = newContent.createPosition(startOffset + delta);
+			endPosition = newContent.createPosition(endOffset + delta);
+		}
+		content = newContent;
+	}
+
+	/**
+	 * Called after this node was associated with a content.
+	 */
+	void associated() {
+		// nothing to do by default
+	}
+
+	/**
+	 * Called before this node gets dissociated from its content.
+	 */
+	void dissociating() {
+		// nothing to do by default
+	}
+
+	/**
+	 * Called after the parent took over or gave back the responsibility for the offsets of this node.
+	 */
+	void maintainedByParentChanged() {
+		// nothing to do by default
+	}
+
+	private boolean canBeMaintainedByParent() {
+		return attachedToParent && chunk != null && isAssociated() && parent.isAssociated() && parent.getContent() == content && content instanceof ObservableContent;
+	}
+
+	/**
+	 * Let the parent maintain the offsets of this node.
+	 */
+	void useRelativeOffsets() {
+		if (maintainedByParent || !canBeMaintainedByParent()) {
+			return;
+		}
+
+		final int startOffset = startPosition.getOffset();
+		final int endOffset = endPosition.getOffset();
 		content.removePosition(startPosition);
 		content.removePosition(endPosition);
 		startPosition = IPosition.NULL;
 		endPosition = IPosition.NULL;
-		content = null;
+
+		maintainedByParent = true;
+		relativeStartOffset = startOffset - getOffsetBase();
+		relativeEndOffset = endOffset - startOffset;
+		maintainedByParentChanged();
+	}
+
+	/**
+	 * Track the offsets of this node with positions in the content.
+	 */
+	void useOwnPositions() {
+		if (!maintainedByParent) {
+			return;
+		}
+
+		final int startOffset = getStartOffset();
+		final int endOffset = getEndOffset();
+		maintainedByParent = false;
+		startPosition = content.createPosition(startOffset);
+		endPosition = content.createPosition(endOffset);
+		maintainedByParentChanged();
+	}
+
+	private int getOffsetBase() {
+		return parent.getStartOffset() + chunk.getStartOffset();
+	}
+
+	boolean isMaintainedByParent() {
+		return maintainedByParent;
+	}
+
+	int getRelativeStartOffset() {
+		return relativeStartOffset;
+	}
+
+	int getRelativeEndOffset() {
+		return relativeEndOffset;
+	}
+
+	void setRelativeOffsets(final int relativeStartOffset, final int relativeEndOffset) {
+		this.relativeStartOffset = relativeStartOffset;
+		this.relativeEndOffset = relativeEndOffset;
 	}
 
 	public boolean isAssociated() {
 		return content != null;
 	}
 
+	/**
+	 * The positions of a node are invalidated when its whole range is removed from the content. Its offsets are frozen
+	 * then and do not follow the modifications of the content anymore.
+	 * 
+	 * @return true if the offsets of this node are maintained by its parent or tracked by valid positions
+	 */
+	boolean hasValidPositions() {
+		return maintainedByParent || startPosition.isValid() && endPosition.isValid();
+	}
+
+	/**
+	 * The nodes associated with a read-only content, i.e. the nodes of a fragment which was extracted from a document,
+	 * may be shared and must not be modified.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if this node is associated with a read-only content
+	 */
+	void checkModifiable() {
+		if (content instanceof ReadOnlyContent) {
+			throw new UnsupportedOperationException("The node is read-only.");
+		}
+	}
+
 	public IContent getContent() {
 		return content;
 	}
 
 	public int getStartOffset() {
 		Assert.isTrue(isAssociated(), "Node must be associated to a ContentRange to have a start offset.");
+		if (maintainedByParent) {
+			return getOffsetBase() + relativeStartOffset;
+		}
 		return startPosition.getOffset();
 	}
 
 	public int getEndOffset() {
 		Assert.isTrue(isAssociated(), "Node must be associated to a ContentRange to have an end offset.");
+		if (maintainedByParent) {
+			return getOffsetBase() + relativeStartOffset + relativeEndOffset;
+		}
 		return endPosition.getOffset();
 	}
 
@@ -103,6 +295,10 @@ public abstract class Node implements INode {
 		if (!isAssociated()) {
 			return ContentRange.NULL;
 		}
+		if (maintainedByParent) {
+			final int startOffset = getStartOffset();
+			return new ContentRange(startOffset, startOffset + relativeEndOffset);
+		}
 		return new ContentRange(getStartOffset(), getEndOffset());
 	}
 
@@ -140,12 +336,15 @@ public abstract class Node implements INode {
 		if (this instanceof Document) {
 			return (Document) this;
 		}
-		for (final INode ancestor : ancestors()) {
-			if (ancestor instanceof Document) {
-				return (Document) ancestor;
-			}
+		if (document != null && documentModificationCount == document.getScopeModificationCount()) {
+			return document;
 		}
-		return null;
+
+		document = parent == null ? null : parent.getDocument();
+		if (document != null) {
+			documentModificationCount = document.getScopeModificationCount();
+		}
+		return document;
 	}
 
 	public String getBaseURI() {
@@ -178,4 +377,62 @@ public abstract class Node implements INode {
 		return names;
 	}
 
+	/**
+	 * Collects the names of the children of the given parent within the given range. The result is the same as
+	 * <code>getNodeNames(parent.children().in(new ContentRange(startOffset, endOffset)))</code>, but the children are
+	 * accessed by index and no Text nodes are created for the text between them. Text is represented by
+	 * {@link IValidator#PCDATA}, comments and processing instructions are skipped.
+	 */
+	public static List<QualifiedName> getChildNodeNames(final IParent parent, final int startOffset, final int endOffset) {
+		final List<QualifiedName> names = new ArrayList<QualifiedName>();
+		final int rangeStart = Math.max(startOffset, parent.getStartOffset());
+		final int rangeEnd = Math.min(endOffset, parent.getEndOffset());
+		if (rangeStart > rangeEnd) {
+			return names;
+		}
+
+		final IContent content = parent.getContent();
+		int textCursor = rangeStart;
+		final int childCount = parent.getChildNodeCount();
+		for (int i = parent.indexOfChildNodeAtOrAfter(rangeStart); i < childCount; i++) {
+			final INode child = parent.getChildNode(i);
+			final int childStartOffset = child.getStartOffset();
+			final int childEndOffset = child.getEndOffset();
+			if (childStartOffset > rangeEnd) {
+				break;
+			}
+			if (childStartOffset < rangeStart) {
+				if (childEndOffset <= rangeEnd) {
+					textCursor = childEndOffset + 1;
+				}
+				continue;
+			}
+
+			if (containsText(content, textCursor, childStartOffset)) {
+				names.add(IValidator.PCDATA);
+			}
+			if (childEndOffset > rangeEnd) {
+				return names; // the child is only partially in range, nothing can follow
+			}
+			if (child instanceof IElement) {
+				names.add(((IElement) child).getQualifiedName());
+			}
+			textCursor = childEndOffset + 1;
+		}
+
+		if (containsText(content, textCursor, rangeEnd)) {
+			names.add(IValidator.PCDATA);
+		}
+		return names;
+	}
+
+	private static boolean containsText(final IContent content, final int startOffset, final int endOffset) {
+		for (int offset = startOffset; offset < endOffset; offset++) {
+			if (!content.isTagMarker(offset)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
@@ -0,0 +1,22 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import org.eclipse.vex.core.provisional.dom.IContent;
+
+/**
+ * A content which notifies listeners about modifications. Nodes associated with such a content do not need to track
+ * their offsets with positions, their parent can maintain them.
+ */
+interface ObservableContent extends IContent {
+
+	void addContentListener(ContentListener listener);
+
+	void removeContentListener(ContentListener listener);
+
+}
@@ -12,13 +12,12 @@
 package org.eclipse.vex.core.internal.dom;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.vex.core.provisional.dom.ContentRange;
 import org.eclipse.vex.core.provisional.dom.IAxis;
+import org.eclipse.vex.core.provisional.dom.IContent;
 import org.eclipse.vex.core.provisional.dom.INode;
 import org.eclipse.vex.core.provisional.dom.IParent;
 
@@ -26,12 +25,19 @@ import org.eclipse.vex.core.provisional.dom.IParent;
  * A Parent node is a Node which can contain other nodes as children. This class defines the tree-like structure of the
  * DOM. It handles the merging of the child nodes and the textual content of one node within the structure of the
  * document.
+ * <p>
+ * A Parent maintains the offsets of its children, as long as both are associated with the same ObservableContent. The
+ * children store their offsets relative to the parent's start offset, hence they do not need positions in the content.
+ * Only the topmost associated parent tracks its offsets with positions and adjusts the offsets of its descendants
+ * when the content is modified.
  * 
  * @author Florian Thienel
  */
 public abstract class Parent extends Node implements IParent {
 
-	private final List<Node> children = new ArrayList<Node>();
+	private final ChildList children = new ChildList();
+	private ContentListener contentListener;
+	private Text[] textNodes;
 
 	/**
 	 * Append the given child node to the end of the list of children. The parent attribute of the child is set to this
@@ -42,7 +48,8 @@ public abstract class Parent extends Node implements IParent {
 	 */
 	public void addChild(final Node child) {
 		children.add(child);
-		child.setParent(this);
+		child.attachTo(this);
+		textNodes = null;
 	}
 
 	/**
@@ -61,7 +68,9 @@ public abstract class Parent extends Node implements IParent {
 
 	private int indexOfChildNextTo(final int offset) {
 		final ContentRange insertionRange = getRange().resizeBy(1, 0);
-		Assert.isTrue(insertionRange.contains(offset), MessageFormat.format("The offset must be within {0}.", insertionRange));
+		if (!insertionRange.contains(offset)) {
+			Assert.isTrue(false, MessageFormat.format("The offset must be within {0}.", insertionRange));
+		}
 
 		if (children.isEmpty()) {
 			return 0;
@@ -92,7 +101,8 @@ public abstract class Parent extends Node implements IParent {
 
 	private void insertChildAtIndex(final int index, final Node child) {
 		children.add(index, child);
-		child.setParent(this);
+		child.attachTo(this);
+		textNodes = null;
 	}
 
 	/**
@@ -103,14 +113,16 @@ public abstract class Parent extends Node implements IParent {
 	 * @return the node at the given offset
 	 */
 	public INode getChildAt(final int offset) {
-		Assert.isTrue(containsOffset(offset), MessageFormat.format("Offset must be within {0}.", getRange()));
+		if (!containsOffset(offset)) {
+			Assert.isTrue(false, MessageFormat.format("Offset must be within {0}.", getRange()));
+		}
 
 		if (offset == getStartOffset() || offset == getEndOffset()) {
 			return this;
 		}
 
 		if (children.isEmpty()) {
-			return new Text(this, getContent(), getRange().resizeBy(1, -1));
+			return getTextNode(0, getStartOffset() + 1, getEndOffset() - 1);
 		}
 
 		int minIndex = -1;
@@ -136,6 +148,32 @@ public abstract class Parent extends Node implements IParent {
 		throw new AssertionError("No child found at offset " + offset);
 	}
 
+	public int getChildNodeCount() {
+		return children.size();
+	}
+
+	public INode getChildNode(final int index) {
+		return children.get(index);
+	}
+
+	public int indexOfChildNodeAtOrAfter(final int offset) {
+		if (!isAssociated()) {
+			return 0;
+		}
+
+		int low = 0;
+		int high = children.size();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (children.get(middle).getEndOffset() < offset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
 	private INode getChildIn(final INode child, final int offset) {
 		if (child instanceof IParent) {
 			return ((IParent) child).getChildAt(offset);
@@ -160,7 +198,68 @@ public abstract class Parent extends Node implements IParent {
 			endOffset = children.get(childIndex2).getStartOffset() - 1;
 		}
 
-		return new Text(this, getContent(), new ContentRange(startOffset, endOffset));
+		return getTextNode(childIndex2, startOffset, endOffset);
+	}
+
+	/*
+	 * Text nodes
+	 */
+
+	/**
+	 * Provide a Text node for the given range of text in the gap before the child at the given index. If the range
+	 * covers the whole gap, the Text node is cached and the same instance is provided again, as long as the gap is not
+	 * modified. This spares the allocation of a Text node and its positions for every traversal of the children. A
+	 * cached Text node is validated by its positions and offsets before it is reused, because its positions follow every
+	 * modification of the text, while the cache is only cleared when the list of children changes. When the whole text
+	 * of the gap was removed, the positions are invalid and the Text node must not be reused, even if new text of the
+	 * same length was inserted.
+	 * 
+	 * @param gapIndex
+	 *            the index of the child after the text, or the number of children for the text after the last child,
+	 *            -1 if unknown
+	 * @param startOffset
+	 *            the start offset of the text
+	 * @param endOffset
+	 *            the end offset of the text
+	 * @return the Text node for the given range
+	 */
+	Text getTextNode(final int gapIndex, final int startOffset, final int endOffset) {
+		final Text cachedText = textNodes != null && gapIndex >= 0 && gapIndex < textNodes.length ? textNodes[gapIndex] : null;
+		if (cachedText != null && cachedText.getContent() == getContent() && cachedText.hasValidPositions() && cachedText.getStartOffset() == startOffset && cachedText.getEndOffset() == endOffset) {
+			return cachedText;
+		}
+
+		final Text text = new Text(this, getContent(), new ContentRange(startOffset, endOffset));
+		if (isWholeGap(gapIndex, startOffset, endOffset)) {
+			if (textNodes == null) {
+				textNodes = new Text[children.size() + 1];
+			}
+			textNodes[gapIndex] = text;
+		}
+		return text;
+	}
+
+	private boolean isWholeGap(final int gapIndex, final int startOffset, final int endOffset) {
+		if (gapIndex < 0 || gapIndex > children.size()) {
+			return false;
+		}
+
+		if (gapIndex == 0) {
+			if (startOffset != getStartOffset() + 1) {
+				return false;
+			}
+		} else {
+			final Node previousChild = children.get(gapIndex - 1);
+			if (!previousChild.isAssociated() || startOffset != previousChild.getEndOffset() + 1) {
+				return false;
+			}
+		}
+
+		if (gapIndex == children.size()) {
+			return endOffset == getEndOffset() - 1;
+		}
+		final Node nextChild = children.get(gapIndex);
+		return nextChild.isAssociated() && endOffset == nextChild.getStartOffset() - 1;
 	}
 
 	/**
@@ -174,7 +273,9 @@ public abstract class Parent extends Node implements IParent {
 	 */
 	public void insertChildBefore(final INode beforeNode, final Node child) {
 		final int index = children.indexOf(beforeNode);
-		Assert.isTrue(index > -1, MessageFormat.format("{0} must be a child of this parent.", beforeNode));
+		if (index == -1) {
+			Assert.isTrue(false, MessageFormat.format("{0} must be a child of this parent.", beforeNode));
+		}
 		insertChildAtIndex(index, child);
 	}
 
@@ -185,8 +286,77 @@ public abstract class Parent extends Node implements IParent {
 	 *            the child node to remove
 	 */
 	public void removeChild(final Node child) {
+		child.detachFromParent();
 		children.remove(child);
-		child.setParent(null);
+		textNodes = null;
+	}
+
+	/*
+	 * Offsets of the children
+	 */
+
+	@Override
+	void associated() {
+		for (final Node child : children) {
+			child.useRelativeOffsets();
+		}
+		updateContentListener();
+	}
+
+	@Override
+	void dissociating() {
+		for (final Node child : children) {
+			child.useOwnPositions();
+		}
+		removeContentListener();
+	}
+
+	@Override
+	void maintainedByParentChanged() {
+		updateContentListener();
+	}
+
+	private void updateContentListener() {
+		if (isMaintainedByParent() || !(getContent() instanceof ObservableContent)) {
+			removeContentListener();
+		} else if (contentListener == null) {
+			contentListener = new ContentListener() {
+				public void beforeInsertion(final int offset, final int length) {
+					if (offset <= getEndOffset()) {
+						moveChildren(getStartOffset(), offset - 1, length);
+					}
+				}
+
+				public void beforeRemoval(final ContentRange range) {
+					if (range.getStartOffset() <= getEndOffset()) {
+						moveChildren(getStartOffset(), range.getEndOffset(), -range.length());
+					}
+				}
+			};
+			((ObservableContent) getContent()).addContentListener(contentListener);
+		}
+	}
+
+	private void removeContentListener() {
+		if (contentListener != null) {
+			((ObservableContent) getContent()).removeContentListener(contentListener);
+			contentListener = null;
+		}
+	}
+
+	@Override
+	void moveToContent(final IContent newContent, final int delta) {
+		removeContentListener();
+		textNodes = null;
+		super.moveToContent(newContent, delta);
+		for (final Node child : children) {
+			child.moveToContent(newContent, delta);
+		}
+		updateContentListener();
+	}
+
+	void moveChildren(final int oldStartOffset, final int lastUnmovedOffset, final int delta) {
+		children.moveOffsets(oldStartOffset, ChildList.move(oldStartOffset, lastUnmovedOffset, delta), lastUnmovedOffset, delta);
 	}
 
 	/**
@@ -202,6 +372,21 @@ public abstract class Parent extends Node implements IParent {
 				}
 				return NodesInContentRangeIterator.iterator(children, contentRange);
 			}
+
+			@Override
+			protected boolean hasIndexedRootNodesWithoutText() {
+				return true;
+			}
+
+			@Override
+			protected INode getRootNodeWithoutText(final int index) {
+				return children.get(index);
+			}
+
+			@Override
+			protected int getRootNodeCountWithoutText() {
+				return children.size();
+			}
 		};
 	}
 
@@ -64,6 +64,7 @@ public class ProcessingInstruction extends Node implements IProcessingInstructio
 
 	@Override
 	public void setTarget(final String target) throws DocumentValidationException {
+		checkModifiable();
 		final IValidationResult resultTarget = XML.validateProcessingInstructionTarget(target);
 		if (!resultTarget.isOK()) {
 			throw new DocumentValidationException(resultTarget.getMessage());
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.lang.ref.WeakReference;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+
+/**
+ * A content which cannot be modified. It either wraps a content which nobody else has access to, or it is a view of a
+ * range of another content, which is shared with that content (see {@link #share(IContent, ContentRange)}).
+ * Fragments use it to keep their nodes from being modified.
+ * <p>
+ * Since the offsets never change, the positions of a read-only content are plain values. Creating and reading them does
+ * not modify anything, hence several threads can read a read-only content which wraps a private content and the nodes
+ * associated with it at the same time. A shared view follows the modifications of its source, so it must only be used
+ * by the thread which modifies the source.
+ */
+class ReadOnlyContent implements IContent {
+
+	private IContent content;
+	private int offset;
+	private final int length;
+	private boolean shared;
+
+	/**
+	 * @param content
+	 *            the content to wrap, which must not be modified anymore
+	 */
+	public ReadOnlyContent(final IContent content) {
+		this.content = content;
+		offset = 0;
+		length = content.length();
+	}
+
+	private ReadOnlyContent(final IContent source, final ContentRange range) {
+		content = source;
+		offset = range.getStartOffset();
+		length = range.length();
+	}
+
+	/**
+	 * Create a read-only view of the given range of the given content, which shares the characters with the content
+	 * instead of copying them. Modifications of the content before the range only move the view. Right before the
+	 * range itself is modified for the first time, the view copies the characters of the range. Hence creating the view
+	 * costs O(1) and the characters are only copied if necessary.
+	 * <p>
+	 * The content refers to the view only weakly: a view which is not used anymore is never copied.
+	 *
+	 * @param source
+	 *            the content to share
+	 * @param range
+	 *            the range of the content which is shared
+	 * @return a read-only view of the given range
+	 */
+	public static ReadOnlyContent share(final IContent source, final ContentRange range) {
+		Assert.isTrue(source.getRange().contains(range));
+
+		if (source instanceof ReadOnlyContent) {
+			return new ReadOnlyContent(source, range);
+		}
+		if (!(source instanceof ObservableContent)) {
+			return new ReadOnlyContent(source.getContent(range));
+		}
+
+		final ReadOnlyContent result = new ReadOnlyContent(source, range);
+		result.shared = true;
+		((ObservableContent) source).addContentListener(new SharedRangeListener((ObservableContent) source, result));
+		return result;
+	}
+
+	/**
+	 * @return the content wrapped by the given content, if it is a read-only content which is not shared with another
+	 *         content, otherwise the given content itself; useful to copy the content efficiently
+	 */
+	public static IContent unwrap(final IContent content) {
+		if (content instanceof ReadOnlyContent) {
+			final ReadOnlyContent readOnlyContent = (ReadOnlyContent) content;
+			if (!readOnlyContent.shared && readOnlyContent.coversWholeContent()) {
+				return readOnlyContent.content;
+			}
+		}
+		return content;
+	}
+
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("The content is read-only.");
+	}
+
+	private boolean coversWholeContent() {
+		return offset == 0 && length == content.length();
+	}
+
+	private ContentRange toSourceRange(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+		return range.moveBy(offset);
+	}
+
+	/**
+	 * Replace the shared characters by a private copy, before the source is modified.
+	 */
+	private void copySharedRange() {
+		content = content.getContent(new ContentRange(offset, offset + length - 1));
+		offset = 0;
+		shared = false;
+	}
+
+	public IPosition createPosition(final int offset) {
+		return new FixedPosition(offset);
+	}
+
+	public void removePosition(final IPosition position) {
+		// positions are not tracked
+	}
+
+	public void insertText(final int offset, final String text) {
+		throw readOnly();
+	}
+
+	public String getText(final ContentRange range) {
+		return content.getText(toSourceRange(range));
+	}
+
+	public String getText() {
+		if (coversWholeContent()) {
+			return content.getText();
+		}
+		return getText(getRange());
+	}
+
+	public String getRawText(final ContentRange range) {
+		return content.getRawText(toSourceRange(range));
+	}
+
+	public String getRawText() {
+		if (coversWholeContent()) {
+			return content.getRawText();
+		}
+		return getRawText(getRange());
+	}
+
+	public void visitSegments(final ContentRange range, final IContentSegmentVisitor visitor) {
+		if (offset == 0) {
+			content.visitSegments(range, visitor);
+			return;
+		}
+
+		final int delta = offset;
+		content.visitSegments(toSourceRange(range), new IContentSegmentVisitor() {
+			public boolean visit(final int segmentOffset, final char[] chars, final int start, final int length) {
+				return visitor.visit(segmentOffset - delta, chars, start, length);
+			}
+
+			public boolean visit(final int segmentOffset, final byte[] latin1, final int start, final int length) {
+				return visitor.visit(segmentOffset - delta, latin1, start, length);
+			}
+		});
+	}
+
+	public void insertContent(final int offset, final IContent content) {
+		throw readOnly();
+	}
+
+	public IContent getContent(final ContentRange range) {
+		return content.getContent(toSourceRange(range));
+	}
+
+	public IContent getContent() {
+		if (coversWholeContent()) {
+			return content.getContent();
+		}
+		return getContent(getRange());
+	}
+
+	public void insertTagMarker(final int offset) {
+		throw readOnly();
+	}
+
+	public boolean isTagMarker(final int offset) {
+		if (offset < 0 || offset >= length) {
+			return false;
+		}
+		return content.isTagMarker(this.offset + offset);
+	}
+
+	public void remove(final ContentRange range) {
+		throw readOnly();
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public ContentRange getRange() {
+		return new ContentRange(0, length - 1);
+	}
+
+	public char charAt(final int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index " + index + " must be between 0 and " + (length - 1));
+		}
+		return content.charAt(offset + index);
+	}
+
+	public CharSequence subSequence(final int start, final int end) {
+		return content.subSequence(offset + start, offset + end);
+	}
+
+	@Override
+	public String toString() {
+		if (coversWholeContent()) {
+			return content.toString();
+		}
+		return getRawText();
+	}
+
+	/**
+	 * Moves a shared view along with the modifications of its source before its range, and lets it copy its range
+	 * before the range is modified. The listener removes itself from the source once it is not needed anymore.
+	 */
+	private static class SharedRangeListener implements ContentListener {
+
+		private final ObservableContent source;
+		private final WeakReference<ReadOnlyContent> viewReference;
+
+		public SharedRangeListener(final ObservableContent source, final ReadOnlyContent view) {
+			this.source = source;
+			viewReference = new WeakReference<ReadOnlyContent>(view);
+		}
+
+		public void beforeInsertion(final int offset, final int length) {
+			final ReadOnlyContent view = getView();
+			if (view == null) {
+				return;
+			}
+
+			if (offset <= view.offset) {
+				view.offset += length;
+			} else if (offset < view.offset + view.length) {
+				copy(view);
+			}
+		}
+
+		public void beforeRemoval(final ContentRange range) {
+			final ReadOnlyContent view = getView();
+			if (view == null) {
+				return;
+			}
+
+			if (range.getEndOffset() < view.offset) {
+				view.offset -= range.length();
+			} else if (range.getStartOffset() < view.offset + view.length) {
+				copy(view);
+			}
+		}
+
+		private ReadOnlyContent getView() {
+			final ReadOnlyContent view = viewReference.get();
+			if (view == null) {
+				source.removeContentListener(this);
+			}
+			return view;
+		}
+
+		private void copy(final ReadOnlyContent view) {
+			view.copySharedRange();
+			source.removeContentListener(this);
+		}
+	}
+
+	private static class FixedPosition implements IPosition {
+
+		private final int offset;
+
+		public FixedPosition(final int offset) {
+			this.offset = offset;
+		}
+
+		public int getOffset() {
+			return offset;
+		}
+
+		public boolean isValid() {
+			return true;
+		}
+
+		public int compareTo(final IPosition other) {
+			return offset - other.getOffset();
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(offset);
+		}
+	}
+}
@@ -0,0 +1,542 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContent;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
+import org.eclipse.vex.core.provisional.dom.IPosition;
+
+/**
+ * Implementation of the <code>Content</code> interface for large documents. The characters are kept in a piece table:
+ * inserted text is appended to append-only chunks, and the content itself is a balanced tree of pieces which refer to
+ * ranges within these chunks. Insertion, removal and random access take O(log n) regardless of the distance between
+ * subsequent modifications, and no modification ever moves the bulk of the content.
+ * <p>
+ * The tree is immutable, every modification creates a new path to the root. Hence copies of ranges (see
+ * {@link #getContent(ContentRange)}) and sub sequences are cheap views which share the pieces with this content.
+ *
+ * @see Contents#createContent(long)
+ */
+public class RopeContent implements ObservableContent {
+
+	private static final int MIN_CHUNK_SIZE = 64;
+	private static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+	private static final char TAG_MARKER = '\0';
+
+	private final ContentPositions positions = new ContentPositions();
+	private Piece root;
+
+	private char[] chunk;
+	private int chunkLength;
+
+	/**
+	 * Create an empty RopeContent.
+	 */
+	public RopeContent() {
+		this(MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * Create an empty RopeContent whose first chunk fits the given number of characters. Chunks never exceed 64k
+	 * characters, larger contents are spread over several chunks.
+	 *
+	 * @param initialCapacity
+	 *            initial capacity of the content.
+	 */
+	public RopeContent(final int initialCapacity) {
+		assertPositive(initialCapacity);
+		chunk = new char[Math.min(Math.max(initialCapacity, MIN_CHUNK_SIZE), MAX_CHUNK_SIZE)];
+		chunkLength = 0;
+	}
+
+	private RopeContent(final Piece root) {
+		this.root = root;
+		chunk = null;
+		chunkLength = 0;
+	}
+
+	public IPosition createPosition(final int offset) {
+		assertOffset(offset, 0, length());
+		return positions.createPosition(offset);
+	}
+
+	public void removePosition(final IPosition position) {
+		positions.removePosition(position);
+	}
+
+	public int getPositionCount() {
+		return positions.size();
+	}
+
+	public void addContentListener(final ContentListener listener) {
+		positions.addListener(listener);
+	}
+
+	public void removeContentListener(final ContentListener listener) {
+		positions.removeListener(listener);
+	}
+
+	public void insertText(final int offset, final String text) {
+		assertOffset(offset, 0, length());
+
+		if (text.length() == 0) {
+			return;
+		}
+
+		if (offset == length()) {
+			// Optimization: appending needs no split and there is nothing behind the end which has to be moved, this
+			// significantly improves document load speed.
+			root = appendText(root, text);
+		} else {
+			positions.movePositions(offset, text.length());
+			final Piece[] parts = split(root, offset);
+			root = concat(appendText(parts[0], text), parts[1]);
+		}
+	}
+
+	public void insertTagMarker(final int offset) {
+		assertOffset(offset, 0, length());
+
+		insertText(offset, Character.toString(TAG_MARKER));
+	}
+
+	public boolean isTagMarker(final int offset) {
+		if (offset < 0 || offset >= length()) {
+			return false;
+		}
+
+		return charAt(offset) == TAG_MARKER;
+	}
+
+	public void remove(final ContentRange range) {
+		assertOffset(range.getStartOffset(), 0, length() - range.length());
+		assertPositive(range.length());
+
+		positions.removeRange(range);
+
+		final Piece[] head = split(root, range.getStartOffset());
+		final Piece[] tail = split(head[1], range.length());
+		root = concat(head[0], tail[1]);
+	}
+
+	public String getText() {
+		return getText(getRange());
+	}
+
+	public String getText(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+
+		final StringBuilder result = new StringBuilder(range.length());
+		append(result, root, range.getStartOffset(), range.getEndOffset() + 1, false);
+		return result.toString();
+	}
+
+	public String getRawText() {
+		return getRawText(getRange());
+	}
+
+	public String getRawText(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+
+		final StringBuilder result = new StringBuilder(range.length());
+		append(result, root, range.getStartOffset(), range.getEndOffset() + 1, true);
+		return result.toString();
+	}
+
+	public void visitSegments(final ContentRange range, final IContentSegmentVisitor visitor) {
+		Assert.isTrue(getRange().contains(range));
+
+		visitSegments(visitor, root, 0, range.getStartOffset(), range.getEndOffset() + 1);
+	}
+
+	public void insertContent(final int offset, final IContent content) {
+		assertOffset(offset, 0, length());
+
+		final Piece insertion;
+		if (content instanceof RopeContent) {
+			insertion = ((RopeContent) content).root;
+		} else {
+			insertion = appendText(null, content.getRawText());
+		}
+
+		if (offset == length()) {
+			// Optimization: same as in insertText, there is nothing behind the end which has to be moved
+			root = concat(root, insertion);
+		} else {
+			positions.movePositions(offset, content.length());
+			final Piece[] parts = split(root, offset);
+			root = concat(concat(parts[0], insertion), parts[1]);
+		}
+	}
+
+	public IContent getContent() {
+		return getContent(getRange());
+	}
+
+	public IContent getContent(final ContentRange range) {
+		Assert.isTrue(getRange().contains(range));
+
+		return new RopeContent(subTree(range.getStartOffset(), range.getEndOffset() + 1));
+	}
+
+	/**
+	 * @see CharSequence#length()
+	 * @return the length of the raw textual content, including tag markers.
+	 */
+	public int length() {
+		return length(root);
+	}
+
+	public ContentRange getRange() {
+		return new ContentRange(0, length() - 1);
+	}
+
+	/**
+	 * @see CharSequence#charAt(int)
+	 * @param offset
+	 *            the offset of the character within the raw textual content
+	 * @return the character at the given offset (tag markers included)
+	 */
+	public char charAt(final int offset) {
+		return charAt(root, offset);
+	}
+
+	/**
+	 * Get a view of the raw text of a region of this content. The view also contains the tag markers in this content.
+	 * It is not affected by later modifications of this content.
+	 *
+	 * @see CharSequence#subSequence(int, int)
+	 * @param startOffset
+	 *            Offset at which the substring begins.
+	 * @param endOffset
+	 *            Offset at which the substring ends.
+	 * @return the text of the given region including tag markers
+	 */
+	public CharSequence subSequence(final int startOffset, final int endOffset) {
+		Assert.isTrue(getRange().contains(new ContentRange(startOffset, endOffset)));
+		return new RopeSequence(subTree(startOffset, endOffset + 1));
+	}
+
+	private Piece subTree(final int startOffset, final int endOffset) {
+		final Piece[] head = split(root, startOffset);
+		return split(head[1], endOffset - startOffset)[0];
+	}
+
+	/*
+	 * Chunks
+	 */
+
+	private Piece appendText(Piece tree, final String text) {
+		int textOffset = 0;
+		while (textOffset < text.length()) {
+			if (chunk == null || chunkLength == chunk.length) {
+				chunk = new char[nextChunkSize(text.length() - textOffset)];
+				chunkLength = 0;
+			}
+			final int count = Math.min(text.length() - textOffset, chunk.length - chunkLength);
+			text.getChars(textOffset, textOffset + count, chunk, chunkLength);
+			tree = appendPiece(tree, chunk, chunkLength, count);
+			chunkLength += count;
+			textOffset += count;
+		}
+		return tree;
+	}
+
+	private int nextChunkSize(final int requiredSize) {
+		// grow quickly when small, but never allocate more than MAX_CHUNK_SIZE in one go
+		final int lastChunkSize = chunk == null ? MIN_CHUNK_SIZE : chunk.length;
+		return Math.min(MAX_CHUNK_SIZE, Math.max(requiredSize, lastChunkSize * 2));
+	}
+
+	/*
+	 * Piece tree: an immutable AVL tree, ordered by the position of the pieces within the content.
+	 */
+
+	private static class Piece {
+		public final char[] chars;
+		public final int start;
+		public final int length;
+
+		public final Piece left;
+		public final Piece right;
+		public final int totalLength;
+		public final int height;
+
+		public Piece(final Piece left, final char[] chars, final int start, final int length, final Piece right) {
+			this.chars = chars;
+			this.start = start;
+			this.length = length;
+			this.left = left;
+			this.right = right;
+			totalLength = length(left) + length + length(right);
+			height = Math.max(height(left), height(right)) + 1;
+		}
+
+		public Piece(final Piece left, final Piece piece, final Piece right) {
+			this(left, piece.chars, piece.start, piece.length, right);
+		}
+	}
+
+	private static int length(final Piece tree) {
+		return tree == null ? 0 : tree.totalLength;
+	}
+
+	private static int height(final Piece tree) {
+		return tree == null ? 0 : tree.height;
+	}
+
+	private static char charAt(final Piece tree, final int offset) {
+		Piece node = tree;
+		int relativeOffset = offset;
+		while (node != null) {
+			final int leftLength = length(node.left);
+			if (relativeOffset < leftLength) {
+				node = node.left;
+			} else if (relativeOffset < leftLength + node.length) {
+				return node.chars[node.start + relativeOffset - leftLength];
+			} else {
+				relativeOffset -= leftLength + node.length;
+				node = node.right;
+			}
+		}
+		throw new IndexOutOfBoundsException("Offset " + offset + " is out of range [0, " + length(tree) + ")");
+	}
+
+	/**
+	 * Append the characters in [startOffset, endOffset) of the given tree to the given StringBuilder.
+	 */
+	private static void append(final StringBuilder stringBuilder, final Piece tree, final int startOffset, final int endOffset, final boolean includeTagMarkers) {
+		if (tree == null || startOffset >= endOffset) {
+			return;
+		}
+
+		final int leftLength = length(tree.left);
+		if (startOffset < leftLength) {
+			append(stringBuilder, tree.left, startOffset, Math.min(endOffset, leftLength), includeTagMarkers);
+		}
+
+		final int pieceStart = Math.max(startOffset - leftLength, 0);
+		final int pieceEnd = Math.min(endOffset - leftLength, tree.length);
+		if (pieceStart < pieceEnd) {
+			if (includeTagMarkers) {
+				stringBuilder.append(tree.chars, tree.start + pieceStart, pieceEnd - pieceStart);
+			} else {
+				for (int i = tree.start + pieceStart; i < tree.start + pieceEnd; i++) {
+					final char c = tree.chars[i];
+					if (c != TAG_MARKER) {
+						stringBuilder.append(c);
+					}
+				}
+			}
+		}
+
+		final int rightOffset = leftLength + tree.length;
+		if (endOffset > rightOffset) {
+			append(stringBuilder, tree.right, Math.max(startOffset - rightOffset, 0), endOffset - rightOffset, includeTagMarkers);
+		}
+	}
+
+	/**
+	 * Pass the pieces in [startOffset, endOffset) of the given tree to the given visitor. The tree starts at treeOffset
+	 * within the content, startOffset and endOffset are relative to the tree.
+	 *
+	 * @return false if the visitor stopped the traversal
+	 */
+	private static boolean visitSegments(final IContentSegmentVisitor visitor, final Piece tree, final int treeOffset, final int startOffset, final int endOffset) {
+		if (tree == null || startOffset >= endOffset) {
+			return true;
+		}
+
+		final int leftLength = length(tree.left);
+		if (startOffset < leftLength) {
+			if (!visitSegments(visitor, tree.left, treeOffset, startOffset, Math.min(endOffset, leftLength))) {
+				return false;
+			}
+		}
+
+		final int pieceStart = Math.max(startOffset - leftLength, 0);
+		final int pieceEnd = Math.min(endOffset - leftLength, tree.length);
+		if (pieceStart < pieceEnd) {
+			if (!visitor.visit(treeOffset + leftLength + pieceStart, tree.chars, tree.start + pieceStart, pieceEnd - pieceStart)) {
+				return false;
+			}
+		}
+
+		final int rightOffset = leftLength + tree.length;
+		if (endOffset > rightOffset) {
+			return visitSegments(visitor, tree.right, treeOffset + rightOffset, Math.max(startOffset - rightOffset, 0), endOffset - rightOffset);
+		}
+		return true;
+	}
+
+	private static Piece appendPiece(final Piece tree, final char[] chars, final int start, final int length) {
+		final Piece last = last(tree);
+		if (last != null && last.chars == chars && last.start + last.length == start) {
+			return extendLast(tree, length);
+		}
+		return join(tree, new Piece(null, chars, start, length, null), null);
+	}
+
+	private static Piece last(final Piece tree) {
+		Piece node = tree;
+		while (node != null && node.right != null) {
+			node = node.right;
+		}
+		return node;
+	}
+
+	private static Piece extendLast(final Piece tree, final int delta) {
+		if (tree.right == null) {
+			return new Piece(tree.left, tree.chars, tree.start, tree.length + delta, null);
+		}
+		return new Piece(tree.left, tree, extendLast(tree.right, delta));
+	}
+
+	private static Piece removeLast(final Piece tree) {
+		if (tree.right == null) {
+			return tree.left;
+		}
+		return balance(tree.left, tree, removeLast(tree.right));
+	}
+
+	/**
+	 * Concatenate two trees.
+	 */
+	private static Piece concat(final Piece left, final Piece right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+		return join(removeLast(left), last(left), right);
+	}
+
+	/**
+	 * Concatenate two trees with the given piece in between. The children of the given piece are ignored.
+	 */
+	private static Piece join(final Piece left, final Piece piece, final Piece right) {
+		if (height(left) > height(right) + 1) {
+			return balance(left.left, left, join(left.right, piece, right));
+		}
+		if (height(right) > height(left) + 1) {
+			return balance(join(left, piece, right.left), right, right.right);
+		}
+		return new Piece(left, piece, right);
+	}
+
+	private static Piece balance(final Piece left, final Piece piece, final Piece right) {
+		if (height(left) > height(right) + 1) {
+			if (height(left.left) >= height(left.right)) {
+				return new Piece(left.left, left, new Piece(left.right, piece, right));
+			}
+			final Piece pivot = left.right;
+			return new Piece(new Piece(left.left, left, pivot.left), pivot, new Piece(pivot.right, piece, right));
+		}
+		if (height(right) > height(left) + 1) {
+			if (height(right.right) >= height(right.left)) {
+				return new Piece(new Piece(left, piece, right.left), right, right.right);
+			}
+			final Piece pivot = right.left;
+			return new Piece(new Piece(left, piece, pivot.left), pivot, new Piece(pivot.right, right, right.right));
+		}
+		return new Piece(left, piece, right);
+	}
+
+	/**
+	 * Split the given tree at the given offset.
+	 *
+	 * @return an array with the tree containing [0, offset) and the tree containing [offset, length)
+	 */
+	private static Piece[] split(final Piece tree, final int offset) {
+		if (tree == null) {
+			return new Piece[] { null, null };
+		}
+
+		final int leftLength = length(tree.left);
+		if (offset < leftLength) {
+			final Piece[] parts = split(tree.left, offset);
+			return new Piece[] { parts[0], join(parts[1], tree, tree.right) };
+		}
+		if (offset == leftLength) {
+			return new Piece[] { tree.left, join(null, tree, tree.right) };
+		}
+
+		final int pieceEnd = leftLength + tree.length;
+		if (offset < pieceEnd) {
+			final int splitLength = offset - leftLength;
+			final Piece head = new Piece(null, tree.chars, tree.start, splitLength, null);
+			final Piece tail = new Piece(null, tree.chars, tree.start + splitLength, tree.length - splitLength, null);
+			return new Piece[] { join(tree.left, head, null), join(null, tail, tree.right) };
+		}
+		if (offset == pieceEnd) {
+			return new Piece[] { join(tree.left, tree, null), tree.right };
+		}
+
+		final Piece[] parts = split(tree.right, offset - pieceEnd);
+		return new Piece[] { join(tree.left, tree, parts[0]), parts[1] };
+	}
+
+	/*
+	 * Views
+	 */
+
+	private static class RopeSequence implements CharSequence {
+
+		private final Piece tree;
+
+		public RopeSequence(final Piece tree) {
+			this.tree = tree;
+		}
+
+		public int length() {
+			return RopeContent.length(tree);
+		}
+
+		public char charAt(final int index) {
+			return RopeContent.charAt(tree, index);
+		}
+
+		public CharSequence subSequence(final int start, final int end) {
+			if (start < 0 || end > length() || start > end) {
+				throw new IndexOutOfBoundsException("Bad range [" + start + ", " + end + ") in sequence of length " + length());
+			}
+			final Piece[] head = split(tree, start);
+			return new RopeSequence(split(head[1], end - start)[0]);
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder result = new StringBuilder(length());
+			append(result, tree, 0, length(), true);
+			return result.toString();
+		}
+	}
+
+	/**
+	 * Assert that the given offset is within the given range, throwing IllegalArgumentException if not.
+	 */
+	private static void assertOffset(final int offset, final int min, final int max) {
+		if (offset < min || offset > max) {
+			throw new IllegalArgumentException("Bad offset " + offset + " must be between " + min + " and " + max);
+		}
+	}
+
+	/**
+	 * Assert that the given value is zero or positive. throwing IllegalArgumentException if not.
+	 */
+	private static void assertPositive(final int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Value should be zero or positive, but it was " + value);
+		}
+	}
+
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.internal.dom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A map for very few entries, like the attributes or the namespace declarations of an element. The keys and values are
+ * kept in two arrays in insertion order, lookups are linear searches. For up to a dozen entries this is at least as
+ * fast as a HashMap, but it needs only a fraction of the memory. The key <code>null</code> is supported.
+ */
+class SmallMap<K, V> {
+
+	private static final int INITIAL_CAPACITY = 2;
+
+	private Object[] keys = new Object[INITIAL_CAPACITY];
+	private Object[] values = new Object[INITIAL_CAPACITY];
+	private int size;
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(final K key) {
+		return indexOf(key) != -1;
+	}
+
+	public V get(final K key) {
+		final int index = indexOf(key);
+		if (index == -1) {
+			return null;
+		}
+		return valueAt(index);
+	}
+
+	/**
+	 * @return the previous value of the given key, or null if there was no entry for the key
+	 */
+	public V put(final K key, final V value) {
+		final int index = indexOf(key);
+		if (index != -1) {
+			final V oldValue = valueAt(index);
+			values[index] = value;
+			return oldValue;
+		}
+
+		if (size == keys.length) {
+			final Object[] newKeys = new Object[size * 2];
+			final Object[] newValues = new Object[size * 2];
+			System.arraycopy(keys, 0, newKeys, 0, size);
+			System.arraycopy(values, 0, newValues, 0, size);
+			keys = newKeys;
+			values = newValues;
+		}
+		keys[size] = key;
+		values[size] = value;
+		size++;
+		return null;
+	}
+
+	/**
+	 * @return the removed value, or null if there was no entry for the given key
+	 */
+	public V remove(final K key) {
+		final int index = indexOf(key);
+		if (index == -1) {
+			return null;
+		}
+
+		final V oldValue = valueAt(index);
+		System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		return oldValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	public K keyAt(final int index) {
+		return (K) keys[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	public V valueAt(final int index) {
+		return (V) values[index];
+	}
+
+	public List<K> keys() {
+		final ArrayList<K> result = new ArrayList<K>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(keyAt(i));
+		}
+		return result;
+	}
+
+	public List<V> values() {
+		final ArrayList<V> result = new ArrayList<V>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(valueAt(i));
+		}
+		return result;
+	}
+
+	private int indexOf(final K key) {
+		for (int i = 0; i < size; i++) {
+			if (keys[i] == key) {
+				return i;
+			}
+		}
+		if (key == null) {
+			return -1;
+		}
+		for (int i = 0; i < size; i++) {
+			if (key.equals(keys[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
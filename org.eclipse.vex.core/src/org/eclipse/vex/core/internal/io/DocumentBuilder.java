@@ -21,15 +21,16 @@ import java.util.List;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.vex.core.XML;
+import org.eclipse.vex.core.internal.core.NamePool;
 import org.eclipse.vex.core.internal.css.IStyleSheetProvider;
 import org.eclipse.vex.core.internal.css.IWhitespacePolicy;
 import org.eclipse.vex.core.internal.css.IWhitespacePolicyFactory;
 import org.eclipse.vex.core.internal.css.StyleSheet;
 import org.eclipse.vex.core.internal.dom.Comment;
+import org.eclipse.vex.core.internal.dom.Contents;
 import org.eclipse.vex.core.internal.dom.Document;
 import org.eclipse.vex.core.internal.dom.DocumentTextPosition;
 import org.eclipse.vex.core.internal.dom.Element;
-import org.eclipse.vex.core.internal.dom.GapContent;
 import org.eclipse.vex.core.internal.dom.Node;
 import org.eclipse.vex.core.internal.dom.ProcessingInstruction;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitorWithResult;
@@ -80,7 +81,7 @@ public class DocumentBuilder implements ContentHandler, LexicalHandler {
 	private boolean trimLeading = false;
 
 	// Content object to hold document content
-	private final IContent content = new GapContent(100);
+	private final IContent content;
 
 	// Stack of StackElement objects
 	private final LinkedList<StackEntry> stack = new LinkedList<StackEntry>();
@@ -104,10 +105,22 @@ public class DocumentBuilder implements ContentHandler, LexicalHandler {
 	private INode nodeAtCaret = null;
 
 	public DocumentBuilder(final String baseUri, final IValidator validator, final IStyleSheetProvider styleSheetProvider, final IWhitespacePolicyFactory whitespacePolicyFactory) {
+		this(baseUri, validator, styleSheetProvider, whitespacePolicyFactory, Contents.UNKNOWN_LENGTH);
+	}
+
+	/**
+	 * @param expectedLength
+	 *            the expected length of the document's source, used to choose a suitable content implementation, or
+	 *            Contents.UNKNOWN_LENGTH
+	 * @see Contents#createContent(long)
+	 */
+	public DocumentBuilder(final String baseUri, final IValidator validator, final IStyleSheetProvider styleSheetProvider, final IWhitespacePolicyFactory whitespacePolicyFactory,
+			final long expectedLength) {
 		this.baseUri = baseUri;
 		this.validator = validator;
 		this.styleSheetProvider = styleSheetProvider;
 		this.whitespacePolicyFactory = whitespacePolicyFactory;
+		content = Contents.createContent(expectedLength);
 	}
 
 	/**
@@ -218,9 +231,9 @@ public class DocumentBuilder implements ContentHandler, LexicalHandler {
 
 		final QualifiedName elementName;
 		if ("".equals(namespaceURI)) {
-			elementName = new QualifiedName(null, qName);
+			elementName = NamePool.intern(null, qName);
 		} else {
-			elementName = new QualifiedName(namespaceURI, localName);
+			elementName = NamePool.intern(namespaceURI, localName);
 		}
 		Element element;
 		if (stack.isEmpty()) {
@@ -253,12 +266,12 @@ public class DocumentBuilder implements ContentHandler, LexicalHandler {
 		for (int i = 0; i < n; i++) {
 			final QualifiedName attributeName;
 			if ("".equals(attrs.getLocalName(i))) {
-				attributeName = new QualifiedName(null, attrs.getQName(i));
+				attributeName = NamePool.intern(null, attrs.getQName(i));
 			} else if ("".equals(attrs.getURI(i))) {
 				// Attributes do not inherit the elements namespace (http://www.w3.org/TR/REC-xml-names/#defaulting)
-				attributeName = new QualifiedName(null, attrs.getLocalName(i));
+				attributeName = NamePool.intern(null, attrs.getLocalName(i));
 			} else {
-				attributeName = new QualifiedName(attrs.getURI(i), attrs.getLocalName(i));
+				attributeName = NamePool.intern(attrs.getURI(i), attrs.getLocalName(i));
 			}
 			try {
 				element.setAttribute(attributeName, attrs.getValue(i));
@@ -12,12 +12,14 @@
 package org.eclipse.vex.core.internal.io;
 
 import java.io.CharArrayReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
 import java.net.URL;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -26,6 +28,7 @@ import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.vex.core.internal.css.IStyleSheetProvider;
 import org.eclipse.vex.core.internal.css.IWhitespacePolicy;
 import org.eclipse.vex.core.internal.css.IWhitespacePolicyFactory;
+import org.eclipse.vex.core.internal.dom.Contents;
 import org.eclipse.vex.core.internal.dom.DocumentTextPosition;
 import org.eclipse.vex.core.provisional.dom.IDocument;
 import org.eclipse.vex.core.provisional.dom.INode;
@@ -86,7 +89,20 @@ public class DocumentReader {
 	 *            URL from which to load the document.
 	 */
 	public IDocument read(final URL url) throws IOException, ParserConfigurationException, SAXException {
-		return read(new InputSource(url.toString()));
+		return read(new InputSource(url.toString()), getExpectedLength(url));
+	}
+
+	private static long getExpectedLength(final URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return Contents.UNKNOWN_LENGTH;
+		}
+		try {
+			return new File(url.toURI()).length();
+		} catch (final URISyntaxException e) {
+			return Contents.UNKNOWN_LENGTH;
+		} catch (final IllegalArgumentException e) {
+			return Contents.UNKNOWN_LENGTH;
+		}
 	}
 
 	/**
@@ -97,7 +113,7 @@ public class DocumentReader {
 	 */
 	public IDocument read(final String s) throws IOException, ParserConfigurationException, SAXException {
 		final Reader reader = new CharArrayReader(s.toCharArray());
-		return this.read(new InputSource(reader));
+		return this.read(new InputSource(reader), s.length());
 	}
 
 	/**
@@ -107,12 +123,16 @@ public class DocumentReader {
 	 *            SAX InputSource from which to load the document.
 	 */
 	public IDocument read(final InputSource is) throws IOException, ParserConfigurationException, SAXException {
+		return read(is, Contents.UNKNOWN_LENGTH);
+	}
+
+	private IDocument read(final InputSource is, final long expectedLength) throws IOException, ParserConfigurationException, SAXException {
 		final SAXParserFactory factory = SAXParserFactory.newInstance();
 		factory.setValidating(false);
 		factory.setNamespaceAware(true);
 
 		final XMLReader xmlReader = factory.newSAXParser().getXMLReader();
-		final DocumentBuilder builder = new DocumentBuilder(is.getSystemId(), validator, styleSheetProvider, whitespacePolicyFactory);
+		final DocumentBuilder builder = new DocumentBuilder(is.getSystemId(), validator, styleSheetProvider, whitespacePolicyFactory, expectedLength);
 		builder.setCaretPosition(caretPosition);
 
 		ContentHandler contentHandler = builder;
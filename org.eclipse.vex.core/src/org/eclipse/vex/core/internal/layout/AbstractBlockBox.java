@@ -906,42 +906,27 @@ public abstract class AbstractBlockBox extends AbstractBox implements BlockBox {
 	 */
 	private static INode findNextBlockNode(final LayoutContext context, final IParent parent, final int startOffset, final int endOffset) {
 		final IWhitespacePolicy policy = context.getWhitespacePolicy();
-		for (final INode child : parent.children().in(new ContentRange(startOffset, endOffset)).withoutText()) {
-			final INode nextBlockNode = child.accept(new BaseNodeVisitorWithResult<INode>() {
-				@Override
-				public INode visit(final IElement element) {
-					// found?
-					if (policy.isBlock(element)) {
-						return element;
-					}
-
-					// recursion
-					final INode fromChild = findNextBlockNode(context, element, startOffset, endOffset);
-					if (fromChild != null) {
-						return fromChild;
-					}
-
-					return null;
-				}
+		final int childCount = parent.getChildNodeCount();
+		for (int i = parent.indexOfChildNodeAtOrAfter(startOffset); i < childCount; i++) {
+			final INode child = parent.getChildNode(i);
+			if (child.getStartOffset() < startOffset) {
+				continue; // only partially in range
+			}
+			if (child.getEndOffset() > endOffset) {
+				break; // behind the range
+			}
 
-				@Override
-				public INode visit(final IComment comment) {
-					if (policy.isBlock(comment)) {
-						return comment;
-					}
-					return null;
-				}
+			// found?
+			if (policy.isBlock(child)) {
+				return child;
+			}
 
-				@Override
-				public INode visit(final IProcessingInstruction pi) {
-					if (policy.isBlock(pi)) {
-						return pi;
-					}
-					return null;
+			// recursion
+			if (child instanceof IElement) {
+				final INode fromChild = findNextBlockNode(context, (IElement) child, startOffset, endOffset);
+				if (fromChild != null) {
+					return fromChild;
 				}
-			});
-			if (nextBlockNode != null) {
-				return nextBlockNode;
 			}
 		}
 
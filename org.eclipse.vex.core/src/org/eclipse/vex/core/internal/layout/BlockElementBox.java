@@ -21,6 +21,7 @@ import org.eclipse.vex.core.internal.core.Drawable;
 import org.eclipse.vex.core.internal.core.Graphics;
 import org.eclipse.vex.core.internal.core.Rectangle;
 import org.eclipse.vex.core.internal.css.CSS;
+import org.eclipse.vex.core.internal.css.DisplayProperty;
 import org.eclipse.vex.core.internal.css.StyleSheet;
 import org.eclipse.vex.core.internal.css.Styles;
 import org.eclipse.vex.core.provisional.dom.IElement;
@@ -136,7 +137,7 @@ public class BlockElementBox extends AbstractBlockBox {
 		final IElement before = styleSheet.getPseudoElement(node, CSS.PSEUDO_BEFORE, true);
 		if (before != null) {
 			final Styles beforeStyles = styleSheet.getStyles(before);
-			if (beforeStyles.getDisplay().equals(CSS.INLINE)) {
+			if (beforeStyles.getDisplayValue() == DisplayProperty.Value.INLINE) {
 				beforeInlines = new ArrayList<InlineBox>();
 				beforeInlines.addAll(LayoutUtils.createGeneratedInlines(context, before));
 			} else {
@@ -146,7 +147,7 @@ public class BlockElementBox extends AbstractBlockBox {
 
 		// background image
 		final Styles styles = context.getStyleSheet().getStyles(node);
-		if (styles.hasBackgroundImage() && !styles.getDisplay().equalsIgnoreCase(CSS.NONE)) {
+		if (styles.hasBackgroundImage() && styles.isDisplayed()) {
 			final InlineBox imageBox = ImageBox.create(node, context, getWidth());
 			if (imageBox != null) {
 				if (beforeInlines == null) {
@@ -163,7 +164,7 @@ public class BlockElementBox extends AbstractBlockBox {
 		final IElement after = styleSheet.getPseudoElement(node, CSS.PSEUDO_AFTER, true);
 		if (after != null) {
 			final Styles afterStyles = styleSheet.getStyles(after);
-			if (afterStyles.getDisplay().equals(CSS.INLINE)) {
+			if (afterStyles.getDisplayValue() == DisplayProperty.Value.INLINE) {
 				afterInlines = new ArrayList<InlineBox>();
 				afterInlines.addAll(LayoutUtils.createGeneratedInlines(context, after));
 			} else {
@@ -180,7 +181,7 @@ public class BlockElementBox extends AbstractBlockBox {
 			childList.add(afterBlock);
 		}
 
-		if (styles.getDisplay().equals(CSS.LIST_ITEM) && !styles.getListStyleType().equals(CSS.NONE)) {
+		if (styles.getDisplayValue() == DisplayProperty.Value.LIST_ITEM && !styles.getListStyleType().equals(CSS.NONE)) {
 			createListMarker(context);
 		}
 
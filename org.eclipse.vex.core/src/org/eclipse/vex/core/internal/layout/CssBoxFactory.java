@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.vex.core.internal.layout;
 
-import org.eclipse.vex.core.internal.css.CSS;
+import org.eclipse.vex.core.internal.css.DisplayProperty;
 import org.eclipse.vex.core.internal.css.Styles;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitorWithResult;
 import org.eclipse.vex.core.provisional.dom.IComment;
@@ -43,7 +43,7 @@ public class CssBoxFactory implements BoxFactory {
 
 			@Override
 			public Box visit(final IElement element) {
-				if (styles.getDisplay().equals(CSS.TABLE)) {
+				if (styles.getDisplayValue() == DisplayProperty.Value.TABLE) {
 					return new TableBox(context, parentBox, element);
 				} else if (context.getWhitespacePolicy().isBlock(element)) {
 					return new BlockElementBox(context, parentBox, node);
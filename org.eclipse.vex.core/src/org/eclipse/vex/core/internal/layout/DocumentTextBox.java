@@ -11,6 +11,7 @@
 package org.eclipse.vex.core.internal.layout;
 
 import java.text.MessageFormat;
+import java.util.Arrays;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.vex.core.internal.core.ColorResource;
@@ -18,6 +19,7 @@ import org.eclipse.vex.core.internal.core.FontResource;
 import org.eclipse.vex.core.internal.core.Graphics;
 import org.eclipse.vex.core.internal.css.Styles;
 import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.IContentSegmentVisitor;
 import org.eclipse.vex.core.provisional.dom.INode;
 
 /**
@@ -27,6 +29,7 @@ public class DocumentTextBox extends TextBox {
 
 	private final int startRelative;
 	private final int endRelative;
+	private final char[] chars;
 
 	/**
 	 * Class constructor.
@@ -46,10 +49,13 @@ public class DocumentTextBox extends TextBox {
 
 		startRelative = startOffset - node.getStartOffset();
 		endRelative = endOffset - node.getStartOffset();
+		chars = collectChars();
 		calculateSize(context);
 
-		Assert.isTrue(getText().length() >= endOffset - startOffset,
-				MessageFormat.format("DocumentTextBox for {2}: text shorter than range: {0} < {1}", getText().length(), endOffset - startOffset, node));
+		final int textLength = chars.length;
+		if (textLength < endOffset - startOffset) {
+			Assert.isTrue(false, MessageFormat.format("DocumentTextBox for {2}: text shorter than range: {0} < {1}", textLength, endOffset - startOffset, node));
+		}
 	}
 
 	/**
@@ -84,6 +90,27 @@ public class DocumentTextBox extends TextBox {
 		return getNode().getText(new ContentRange(getStartOffset(), getEndOffset()));
 	}
 
+	/**
+	 * The characters are collected once when the box is created. Like the size of the box, they are only valid until the
+	 * text of the node changes, the layout creates new boxes then.
+	 */
+	@Override
+	protected char[] getChars() {
+		return chars;
+	}
+
+	/**
+	 * Collect the characters directly from the segments of the content, which saves the intermediate String of
+	 * getText().
+	 */
+	private char[] collectChars() {
+		final INode node = getNode();
+		final ContentRange range = new ContentRange(getStartOffset(), getEndOffset()).intersection(node.getRange());
+		final PlainTextCollector collector = new PlainTextCollector(range.length());
+		node.getContent().visitSegments(range, collector);
+		return collector.getChars();
+	}
+
 	/**
 	 * @see org.eclipse.vex.core.internal.layout.Box#hasContent()
 	 */
@@ -109,7 +136,7 @@ public class DocumentTextBox extends TextBox {
 		// g.createColor(styles.getBackgroundColor());
 		// ColorResource oldBackground = g.setBackgroundColor(background);
 
-		final char[] chars = getText().toCharArray();
+		final char[] chars = getChars();
 
 		if (chars.length < getEndOffset() - getStartOffset()) {
 			throw new IllegalStateException();
@@ -199,7 +226,7 @@ public class DocumentTextBox extends TextBox {
 		final Styles styles = context.getStyleSheet().getStyles(getNode());
 		final FontResource font = g.createFont(styles.getFont());
 		final FontResource oldFont = g.setFont(font);
-		final char[] chars = getText().toCharArray();
+		final char[] chars = getChars();
 
 		if (getWidth() <= 0) {
 			return getStartOffset();
@@ -237,4 +264,42 @@ public class DocumentTextBox extends TextBox {
 		return getStartOffset() + offset;
 	}
 
+	/**
+	 * Copies the visited characters into a char array, skipping the tag markers.
+	 */
+	private static class PlainTextCollector implements IContentSegmentVisitor {
+
+		private final char[] chars;
+		private int length;
+
+		public PlainTextCollector(final int capacity) {
+			chars = new char[capacity];
+		}
+
+		public boolean visit(final int offset, final char[] source, final int start, final int length) {
+			for (int i = start; i < start + length; i++) {
+				if (source[i] != '\0') {
+					chars[this.length++] = source[i];
+				}
+			}
+			return true;
+		}
+
+		public boolean visit(final int offset, final byte[] latin1, final int start, final int length) {
+			for (int i = start; i < start + length; i++) {
+				if (latin1[i] != 0) {
+					chars[this.length++] = (char) (latin1[i] & 0xFF);
+				}
+			}
+			return true;
+		}
+
+		public char[] getChars() {
+			if (length == chars.length) {
+				return chars;
+			}
+			return Arrays.copyOf(chars, length);
+		}
+	}
+
 }
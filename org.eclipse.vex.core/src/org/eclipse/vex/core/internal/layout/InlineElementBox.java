@@ -83,7 +83,7 @@ public class InlineElementBox extends CompositeInlineBox {
 		}
 
 		// background image
-		if (styles.hasBackgroundImage() && !styles.getDisplay().equalsIgnoreCase(CSS.NONE)) {
+		if (styles.hasBackgroundImage() && styles.isDisplayed()) {
 			final ImageBox imageBox = ImageBox.createWithHeight(getNode(), context, styles.getLineHeight());
 			if (imageBox != null) {
 				childList.add(imageBox);
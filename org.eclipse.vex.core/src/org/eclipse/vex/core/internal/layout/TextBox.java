@@ -84,7 +84,7 @@ public abstract class TextBox extends AbstractInlineBox implements InlineBox {
 		final FontResource oldFont = g.getFont();
 		final FontResource font = g.createFont(styles.getFont());
 		g.setFont(font);
-		final char[] chars = getText().toCharArray();
+		final char[] chars = getChars();
 		final int x = g.charsWidth(chars, 0, offset - getStartOffset());
 		g.setFont(oldFont);
 		font.dispose();
@@ -105,6 +105,14 @@ public abstract class TextBox extends AbstractInlineBox implements InlineBox {
 	 */
 	public abstract String getText();
 
+	/**
+	 * Return the characters of the text that comprises this text box. The returned array may be shared, it must not be
+	 * modified by the caller.
+	 */
+	protected char[] getChars() {
+		return getText().toCharArray();
+	}
+
 	/**
 	 * Returns true if the given character is one where a linebreak should occur, e.g. a space.
 	 * 
@@ -208,7 +216,7 @@ public abstract class TextBox extends AbstractInlineBox implements InlineBox {
 	 */
 	public Pair split(final LayoutContext context, final int maxWidth, final boolean force) {
 
-		final char[] chars = getText().toCharArray();
+		final char[] chars = getChars();
 
 		if (chars.length == 0) {
 			throw new IllegalStateException();
@@ -41,8 +41,7 @@ public class DeleteEdit extends AbstractUndoableEdit {
 	@Override
 	protected void performRedo() throws CannotRedoException {
 		try {
-			fragment = document.getFragment(range);
-			document.delete(range);
+			fragment = document.extractFragment(range);
 		} catch (final DocumentValidationException e) {
 			throw new CannotRedoException(e);
 		}
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.vex.core.internal.core.NamePool;
 import org.eclipse.vex.core.internal.dom.Namespace;
 import org.eclipse.vex.core.provisional.dom.AttributeDefinition;
 import org.eclipse.vex.core.provisional.dom.AttributeDefinition.Type;
@@ -137,7 +138,7 @@ public class WTPVEXValidator implements IValidator {
 	}
 
 	private static AttributeDefinition createUnknownAttributeDefinition(final String attributeName) {
-		return new AttributeDefinition(new QualifiedName(null, attributeName), Type.CDATA, /* default value */"", /* values */new String[0], /* required */false, /* fixed */true);
+		return new AttributeDefinition(NamePool.intern(null, attributeName), Type.CDATA, /* default value */"", /* values */new String[0], /* required */false, /* fixed */true);
 	}
 
 	public List<AttributeDefinition> getAttributeDefinitions(final IElement element) {
@@ -226,7 +227,7 @@ public class WTPVEXValidator implements IValidator {
 			targetNamespace = Namespace.XML_NAMESPACE_URI;
 		}
 
-		final AttributeDefinition vexAttr = new AttributeDefinition(new QualifiedName(targetNamespace, localName), type, defaultValue, values, required, fixed);
+		final AttributeDefinition vexAttr = new AttributeDefinition(NamePool.intern(targetNamespace, localName), type, defaultValue, values, required, fixed);
 		return vexAttr;
 	}
 
@@ -282,10 +283,10 @@ public class WTPVEXValidator implements IValidator {
 	private static QualifiedName createQualifiedElementName(final CMElementDeclaration elementDeclaration) {
 		final CMDocument cmDocument = (CMDocument) elementDeclaration.getProperty("CMDocument");
 		if (cmDocument == null) {
-			return new QualifiedName(null, elementDeclaration.getElementName());
+			return NamePool.intern(null, elementDeclaration.getElementName());
 		}
 		final String namespaceUri = (String) cmDocument.getProperty("http://org.eclipse.wst/cm/properties/targetNamespaceURI");
-		return new QualifiedName(namespaceUri, elementDeclaration.getElementName());
+		return NamePool.intern(namespaceUri, elementDeclaration.getElementName());
 	}
 
 	/**
@@ -67,11 +67,14 @@ import org.eclipse.vex.core.internal.undo.InsertTextEdit;
 import org.eclipse.vex.core.provisional.dom.AttributeChangeEvent;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitor;
 import org.eclipse.vex.core.provisional.dom.BaseNodeVisitorWithResult;
+import org.eclipse.vex.core.provisional.dom.ChangeSummaryEvent;
 import org.eclipse.vex.core.provisional.dom.ContentChangeEvent;
 import org.eclipse.vex.core.provisional.dom.ContentRange;
+import org.eclipse.vex.core.provisional.dom.DocumentEvent;
 import org.eclipse.vex.core.provisional.dom.DocumentValidationException;
 import org.eclipse.vex.core.provisional.dom.Filters;
 import org.eclipse.vex.core.provisional.dom.IAxis;
+import org.eclipse.vex.core.provisional.dom.IChangeSummaryListener;
 import org.eclipse.vex.core.provisional.dom.IComment;
 import org.eclipse.vex.core.provisional.dom.IDocument;
 import org.eclipse.vex.core.provisional.dom.IDocumentFragment;
@@ -154,18 +157,12 @@ public class BaseVexWidget implements IVexWidget {
 
 		@Override
 		public void attributeChanged(final AttributeChangeEvent e) {
-			invalidateElementBox(e.getParent());
-
 			/*
 			 * Flush cached styles, since they might depend attribute values via conditional selectors.
 			 * 
 			 * This cast is save because this event is only fired due to the attribute changes of elements.
 			 */
 			getStyleSheet().flushStyles(e.getParent());
-
-			BaseVexWidget.this.relayout();
-
-			fireSelectionChanged();
 		}
 
 		@Override
@@ -186,26 +183,15 @@ public class BaseVexWidget implements IVexWidget {
 		@Override
 		public void contentDeleted(final ContentChangeEvent e) {
 			flushStyles(e);
-			invalidateElementBox(e.getParent());
-
-			BaseVexWidget.this.relayout();
 		}
 
 		@Override
 		public void contentInserted(final ContentChangeEvent e) {
 			flushStyles(e);
-			invalidateElementBox(e.getParent());
-
-			BaseVexWidget.this.relayout();
 		}
 
 		@Override
 		public void namespaceChanged(final NamespaceDeclarationChangeEvent e) {
-			invalidateElementBox(e.getParent());
-
-			BaseVexWidget.this.relayout();
-
-			fireSelectionChanged();
 		}
 
 		private void flushStyles(final ContentChangeEvent e) {
@@ -223,6 +209,33 @@ public class BaseVexWidget implements IVexWidget {
 
 	};
 
+	/*
+	 * The styles are flushed with every single change, because they are queried between the steps of an operation. The
+	 * layout is updated only once per operation, see beginWork/endWork.
+	 */
+	private final IChangeSummaryListener changeSummaryListener = new IChangeSummaryListener() {
+
+		@Override
+		public void changesCommitted(final ChangeSummaryEvent e) {
+			boolean selectionChanged = false;
+			for (final IParent parent : e.getAffectedParents()) {
+				invalidateElementBox(parent);
+			}
+			for (final DocumentEvent change : e.getChanges()) {
+				if (!(change instanceof ContentChangeEvent)) {
+					selectionChanged = true;
+				}
+			}
+
+			BaseVexWidget.this.relayout();
+
+			if (selectionChanged) {
+				fireSelectionChanged();
+			}
+		}
+
+	};
+
 	/**
 	 * Class constructor.
 	 */
@@ -242,6 +255,7 @@ public class BaseVexWidget implements IVexWidget {
 			getStyleSheet().flushAllStyles(document);
 			final IDocument doc = document;
 			doc.removeDocumentListener(documentListener);
+			doc.removeChangeSummaryListener(changeSummaryListener);
 		}
 		styleSheet = null;
 	}
@@ -251,11 +265,16 @@ public class BaseVexWidget implements IVexWidget {
 		if (beginWorkCount == 0) {
 			beginWorkCaretOffset = getCaretOffset();
 			compoundEdit = new CompoundEdit();
+			document.beginTransaction();
 		}
 		beginWorkCount++;
 	}
 
 	public void endWork(final boolean success) {
+		if (beginWorkCount == 1) {
+			// still in the work block, so the summary of the changes only invalidates the boxes
+			document.endTransaction();
+		}
 		beginWorkCount--;
 		if (beginWorkCount == 0) {
 			// this.compoundEdit.end();
@@ -349,8 +368,8 @@ public class BaseVexWidget implements IVexWidget {
 		}
 
 		final IElement parent = document.getElementForInsertionAt(startOffset);
-		final List<QualifiedName> nodesBefore = Node.getNodeNames(parent.children().before(startOffset));
-		final List<QualifiedName> nodesAfter = Node.getNodeNames(parent.children().after(endOffset));
+		final List<QualifiedName> nodesBefore = Node.getChildNodeNames(parent, parent.getStartOffset(), startOffset);
+		final List<QualifiedName> nodesAfter = Node.getChildNodeNames(parent, endOffset, parent.getEndOffset());
 
 		return validator.isValidSequence(parent.getQualifiedName(), nodesBefore, nodeNames, nodesAfter, true);
 	}
@@ -677,9 +696,9 @@ public class BaseVexWidget implements IVexWidget {
 
 		final IElement parent = (IElement) parentNode;
 
-		final List<QualifiedName> nodesBefore = Node.getNodeNames(parent.children().before(startOffset));
-		final List<QualifiedName> nodesAfter = Node.getNodeNames(parent.children().after(endOffset));
-		final List<QualifiedName> selectedNodes = Node.getNodeNames(parent.children().in(new ContentRange(startOffset, endOffset)));
+		final List<QualifiedName> nodesBefore = Node.getChildNodeNames(parent, parent.getStartOffset(), startOffset);
+		final List<QualifiedName> nodesAfter = Node.getChildNodeNames(parent, endOffset, parent.getEndOffset());
+		final List<QualifiedName> selectedNodes = Node.getChildNodeNames(parent, startOffset, endOffset);
 		final List<QualifiedName> candidates = createCandidatesList(validator, parent, IValidator.PCDATA);
 
 		filterInvalidSequences(validator, parent, nodesBefore, nodesAfter, candidates);
@@ -1099,9 +1118,9 @@ public class BaseVexWidget implements IVexWidget {
 			return false;
 		}
 
-		final List<QualifiedName> nodesBefore = Node.getNodeNames(parent.children().before(element.getStartOffset()));
+		final List<QualifiedName> nodesBefore = Node.getChildNodeNames(parent, parent.getStartOffset(), element.getStartOffset());
 		final List<QualifiedName> newNodes = Node.getNodeNames(element.children());
-		final List<QualifiedName> nodesAfter = Node.getNodeNames(parent.children().after(element.getEndOffset()));
+		final List<QualifiedName> nodesAfter = Node.getChildNodeNames(parent, element.getEndOffset(), parent.getEndOffset());
 
 		return validator.isValidSequence(parent.getQualifiedName(), nodesBefore, newNodes, nodesAfter, true);
 	}
@@ -1154,8 +1173,8 @@ public class BaseVexWidget implements IVexWidget {
 		}
 
 		final List<QualifiedName> content = Node.getNodeNames(currentElement.children());
-		final List<QualifiedName> nodesBefore = Node.getNodeNames(parent.children().before(currentElement.getStartOffset()));
-		final List<QualifiedName> nodesAfter = Node.getNodeNames(parent.children().after(currentElement.getEndOffset()));
+		final List<QualifiedName> nodesBefore = Node.getChildNodeNames(parent, parent.getStartOffset(), currentElement.getStartOffset());
+		final List<QualifiedName> nodesAfter = Node.getChildNodeNames(parent, currentElement.getEndOffset(), parent.getEndOffset());
 
 		for (final Iterator<QualifiedName> iter = candidates.iterator(); iter.hasNext();) {
 			final QualifiedName candidate = iter.next();
@@ -1226,8 +1245,8 @@ public class BaseVexWidget implements IVexWidget {
 		}
 
 		final IElement parent = currentElement.getParentElement();
-		final List<QualifiedName> nodesBefore = Node.getNodeNames(parent.children().before(currentElement.getStartOffset()));
-		final List<QualifiedName> nodesAfter = Node.getNodeNames(parent.children().after(currentElement.getEndOffset()));
+		final List<QualifiedName> nodesBefore = Node.getChildNodeNames(parent, parent.getStartOffset(), currentElement.getStartOffset());
+		final List<QualifiedName> nodesAfter = Node.getChildNodeNames(parent, currentElement.getEndOffset(), parent.getEndOffset());
 
 		return isValidChild(validator, parent.getQualifiedName(), elementName, nodesBefore, nodesAfter);
 	}
@@ -1585,7 +1604,12 @@ public class BaseVexWidget implements IVexWidget {
 		}
 		final UndoableAndOffset event = redoList.removeLast();
 		this.moveTo(event.caretOffset, false);
-		event.edit.redo();
+		document.beginTransaction();
+		try {
+			event.edit.redo();
+		} finally {
+			document.endTransaction();
+		}
 		undoList.add(event);
 	}
 
@@ -1693,8 +1717,9 @@ public class BaseVexWidget implements IVexWidget {
 	@Override
 	public void setDocument(final IDocument document, final StyleSheet styleSheet) {
 		if (this.document != null) {
-			final IDocument doc = document;
+			final IDocument doc = this.document;
 			doc.removeDocumentListener(documentListener);
+			doc.removeChangeSummaryListener(changeSummaryListener);
 		}
 
 		this.document = document;
@@ -1709,6 +1734,7 @@ public class BaseVexWidget implements IVexWidget {
 
 		this.moveTo(this.document.getRootElement().getStartOffset() + 1);
 		this.document.addDocumentListener(documentListener);
+		this.document.addChangeSummaryListener(changeSummaryListener);
 	}
 
 	/**
@@ -1790,9 +1816,9 @@ public class BaseVexWidget implements IVexWidget {
 		final int startOffset = element.getStartOffset();
 		final int endOffset = element.getEndOffset();
 
-		final List<QualifiedName> nodesBefore = Node.getNodeNames(parent.children().before(startOffset));
+		final List<QualifiedName> nodesBefore = Node.getChildNodeNames(parent, parent.getStartOffset(), startOffset);
 		final List<QualifiedName> newNodes = Arrays.asList(element.getQualifiedName(), element.getQualifiedName());
-		final List<QualifiedName> nodesAfter = Node.getNodeNames(parent.children().after(endOffset));
+		final List<QualifiedName> nodesAfter = Node.getChildNodeNames(parent, endOffset, parent.getEndOffset());
 
 		return validator.isValidSequence(parent.getQualifiedName(), nodesBefore, newNodes, nodesAfter, true);
 	}
@@ -1868,7 +1894,12 @@ public class BaseVexWidget implements IVexWidget {
 			throw new CannotUndoException();
 		}
 		final UndoableAndOffset event = undoList.removeLast();
-		event.edit.undo();
+		document.beginTransaction();
+		try {
+			event.edit.undo();
+		} finally {
+			document.endTransaction();
+		}
 		this.moveTo(event.caretOffset, false);
 		redoList.add(event);
 	}
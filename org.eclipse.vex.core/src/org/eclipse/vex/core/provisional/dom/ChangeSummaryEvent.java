@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.provisional.dom;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Notification about all changes of a document which happened within one transaction. Changes outside of a transaction
+ * are summarized one by one.
+ * 
+ * @see IDocument#beginTransaction()
+ */
+public class ChangeSummaryEvent extends DocumentEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<DocumentEvent> changes;
+	private final Set<IParent> affectedParents;
+	private final boolean structuralChange;
+
+	/**
+	 * Create an event.
+	 * 
+	 * @param document
+	 *            the document that changed
+	 * @param changes
+	 *            the ContentChangeEvents, AttributeChangeEvents and NamespaceDeclarationChangeEvents in the order of
+	 *            their occurrence
+	 */
+	public ChangeSummaryEvent(final IDocument document, final List<DocumentEvent> changes) {
+		super(document, document);
+		this.changes = Collections.unmodifiableList(changes);
+
+		final LinkedHashSet<IParent> affectedParents = new LinkedHashSet<IParent>();
+		boolean structuralChange = false;
+		for (final DocumentEvent change : changes) {
+			if (change.getParent().getDocument() == document) {
+				affectedParents.add(change.getParent());
+			}
+			if (change instanceof ContentChangeEvent && ((ContentChangeEvent) change).isStructuralChange()) {
+				structuralChange = true;
+			}
+		}
+		this.affectedParents = Collections.unmodifiableSet(affectedParents);
+		this.structuralChange = structuralChange;
+	}
+
+	/**
+	 * The ranges of the single changes refer to the state of the document at the time of each change, they may have
+	 * been moved by the following changes.
+	 * 
+	 * @return all summarized changes in the order of their occurrence
+	 */
+	public List<DocumentEvent> getChanges() {
+		return changes;
+	}
+
+	/**
+	 * @return the distinct parents which contain at least one of the changes and which still belong to the document,
+	 *         in the order of their first change
+	 */
+	public Set<IParent> getAffectedParents() {
+		return affectedParents;
+	}
+
+	/**
+	 * @return <code>true</code> if at least one of the changes is a structural change (childs added or removed)
+	 */
+	public boolean isStructuralChange() {
+		return structuralChange;
+	}
+
+}
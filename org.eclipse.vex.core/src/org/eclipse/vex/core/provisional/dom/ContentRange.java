@@ -35,7 +35,10 @@ public class ContentRange {
 	 *            the end offset of this range
 	 */
 	public ContentRange(final int startOffset, final int endOffset) {
-		Assert.isTrue(startOffset <= endOffset, MessageFormat.format("startOffset {0} must not be greater than endOffset {1}", startOffset, endOffset));
+		if (startOffset > endOffset) {
+			// the message is only formatted in case of failure, ranges are created very frequently
+			Assert.isTrue(false, MessageFormat.format("startOffset {0} must not be greater than endOffset {1}", startOffset, endOffset));
+		}
 		this.startOffset = startOffset;
 		this.endOffset = endOffset;
 	}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.provisional.dom;
+
+import java.text.MessageFormat;
+
+import org.eclipse.core.runtime.QualifiedName;
+
+/**
+ * An immutable record of a change in the journal of a document. Unlike a DocumentEvent, a change does not refer to any
+ * nodes, it only keeps the offsets and names which describe the change. The offsets are valid at the time of the
+ * change, later changes may have shifted them.
+ * 
+ * @see IDocument#getChangesSince(long)
+ */
+public class DocumentChange {
+
+	/**
+	 * The kind of a change.
+	 */
+	public static enum Type {
+		CONTENT_INSERTED, CONTENT_DELETED, ATTRIBUTE_CHANGED, NAMESPACE_CHANGED;
+	}
+
+	private final Type type;
+	private final ContentRange range;
+	private final boolean structuralChange;
+	private final QualifiedName attributeName;
+
+	/**
+	 * @param type
+	 *            the kind of the change
+	 * @param range
+	 *            the inserted or deleted range for content changes, the range of the element for attribute and
+	 *            namespace changes
+	 * @param structuralChange
+	 *            true if nodes were inserted or deleted
+	 * @param attributeName
+	 *            the name of the changed attribute, or null if no attribute was changed
+	 */
+	public DocumentChange(final Type type, final ContentRange range, final boolean structuralChange, final QualifiedName attributeName) {
+		this.type = type;
+		this.range = range;
+		this.structuralChange = structuralChange;
+		this.attributeName = attributeName;
+	}
+
+	/**
+	 * @return the kind of this change
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return the inserted or deleted range for content changes, the range of the element for attribute and namespace
+	 *         changes
+	 */
+	public ContentRange getRange() {
+		return range;
+	}
+
+	/**
+	 * @return true if nodes were inserted or deleted
+	 */
+	public boolean isStructuralChange() {
+		return structuralChange;
+	}
+
+	/**
+	 * @return the name of the changed attribute, or null if no attribute was changed
+	 */
+	public QualifiedName getAttributeName() {
+		return attributeName;
+	}
+
+	@Override
+	public String toString() {
+		return MessageFormat.format("DocumentChange [{0} {1}{2}]", type, range, attributeName != null ? " " + attributeName : "");
+	}
+}
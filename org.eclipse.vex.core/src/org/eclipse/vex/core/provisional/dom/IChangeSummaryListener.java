@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.provisional.dom;
+
+/**
+ * Receives one summary of all changes of a document per transaction. This is meant for listeners with expensive
+ * reactions like a relayout or a refresh of a view, which should only happen once per user action.
+ * 
+ * @see IDocument#beginTransaction()
+ */
+public interface IChangeSummaryListener extends java.util.EventListener {
+
+	/**
+	 * Called when a transaction has been finished, or after a single change outside of a transaction.
+	 * 
+	 * @param event
+	 *            the summary of the changes
+	 */
+	void changesCommitted(ChangeSummaryEvent event);
+
+}
@@ -77,6 +77,18 @@ public interface IContent extends CharSequence {
 	 */
 	String getRawText();
 
+	/**
+	 * Pass the raw characters of a range in this content to the given visitor, without copying them. The characters are
+	 * passed in the order of their offsets, in as few segments as the internal structure of this content allows. Tag
+	 * markers are passed as <code>'\0'</code>.
+	 * 
+	 * @param range
+	 *            the range of the characters to visit
+	 * @param visitor
+	 *            the visitor which receives the segments
+	 */
+	void visitSegments(final ContentRange range, final IContentSegmentVisitor visitor);
+
 	/**
 	 * Insert the given content into this content at the given offset.
 	 * 
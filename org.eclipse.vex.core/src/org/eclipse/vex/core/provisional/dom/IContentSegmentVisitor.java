@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Florian Thienel and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.vex.core.provisional.dom;
+
+/**
+ * Receives the raw characters of a range of an IContent segment by segment, directly from the buffers in which the
+ * content stores them. A content which stores its characters in Latin-1 passes its segments as bytes, every other
+ * content passes them as chars. Tag markers are passed as <code>'\0'</code>.
+ * <p>
+ * The given arrays belong to the content: they must not be modified, and they must not be used after the visit method
+ * returned.
+ *
+ * @see IContent#visitSegments(ContentRange, IContentSegmentVisitor)
+ */
+public interface IContentSegmentVisitor {
+
+	/**
+	 * @param offset
+	 *            the offset of the first character of the segment within the content
+	 * @param chars
+	 *            the buffer which contains the segment
+	 * @param start
+	 *            the index of the first character of the segment within the buffer
+	 * @param length
+	 *            the number of characters in the segment
+	 * @return true to continue with the next segment, false to stop
+	 */
+	boolean visit(int offset, char[] chars, int start, int length);
+
+	/**
+	 * @param offset
+	 *            the offset of the first character of the segment within the content
+	 * @param latin1
+	 *            the buffer which contains the segment, one Latin-1 encoded character per byte
+	 * @param start
+	 *            the index of the first character of the segment within the buffer
+	 * @param length
+	 *            the number of characters in the segment
+	 * @return true to continue with the next segment, false to stop
+	 */
+	boolean visit(int offset, byte[] latin1, int start, int length);
+
+}
@@ -11,6 +11,7 @@
 package org.eclipse.vex.core.provisional.dom;
 
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.QualifiedName;
 
@@ -251,6 +252,19 @@ public interface IDocument extends IParent {
 	 */
 	void delete(ContentRange range) throws DocumentValidationException;
 
+	/**
+	 * Delete everything in the given range and return it as a DocumentFragment. The result is the same as calling
+	 * {@link #getFragment(ContentRange)} before {@link #delete(ContentRange)}, but the deleted nodes are moved into the
+	 * fragment instead of being copied.
+	 * 
+	 * @param range
+	 *            the range to delete
+	 * @return a new fragment with the deleted nodes and content
+	 * @throws DocumentValidationException
+	 *             if the deletion would lead to an invalid document
+	 */
+	IDocumentFragment extractFragment(ContentRange range) throws DocumentValidationException;
+
 	/**
 	 * @return the character at the given offset. If there is an XML tag at the given offset \0 is returned.
 	 */
@@ -299,6 +313,62 @@ public interface IDocument extends IParent {
 	 */
 	List<? extends INode> getNodes(ContentRange range);
 
+	/**
+	 * Provides the elements with the given name in document order. The elements are indexed, so the time for
+	 * evaluating the axis depends on the number of matching elements, not on the size of the document. To get only the
+	 * elements within a part of the document, restrict the axis to a range:
+	 * 
+	 * <pre>
+	 * document.descendantsNamed(name).in(element.getRange())
+	 * </pre>
+	 * 
+	 * @param name
+	 *            the qualified name of the elements
+	 * @return the axis of all elements with the given name in this document
+	 */
+	IAxis<IElement> descendantsNamed(QualifiedName name);
+
+	/**
+	 * Find the element with the given ID. The ID attributes are xml:id and all attributes which are defined with the
+	 * type ID by the document's validator. The IDs are indexed, so the lookup does not depend on the size of the
+	 * document.
+	 * 
+	 * @param id
+	 *            the ID
+	 * @return the element with the given ID, or null if there is no such element
+	 */
+	IElement getElementById(String id);
+
+	/**
+	 * @return all IDs which are currently used in this document
+	 * @see #getElementById(String)
+	 */
+	Set<String> getIds();
+
+	/**
+	 * The revision of this document is incremented with every change that is reported to the document listeners after
+	 * the fact, i.e. inserted or deleted content and changed attributes or namespace declarations. A new document has
+	 * the revision 0.
+	 * 
+	 * @return the current revision of this document
+	 */
+	long getRevision();
+
+	/**
+	 * Provides the changes which happened after the given revision in one batch. This allows a cache to catch up with
+	 * the document without listening to every single change. The document keeps only a limited number of recent changes
+	 * in its journal. If some of the requested changes have already been dropped, null is returned and the cache has to
+	 * be rebuilt from scratch.
+	 * 
+	 * @param revision
+	 *            the revision which is already known to the caller, at most the current revision
+	 * @return the changes after the given revision in the order of their occurrence, or null if the journal does not
+	 *         reach back to the given revision
+	 * @see #getRevision()
+	 * @see DocumentChange
+	 */
+	List<DocumentChange> getChangesSince(long revision);
+
 	/**
 	 * Add a listener that is notified about modifications to this document.
 	 * 
@@ -315,4 +385,42 @@ public interface IDocument extends IParent {
 	 */
 	void removeDocumentListener(IDocumentListener listener);
 
+	/**
+	 * Start a transaction which spans multiple changes, like all changes of a single user action. Transactions may be
+	 * nested, only the outermost transaction is relevant. The document listeners are still notified about every single
+	 * change, the change summary listeners are notified only once with a summary of all changes when the outermost
+	 * transaction is finished.
+	 * <p>
+	 * Each call of this method must be paired with a call of endTransaction, preferably in a finally block.
+	 * 
+	 * @see #endTransaction()
+	 * @see #addChangeSummaryListener(IChangeSummaryListener)
+	 */
+	void beginTransaction();
+
+	/**
+	 * Finish a transaction. When the outermost transaction is finished, the change summary listeners are notified about
+	 * all changes within the transaction, if there were any.
+	 * 
+	 * @see #beginTransaction()
+	 */
+	void endTransaction();
+
+	/**
+	 * Add a listener that is notified once per transaction with a summary of the changes. Changes outside of a
+	 * transaction are reported one by one.
+	 * 
+	 * @param listener
+	 *            the listener
+	 */
+	void addChangeSummaryListener(IChangeSummaryListener listener);
+
+	/**
+	 * Remove a change summary listener that has been added before.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 */
+	void removeChangeSummaryListener(IChangeSummaryListener listener);
+
 }
\ No newline at end of file
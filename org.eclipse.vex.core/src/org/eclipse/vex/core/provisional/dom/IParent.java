@@ -41,4 +41,40 @@ public interface IParent extends INode {
 	 */
 	public abstract INode getChildAt(int offset);
 
+	/**
+	 * Provides the number of child nodes without text nodes. Together with getChildNode and indexOfChildNodeAtOrAfter
+	 * this allows to walk the child nodes without creating an axis or any iterators:
+	 * 
+	 * <pre>
+	 * for (int i = parent.indexOfChildNodeAtOrAfter(startOffset); i &lt; parent.getChildNodeCount(); i++) {
+	 * 	final INode child = parent.getChildNode(i);
+	 * 	if (child.getStartOffset() &gt; endOffset) {
+	 * 		break;
+	 * 	}
+	 * 	...
+	 * }
+	 * </pre>
+	 * 
+	 * @return the number of child nodes, not counting text nodes
+	 */
+	public abstract int getChildNodeCount();
+
+	/**
+	 * @param index
+	 *            the index of the child node, not counting text nodes
+	 * @return the child node at the given index
+	 */
+	public abstract INode getChildNode(int index);
+
+	/**
+	 * Finds the first child node which contains the given offset or which follows it. Text nodes are not taken into
+	 * account. The lookup is a binary search over the child nodes.
+	 * 
+	 * @param offset
+	 *            the offset
+	 * @return the index of the first child node which ends at or after the given offset, or getChildNodeCount() if
+	 *         there is no such child node
+	 */
+	public abstract int indexOfChildNodeAtOrAfter(int offset);
+
 }
\ No newline at end of file
@@ -25,10 +25,23 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.jobs.ILock;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.vex.core.internal.core.ListenerList;
+import org.eclipse.vex.core.internal.core.ListenerList.Dispatcher;
 import org.eclipse.vex.ui.internal.VexPlugin;
 
 public class ConfigurationRegistryImpl implements ConfigurationRegistry {
 
+	private static final Dispatcher<IConfigListener, ConfigEvent> CONFIG_CHANGED = new Dispatcher<IConfigListener, ConfigEvent>() {
+		public void dispatch(final IConfigListener listener, final ConfigEvent event) {
+			listener.configChanged(event);
+		}
+	};
+
+	private static final Dispatcher<IConfigListener, ConfigEvent> CONFIG_LOADED = new Dispatcher<IConfigListener, ConfigEvent>() {
+		public void dispatch(final IConfigListener listener, final ConfigEvent event) {
+			listener.configLoaded(event);
+		}
+	};
+
 	private final ConfigurationLoader loader;
 	private volatile boolean loaded = false;
 
@@ -180,11 +193,11 @@ public class ConfigurationRegistryImpl implements ConfigurationRegistry {
 	}
 
 	private void fireConfigChanged(final ConfigEvent e) {
-		configListeners.fireEvent("configChanged", e); //$NON-NLS-1$
+		configListeners.fireEvent(CONFIG_CHANGED, e);
 	}
 
 	private void fireConfigLoaded(final ConfigEvent e) {
-		configListeners.fireEvent("configLoaded", e); //$NON-NLS-1$
+		configListeners.fireEvent(CONFIG_LOADED, e);
 	}
 
 	public DocumentType getDocumentType(final String id, final String systemId) {
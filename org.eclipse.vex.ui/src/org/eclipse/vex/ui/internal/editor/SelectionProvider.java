@@ -15,6 +15,7 @@ import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.ISelectionProvider;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.vex.core.internal.core.ListenerList;
+import org.eclipse.vex.core.internal.core.ListenerList.Dispatcher;
 
 /**
  * Implementation of ISelectionProvider. This class is also an ISelectionChangedListener; any events received by
@@ -22,6 +23,12 @@ import org.eclipse.vex.core.internal.core.ListenerList;
  */
 public class SelectionProvider implements ISelectionProvider, ISelectionChangedListener {
 
+	private static final Dispatcher<ISelectionChangedListener, SelectionChangedEvent> SELECTION_CHANGED = new Dispatcher<ISelectionChangedListener, SelectionChangedEvent>() {
+		public void dispatch(final ISelectionChangedListener listener, final SelectionChangedEvent event) {
+			listener.selectionChanged(event);
+		}
+	};
+
 	ISelection selection;
 	private final ListenerList<ISelectionChangedListener, SelectionChangedEvent> listeners = new ListenerList<ISelectionChangedListener, SelectionChangedEvent>(ISelectionChangedListener.class);
 
@@ -37,7 +44,7 @@ public class SelectionProvider implements ISelectionProvider, ISelectionChangedL
 	 */
 	public void fireSelectionChanged(final SelectionChangedEvent e) {
 		selection = e.getSelection();
-		listeners.fireEvent("selectionChanged", e); //$NON-NLS-1$
+		listeners.fireEvent(SELECTION_CHANGED, e);
 	}
 
 	public ISelection getSelection() {
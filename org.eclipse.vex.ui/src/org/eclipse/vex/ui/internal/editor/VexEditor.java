@@ -94,6 +94,7 @@ import org.eclipse.ui.views.properties.IPropertySource;
 import org.eclipse.ui.views.properties.IPropertySourceProvider;
 import org.eclipse.ui.views.properties.PropertySheetPage;
 import org.eclipse.vex.core.internal.core.ListenerList;
+import org.eclipse.vex.core.internal.core.ListenerList.Dispatcher;
 import org.eclipse.vex.core.internal.css.CssWhitespacePolicy;
 import org.eclipse.vex.core.internal.dom.DocumentTextPosition;
 import org.eclipse.vex.core.internal.io.DocumentReader;
@@ -155,6 +156,24 @@ public class VexEditor extends EditorPart {
 	 */
 	public static final String ID = "org.eclipse.vex.ui.internal.editor.VexEditor"; //$NON-NLS-1$
 
+	private static final Dispatcher<IVexEditorListener, VexEditorEvent> DOCUMENT_LOADED = new Dispatcher<IVexEditorListener, VexEditorEvent>() {
+		public void dispatch(final IVexEditorListener listener, final VexEditorEvent event) {
+			listener.documentLoaded(event);
+		}
+	};
+
+	private static final Dispatcher<IVexEditorListener, VexEditorEvent> DOCUMENT_UNLOADED = new Dispatcher<IVexEditorListener, VexEditorEvent>() {
+		public void dispatch(final IVexEditorListener listener, final VexEditorEvent event) {
+			listener.documentUnloaded(event);
+		}
+	};
+
+	private static final Dispatcher<IVexEditorListener, VexEditorEvent> STYLE_CHANGED = new Dispatcher<IVexEditorListener, VexEditorEvent>() {
+		public void dispatch(final IVexEditorListener listener, final VexEditorEvent event) {
+			listener.styleChanged(event);
+		}
+	};
+
 	private final boolean debugging;
 	private final ConfigurationRegistry configurationRegistry;
 	private final VexPreferences preferences;
@@ -700,7 +719,7 @@ public class VexEditor extends EditorPart {
 
 		try {
 			if (vexWidget != null) {
-				vexEditorListeners.fireEvent("documentUnloaded", new VexEditorEvent(this)); //$NON-NLS-1$
+				vexEditorListeners.fireEvent(DOCUMENT_UNLOADED, new VexEditorEvent(this));
 			}
 			if (document != null) {
 				document.removeDocumentListener(documentListener);
@@ -811,7 +830,7 @@ public class VexEditor extends EditorPart {
 			if (provider.canSaveDocument(getEditorInput())) {
 				dirty = true;
 			}
-			vexEditorListeners.fireEvent("documentLoaded", new VexEditorEvent(this)); //$NON-NLS-1$
+			vexEditorListeners.fireEvent(DOCUMENT_LOADED, new VexEditorEvent(this));
 		} catch (final SAXParseException ex) {
 			if (ex.getException() instanceof NoRegisteredDoctypeException) {
 				// TODO doc did not have document type and the user
@@ -869,7 +888,7 @@ public class VexEditor extends EditorPart {
 			vexWidget.setStyleSheet(style.getStyleSheet());
 			preferences.setPreferredStyleId(doctype, style.getUniqueId());
 		}
-		vexEditorListeners.fireEvent("styleChanged", new VexEditorEvent(this)); //$NON-NLS-1$
+		vexEditorListeners.fireEvent(STYLE_CHANGED, new VexEditorEvent(this));
 	}
 
 	/**
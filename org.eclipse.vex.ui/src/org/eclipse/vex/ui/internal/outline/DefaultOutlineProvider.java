@@ -234,7 +234,7 @@ public class DefaultOutlineProvider implements IOutlineProvider, IToolBarContrib
 			final StyledString label = new StyledString(rawLabel);
 			String content = null;
 			// getOutlineContent returns either an IAttribute or an INode
-			final Object outlineElement = styleSheet.getStyles(node).getOutlineContent();
+			final Object outlineElement = styleSheet.getStyles(node).getOutlineContent(node);
 			if (outlineElement != null) {
 				if (outlineElement instanceof IAttribute) {
 					content = ((IAttribute) outlineElement).getValue();
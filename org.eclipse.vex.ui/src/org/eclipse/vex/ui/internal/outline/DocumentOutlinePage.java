@@ -16,6 +16,8 @@
 package org.eclipse.vex.ui.internal.outline;
 
 import java.text.MessageFormat;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
@@ -37,14 +39,15 @@ import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
 import org.eclipse.vex.core.internal.css.StyleSheet;
 import org.eclipse.vex.core.internal.widget.swt.VexWidget;
 import org.eclipse.vex.core.provisional.dom.AttributeChangeEvent;
+import org.eclipse.vex.core.provisional.dom.ChangeSummaryEvent;
 import org.eclipse.vex.core.provisional.dom.ContentChangeEvent;
+import org.eclipse.vex.core.provisional.dom.DocumentEvent;
 import org.eclipse.vex.core.provisional.dom.IAttribute;
+import org.eclipse.vex.core.provisional.dom.IChangeSummaryListener;
 import org.eclipse.vex.core.provisional.dom.IDocument;
-import org.eclipse.vex.core.provisional.dom.IDocumentListener;
 import org.eclipse.vex.core.provisional.dom.IElement;
 import org.eclipse.vex.core.provisional.dom.INode;
 import org.eclipse.vex.core.provisional.dom.IParent;
-import org.eclipse.vex.core.provisional.dom.NamespaceDeclarationChangeEvent;
 import org.eclipse.vex.ui.internal.Messages;
 import org.eclipse.vex.ui.internal.VexPlugin;
 import org.eclipse.vex.ui.internal.config.DocumentType;
@@ -242,7 +245,7 @@ public class DocumentOutlinePage extends Page implements IContentOutlinePage {
 		treeViewer.setUseHashlookup(true);
 		final IDocument document = vexEditor.getVexWidget().getDocument();
 		treeViewer.setInput(document);
-		document.addDocumentListener(documentListener);
+		document.addChangeSummaryListener(changeSummaryListener);
 
 		treeViewer.addSelectionChangedListener(selectionListener);
 	}
@@ -342,45 +345,54 @@ public class DocumentOutlinePage extends Page implements IContentOutlinePage {
 		};
 	};
 
-	private final IDocumentListener documentListener = new IDocumentListener() {
+	/*
+	 * The outline is refreshed once per user action, each changed parent is refreshed only once.
+	 */
+	private final IChangeSummaryListener changeSummaryListener = new IChangeSummaryListener() {
+
+		public void changesCommitted(final ChangeSummaryEvent event) {
+			final Set<IParent> affectedParents = event.getAffectedParents();
+			final Set<IParent> changedContent = new LinkedHashSet<IParent>();
+			for (final DocumentEvent change : event.getChanges()) {
+				if (!affectedParents.contains(change.getParent())) {
+					continue; // the parent has been deleted in the meantime
+				}
+				if (change instanceof AttributeChangeEvent) {
+					attributeChanged((AttributeChangeEvent) change);
+				} else if (change instanceof ContentChangeEvent) {
+					changedContent.add(change.getParent());
+				}
+			}
+
+			for (final IParent outlineElement : changedContent) {
+				if (outlineElement.getDocument().getRootElement().equals(outlineElement)) {
+					getTreeViewer().refresh();
+					return; // the whole outline is refreshed already
+				}
+			}
+			for (final IParent outlineElement : changedContent) {
+				refreshOutlineElement(outlineElement);
+			}
+		}
 
-		public void attributeChanged(final AttributeChangeEvent event) {
+		private void attributeChanged(final AttributeChangeEvent event) {
 
 			// This cast is save because this event is only fired due to the attribute changes of elements.
 			final IElement parent = (IElement) event.getParent();
 			final IAttribute attr = parent.getAttribute(event.getAttributeName());
-			if (vexEditor.getStyle().getStyleSheet().getStyles(parent).getOutlineContent() == attr) {
+			if (vexEditor.getStyle().getStyleSheet().getStyles(parent).getOutlineContent(parent) == attr) {
 				// Parent has to be refreshed, since it uses this attribute as outline content
 				getTreeViewer().refresh(outlineProvider.getOutlineElement(parent));
 			}
 		}
 
-		public void namespaceChanged(final NamespaceDeclarationChangeEvent event) {
-		}
-
-		public void beforeContentDeleted(final ContentChangeEvent event) {
-		}
-
-		public void beforeContentInserted(final ContentChangeEvent event) {
-		}
-
-		public void contentDeleted(final ContentChangeEvent event) {
-			final IParent outlineElement = event.getParent();
-			refreshOutlineElement(outlineElement);
-		}
-
-		public void contentInserted(final ContentChangeEvent event) {
-			final IParent outlineElement = event.getParent();
-			refreshOutlineElement(outlineElement);
-		}
-
 		private void refreshOutlineElement(final IParent outlineElement) {
 			if (outlineElement.getDocument().getRootElement().equals(outlineElement)) {
 				getTreeViewer().refresh();
 			} else if (outlineElement instanceof IElement) {
 				// This SHOULD always be the case
 				final IElement parent = ((IElement) outlineElement).getParentElement();
-				if (parent != null && vexEditor.getStyle().getStyleSheet().getStyles(parent).getOutlineContent() == outlineElement) {
+				if (parent != null && vexEditor.getStyle().getStyleSheet().getStyles(parent).getOutlineContent(parent) == outlineElement) {
 					// Parent has to be refreshed, since it uses this element as content
 					getTreeViewer().refresh(outlineProvider.getOutlineElement(parent));
 				} else {